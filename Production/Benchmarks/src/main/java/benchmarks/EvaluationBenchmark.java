@@ -0,0 +1,100 @@
+package benchmarks;
+
+import engine.Evaluation;
+import engine.Fen;
+import engine.MoveGenerator;
+import engine.Nnue;
+import engine.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+//evaluations per second, the handcrafted terms against the network on vector and on scalar kernels
+//the network has random weights, its speed does not depend on them
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class EvaluationBenchmark {
+
+    @Param({"0", "5"})
+    public int positionIndex; //index into PerftRunner.FENS
+
+    @Param({"256"})
+    public int hidden;
+
+    private Nnue network;
+    private Position plain; //no accumulator to keep up
+    private Position position; //with the network attached
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private int moveCount;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path file = Files.createTempFile("chessbuddy", ".nnue");
+        Nnue.writeRandom(file, hidden, 42L);
+        network = new Nnue(file);
+        file.toFile().deleteOnExit();
+        plain = Fen.parse(PerftRunner.FENS[positionIndex]);
+        position = plain.copy();
+        position.setNetwork(network);
+        moveCount = MoveGenerator.generateLegal(position, moves);
+    }
+
+    @Benchmark
+    public int handcrafted() {
+        return Evaluation.evaluate(plain);
+    }
+
+    @Benchmark
+    public int network() {
+        return network.evaluate(position);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Dchessbuddy.nnue.scalar=true"})
+    public int networkScalar() {
+        return network.evaluate(position);
+    }
+
+    //as in a search: the incremental updates of a move and its take back are part of every evaluation
+    @Benchmark
+    public int handcraftedAfterMove() {
+        int move = nextMove();
+        plain.makeMove(move);
+        int score = Evaluation.evaluate(plain);
+        plain.unmakeMove(move);
+        return score;
+    }
+
+    @Benchmark
+    public int networkAfterMove() {
+        int move = nextMove();
+        position.makeMove(move);
+        int score = network.evaluate(position);
+        position.unmakeMove(move);
+        return score;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Dchessbuddy.nnue.scalar=true"})
+    public int networkScalarAfterMove() {
+        int move = nextMove();
+        position.makeMove(move);
+        int score = network.evaluate(position);
+        position.unmakeMove(move);
+        return score;
+    }
+
+    private int nextMove() {
+        next = next + 1 < moveCount ? next + 1 : 0;
+        return moves[next];
+    }
+
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import engine.MoveGenerator;
+import engine.Position;
+import gui.GameInfo;
+
+import java.util.Random;
+
+public final class GameFixtures {
+
+    private GameFixtures() {}
+
+    //plays seeded random legal moves through the same GameInfo calls the GUI makes
+    public static GameInfo randomGame(int plies, long seed) {
+        Random random = new Random(seed);
+        GameInfo gameInfo = new GameInfo();
+        Position position = Position.fromBoard(GameInfo.INITIAL_BOARD, true, Position.ALL_CASTLING, Position.NO_SQUARE);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for(int ply = 0; ply < plies; ply++) {
+            int count = MoveGenerator.generateLegal(position, moves);
+            if(count == 0) {
+                break;
+            }
+            int move = moves[random.nextInt(count)];
+            gameInfo.makeMove(move);
+            position.makeMove(move);
+            if(position.inCheck()) {
+                gameInfo.setRecentCheck();
+            }
+        }
+        gameInfo.updateFEN();
+        return gameInfo;
+    }
+
+}
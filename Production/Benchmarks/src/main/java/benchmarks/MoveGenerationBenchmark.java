@@ -0,0 +1,41 @@
+package benchmarks;
+
+import engine.Fen;
+import engine.MoveGenerator;
+import engine.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    @Param({"0", "1", "2", "3", "4", "5"})
+    public int positionIndex; //index into PerftRunner.FENS
+
+    private Position position;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final Perft perft = new Perft(3);
+
+    @Setup
+    public void setUp() {
+        position = Fen.parse(PerftRunner.FENS[positionIndex]);
+    }
+
+    @Benchmark
+    public int generateLegal() {
+        return MoveGenerator.generateLegal(position, moves);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long perft3() {
+        return perft.count(position, 3);
+    }
+
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import engine.Move;
+import gui.GameInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotationBenchmark {
+
+    @Param({"40", "200"})
+    public int plies;
+
+    private GameInfo gameInfo;
+    private byte[][] prefixBoard;
+    private final int[] knightFrom = {2, 2}; //Nc3 and Ng3 can both reach e2/e4
+    private final int[] knightTo = {3, 4};
+
+    @Setup
+    public void setUp() {
+        gameInfo = GameFixtures.randomGame(plies, 42L);
+        prefixBoard = new byte[8][8];
+        prefixBoard[0][4] = GameInfo.WHITE_KING;
+        prefixBoard[7][4] = GameInfo.BLACK_KING;
+        prefixBoard[2][2] = GameInfo.WHITE_KNIGHT;
+        prefixBoard[2][6] = GameInfo.WHITE_KNIGHT;
+    }
+
+    @Benchmark
+    public String moveFEN() {
+        return gameInfo.getMoveFEN();
+    }
+
+    @Benchmark
+    public String gamePGN() {
+        return gameInfo.getGamePGN("[Result *]");
+    }
+
+    @Benchmark
+    public String calcPiecePrefix() {
+        return Move.calcPiecePrefix(prefixBoard, knightFrom, knightTo);
+    }
+
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import database.GameDatabase;
+import database.OpeningTree;
+import engine.Fen;
+import engine.Position;
+import gui.GameInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//opening tree queries on a database imported from seeded random games, the start position is in all of them
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpeningTreeBenchmark {
+
+    private static final String[] RESULTS = {"1-0", "1/2-1/2", "0-1"};
+
+    @Param({"2000"})
+    public int games;
+
+    private Path directory;
+    private GameDatabase database;
+    private Position start;
+    private Position afterE4;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chessbuddy");
+        Path pgn = directory.resolve("games.pgn");
+        Random random = new Random(42L);
+        try (BufferedWriter writer = Files.newBufferedWriter(pgn)) {
+            for(int i = 0; i < games; i++) {
+                GameInfo game = GameFixtures.randomGame(80, i);
+                String result = RESULTS[random.nextInt(RESULTS.length)];
+                writer.write(game.getGamePGN("[Result \"" + result + "\"]") + " " + result + "\n\n");
+            }
+        }
+        database = GameDatabase.open(directory.resolve("db"));
+        database.importPgn(pgn, GameDatabase.DEFAULT_MAX_PLIES, (count) -> {});
+        start = Fen.parse(Fen.INITIAL);
+        afterE4 = Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        database.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for(Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public OpeningTree start() {
+        return database.query(start);
+    }
+
+    @Benchmark
+    public OpeningTree afterE4() {
+        return database.query(afterE4);
+    }
+
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import engine.Fen;
+import engine.ParallelSearch;
+import engine.SearchInfo;
+import engine.SearchLimits;
+import engine.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ParallelSearchRunner {
+
+    public static final int HASH_MEGABYTES = 64;
+
+    private ParallelSearchRunner() {}
+
+    //searches the perft positions to a fixed depth at each thread count and prints the speedup curve
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for(int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+        TranspositionTable table = new TranspositionTable(HASH_MEGABYTES);
+        run(table, 1, depth); //warm up the JIT before anything is timed
+        System.out.printf("%7s %14s %9s %12s %9s%n", "threads", "nps", "speedup", "time (ms)", "speedup");
+        double baseNps = 0;
+        double baseTime = 0;
+        for(int threads : threadCounts) {
+            long[] result = run(table, threads, depth);
+            double nps = result[0] * 1000.0 / Math.max(1, result[1]);
+            if(threads == 1) {
+                baseNps = nps;
+                baseTime = result[1];
+            }
+            System.out.printf("%7d %,14.0f %8.2fx %,12d %8.2fx%n", threads, nps, nps / baseNps, result[1],
+                    baseTime / Math.max(1, result[1]));
+        }
+    }
+
+    //total nodes and milliseconds over every position, each searched from a cleared table
+    private static long[] run(TranspositionTable table, int threads, int depth) {
+        long nodes = 0;
+        long time = 0;
+        for(String fen : PerftRunner.FENS) {
+            table.clear();
+            ParallelSearch search = new ParallelSearch(table, threads);
+            long start = System.nanoTime();
+            SearchInfo info = search.search(Fen.parse(fen), SearchLimits.depth(depth), null);
+            time += (System.nanoTime() - start) / 1_000_000;
+            nodes += info.getNodes();
+        }
+        return new long[] {nodes, time};
+    }
+
+}
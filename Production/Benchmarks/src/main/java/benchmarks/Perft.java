@@ -0,0 +1,32 @@
+package benchmarks;
+
+import engine.MoveGenerator;
+import engine.Position;
+
+public final class Perft {
+
+    private final int[][] moveBuffers; //one move list per depth so nothing is allocated while counting
+
+    public Perft(int maxDepth) {
+        moveBuffers = new int[maxDepth + 1][MoveGenerator.MAX_MOVES];
+    }
+
+    public long count(Position position, int depth) {
+        if(depth == 0) {
+            return 1;
+        }
+        int[] moves = moveBuffers[depth];
+        int count = MoveGenerator.generateLegal(position, moves);
+        if(depth == 1) {
+            return count; //bulk counting at the leaves
+        }
+        long nodes = 0;
+        for(int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            nodes += count(position, depth - 1);
+            position.unmakeMove(moves[i]);
+        }
+        return nodes;
+    }
+
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import engine.Fen;
+import engine.Position;
+
+public final class PerftRunner {
+
+    //reference positions and node counts from the Chess Programming Wiki perft results page
+    public static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"};
+    public static final long[][] NODES = { //indexed by depth - 1
+            {20, 400, 8902, 197281, 4865609, 119060324},
+            {48, 2039, 97862, 4085603, 193690690},
+            {14, 191, 2812, 43238, 674624, 11030083, 178633661},
+            {6, 264, 9467, 422333, 15833292},
+            {44, 1486, 62379, 2103487, 89941194},
+            {46, 2079, 89890, 3894594, 164075551}};
+
+    private PerftRunner() {}
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Perft perft = new Perft(maxDepth);
+        boolean passed = true;
+        for(int i = 0; i < FENS.length; i++) {
+            int depth = Math.min(maxDepth, NODES[i].length);
+            Position position = Fen.parse(FENS[i]);
+            long start = System.nanoTime();
+            long nodes = perft.count(position, depth);
+            long elapsed = Math.max(1, System.nanoTime() - start);
+            long expected = NODES[i][depth - 1];
+            boolean ok = nodes == expected;
+            passed &= ok;
+            System.out.printf("%-4s depth %d  %,14d nodes  %,12d nps  %s%n", ok ? "OK" : "FAIL", depth, nodes,
+                    nodes * 1_000_000_000L / elapsed, ok ? FENS[i] : FENS[i] + " (expected " + expected + ")");
+        }
+        if(!passed) {
+            System.exit(1);
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import engine.Fen;
+import engine.MoveGenerator;
+import engine.PolyglotBook;
+import engine.PolyglotKey;
+import engine.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static engine.Moves.*;
+
+//book lookups on a book written from seeded random games, a position in the book and one that is not
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolyglotBookBenchmark {
+
+    private static final int[] PROMOTION_CODE = {0, 0, 2, 1, 3, 4}; //indexed by colorless piece type
+
+    @Param({"100000"})
+    public int plies; //played to write the book, repeated moves are written once
+
+    private PolyglotBook book;
+    private Position inBook;
+    private Position outOfBook;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] weights = new int[MoveGenerator.MAX_MOVES];
+
+    @Setup
+    public void setUp() throws IOException {
+        Path file = Files.createTempFile("chessbuddy", ".bin");
+        writeRandomBook(file, plies, 42L);
+        book = new PolyglotBook(file);
+        file.toFile().deleteOnExit();
+        inBook = Fen.parse(Fen.INITIAL);
+        outOfBook = Fen.parse(PerftRunner.FENS[2]);
+    }
+
+    @Benchmark
+    public int inBook() {
+        return book.probe(inBook, moves, weights);
+    }
+
+    @Benchmark
+    public int outOfBook() {
+        return book.probe(outOfBook, moves, weights);
+    }
+
+    //the positions of random games from the start, each with the move played from it
+    private static void writeRandomBook(Path file, int plies, long seed) throws IOException {
+        Random random = new Random(seed);
+        long[] keys = new long[plies];
+        int[] bookMoves = new int[plies];
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        Position position = Fen.parse(Fen.INITIAL);
+        for(int i = 0; i < plies; i++) {
+            int count = MoveGenerator.generateLegal(position, legal);
+            if(count == 0 || random.nextInt(40) == 0) { //a new game about every 40 plies
+                position = Fen.parse(Fen.INITIAL);
+                count = MoveGenerator.generateLegal(position, legal);
+            }
+            int move = legal[random.nextInt(count)];
+            keys[i] = PolyglotKey.of(position);
+            bookMoves[i] = encode(move);
+            position.makeMove(move);
+        }
+        Integer[] order = new Integer[plies];
+        for(int i = 0; i < plies; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys[a] != keys[b] ? Long.compareUnsigned(keys[a], keys[b])
+                : Integer.compare(bookMoves[a], bookMoves[b]));
+        ByteBuffer buffer = ByteBuffer.allocate(plies * 16); //big endian, as Polyglot writes it
+        int last = -1;
+        for(int i : order) {
+            if(last >= 0 && keys[i] == keys[last] && bookMoves[i] == bookMoves[last]) {
+                continue; //one entry per move
+            }
+            buffer.putLong(keys[i]).putShort((short) bookMoves[i]).putShort((short) 1).putInt(0);
+            last = i;
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    //castling goes to the rook's square
+    private static int encode(int move) {
+        int from = from(move);
+        int to = isCastle(move) ? (from & 56) + (to(move) > from ? 7 : 0) : to(move);
+        return to | from << 6 | PROMOTION_CODE[Position.type(promotion(move))] << 12;
+    }
+
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import engine.Fen;
+import engine.Position;
+import engine.Tablebase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//table probes, needs Syzygy files: java -jar benchmarks.jar TablebaseBenchmark -p directory=<dir>[:<dir>...]
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablebaseBenchmark {
+
+    @Param({""})
+    public String directory;
+
+    @Param({"8/8/8/8/8/2k5/8/K1Q5 w - - 0 1", "8/8/8/4k3/8/8/3KP3/8 w - - 0 1", "8/8/3k4/8/2r5/8/3KR3/8 b - - 0 1"})
+    public String fen;
+
+    private Tablebase tablebase;
+    private Position position;
+
+    @Setup
+    public void setUp() throws IOException {
+        tablebase = new Tablebase(directory);
+        position = Fen.parse(fen);
+        if(tablebase.probeWdl(position) == Tablebase.UNKNOWN) {
+            throw new IllegalStateException("No table for " + fen + " in \"" + directory + "\"");
+        }
+    }
+
+    @Benchmark
+    public int probeWdl() {
+        return tablebase.probeWdl(position);
+    }
+
+    @Benchmark
+    public int probeDtz() {
+        return tablebase.probeDtz(position);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] rootMoves() {
+        return tablebase.rootMoves(position);
+    }
+
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import engine.Tablebase;
+
+//checks how the tables order root moves, above all with the fifty move counter already running
+public final class TablebaseRankRunner {
+
+    //half move clock at the root, then the dtz of a better move and of a worse one, or of two that tie
+    private static final int[][] BETTER = {
+            {10, 5, 0}, //a win in 5 beats a draw
+            {10, 0, -3}, //a draw beats a loss
+            {10, 0, -95}, //even one the fifty move rule saves
+            {95, 3, 10}, //a win that zeroes in time beats one the rule spoils
+            {95, 10, 0}, //which still beats a draw
+            {95, 12, 40}, //and the sooner it zeroes the better
+            {95, -40, -3}, //a loss the rule saves beats one that comes in time
+            {95, -40, -12}}; //and the later it comes the better
+    private static final int[][] TIES = {
+            {10, 5, 7}, //wins that zero in time
+            {10, -3, -9}, //losses that come in time
+            {0, 1, 99},
+            {0, -1, -99}};
+
+    private TablebaseRankRunner() {}
+
+    public static void main(String[] args) {
+        boolean passed = true;
+        for(int[] test : BETTER) {
+            passed &= report(Tablebase.rootRank(test[1], test[0]) > Tablebase.rootRank(test[2], test[0]), test, "beats");
+        }
+        for(int[] test : TIES) {
+            passed &= report(Tablebase.rootRank(test[1], test[0]) == Tablebase.rootRank(test[2], test[0]), test, "ties");
+        }
+        if(!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean report(boolean ok, int[] test, String relation) {
+        System.out.printf("%-4s clock %2d  dtz %+d %s dtz %+d  (%d, %d)%n", ok ? "OK" : "FAIL", test[0], test[1],
+                relation, test[2], Tablebase.rootRank(test[1], test[0]), Tablebase.rootRank(test[2], test[0]));
+        return ok;
+    }
+
+}
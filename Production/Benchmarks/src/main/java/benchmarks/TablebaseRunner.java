@@ -0,0 +1,211 @@
+package benchmarks;
+
+import engine.Fen;
+import engine.MoveGenerator;
+import engine.Position;
+import engine.Tablebase;
+
+import java.io.IOException;
+
+//checks Syzygy probes against KQvK and KRvK solved here by retrograde analysis, every legal position with either
+//side to move and with the colors swapped, needs the real KQvK and KRvK files: TablebaseRunner <directory>
+public final class TablebaseRunner {
+
+    //strong piece, then its longest win in plies as published: mate in 10 and in 16
+    private static final int[][] ENDGAMES = {{Position.WHITE_QUEEN, 19}, {Position.WHITE_ROOK, 31}};
+    private static final String[] NAMES = {"KQvK", "KRvK"};
+    //positions worked out by hand and the verdict they must get
+    private static final String[][] KNOWN = {
+            {"k7/2K5/8/8/8/8/8/1R6 w - - 0 1", "White wins, DTZ 1"}, //Ra1#
+            {"k7/2K5/8/8/8/8/8/1R6 b - - 0 1", "White wins, DTZ 2"}, //Ka7 is forced, then Ra1#
+            {"1r6/8/8/8/8/8/2k5/K7 b - - 0 1", "Black wins, DTZ 1"}, //the first one with the colors swapped
+            {"k7/8/1K6/8/8/8/7Q/8 w - - 0 1", "White wins, DTZ 1"}, //Qh8# or Qb7#
+            {"8/8/8/8/8/3k4/2R5/K7 b - - 0 1", "Draw"}}; //Kxc2
+    private static final int SIZE = 2 * 64 * 64 * 64; //side to move, white king, strong piece, black king
+    private static final int ILLEGAL = 0; //results of the solution
+    private static final int UNSOLVED = 1;
+    private static final int WIN = 2;
+    private static final int LOSS = 3;
+    private static final int DRAW = 4;
+    private static final int TO_DRAW = -1; //successor where the strong piece was taken
+    private static final int MAX_REPORTED = 10; //mismatches printed per endgame
+
+    private TablebaseRunner() {}
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: benchmarks.TablebaseRunner <directory>");
+            System.exit(2);
+        }
+        Tablebase tablebase = new Tablebase(args[0]);
+        boolean passed = true;
+        for(int i = 0; i < ENDGAMES.length; i++) {
+            passed &= check(tablebase, NAMES[i], ENDGAMES[i][0], ENDGAMES[i][1]);
+        }
+        for(String[] known : KNOWN) {
+            String verdict = tablebase.verdict(Fen.parse(known[0]));
+            boolean ok = known[1].equals(verdict);
+            System.out.printf("%-4s %-32s %s%s%n", ok ? "OK" : "FAIL", known[0], verdict, ok ? "" : ", expected " + known[1]);
+            passed &= ok;
+        }
+        if(!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean check(Tablebase tablebase, String name, int piece, int longest) {
+        int[] result = new int[SIZE];
+        int[] plies = new int[SIZE];
+        solve(piece, result, plies);
+        int maxWin = 0;
+        for(int i = 0; i < SIZE; i++) {
+            if(result[i] == WIN) {
+                maxWin = Math.max(maxWin, plies[i]);
+            }
+        }
+        boolean passed = maxWin == longest;
+        System.out.printf("%-4s %s solved, longest win %d plies, published %d%n", passed ? "OK" : "FAIL", name, maxWin, longest);
+        int first = 0;
+        while(result[first] == ILLEGAL) {
+            first++;
+        }
+        if(tablebase.probeWdl(Fen.parse(fen(first, piece, false))) == Tablebase.UNKNOWN) {
+            System.out.printf("FAIL no %s table in \"%s\"%n", name, tablebase.getDirectories());
+            return false;
+        }
+        long positions = 0;
+        int mismatches = 0;
+        for(int i = 0; i < SIZE; i++) {
+            if(result[i] == ILLEGAL) {
+                continue;
+            }
+            int expectedWdl = result[i] == WIN ? Tablebase.WIN : result[i] == LOSS ? Tablebase.LOSS : Tablebase.DRAW;
+            int expectedDtz = result[i] == WIN ? plies[i] : result[i] == LOSS ? -Math.max(1, plies[i]) : 0; //-1 when mated
+            for(boolean swapped : new boolean[] {false, true}) {
+                String fen = fen(i, piece, swapped);
+                Position position = Fen.parse(fen);
+                int wdl = tablebase.probeWdl(position);
+                int dtz = tablebase.probeDtz(position);
+                positions++;
+                if(wdl != expectedWdl || dtz != expectedDtz) {
+                    if(++mismatches <= MAX_REPORTED) {
+                        System.out.printf("FAIL %-32s WDL %d DTZ %d, expected WDL %d DTZ %d%n", fen, wdl, dtz,
+                                expectedWdl, expectedDtz);
+                    }
+                }
+            }
+        }
+        System.out.printf("%-4s %s %,d positions probed, %,d wrong%n", mismatches == 0 ? "OK" : "FAIL", name, positions,
+                mismatches);
+        return passed && mismatches == 0;
+    }
+
+    //every position ends as a win or loss with its distance to mate, or a draw
+    private static void solve(int piece, int[] result, int[] plies) {
+        int[][] successors = new int[SIZE][];
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for(int i = 0; i < SIZE; i++) {
+            Position position = legalPosition(i, piece);
+            if(position == null) {
+                continue;
+            }
+            int count = MoveGenerator.generateLegal(position, moves);
+            successors[i] = new int[count];
+            for(int m = 0; m < count; m++) {
+                position.makeMove(moves[m]);
+                successors[i][m] = position.pieces(piece) == 0 ? TO_DRAW : index(position, piece);
+                position.unmakeMove(moves[m]);
+            }
+            if(count == 0) {
+                result[i] = position.inCheck() ? LOSS : DRAW;
+            } else {
+                result[i] = UNSOLVED;
+            }
+        }
+        boolean changed = true;
+        for(int n = 1; changed; n++) {
+            changed = false;
+            for(int i = 0; i < SIZE; i++) {
+                if(result[i] != UNSOLVED) {
+                    continue;
+                }
+                boolean win = false;
+                boolean loss = true;
+                for(int next : successors[i]) {
+                    if(next == TO_DRAW) {
+                        loss = false;
+                        continue;
+                    }
+                    int r = result[next];
+                    win |= r == LOSS && plies[next] == n - 1;
+                    loss &= r == WIN && plies[next] < n;
+                }
+                if(win || loss) {
+                    result[i] = win ? WIN : LOSS;
+                    plies[i] = n;
+                    changed = true;
+                }
+            }
+        }
+        for(int i = 0; i < SIZE; i++) {
+            if(result[i] == UNSOLVED) {
+                result[i] = DRAW;
+            }
+        }
+    }
+
+    private static int index(Position position, int piece) {
+        return ((position.sideToMove() * 64 + Long.numberOfTrailingZeros(position.pieces(Position.WHITE_KING))) * 64
+                + Long.numberOfTrailingZeros(position.pieces(piece))) * 64
+                + Long.numberOfTrailingZeros(position.pieces(Position.BLACK_KING));
+    }
+
+    //null when squares coincide, the kings touch or the side not to move is in check
+    private static Position legalPosition(int index, int piece) {
+        int whiteKing = index >> 12 & 63;
+        int strong = index >> 6 & 63;
+        int blackKing = index & 63;
+        if(whiteKing == strong || whiteKing == blackKing || strong == blackKing) {
+            return null;
+        }
+        try {
+            return Fen.parse(fen(index, piece, false));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    //swapped gives the strong piece to black and mirrors the ranks, which keeps the result for the side to move
+    private static String fen(int index, int piece, boolean swapped) {
+        char[] board = new char[64];
+        int flip = swapped ? 56 : 0;
+        board[(index >> 12 & 63) ^ flip] = swapped ? 'k' : 'K';
+        board[(index >> 6 & 63) ^ flip] = Position.PIECE_TO_FEN[swapped ? piece + 6 : piece];
+        board[(index & 63) ^ flip] = swapped ? 'K' : 'k';
+        StringBuilder str = new StringBuilder();
+        for(int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for(int col = 0; col < 8; col++) {
+                char c = board[row * 8 + col];
+                if(c == 0) {
+                    empty++;
+                    continue;
+                }
+                if(empty > 0) {
+                    str.append(empty);
+                    empty = 0;
+                }
+                str.append(c);
+            }
+            if(empty > 0) {
+                str.append(empty);
+            }
+            if(row > 0) {
+                str.append('/');
+            }
+        }
+        boolean whiteToMove = (index >> 18 == Position.WHITE) != swapped;
+        return str.append(whiteToMove ? " w - - 0 1" : " b - - 0 1").toString();
+    }
+
+}
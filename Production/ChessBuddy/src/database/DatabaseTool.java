@@ -0,0 +1,57 @@
+package database;
+
+import engine.Fen;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//java -cp <classes> database.DatabaseTool <dir> import <file.pgn>... [-plies n] | query [fen] | compact | stats
+public final class DatabaseTool {
+
+    private DatabaseTool() {}
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: database.DatabaseTool <dir> import <file.pgn>... [-plies n] | query [fen] | compact | stats");
+            System.exit(2);
+        }
+        try (GameDatabase database = GameDatabase.open(Paths.get(args[0]))) {
+            String command = args[1];
+            if(command.equals("import")) {
+                int plies = GameDatabase.DEFAULT_MAX_PLIES;
+                List<Path> files = new ArrayList<>();
+                for(int i = 2; i < args.length; i++) {
+                    if(args[i].equals("-plies")) {
+                        plies = Integer.parseInt(args[++i]);
+                    } else {
+                        files.add(Paths.get(args[i]));
+                    }
+                }
+                for(Path file : files) {
+                    int imported = database.importPgn(file, plies,
+                            (count) -> System.err.printf("\r%,d games", count));
+                    System.err.printf("\r%s: %,d games imported, %,d skipped%n", file, imported, database.getSkipped());
+                }
+            } else if(command.equals("query")) {
+                String fen = args.length > 2 ? String.join(" ", Arrays.copyOfRange(args, 2, args.length)) : Fen.INITIAL;
+                OpeningTree tree = database.query(Fen.parse(fen));
+                System.out.printf("%,d games%n", tree.getGames());
+                for(OpeningTree.TreeMove move : tree.getMoves()) {
+                    System.out.printf("%-8s %,10d  %5.1f%%  +%d =%d -%d%n", move.getSan(), move.getGames(),
+                            move.getWhiteScore() * 100, move.getWhiteWins(), move.getDraws(), move.getBlackWins());
+                }
+            } else if(command.equals("compact")) {
+                database.compact();
+            } else if(!command.equals("stats")) {
+                throw new IllegalArgumentException("Unknown command " + command);
+            }
+            System.out.printf("%,d games, %,d positions in %d segments%n", database.getGameCount(),
+                    database.getPositionCount(), database.getSegmentCount());
+        }
+    }
+
+}
@@ -0,0 +1,502 @@
+package database;
+
+import engine.Fen;
+import engine.MoveGenerator;
+import engine.Moves;
+import engine.PgnGame;
+import engine.PgnReader;
+import engine.Position;
+import engine.San;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+//games as 2 byte moves plus a Zobrist keyed position index, kept as sorted segments that are mapped and merged like an LSM tree
+public final class GameDatabase implements Closeable {
+
+    public static final int DEFAULT_MAX_PLIES = 400; //positions indexed per game, past that only the moves are kept
+    public static final int MAX_LISTED_GAMES = 200; //games returned with a tree
+    static final int RECORD_BYTES = 24; //moves offset, header offset, header length, plies, result
+    static final int NO_MOVE = 0xFFFF; //move of the entry for the position a game ended in
+    static final int WHITE_WINS = 0;
+    static final int DRAW = 1;
+    static final int BLACK_WINS = 2;
+    static final int UNKNOWN = 3;
+    private static final String[] RESULTS = {"1-0", "1/2-1/2", "0-1", "*"};
+    private static final String[] TAGS = {"Event", "Site", "Date", "Round", "White", "Black", "FEN"}; //kept per game
+    private static final int RUN_ENTRIES = 1 << 22; //entries sorted in memory before a segment is written, 64 MB
+    private static final int MAX_SEGMENTS = 8; //more than this are merged after an import
+    private static final String SEGMENT_PREFIX = "positions-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+
+    private final Path directory;
+    private final FileChannel games;
+    private final FileChannel moves;
+    private final FileChannel headers;
+    private volatile List<IndexSegment> segments;
+    private volatile int gameCount;
+    private int segmentSequence;
+    private int skipped; //games of the last import that could not be read
+
+    //import buffers, only touched while importing
+    private long[] keys;
+    private long[] payloads;
+    private int entryCount;
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(1 << 16);
+    private final ByteBuffer moveBuffer = ByteBuffer.allocate(1 << 20);
+    private final ByteBuffer headerBuffer = ByteBuffer.allocate(1 << 20);
+    private long movesEnd;
+    private long headersEnd;
+
+    private GameDatabase(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        games = openChannel(directory.resolve("games.idx"));
+        moves = openChannel(directory.resolve("moves.dat"));
+        headers = openChannel(directory.resolve("headers.dat"));
+        gameCount = (int) (games.size() / RECORD_BYTES);
+        List<IndexSegment> opened = new ArrayList<>();
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for(Path path : stream) {
+                String name = path.getFileName().toString();
+                if(name.endsWith(".tmp")) {
+                    Files.delete(path); //left by an import or merge that did not finish
+                } else if(name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    paths.add(path);
+                }
+            }
+        }
+        paths.sort((a, b) -> Integer.compare(sequenceOf(a), sequenceOf(b)));
+        for(Path path : paths) {
+            opened.add(new IndexSegment(path));
+            segmentSequence = Math.max(segmentSequence, sequenceOf(path) + 1);
+        }
+        segments = Collections.unmodifiableList(opened);
+    }
+
+    //creates the directory and its files when they do not exist
+    public static GameDatabase open(Path directory) throws IOException {
+        return new GameDatabase(directory);
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static int sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    public long getPositionCount() {
+        long count = 0;
+        for(IndexSegment segment : segments) {
+            count += segment.size();
+        }
+        return count;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    //adds every readable game of the file, progress gets the running count every few thousand games
+    public synchronized int importPgn(Path pgn, int maxPlies, IntConsumer progress) throws IOException {
+        keys = new long[RUN_ENTRIES];
+        payloads = new long[RUN_ENTRIES];
+        entryCount = 0;
+        skipped = 0;
+        movesEnd = moves.size();
+        headersEnd = headers.size();
+        int imported = 0;
+        try (PgnReader reader = new PgnReader(pgn)) {
+            PgnGame game;
+            while((game = reader.next()) != null) {
+                if(game.hasError()) {
+                    skipped++;
+                    continue;
+                }
+                addGame(game, maxPlies);
+                imported++;
+                if(progress != null && imported % 10_000 == 0) {
+                    progress.accept(imported);
+                }
+            }
+            writeRun();
+        } finally {
+            keys = null; //64 MB each, only needed while importing
+            payloads = null;
+        }
+        if(segments.size() > MAX_SEGMENTS) {
+            compact();
+        }
+        return imported;
+    }
+
+    private void addGame(PgnGame game, int maxPlies) throws IOException {
+        int id = gameCount + pendingGames();
+        int result = resultCode(game.getResult());
+        int[] gameMoves = game.getMoves();
+        String startFen = game.getStartFen();
+        byte[] header = headerText(game).getBytes(StandardCharsets.UTF_8);
+        if(recordBuffer.remaining() < RECORD_BYTES) {
+            flushGames();
+        }
+        recordBuffer.putLong(movesEnd).putLong(headersEnd).putInt(header.length).putShort((short) gameMoves.length)
+                .put((byte) result).put((byte) 0);
+        for(int move : gameMoves) {
+            if(moveBuffer.remaining() < 2) {
+                drain(moves, moveBuffer);
+            }
+            moveBuffer.putShort((short) encode(move));
+        }
+        movesEnd += 2L * gameMoves.length;
+        if(headerBuffer.remaining() < header.length) {
+            drain(headers, headerBuffer);
+        }
+        if(header.length > headerBuffer.capacity()) {
+            headers.write(ByteBuffer.wrap(header), headers.size());
+        } else {
+            headerBuffer.put(header);
+        }
+        headersEnd += header.length;
+        Position position = startFen != null ? Fen.parse(startFen) : Fen.parse(Fen.INITIAL);
+        int plies = Math.min(gameMoves.length, maxPlies);
+        for(int i = 0; i < plies; i++) {
+            addEntry(position.key(), encode(gameMoves[i]), id, result);
+            position.makeMove(gameMoves[i]);
+        }
+        if(plies == gameMoves.length) {
+            addEntry(position.key(), NO_MOVE, id, result);
+        }
+    }
+
+    private int pendingGames() {
+        return recordBuffer.position() / RECORD_BYTES;
+    }
+
+    private void addEntry(long key, int move, int id, int result) throws IOException {
+        if(entryCount == keys.length) {
+            writeRun();
+        }
+        keys[entryCount] = key;
+        payloads[entryCount] = payload(move, id, result);
+        entryCount++;
+    }
+
+    //sorted by move first, so a position's entries group by continuation and then by game
+    static long payload(int move, int id, int result) {
+        return (long) move << 40 | (id & 0xFFFFFFFFL) << 8 | result;
+    }
+
+    private void flushGames() throws IOException {
+        drain(moves, moveBuffer);
+        drain(headers, headerBuffer);
+        int pending = pendingGames();
+        drain(games, recordBuffer);
+        gameCount += pending; //published once the moves and headers it points to are on disk
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        long position = channel.size();
+        while(buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+
+    //the games go to disk before the segment that refers to them becomes visible
+    private void writeRun() throws IOException {
+        flushGames();
+        if(entryCount == 0) {
+            return;
+        }
+        sort(keys, payloads, 0, entryCount - 1);
+        Path path = directory.resolve(SEGMENT_PREFIX + segmentSequence++ + SEGMENT_SUFFIX);
+        Path temp = Paths.get(path + ".tmp");
+        IndexSegment.write(temp, keys, payloads, entryCount);
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        List<IndexSegment> updated = new ArrayList<>(segments);
+        updated.add(new IndexSegment(path));
+        segments = Collections.unmodifiableList(updated);
+        entryCount = 0;
+    }
+
+    //merges every segment into one, queries keep using the old ones until the new one is in place
+    public synchronized void compact() throws IOException {
+        List<IndexSegment> old = segments;
+        if(old.size() < 2) {
+            return;
+        }
+        Path path = directory.resolve(SEGMENT_PREFIX + segmentSequence++ + SEGMENT_SUFFIX);
+        Path temp = Paths.get(path + ".tmp");
+        PriorityQueue<long[]> heads = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                : Long.compare(a[1], b[1])); //key, payload, segment, index
+        for(int i = 0; i < old.size(); i++) {
+            if(old.get(i).size() > 0) {
+                heads.add(new long[] {old.get(i).key(0), old.get(i).payload(0), i, 0});
+            }
+        }
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            while(!heads.isEmpty()) {
+                long[] head = heads.poll();
+                if(buffer.remaining() < IndexSegment.ENTRY_BYTES) {
+                    IndexSegment.drain(out, buffer);
+                }
+                buffer.putLong(head[0]).putLong(head[1]);
+                IndexSegment segment = old.get((int) head[2]);
+                long next = head[3] + 1;
+                if(next < segment.size()) {
+                    head[0] = segment.key(next);
+                    head[1] = segment.payload(next);
+                    head[3] = next;
+                    heads.add(head);
+                }
+            }
+            IndexSegment.drain(out, buffer);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        segments = Collections.singletonList(new IndexSegment(path));
+        for(IndexSegment segment : old) {
+            segment.close();
+            Files.delete(segment.getPath()); //a running query keeps its mapping until it is done
+        }
+    }
+
+    //continuations of the position with their results, and the first games that reached it
+    public OpeningTree query(Position position) {
+        long start = System.nanoTime();
+        long key = position.key();
+        Map<Integer, long[]> counts = new LinkedHashMap<>(); //move code to white wins, draws, black wins, unknown
+        int[] ids = new int[MAX_LISTED_GAMES];
+        int listed = 0;
+        long total = 0;
+        for(IndexSegment segment : segments) {
+            long size = segment.size();
+            long i = segment.lowerBound(key);
+            int runMove = -1;
+            long[] run = null;
+            for(; i < size && segment.key(i) == key; i++) {
+                long payload = segment.payload(i);
+                int move = (int) (payload >>> 40) & 0xFFFF;
+                if(move != runMove) { //one map lookup per continuation, the entries are grouped by move
+                    runMove = move;
+                    run = counts.computeIfAbsent(move, (m) -> new long[4]);
+                }
+                run[(int) (payload & 3)]++;
+                if(listed < ids.length) {
+                    ids[listed++] = (int) (payload >>> 8);
+                }
+                total++;
+            }
+        }
+        List<OpeningTree.TreeMove> tree = new ArrayList<>();
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int legalCount = MoveGenerator.generateLegal(position, legal);
+        Position scratch = position.copy();
+        for(Map.Entry<Integer, long[]> entry : counts.entrySet()) {
+            if(entry.getKey() == NO_MOVE) {
+                continue;
+            }
+            int move = decode(entry.getKey(), legal, legalCount);
+            String san = move == Moves.NONE ? "?" : San.toSan(scratch, move);
+            long[] c = entry.getValue();
+            tree.add(new OpeningTree.TreeMove(move, san, c[WHITE_WINS], c[DRAW], c[BLACK_WINS], c[UNKNOWN]));
+        }
+        tree.sort((a, b) -> Long.compare(b.getGames(), a.getGames()));
+        int[] gameIds = Arrays.copyOf(ids, listed);
+        Arrays.sort(gameIds);
+        return new OpeningTree(key, tree, total, gameIds, System.nanoTime() - start);
+    }
+
+    //the stored game as if it was read from a PGN file, with the id as its offset
+    public PgnGame getGame(int id) throws IOException {
+        ByteBuffer record = readRecord(id);
+        int plies = record.getShort(20) & 0xFFFF;
+        String result = RESULTS[record.get(22)];
+        Map<String, String> tags = readTags(record, result);
+        ByteBuffer codes = ByteBuffer.allocate(plies * 2);
+        readFully(moves, codes, record.getLong(0));
+        Position position = tags.containsKey("FEN") ? Fen.parse(tags.get("FEN")) : Fen.parse(Fen.INITIAL);
+        int[] gameMoves = new int[plies];
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        for(int i = 0; i < plies; i++) {
+            int move = decode(codes.getShort(i * 2) & 0xFFFF, legal, MoveGenerator.generateLegal(position, legal));
+            if(move == Moves.NONE) {
+                return new PgnGame(id, tags, Arrays.copyOf(gameMoves, i), result, "Damaged game " + id);
+            }
+            gameMoves[i] = move;
+            position.makeMove(move);
+        }
+        return new PgnGame(id, tags, gameMoves, result, null);
+    }
+
+    //players, result, event and date without decoding the moves, for game lists
+    public String getDescription(int id) throws IOException {
+        ByteBuffer record = readRecord(id);
+        String result = RESULTS[record.get(22)];
+        return new PgnGame(id, readTags(record, result), new int[0], result, null).getDescription();
+    }
+
+    private ByteBuffer readRecord(int id) throws IOException {
+        if(id < 0 || id >= gameCount) {
+            throw new IllegalArgumentException("No game " + id);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        readFully(games, record, (long) id * RECORD_BYTES);
+        return record;
+    }
+
+    private Map<String, String> readTags(ByteBuffer record, String result) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(record.getInt(16));
+        readFully(headers, header, record.getLong(8));
+        Map<String, String> tags = parseHeader(new String(header.array(), StandardCharsets.UTF_8));
+        tags.put("Result", result);
+        return tags;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + channel);
+            }
+        }
+    }
+
+    private static String headerText(PgnGame game) {
+        StringBuilder str = new StringBuilder();
+        for(String tag : TAGS) {
+            String value = game.getTags().get(tag);
+            if(value != null) {
+                str.append(tag).append('=').append(value.replace('\t', ' ').replace('\n', ' ')).append('\t');
+            }
+        }
+        return str.toString();
+    }
+
+    private static Map<String, String> parseHeader(String text) {
+        Map<String, String> tags = new HashMap<>();
+        for(String field : text.split("\t")) {
+            int eq = field.indexOf('=');
+            if(eq > 0) {
+                tags.put(field.substring(0, eq), field.substring(eq + 1));
+            }
+        }
+        return tags;
+    }
+
+    static int resultCode(String result) {
+        for(int i = 0; i < RESULTS.length; i++) {
+            if(RESULTS[i].equals(result)) {
+                return i;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    //from, to and the promoted piece type in 16 bits, the rest follows from the position
+    static int encode(int move) {
+        return Moves.from(move) | Moves.to(move) << 6 | Position.type(Moves.promotion(move)) << 12;
+    }
+
+    static int decode(int code, int[] legal, int count) {
+        for(int i = 0; i < count; i++) {
+            if(encode(legal[i]) == code) {
+                return legal[i];
+            }
+        }
+        return Moves.NONE;
+    }
+
+    //quicksort of the two arrays by key then payload, insertion sort for the short ranges
+    private static void sort(long[] keys, long[] payloads, int low, int high) {
+        while(high - low > 16) {
+            int mid = (low + high) >>> 1;
+            long pivotKey = keys[mid];
+            long pivotPayload = payloads[mid];
+            int i = low;
+            int j = high;
+            while(i <= j) {
+                while(less(keys[i], payloads[i], pivotKey, pivotPayload)) {
+                    i++;
+                }
+                while(less(pivotKey, pivotPayload, keys[j], payloads[j])) {
+                    j--;
+                }
+                if(i <= j) {
+                    swap(keys, payloads, i++, j--);
+                }
+            }
+            if(j - low < high - i) { //recurse into the smaller half so the stack stays shallow
+                sort(keys, payloads, low, j);
+                low = i;
+            } else {
+                sort(keys, payloads, i, high);
+                high = j;
+            }
+        }
+        for(int i = low + 1; i <= high; i++) {
+            for(int j = i; j > low && less(keys[j], payloads[j], keys[j - 1], payloads[j - 1]); j--) {
+                swap(keys, payloads, j, j - 1);
+            }
+        }
+    }
+
+    private static boolean less(long key, long payload, long otherKey, long otherPayload) {
+        return key < otherKey || key == otherKey && payload < otherPayload;
+    }
+
+    private static void swap(long[] keys, long[] payloads, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long payload = payloads[i];
+        payloads[i] = payloads[j];
+        payloads[j] = payload;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for(IndexSegment segment : segments) {
+            segment.close();
+        }
+        games.close();
+        moves.close();
+        headers.close();
+    }
+
+}
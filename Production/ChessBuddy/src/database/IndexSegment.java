@@ -0,0 +1,96 @@
+package database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//one sorted run of position entries, mapped read-only, each entry is a Zobrist key and a payload of 8 bytes each
+final class IndexSegment implements Closeable {
+
+    static final int ENTRY_BYTES = 16;
+    private static final int CHUNK_SHIFT = 30; //mapped in 1 GB chunks, entries never straddle two
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long entries;
+
+    IndexSegment(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        entries = size / ENTRY_BYTES;
+        chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >> CHUNK_SHIFT)];
+        for(int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << CHUNK_SHIFT, size - start));
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long size() {
+        return entries;
+    }
+
+    long key(long index) {
+        long offset = index * ENTRY_BYTES;
+        return chunks[(int) (offset >> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+    }
+
+    long payload(long index) {
+        long offset = index * ENTRY_BYTES + 8;
+        return chunks[(int) (offset >> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+    }
+
+    //first entry whose key is not below the given one
+    long lowerBound(long key) {
+        long low = 0;
+        long high = entries;
+        while(low < high) {
+            long mid = (low + high) >>> 1;
+            if(key(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //writes entries already sorted by key and payload
+    static void write(Path path, long[] keys, long[] payloads, int count) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            for(int i = 0; i < count; i++) {
+                if(buffer.remaining() < ENTRY_BYTES) {
+                    drain(out, buffer);
+                }
+                buffer.putLong(keys[i]).putLong(payloads[i]);
+            }
+            drain(out, buffer);
+        }
+    }
+
+    static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
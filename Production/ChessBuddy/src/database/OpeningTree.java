@@ -0,0 +1,93 @@
+package database;
+
+import java.util.List;
+
+//what was played from one position, with the results of the games that played it
+public final class OpeningTree {
+
+    private final long key;
+    private final List<TreeMove> moves;
+    private final long games; //every game that reached the position, also those that ended there
+    private final int[] gameIds; //the first games that reached it, by id
+    private final long nanos; //time the query took
+
+    OpeningTree(long key, List<TreeMove> moves, long games, int[] gameIds, long nanos) {
+        this.key = key;
+        this.moves = moves;
+        this.games = games;
+        this.gameIds = gameIds;
+        this.nanos = nanos;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    public List<TreeMove> getMoves() {
+        return moves;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public int[] getGameIds() {
+        return gameIds;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    //one continuation, move is Moves.NONE when it is not legal in the asked position (a key collision)
+    public static final class TreeMove {
+
+        private final int move;
+        private final String san;
+        private final long whiteWins;
+        private final long draws;
+        private final long blackWins;
+        private final long unknown; //games without a result
+
+        TreeMove(int move, String san, long whiteWins, long draws, long blackWins, long unknown) {
+            this.move = move;
+            this.san = san;
+            this.whiteWins = whiteWins;
+            this.draws = draws;
+            this.blackWins = blackWins;
+            this.unknown = unknown;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public String getSan() {
+            return san;
+        }
+
+        public long getGames() {
+            return whiteWins + draws + blackWins + unknown;
+        }
+
+        public long getWhiteWins() {
+            return whiteWins;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getBlackWins() {
+            return blackWins;
+        }
+
+        //white's score over the decided games, 0.5 when there are none
+        public double getWhiteScore() {
+            long decided = whiteWins + draws + blackWins;
+            return decided == 0 ? 0.5 : (whiteWins + draws / 2.0) / decided;
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package engine;
+
+import static engine.Position.*;
+
+//hidden layer sums of a network for both sides, kept by Position through every put, remove and shift
+final class Accumulator {
+
+    final Nnue network;
+    final short[][] values; //[side][neuron], int16 wraps exactly so every update can be undone by its opposite
+
+    Accumulator(Nnue network) {
+        this.network = network;
+        values = new short[2][network.getHidden()];
+    }
+
+    Accumulator copy() {
+        Accumulator accumulator = new Accumulator(network);
+        System.arraycopy(values[WHITE], 0, accumulator.values[WHITE], 0, values[WHITE].length);
+        System.arraycopy(values[BLACK], 0, accumulator.values[BLACK], 0, values[BLACK].length);
+        return accumulator;
+    }
+
+    //from the biases up over every piece on the board, when a network is attached
+    void refresh(Position position) {
+        int hidden = network.getHidden();
+        for(int side = WHITE; side <= BLACK; side++) {
+            System.arraycopy(network.biases(), 0, values[side], 0, hidden);
+            for(long bb = position.occupied(); bb != 0; bb &= bb - 1) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                NnueKernels.add(values[side], network.featureWeights(), network.rowOffset(side, position.pieceAt(sq), sq), hidden);
+            }
+        }
+    }
+
+    void add(int piece, int sq) {
+        int hidden = network.getHidden();
+        NnueKernels.add(values[WHITE], network.featureWeights(), network.rowOffset(WHITE, piece, sq), hidden);
+        NnueKernels.add(values[BLACK], network.featureWeights(), network.rowOffset(BLACK, piece, sq), hidden);
+    }
+
+    void remove(int piece, int sq) {
+        int hidden = network.getHidden();
+        NnueKernels.subtract(values[WHITE], network.featureWeights(), network.rowOffset(WHITE, piece, sq), hidden);
+        NnueKernels.subtract(values[BLACK], network.featureWeights(), network.rowOffset(BLACK, piece, sq), hidden);
+    }
+
+    //one pass per side instead of a remove and an add
+    void move(int piece, int from, int to) {
+        int hidden = network.getHidden();
+        NnueKernels.addSubtract(values[WHITE], network.featureWeights(), network.rowOffset(WHITE, piece, to),
+                network.rowOffset(WHITE, piece, from), hidden);
+        NnueKernels.addSubtract(values[BLACK], network.featureWeights(), network.rowOffset(BLACK, piece, to),
+                network.rowOffset(BLACK, piece, from), hidden);
+    }
+
+}
@@ -0,0 +1,140 @@
+package engine;
+
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_4 = RANK_1 << 24;
+    public static final long RANK_5 = RANK_1 << 32;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    public static final int NORTH = 0; //ray directions, the first four increase the square index
+    public static final int NORTH_EAST = 1;
+    public static final int EAST = 2;
+    public static final int NORTH_WEST = 3;
+    public static final int SOUTH = 4;
+    public static final int SOUTH_WEST = 5;
+    public static final int WEST = 6;
+    public static final int SOUTH_EAST = 7;
+    private static final int[][] DIRECTIONS = {{1,0},{1,1},{0,1},{1,-1},{-1,0},{-1,-1},{0,-1},{-1,1}}; //{row,col}
+
+    public static final long[] KNIGHT_ATTACKS = new long[64]; //precomputed attack tables
+    public static final long[] KING_ATTACKS = new long[64];
+    public static final long[][] PAWN_ATTACKS = new long[2][64]; //[color][square]
+    public static final long[][] RAYS = new long[8][64]; //[direction][square]
+    public static final long[][] BETWEEN = new long[64][64]; //squares strictly between two aligned squares
+    public static final long[][] LINE = new long[64][64]; //full line through two aligned squares
+
+    static {
+        int[][] knightOffsets = {{1,2},{2,1},{-1,2},{-2,1},{1,-2},{2,-1},{-1,-2},{-2,-1}};
+        int[][] kingOffsets = {{1,1},{-1,1},{1,-1},{-1,-1},{1,0},{-1,0},{0,-1},{0,1}};
+        for(int sq = 0; sq < 64; sq++) {
+            int row = row(sq);
+            int col = col(sq);
+            KNIGHT_ATTACKS[sq] = offsets(row, col, knightOffsets);
+            KING_ATTACKS[sq] = offsets(row, col, kingOffsets);
+            PAWN_ATTACKS[Position.WHITE][sq] = offsets(row, col, new int[][]{{1,-1},{1,1}});
+            PAWN_ATTACKS[Position.BLACK][sq] = offsets(row, col, new int[][]{{-1,-1},{-1,1}});
+            for(int dir = 0; dir < 8; dir++) {
+                long ray = 0L;
+                int r = row + DIRECTIONS[dir][0];
+                int c = col + DIRECTIONS[dir][1];
+                while(withinBounds(r, c)) {
+                    ray |= bit(square(r, c));
+                    r += DIRECTIONS[dir][0];
+                    c += DIRECTIONS[dir][1];
+                }
+                RAYS[dir][sq] = ray;
+            }
+        }
+        for(int from = 0; from < 64; from++) {
+            for(int dir = 0; dir < 8; dir++) {
+                long ray = RAYS[dir][from];
+                long walked = 0L;
+                while(ray != 0) {
+                    int to = dir < SOUTH ? Long.numberOfTrailingZeros(ray) : 63 - Long.numberOfLeadingZeros(ray);
+                    BETWEEN[from][to] = walked;
+                    LINE[from][to] = RAYS[dir][from] | RAYS[(dir + 4) % 8][from] | bit(from);
+                    walked |= bit(to);
+                    ray &= ~bit(to);
+                }
+            }
+        }
+    }
+
+    private Bitboards() {}
+
+    private static long offsets(int row, int col, int[][] offsets) {
+        long attacks = 0L;
+        for(int[] offset : offsets) {
+            if(withinBounds(row + offset[0], col + offset[1])) {
+                attacks |= bit(square(row + offset[0], col + offset[1]));
+            }
+        }
+        return attacks;
+    }
+
+    public static boolean withinBounds(int row, int col) {
+        return (row < 8 && row > -1) && (col < 8 && col > -1);
+    }
+
+    public static int square(int row, int col) {
+        return (row << 3) | col;
+    }
+
+    public static int row(int sq) {
+        return sq >>> 3;
+    }
+
+    public static int col(int sq) {
+        return sq & 7;
+    }
+
+    public static long bit(int sq) {
+        return 1L << sq;
+    }
+
+    public static int first(long bb) {
+        return Long.numberOfTrailingZeros(bb);
+    }
+
+    public static int count(long bb) {
+        return Long.bitCount(bb);
+    }
+
+    private static long positiveRay(int dir, int sq, long occupied) {
+        long attacks = RAYS[dir][sq];
+        long blockers = attacks & occupied;
+        if(blockers != 0) {
+            attacks ^= RAYS[dir][Long.numberOfTrailingZeros(blockers)];
+        }
+        return attacks;
+    }
+
+    private static long negativeRay(int dir, int sq, long occupied) {
+        long attacks = RAYS[dir][sq];
+        long blockers = attacks & occupied;
+        if(blockers != 0) {
+            attacks ^= RAYS[dir][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return attacks;
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        return positiveRay(NORTH, sq, occupied) | positiveRay(EAST, sq, occupied)
+                | negativeRay(SOUTH, sq, occupied) | negativeRay(WEST, sq, occupied);
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        return positiveRay(NORTH_EAST, sq, occupied) | positiveRay(NORTH_WEST, sq, occupied)
+                | negativeRay(SOUTH_WEST, sq, occupied) | negativeRay(SOUTH_EAST, sq, occupied);
+    }
+
+    public static long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+
+}
@@ -0,0 +1,33 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+//lists the book moves of a position with their weights, java -cp <classes> engine.BookProbe <book.bin> [fen]
+public final class BookProbe {
+
+    private BookProbe() {}
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: engine.BookProbe <book.bin> [fen]");
+            System.exit(2);
+        }
+        PolyglotBook book = new PolyglotBook(Paths.get(args[0]));
+        Position position = Fen.parse(args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+                : Fen.INITIAL);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] weights = new int[MoveGenerator.MAX_MOVES];
+        int count = book.probe(position, moves, weights);
+        int total = 0;
+        for(int i = 0; i < count; i++) {
+            total += weights[i];
+        }
+        System.out.printf("%,d entries, key %016x%n", book.size(), PolyglotKey.of(position));
+        for(int i = 0; i < count; i++) {
+            System.out.printf("%-8s %6d  %5.1f%%%n", San.toSan(position, moves[i]), weights[i], weights[i]*100.0/total);
+        }
+    }
+
+}
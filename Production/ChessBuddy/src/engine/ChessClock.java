@@ -0,0 +1,137 @@
+package engine;
+
+//both sides' time in a game played on the board, kept in nanoseconds from System.nanoTime
+//only the moment a turn began is stored, the time left is worked out when it is read so nothing drifts
+//FISCHER adds the increment after every move, BRONSTEIN gives back the time used up to the increment,
+//DELAY lets the increment pass at the start of every turn before the clock runs down
+public final class ChessClock {
+
+    public static final int FISCHER = 0;
+    public static final int BRONSTEIN = 1;
+    public static final int DELAY = 2;
+    public static final String[] MODE_NAMES = {"Fischer", "Bronstein", "Delay"};
+    public static final long TENTHS_BELOW = 10_000_000_000L; //tenths of a second are shown under ten seconds
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    private static final int STOPPED = -1;
+
+    private final long baseNanos;
+    private final long incrementNanos;
+    private final int mode;
+    private final long[] remaining; //indexed by Position.WHITE and BLACK, as of the start of the running turn
+    private int running = STOPPED; //side whose time runs
+    private long started; //System.nanoTime when the running turn began
+
+    public ChessClock(long baseMillis, long incrementMillis, int mode) {
+        this.baseNanos = baseMillis * NANOS_PER_MILLI;
+        this.incrementNanos = incrementMillis * NANOS_PER_MILLI;
+        this.mode = mode;
+        remaining = new long[] {baseNanos, baseNanos};
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    public boolean isRunning() {
+        return running != STOPPED;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    public void start(int side, long now) {
+        running = side;
+        started = now;
+    }
+
+    //time left for a side, never below zero
+    public long remainingNanos(int side, long now) {
+        if(side != running) {
+            return remaining[side];
+        }
+        return Math.max(0, remaining[side] - charged(now - started));
+    }
+
+    public long remainingMillis(int side, long now) {
+        return remainingNanos(side, now) / NANOS_PER_MILLI;
+    }
+
+    public boolean isFlagged(int side, long now) {
+        return side == running && remainingNanos(side, now) == 0;
+    }
+
+    //ends the running turn and starts the other side's, false when the flag fell before the move
+    public boolean press(long now) {
+        int side = running;
+        long used = Math.max(0, now - started);
+        long left = remaining[side] - charged(used);
+        if(left <= 0) {
+            remaining[side] = 0;
+            running = STOPPED;
+            return false;
+        }
+        switch(mode) {
+            case FISCHER:
+                left += incrementNanos;
+                break;
+            case BRONSTEIN:
+                left += Math.min(used, incrementNanos);
+                break;
+            default:
+                break; //the delay was never charged
+        }
+        remaining[side] = left;
+        start(side ^ 1, now);
+        return true;
+    }
+
+    //hands the turn to a side without a press, after a move is taken back
+    public void switchTo(int side, long now) {
+        stop(now);
+        start(side, now);
+    }
+
+    public void stop(long now) {
+        if(running != STOPPED) {
+            remaining[running] = remainingNanos(running, now);
+            running = STOPPED;
+        }
+    }
+
+    private long charged(long used) {
+        return mode == DELAY ? Math.max(0, used - incrementNanos) : used;
+    }
+
+    //what a clock face shows changes only when this does: tenths under ten seconds, whole seconds above
+    public static long shownUnit(long nanos) {
+        return nanos < TENTHS_BELOW ? nanos / 100_000_000 : -((nanos + 999_999_999) / 1_000_000_000);
+    }
+
+    //1:05:09, 5:09 or 9.5 for the clock face
+    public static String format(long nanos) {
+        long unit = shownUnit(nanos);
+        if(unit >= 0) {
+            return unit / 10 + "." + unit % 10;
+        }
+        long seconds = -unit;
+        String minutes = seconds >= 3600 ? seconds / 3600 + ":" + pad(seconds / 60 % 60) : String.valueOf(seconds / 60);
+        return minutes + ":" + pad(seconds % 60);
+    }
+
+    //h:mm:ss as used by the [%clk] command in PGN comments
+    public static String formatPgn(long millis) {
+        long seconds = millis / 1000;
+        return seconds / 3600 + ":" + pad(seconds / 60 % 60) + ":" + pad(seconds % 60);
+    }
+
+    //the PGN TimeControl tag, base and increment in seconds
+    public String toTimeControl() {
+        return baseNanos / 1_000_000_000 + "+" + incrementNanos / 1_000_000_000;
+    }
+
+    private static String pad(long value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+}
@@ -0,0 +1,290 @@
+package engine;
+
+import static engine.Bitboards.*;
+import static engine.Position.*;
+
+//tapered evaluation: every term has a middlegame and an endgame weight, blended by how much material is left
+//material and piece-square sums are kept by Position on make/unmake, only the structural terms are computed here
+public final class Evaluation {
+
+    public static final int[] PIECE_VALUES = {0, 100, 300, 300, 500, 900, 0}; //centipawns by type, same ratios as Piece.getValue
+
+    public static final int MAX_PHASE = 24; //all minor pieces, rooks and queens on the board
+    static final int[] PHASE = {0, 0, 1, 1, 2, 4, 0, 0, 1, 1, 2, 4, 0}; //by piece code
+    static final int[][] MG_TABLE = new int[13][64]; //material plus square bonus by piece code, negative for black
+    static final int[][] EG_TABLE = new int[13][64];
+
+    private static final int[] MG_VALUES = {0, 82, 365, 337, 477, 1025, 0}; //by type
+    private static final int[] EG_VALUES = {0, 94, 297, 281, 512, 936, 0};
+
+    //square bonuses by type from white's side, rank 8 first as the board is printed
+    private static final int[][] MG_SQUARES = {
+            {},
+            { //pawn
+                      0,   0,   0,   0,   0,   0,   0,   0,
+                     98, 134,  61,  95,  68, 126,  34, -11,
+                     -6,   7,  26,  31,  65,  56,  25, -20,
+                    -14,  13,   6,  21,  23,  12,  17, -23,
+                    -27,  -2,  -5,  12,  17,   6,  10, -25,
+                    -26,  -4,  -4, -10,   3,   3,  33, -12,
+                    -35,  -1, -20, -23, -15,  24,  38, -22,
+                      0,   0,   0,   0,   0,   0,   0,   0},
+            { //bishop
+                    -29,   4, -82, -37, -25, -42,   7,  -8,
+                    -26,  16, -18, -13,  30,  59,  18, -47,
+                    -16,  37,  43,  40,  35,  50,  37,  -2,
+                     -4,   5,  19,  50,  37,  37,   7,  -2,
+                     -6,  13,  13,  26,  34,  12,  10,   4,
+                      0,  15,  15,  15,  14,  27,  18,  10,
+                      4,  15,  16,   0,   7,  21,  33,   1,
+                    -33,  -3, -14, -21, -13, -12, -39, -21},
+            { //knight
+                   -167, -89, -34, -49,  61, -97, -15,-107,
+                    -73, -41,  72,  36,  23,  62,   7, -17,
+                    -47,  60,  37,  65,  84, 129,  73,  44,
+                     -9,  17,  19,  53,  37,  69,  18,  22,
+                    -13,   4,  16,  13,  28,  19,  21,  -8,
+                    -23,  -9,  12,  10,  19,  17,  25, -16,
+                    -29, -53, -12,  -3,  -1,  18, -14, -19,
+                   -105, -21, -58, -33, -17, -28, -19, -23},
+            { //rook
+                     32,  42,  32,  51,  63,   9,  31,  43,
+                     27,  32,  58,  62,  80,  67,  26,  44,
+                     -5,  19,  26,  36,  17,  45,  61,  16,
+                    -24, -11,   7,  26,  24,  35,  -8, -20,
+                    -36, -26, -12,  -1,   9,  -7,   6, -23,
+                    -45, -25, -16, -17,   3,   0,  -5, -33,
+                    -44, -16, -20,  -9,  -1,  11,  -6, -71,
+                    -19, -13,   1,  17,  16,   7, -37, -26},
+            { //queen
+                    -28,   0,  29,  12,  59,  44,  43,  45,
+                    -24, -39,  -5,   1, -16,  57,  28,  54,
+                    -13, -17,   7,   8,  29,  56,  47,  57,
+                    -27, -27, -16, -16,  -1,  17,  -2,   1,
+                     -9, -26,  -9, -10,  -2,  -4,   3,  -3,
+                    -14,   2, -11,  -2,  -5,   2,  14,   5,
+                    -35,  -8,  11,   2,   8,  15,  -3,   1,
+                     -1, -18,  -9,  10, -15, -25, -31, -50},
+            { //king
+                    -65,  23,  16, -15, -56, -34,   2,  13,
+                     29,  -1, -20,  -7,  -8,  -4, -38, -29,
+                     -9,  24,   2, -16, -20,   6,  22, -22,
+                    -17, -20, -12, -27, -30, -25, -14, -36,
+                    -49,  -1, -27, -39, -46, -44, -33, -51,
+                    -14, -14, -22, -46, -44, -30, -15, -27,
+                      1,   7,  -8, -64, -43, -16,   9,   8,
+                    -15,  36,  12, -54,   8, -28,  24,  14}
+    };
+
+    private static final int[][] EG_SQUARES = {
+            {},
+            { //pawn
+                      0,   0,   0,   0,   0,   0,   0,   0,
+                    178, 173, 158, 134, 147, 132, 165, 187,
+                     94, 100,  85,  67,  56,  53,  82,  84,
+                     32,  24,  13,   5,  -2,   4,  17,  17,
+                     13,   9,  -3,  -7,  -7,  -8,   3,  -1,
+                      4,   7,  -6,   1,   0,  -5,  -1,  -8,
+                     13,   8,   8,  10,  13,   0,   2,  -7,
+                      0,   0,   0,   0,   0,   0,   0,   0},
+            { //bishop
+                    -14, -21, -11,  -8,  -7,  -9, -17, -24,
+                     -8,  -4,   7, -12,  -3, -13,  -4, -14,
+                      2,  -8,   0,  -1,  -2,   6,   0,   4,
+                     -3,   9,  12,   9,  14,  10,   3,   2,
+                     -6,   3,  13,  19,   7,  10,  -3,  -9,
+                    -12,  -3,   8,  10,  13,   3,  -7, -15,
+                    -14, -18,  -7,  -1,   4,  -9, -15, -27,
+                    -23,  -9, -23,  -5,  -9, -16,  -5, -17},
+            { //knight
+                    -58, -38, -13, -28, -31, -27, -63, -99,
+                    -25,  -8, -25,  -2,  -9, -25, -24, -52,
+                    -24, -20,  10,   9,  -1,  -9, -19, -41,
+                    -17,   3,  22,  22,  22,  11,   8, -18,
+                    -18,  -6,  16,  25,  16,  17,   4, -18,
+                    -23,  -3,  -1,  15,  10,  -3, -20, -22,
+                    -42, -20, -10,  -5,  -2, -20, -23, -44,
+                    -29, -51, -23, -15, -22, -18, -50, -64},
+            { //rook
+                     13,  10,  18,  15,  12,  12,   8,   5,
+                     11,  13,  13,  11,  -3,   3,   8,   3,
+                      7,   7,   7,   5,   4,  -3,  -5,  -3,
+                      4,   3,  13,   1,   2,   1,  -1,   2,
+                      3,   5,   8,   4,  -5,  -6,  -8, -11,
+                     -4,   0,  -5,  -1,  -7, -12,  -8, -16,
+                     -6,  -6,   0,   2,  -9,  -9, -11,  -3,
+                     -9,   2,   3,  -1,  -5, -13,   4, -20},
+            { //queen
+                     -9,  22,  22,  27,  27,  19,  10,  20,
+                    -17,  20,  32,  41,  58,  25,  30,   0,
+                    -20,   6,   9,  49,  47,  35,  19,   9,
+                      3,  22,  24,  45,  57,  40,  57,  36,
+                    -18,  28,  19,  47,  31,  34,  39,  23,
+                    -16, -27,  15,   6,   9,  17,  10,   5,
+                    -22, -23, -30, -16, -16, -23, -36, -32,
+                    -33, -28, -22, -43,  -5, -32, -20, -41},
+            { //king
+                    -74, -35, -18, -18, -11,  15,   4, -17,
+                    -12,  17,  14,  17,  17,  38,  23,  11,
+                     10,  17,  23,  15,  20,  45,  44,  13,
+                     -8,  22,  24,  27,  26,  33,  26,   3,
+                    -18,  -4,  21,  24,  27,  23,   9, -11,
+                    -19,  -3,  11,  21,  23,  16,   7,  -9,
+                    -27, -11,   4,  13,  14,   4,  -5, -17,
+                    -53, -34, -21, -11, -28, -14, -24, -43}
+    };
+
+    //the terms below are packed as endgame << 16 plus middlegame so one addition updates both halves
+    private static final int DOUBLED_PAWN = score(-10, -25);
+    private static final int ISOLATED_PAWN = score(-12, -18);
+    private static final int[] PASSED_PAWN = { //by rank from the pawn's own side
+            0, score(0, 5), score(5, 12), score(10, 25), score(25, 50), score(45, 90), score(70, 140), 0};
+    private static final int BISHOP_PAIR = score(30, 50);
+    private static final int[] MOBILITY = {0, 0, score(5, 5), score(4, 4), score(2, 4), score(1, 2), 0}; //per square by type
+    private static final int[] MOBILITY_CENTER = {0, 0, 6, 4, 7, 13, 0}; //typical square count, scores zero
+    private static final int PAWN_SHIELD = score(12, 0); //per pawn in the two ranks in front of the king
+    private static final int[] ATTACK_WEIGHT = {0, 0, 2, 2, 3, 5, 0}; //by type, per attacked square next to the king
+    private static final int MAX_KING_DANGER = 500;
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    private static final long[][] FORWARD = new long[2][64]; //squares ahead on the same file
+    private static final long[][] PASSED_SPAN = new long[2][64]; //squares ahead on the same and adjacent files
+    private static final long[][] SHIELD = new long[2][64]; //the two ranks in front of a king, three files wide
+
+    static {
+        for(int type = PAWN; type <= KING; type++) {
+            for(int sq = 0; sq < 64; sq++) {
+                int visual = sq ^ 56; //the tables start at a8
+                MG_TABLE[piece(WHITE, type)][sq] = MG_VALUES[type] + MG_SQUARES[type][visual];
+                EG_TABLE[piece(WHITE, type)][sq] = EG_VALUES[type] + EG_SQUARES[type][visual];
+                MG_TABLE[piece(BLACK, type)][sq] = -(MG_VALUES[type] + MG_SQUARES[type][sq]);
+                EG_TABLE[piece(BLACK, type)][sq] = -(EG_VALUES[type] + EG_SQUARES[type][sq]);
+            }
+        }
+        for(int col = 0; col < 8; col++) {
+            FILES[col] = FILE_A << col;
+        }
+        for(int col = 0; col < 8; col++) {
+            ADJACENT_FILES[col] = (col > 0 ? FILES[col - 1] : 0L) | (col < 7 ? FILES[col + 1] : 0L);
+        }
+        for(int sq = 0; sq < 64; sq++) {
+            FORWARD[WHITE][sq] = RAYS[NORTH][sq];
+            FORWARD[BLACK][sq] = RAYS[SOUTH][sq];
+        }
+        for(int color = WHITE; color <= BLACK; color++) {
+            for(int sq = 0; sq < 64; sq++) {
+                long span = FORWARD[color][sq];
+                span |= (span & ~FILE_A) >>> 1 | (span & ~FILE_H) << 1;
+                PASSED_SPAN[color][sq] = span;
+                int row = row(sq);
+                long ranks = 0L;
+                for(int ahead = 1; ahead <= 2; ahead++) {
+                    int r = color == WHITE ? row + ahead : row - ahead;
+                    if(r >= 0 && r < 8) {
+                        ranks |= RANK_1 << (8 * r);
+                    }
+                }
+                SHIELD[color][sq] = span & ranks;
+            }
+        }
+    }
+
+    private Evaluation() {}
+
+    static int score(int mg, int eg) {
+        return (eg << 16) + mg;
+    }
+
+    static int mg(int score) {
+        return (short) score;
+    }
+
+    static int eg(int score) {
+        return (short) ((score + 0x8000) >> 16);
+    }
+
+    //tapered score from the side to move's point of view
+    public static int evaluate(Position position) {
+        int terms = pawnStructure(position, WHITE) - pawnStructure(position, BLACK)
+                + pieces(position, WHITE) - pieces(position, BLACK);
+        int mg = position.mgScore() + mg(terms);
+        int eg = position.egScore() + eg(terms);
+        int phase = Math.min(position.phase(), MAX_PHASE);
+        int score = (mg * phase + eg * (MAX_PHASE - phase)) / MAX_PHASE;
+        return position.sideToMove() == WHITE ? score : -score;
+    }
+
+    //doubled, isolated and passed pawns of one side
+    private static int pawnStructure(Position position, int color) {
+        long pawns = position.pieces(piece(color, PAWN));
+        long enemyPawns = position.pieces(piece(color ^ 1, PAWN));
+        int total = 0;
+        for(long bb = pawns; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            int col = col(sq);
+            boolean blockedByOwn = (FORWARD[color][sq] & pawns) != 0;
+            if(blockedByOwn) {
+                total += DOUBLED_PAWN; //counted once for every pawn with a friend in front of it
+            }
+            if((ADJACENT_FILES[col] & pawns) == 0) {
+                total += ISOLATED_PAWN;
+            }
+            if(!blockedByOwn && (PASSED_SPAN[color][sq] & enemyPawns) == 0) {
+                total += PASSED_PAWN[color == WHITE ? row(sq) : 7 - row(sq)];
+            }
+        }
+        return total;
+    }
+
+    //mobility over squares the enemy pawns do not guard, pressure on the enemy king and the own pawn shield
+    private static int pieces(Position position, int color) {
+        int enemy = color ^ 1;
+        long occupied = position.occupied();
+        long enemyPawns = position.pieces(piece(enemy, PAWN));
+        long pawnGuarded = enemy == WHITE
+                ? (enemyPawns & ~FILE_H) << 9 | (enemyPawns & ~FILE_A) << 7
+                : (enemyPawns & ~FILE_H) >>> 7 | (enemyPawns & ~FILE_A) >>> 9;
+        long safe = ~position.colorPieces(color) & ~pawnGuarded;
+        int enemyKing = position.kingSquare(enemy);
+        long kingZone = KING_ATTACKS[enemyKing] | bit(enemyKing);
+        int total = 0;
+        int attackers = 0;
+        int danger = 0;
+        for(int type = BISHOP; type <= QUEEN; type++) {
+            for(long bb = position.pieces(color, type); bb != 0; bb &= bb - 1) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                long attacks;
+                switch(type) {
+                    case BISHOP:
+                        attacks = bishopAttacks(sq, occupied);
+                        break;
+                    case KNIGHT:
+                        attacks = KNIGHT_ATTACKS[sq];
+                        break;
+                    case ROOK:
+                        attacks = rookAttacks(sq, occupied);
+                        break;
+                    default:
+                        attacks = queenAttacks(sq, occupied);
+                        break;
+                }
+                total += MOBILITY[type] * (count(attacks & safe) - MOBILITY_CENTER[type]);
+                long zoneAttacks = attacks & kingZone;
+                if(zoneAttacks != 0) {
+                    attackers++;
+                    danger += ATTACK_WEIGHT[type] * count(zoneAttacks);
+                }
+            }
+        }
+        if(attackers >= 2) { //a lone attacker rarely gets anywhere
+            total += score(Math.min(danger * danger / 4, MAX_KING_DANGER), 0);
+        }
+        if(count(position.pieces(color, BISHOP)) >= 2) {
+            total += BISHOP_PAIR;
+        }
+        total += PAWN_SHIELD * count(SHIELD[color][position.kingSquare(color)] & position.pieces(piece(color, PAWN)));
+        return total;
+    }
+
+}
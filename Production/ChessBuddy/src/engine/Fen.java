@@ -0,0 +1,227 @@
+package engine;
+
+import static engine.Bitboards.*;
+import static engine.Position.*;
+
+public final class Fen {
+
+    public static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final int[] CASTLING_KING_SQUARE = {square(0, 4), square(0, 4), square(7, 4), square(7, 4)};
+    private static final int[] CASTLING_ROOK_SQUARE = {square(0, 7), square(0, 0), square(7, 7), square(7, 0)};
+
+    private Fen() {}
+
+    //validates every field, missing move counters default to "0 1", castling rights without their
+    //king and rook at home are dropped
+    public static Position parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if(fields.length < 4 || fields.length > 6) {
+            throw new IllegalArgumentException("FEN needs 4 to 6 fields: " + fen);
+        }
+        byte[][] board = parseBoard(fields[0], fen);
+        boolean whiteToMove;
+        if(fields[1].equals("w")) {
+            whiteToMove = true;
+        } else if(fields[1].equals("b")) {
+            whiteToMove = false;
+        } else {
+            throw new IllegalArgumentException("Side to move must be w or b: " + fen);
+        }
+        int castling = parseCastling(fields[2], fen) & possibleCastling(board);
+        int epSquare = parseEnPassant(fields[3], board, whiteToMove, fen);
+        int halfMoveClock = fields.length > 4 ? parseCounter(fields[4], 0, fen) : 0;
+        int fullMoveNumber = fields.length > 5 ? parseCounter(fields[5], 1, fen) : 1;
+        Position position = Position.fromBoard(board, whiteToMove, castling, epSquare);
+        int them = position.sideToMove() ^ 1;
+        if(position.isAttacked(position.kingSquare(them), position.sideToMove())) {
+            throw new IllegalArgumentException("The side not to move is in check: " + fen);
+        }
+        position.setHalfMoveClock(halfMoveClock);
+        position.setFullMoveNumber(fullMoveNumber);
+        return position;
+    }
+
+    public static boolean isValid(String fen) {
+        try {
+            parse(fen);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    public static String normalize(String fen) {
+        return toFen(parse(fen));
+    }
+
+    public static String toFen(Position position) {
+        return toFen(position.toBoard(), position.isWhiteToMove(), position.castling(), position.epSquare(),
+                position.halfMoveClock(), position.fullMoveNumber());
+    }
+
+    //the en passant square is only written when a pawn could capture there, as in the zobrist key
+    public static String toFen(byte[][] board, boolean whiteToMove, int castling, int epSquare,
+                               int halfMoveClock, int fullMoveNumber) {
+        StringBuilder str = new StringBuilder(90);
+        for(int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for(int col = 0; col < 8; col++) {
+                byte piece = board[row][col];
+                if(piece == EMPTY) {
+                    empty++;
+                } else {
+                    if(empty > 0) {
+                        str.append(empty);
+                        empty = 0;
+                    }
+                    str.append(PIECE_TO_FEN[piece]);
+                }
+            }
+            if(empty > 0) {
+                str.append(empty);
+            }
+            if(row > 0) {
+                str.append('/');
+            }
+        }
+        str.append(whiteToMove ? " w " : " b ");
+        castling &= possibleCastling(board);
+        if(castling == 0) {
+            str.append('-');
+        } else {
+            if((castling & WHITE_KING_SIDE) != 0) {
+                str.append('K');
+            }
+            if((castling & WHITE_QUEEN_SIDE) != 0) {
+                str.append('Q');
+            }
+            if((castling & BLACK_KING_SIDE) != 0) {
+                str.append('k');
+            }
+            if((castling & BLACK_QUEEN_SIDE) != 0) {
+                str.append('q');
+            }
+        }
+        str.append(' ');
+        if(epSquare != NO_SQUARE && Zobrist.enPassant(board, epSquare, whiteToMove) != 0) {
+            str.append(Moves.squareName(epSquare));
+        } else {
+            str.append('-');
+        }
+        return str.append(' ').append(halfMoveClock).append(' ').append(fullMoveNumber).toString();
+    }
+
+    public static int pieceCode(char c) {
+        for(int piece = Position.WHITE_PAWN; piece <= Position.BLACK_KING; piece++) {
+            if(Position.PIECE_TO_FEN[piece] == c) {
+                return piece;
+            }
+        }
+        return Position.EMPTY;
+    }
+
+    private static byte[][] parseBoard(String field, String fen) {
+        byte[][] board = new byte[8][8];
+        String[] rows = field.split("/", -1);
+        if(rows.length != 8) {
+            throw new IllegalArgumentException("FEN needs 8 ranks: " + fen);
+        }
+        int[] counts = new int[13];
+        for(int i = 0; i < 8; i++) {
+            String rank = rows[7-i]; //FEN starts at the eighth rank
+            int col = 0;
+            for(int j = 0; j < rank.length(); j++) {
+                char c = rank.charAt(j);
+                if(c >= '1' && c <= '8') {
+                    col += c - '0';
+                } else {
+                    int piece = pieceCode(c);
+                    if(piece == EMPTY || col > 7) {
+                        throw new IllegalArgumentException("Bad rank '" + rank + "' in FEN: " + fen);
+                    }
+                    if(type(piece) == PAWN && (i == 0 || i == 7)) {
+                        throw new IllegalArgumentException("Pawn on the first or last rank in FEN: " + fen);
+                    }
+                    counts[piece]++;
+                    board[i][col++] = (byte) piece;
+                }
+            }
+            if(col != 8) {
+                throw new IllegalArgumentException("Rank '" + rank + "' does not hold 8 squares in FEN: " + fen);
+            }
+        }
+        if(counts[WHITE_KING] != 1 || counts[BLACK_KING] != 1) {
+            throw new IllegalArgumentException("FEN needs exactly one king per side: " + fen);
+        }
+        if(counts[WHITE_PAWN] > 8 || counts[BLACK_PAWN] > 8) {
+            throw new IllegalArgumentException("More than 8 pawns for a side in FEN: " + fen);
+        }
+        return board;
+    }
+
+    private static int parseCastling(String field, String fen) {
+        if(field.equals("-")) {
+            return 0;
+        }
+        int castling = 0;
+        for(int i = 0; i < field.length(); i++) {
+            int right;
+            switch(field.charAt(i)) {
+                case 'K': right = WHITE_KING_SIDE; break;
+                case 'Q': right = WHITE_QUEEN_SIDE; break;
+                case 'k': right = BLACK_KING_SIDE; break;
+                case 'q': right = BLACK_QUEEN_SIDE; break;
+                default: throw new IllegalArgumentException("Bad castling field '" + field + "' in FEN: " + fen);
+            }
+            if((castling & right) != 0) {
+                throw new IllegalArgumentException("Repeated castling right in FEN: " + fen);
+            }
+            castling |= right;
+        }
+        return castling;
+    }
+
+    private static int possibleCastling(byte[][] board) {
+        int castling = 0;
+        for(int i = 0; i < CASTLING_KING_SQUARE.length; i++) {
+            int king = i < 2 ? WHITE_KING : BLACK_KING;
+            int rook = i < 2 ? WHITE_ROOK : BLACK_ROOK;
+            if(board[row(CASTLING_KING_SQUARE[i])][col(CASTLING_KING_SQUARE[i])] == king
+                    && board[row(CASTLING_ROOK_SQUARE[i])][col(CASTLING_ROOK_SQUARE[i])] == rook) {
+                castling |= 1 << i;
+            }
+        }
+        return castling;
+    }
+
+    //the square must sit behind a pawn that could just have made a double push
+    private static int parseEnPassant(String field, byte[][] board, boolean whiteToMove, String fen) {
+        if(field.equals("-")) {
+            return NO_SQUARE;
+        }
+        if(field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h') {
+            throw new IllegalArgumentException("Bad en passant square '" + field + "' in FEN: " + fen);
+        }
+        int row = field.charAt(1) - '1';
+        int col = field.charAt(0) - 'a';
+        int forward = whiteToMove ? -1 : 1; //towards the pawn that moved
+        if(row != (whiteToMove ? 5 : 2) || board[row][col] != EMPTY || board[row - forward][col] != EMPTY
+                || board[row + forward][col] != (whiteToMove ? BLACK_PAWN : WHITE_PAWN)) {
+            throw new IllegalArgumentException("Impossible en passant square '" + field + "' in FEN: " + fen);
+        }
+        return square(row, col);
+    }
+
+    private static int parseCounter(String field, int min, String fen) {
+        try {
+            int value = Integer.parseInt(field);
+            if(value >= min) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException("Bad move counter '" + field + "' in FEN: " + fen);
+    }
+
+}
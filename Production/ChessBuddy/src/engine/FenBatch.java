@@ -0,0 +1,56 @@
+package engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+//validates and normalizes one FEN per line, java -cp <classes> engine.FenBatch [input|-] [output|-]
+public final class FenBatch {
+
+    private FenBatch() {}
+
+    public static void main(String[] args) throws IOException {
+        String input = args.length > 0 ? args[0] : "-";
+        String output = args.length > 1 ? args[1] : "-";
+        long start = System.nanoTime();
+        long valid = 0;
+        long invalid = 0;
+        PrintStream errors = System.err;
+        try (BufferedReader reader = input.equals("-")
+                     ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                     : Files.newBufferedReader(Paths.get(input));
+             BufferedWriter writer = output.equals("-")
+                     ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                     : Files.newBufferedWriter(Paths.get(output))) {
+            String line;
+            long lineNumber = 0;
+            while((line = reader.readLine()) != null) {
+                lineNumber++;
+                if(line.isBlank()) {
+                    continue;
+                }
+                try {
+                    writer.write(Fen.normalize(line));
+                    writer.newLine();
+                    valid++;
+                } catch (IllegalArgumentException ex) {
+                    errors.println("line " + lineNumber + ": " + ex.getMessage());
+                    invalid++;
+                }
+            }
+        }
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        errors.printf("%,d valid, %,d invalid, %,.0f FENs per minute%n", valid, invalid,
+                (valid + invalid) / seconds * 60);
+        if(invalid > 0) {
+            System.exit(1);
+        }
+    }
+
+}
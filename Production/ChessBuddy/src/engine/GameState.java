@@ -0,0 +1,663 @@
+package engine;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+
+//rules and history of one game without any JavaFX, the GUI's GameInfo is a view on top of it
+public class GameState {
+
+    public static final byte EMPTY = 0; //Bytes used to represent pieces in ByteBoard
+    public static final byte WHITE_PAWN = 1;
+    public static final byte WHITE_BISHOP = 2;
+    public static final byte WHITE_KNIGHT = 3;
+    public static final byte WHITE_ROOK = 4;
+    public static final byte WHITE_QUEEN = 5;
+    public static final byte WHITE_KING = 6;
+    public static final byte BLACK_PAWN = 7;
+    public static final byte BLACK_BISHOP = 8;
+    public static final byte BLACK_KNIGHT = 9;
+    public static final byte BLACK_ROOK = 10;
+    public static final byte BLACK_QUEEN = 11;
+    public static final byte BLACK_KING = 12;
+
+    public static final int IN_PROGRESS = 0; //status of the shown position
+    public static final int CHECKMATE = 1;
+    public static final int STALEMATE = 2;
+    public static final int FIFTY_MOVES = 3;
+    public static final int REPETITION = 4;
+    public static final int INSUFFICIENT_MATERIAL = 5;
+
+    public static final String[] NUMBER_TO_LETTER_TABLE = {"a","b","c","d","e","f","g","h"}; //convert number to readable format
+    public static final String[] NUMBER_TO_FEN = {"","P","B","N","R","Q","K","p","b","n","r","q","k"}; //convert number to FEN format
+    public static final String INITIAL_FEN = Fen.INITIAL;
+
+    public static final byte[][] INITIAL_BOARD =
+            {{WHITE_ROOK,WHITE_KNIGHT,WHITE_BISHOP,WHITE_QUEEN,WHITE_KING,WHITE_BISHOP,WHITE_KNIGHT,WHITE_ROOK},
+                    {WHITE_PAWN,WHITE_PAWN,WHITE_PAWN,WHITE_PAWN,WHITE_PAWN,WHITE_PAWN,WHITE_PAWN,WHITE_PAWN},
+                    {EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY},
+                    {EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY},
+                    {EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY},
+                    {EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY,EMPTY},
+                    {BLACK_PAWN,BLACK_PAWN,BLACK_PAWN,BLACK_PAWN,BLACK_PAWN,BLACK_PAWN,BLACK_PAWN,BLACK_PAWN},
+                    {BLACK_ROOK,BLACK_KNIGHT,BLACK_BISHOP,BLACK_QUEEN,BLACK_KING,BLACK_BISHOP,BLACK_KNIGHT,BLACK_ROOK}};
+
+    public static final long INITIAL_KEY = Zobrist.hash(INITIAL_BOARD, true, Position.ALL_CASTLING, Position.NO_SQUARE);
+
+    public static final byte WIDTH = 8;
+    public static final byte HEIGHT = 8;
+    private static final int LOWER_COL = 0;
+    private static final int UPPER_COL = 7;
+    private static final int SNAPSHOT_INTERVAL = 16; //plies between stored boards
+
+
+    private final ArrayList<Move> moves = new ArrayList<>(); //all moves
+    private final ArrayList<byte[][]> snapshots = new ArrayList<>(); //board after every SNAPSHOT_INTERVAL plies
+    private byte[][] currentBoard; //the current board to perform actions on
+    private int moveNum = -1; //the current move
+    private final boolean whiteStarts; //position before the first move, from a FEN or the initial board
+    private final int startCastling;
+    private final int startEpSquare;
+    private final int startHalfMoveClock;
+    private final int startFullMoveNumber;
+    private final long startKey;
+    private final String startFen;
+    private final Position position; //position after the last move, kept in step by addMove and takeBackMove
+    private final int[] legal = new int[MoveGenerator.MAX_MOVES];
+    private String event = "ChessBuddy Practice"; //PGN tags
+    private String site = "ChessBuddy GUI";
+    private String round;
+    private String white = "Player1";
+    private String black = "Player2";
+
+    public int getMoveNum() {
+        return moveNum;
+    }
+
+    public ArrayList<Move> getMoves() {
+        return moves;
+    }
+
+    public byte[][] getCurrentBoard() {
+        return currentBoard;
+    }
+
+    public void setCurrentBoard(byte[][] currentBoard) {
+        this.currentBoard = currentBoard;
+    }
+
+    public GameState() {
+        this(Position.fromBoard(INITIAL_BOARD, true, Position.ALL_CASTLING, Position.NO_SQUARE));
+    }
+
+    public GameState(Position start) {
+        currentBoard = start.toBoard();
+        snapshots.add(start.toBoard());
+        whiteStarts = start.isWhiteToMove();
+        startCastling = start.castling();
+        startEpSquare = start.epSquare();
+        startHalfMoveClock = start.halfMoveClock();
+        startFullMoveNumber = start.fullMoveNumber();
+        startKey = start.key();
+        startFen = Fen.toFen(start);
+        position = start.copy();
+    }
+
+    public void setEvent(String event, String site, String round) {
+        this.event = event;
+        this.site = site;
+        this.round = round;
+    }
+
+    public void setPlayers(String white, String black) {
+        this.white = white;
+        this.black = black;
+    }
+
+    public static GameState fromFEN(String fen) {
+        return new GameState(Fen.parse(fen)); //throws IllegalArgumentException for an invalid FEN
+    }
+
+    public boolean isWhiteStart() {
+        return whiteStarts;
+    }
+
+    public int getStartFullMoveNumber() {
+        return startFullMoveNumber;
+    }
+
+    public boolean isStandardStart() {
+        return startKey == INITIAL_KEY;
+    }
+
+    public Position getStartPosition() {
+        Position position = Position.fromBoard(snapshots.get(0), whiteStarts, startCastling, startEpSquare);
+        position.setHalfMoveClock(startHalfMoveClock);
+        position.setFullMoveNumber(startFullMoveNumber);
+        return position;
+    }
+
+    public boolean isWhiteMove(int num) {
+        return (num % 2 == 0) == whiteStarts;
+    }
+
+    //side to move in the position after move num, -1 being the start position
+    public boolean isWhiteToMove(int num) {
+        return isWhiteMove(num + 1);
+    }
+
+    public boolean isWhiteToMove() {
+        return isWhiteToMove(moveNum);
+    }
+
+    public int getCastlingRights() {
+        return getCastlingRights(moveNum);
+    }
+
+    //each move keeps the 4-bit mask left after it, so taking back or jumping to a move restores it exactly
+    public int getCastlingRights(int num) {
+        return num < 0 ? startCastling : moves.get(num).getCastlingRights();
+    }
+
+    public int getHalfMoveClock(int num) {
+        return num < 0 ? startHalfMoveClock : moves.get(num).getHalfMoveClock();
+    }
+
+    public int getFullMoveNumber(int num) {
+        return startFullMoveNumber + (num + 1 + (whiteStarts ? 0 : 1)) / 2;
+    }
+
+    public int getEnPassantSquare() {
+        return getEnPassantSquare(moveNum);
+    }
+
+    public int getEnPassantSquare(int num) {
+        if(num < 0) {
+            return startEpSquare;
+        }
+        return getEnPassantSquare(moves.get(num), isWhiteMove(num));
+    }
+
+    private static int getEnPassantSquare(Move move, boolean byWhite) {
+        if(move.canEnPassant(byWhite)) {
+            return (Moves.from(move.getMove()) + Moves.to(move.getMove())) >>> 1;
+        }
+        return Position.NO_SQUARE;
+    }
+
+    public long getKey() {
+        return getKeyByNumber(moveNum);
+    }
+
+    public long getKeyByNumber(int num) {
+        if(num != -1) {
+            return moves.get(num).getKey();
+        }
+        return startKey;
+    }
+
+    public int getRepetitionCount() {
+        return getRepetitionCount(moveNum);
+    }
+
+    //how often the position after move num occurred before, only positions with the same side to move can match
+    public int getRepetitionCount(int num) {
+        long key = getKeyByNumber(num);
+        int count = 0;
+        int limit = Math.max(-1, num - getHalfMoveClock(num)); //nothing before the last capture or pawn move can repeat
+        for(int i = num - 2; i >= limit; i = i - 2) {
+            if(getKeyByNumber(i) == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int getLastCastlingRights() {
+        return getCastlingRights(getMoveCount()-1);
+    }
+
+    public boolean canGoLeft() {
+        return moveNum > -1;
+    }
+
+    public boolean canGoRight() {
+        return moveNum < getMoveCount()-1;
+    }
+
+    public void goLeft() {
+        moveNum--;
+    }
+
+    public void goRight() {
+        moveNum++;
+    }
+
+    public void goFarLeft() {
+        moveNum = -1;
+    }
+
+    public void goFarRight() {
+        moveNum = getMoveCount()-1;
+    }
+
+    public void goTo(int num) {
+        moveNum = num;
+    }
+
+    public int getMoveCount() {
+        return moves.size();
+    }
+
+    //boards are replayed from the nearest snapshot, at most SNAPSHOT_INTERVAL-1 moves away
+    public byte[][] getBoardByNumber(int num) {
+        int snapshot = (num + 1) / SNAPSHOT_INTERVAL;
+        byte[][] board = cloneArray(snapshots.get(snapshot));
+        for(int i = snapshot * SNAPSHOT_INTERVAL; i <= num; i++) {
+            playMove(board, moves.get(i).getMove());
+        }
+        return board;
+    }
+
+    public byte[][] getBeforeLastBoard() {
+        return getBoardByNumber(Math.max(-1, getMoveCount()-2));
+    }
+
+    public byte[][] getLastBoard() {
+        return cloneArray(currentBoard);
+    }
+
+    public boolean isLastTurnWhite() {
+        return isWhiteToMove(getMoveCount()-1); //white to play after the last move
+    }
+
+    public boolean isOnLastTurn() {
+        return moveNum == moves.size()-1;
+    }
+
+    public void takeBackMove() {
+        position.unmakeMove(moves.remove(getMoveCount()-1).getMove());
+        if(snapshots.size() > getMoveCount() / SNAPSHOT_INTERVAL + 1) {
+            snapshots.remove(snapshots.size()-1);
+        }
+        moveNum = getMoveCount()-1;
+        currentBoard = getBoardByNumber(moveNum);
+    }
+
+    public boolean canTakeBack() {
+        return getMoveCount() > 0;
+    }
+
+    public void makeMove(int oldRow, int oldCol, int newRow, int newCol) {
+        byte moved = currentBoard[oldRow][oldCol];
+        byte captured = currentBoard[newRow][newCol];
+        int flags = captured != EMPTY ? Moves.FLAG_CAPTURE : 0;
+        if(Position.type(moved) == Position.PAWN && Math.abs(newRow - oldRow) == 2) {
+            flags |= Moves.FLAG_DOUBLE_PUSH;
+        }
+        moveNum++;
+        addMove(new Move(Moves.create(Bitboards.square(oldRow, oldCol), Bitboards.square(newRow, newCol),
+                moved, captured, EMPTY, flags), currentBoard));
+    }
+
+    public void makeMoveEnPassant(int oldRow, int oldCol, int newRow, int newCol) {
+        moveNum++;
+        addMove(new Move(Moves.create(Bitboards.square(oldRow, oldCol), Bitboards.square(newRow, newCol),
+                currentBoard[oldRow][oldCol], currentBoard[oldRow][newCol], EMPTY,
+                Moves.FLAG_CAPTURE | Moves.FLAG_EN_PASSANT), currentBoard));
+    }
+
+    public void makeMovePromotion(int oldRow, int oldCol, int newRow, int newCol, byte promotionTo) {
+        byte captured = currentBoard[newRow][newCol];
+        moveNum++;
+        addMove(new Move(Moves.create(Bitboards.square(oldRow, oldCol), Bitboards.square(newRow, newCol),
+                currentBoard[oldRow][oldCol], captured, promotionTo, captured != EMPTY ? Moves.FLAG_CAPTURE : 0),
+                currentBoard));
+    }
+
+    public void makeMoveCastleQueenSide(int row, int kingCol, int rookCol) {
+        makeMoveCastle(row, kingCol, kingCol-2);
+    }
+
+    public void makeMoveCastleKingSide(int row, int kingCol, int rookCol) {
+        makeMoveCastle(row, kingCol, kingCol+2);
+    }
+
+    private void makeMoveCastle(int row, int kingCol, int newKingCol) {
+        moveNum++;
+        addMove(new Move(Moves.create(Bitboards.square(row, kingCol), Bitboards.square(row, newKingCol),
+                currentBoard[row][kingCol], EMPTY, EMPTY, Moves.FLAG_CASTLE)));
+    }
+
+    //routes an engine move through the same calls the board makes
+    public void makeMove(int move) {
+        int oldRow = Bitboards.row(Moves.from(move));
+        int oldCol = Bitboards.col(Moves.from(move));
+        int newRow = Bitboards.row(Moves.to(move));
+        int newCol = Bitboards.col(Moves.to(move));
+        if(Moves.isCastle(move)) {
+            if(newCol > oldCol) {
+                makeMoveCastleKingSide(oldRow, oldCol, UPPER_COL);
+            } else {
+                makeMoveCastleQueenSide(oldRow, oldCol, LOWER_COL);
+            }
+        } else if(Moves.isEnPassant(move)) {
+            makeMoveEnPassant(oldRow, oldCol, newRow, newCol);
+            setRecentEnPassant();
+        } else if(Moves.isPromotion(move)) {
+            makeMovePromotion(oldRow, oldCol, newRow, newCol, (byte) Moves.promotion(move));
+            setRecentPromotion((byte) Moves.promotion(move));
+        } else {
+            makeMove(oldRow, oldCol, newRow, newCol);
+        }
+    }
+
+    //checks the move against the legal moves of the last position, then plays and annotates it
+    public void play(int move) {
+        if(!isLegal(move)) {
+            throw new IllegalArgumentException("Illegal move " + Moves.toUci(move) + " in " + getFENByNumber(getMoveCount()-1));
+        }
+        moveNum = getMoveCount()-1;
+        makeMove(move);
+        updateStatus();
+    }
+
+    public void play(String san) {
+        int move = San.parse(position, san);
+        if(move == Moves.NONE) {
+            throw new IllegalArgumentException("Illegal or ambiguous move " + san + " in " + getFENByNumber(getMoveCount()-1));
+        }
+        play(move);
+    }
+
+    //appends moves after the last one, marking checks, mates and stalemates in the notation
+    public void playMoves(int[] packedMoves) {
+        for(int move : packedMoves) {
+            play(move);
+        }
+    }
+
+    public boolean isLegal(int move) {
+        int count = MoveGenerator.generateLegal(position, legal);
+        for(int i = 0; i < count; i++) {
+            if(legal[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //legal moves after the last move, written into moves
+    public int getLegalMoves(int[] moves) {
+        return MoveGenerator.generateLegal(position, moves);
+    }
+
+    public Position getPosition() {
+        return getPosition(moveNum);
+    }
+
+    //the last position carries the network's accumulator from here on, each added or taken back move updates it
+    public void setNetwork(Nnue network) {
+        position.setNetwork(network);
+    }
+
+    //a copy the caller may change, positions before the last move are rebuilt from the board
+    public Position getPosition(int num) {
+        if(num == getMoveCount()-1) {
+            return position.copy();
+        }
+        Position before = Position.fromBoard(getBoardByNumber(num), isWhiteToMove(num), getCastlingRights(num),
+                getEnPassantSquare(num));
+        before.setHalfMoveClock(getHalfMoveClock(num));
+        before.setFullMoveNumber(getFullMoveNumber(num));
+        return before;
+    }
+
+    //the last position replayed from the last capture or pawn move, so a search on it sees repetitions
+    public Position getSearchPosition() {
+        int last = getMoveCount()-1;
+        int from = Math.max(-1, last - getHalfMoveClock(last));
+        Position searchPosition = getPosition(from);
+        for(int i = from + 1; i <= last; i++) {
+            searchPosition.makeMove(moves.get(i).getMove());
+        }
+        return searchPosition;
+    }
+
+    //UCI "position" command for the position after move num, from the last irreversible move so repetitions still count
+    public String getUciPosition(int num) {
+        int from = Math.max(-1, num - getHalfMoveClock(num));
+        StringBuilder str = new StringBuilder("position fen ").append(getFENByNumber(from));
+        if(from < num) {
+            str.append(" moves");
+            for(int i = from + 1; i <= num; i++) {
+                str.append(' ').append(Moves.toUci(moves.get(i).getMove()));
+            }
+        }
+        return str.toString();
+    }
+
+    public int getStatus() {
+        return getStatus(moveNum);
+    }
+
+    public int getStatus(int num) {
+        Position shown = num == getMoveCount()-1 ? position : getPosition(num);
+        if(!MoveGenerator.hasLegalMoves(shown)) {
+            return shown.inCheck() ? CHECKMATE : STALEMATE;
+        }
+        if(getHalfMoveClock(num) >= 100) {
+            return FIFTY_MOVES;
+        }
+        if(getRepetitionCount(num) >= 2) {
+            return REPETITION;
+        }
+        return isInsufficientMaterial(shown) ? INSUFFICIENT_MATERIAL : IN_PROGRESS;
+    }
+
+    //marks check, mate or stalemate on the shown move and returns its status
+    public int updateStatus() {
+        return updateStatus(getStatus(), isInCheck());
+    }
+
+    //the same from a status worked out ahead of time
+    public int updateStatus(int status, boolean inCheck) {
+        if(status == CHECKMATE) {
+            setRecentCheckMate();
+        } else if(status == STALEMATE) {
+            setRecentStaleMate();
+        } else if(inCheck) {
+            setRecentCheck();
+        }
+        return status;
+    }
+
+    public boolean isInCheck() {
+        return moveNum == getMoveCount()-1 ? position.inCheck() : getPosition(moveNum).inCheck();
+    }
+
+    public boolean isOver() {
+        return getStatus(getMoveCount()-1) != IN_PROGRESS;
+    }
+
+    //PGN result of the last position, "*" while the game goes on
+    public String getResult() {
+        int status = getStatus(getMoveCount()-1);
+        if(status == IN_PROGRESS) {
+            return "*";
+        }
+        if(status == CHECKMATE) {
+            return isLastTurnWhite() ? "0-1" : "1-0";
+        }
+        return "1/2-1/2";
+    }
+
+    //no pawns, rooks or queens and at most one minor piece on the board
+    public static boolean isInsufficientMaterial(Position position) {
+        long heavy = position.pieces(WHITE_PAWN) | position.pieces(BLACK_PAWN) | position.pieces(WHITE_ROOK)
+                | position.pieces(BLACK_ROOK) | position.pieces(WHITE_QUEEN) | position.pieces(BLACK_QUEEN);
+        if(heavy != 0) {
+            return false;
+        }
+        long minors = position.pieces(WHITE_BISHOP) | position.pieces(BLACK_BISHOP)
+                | position.pieces(WHITE_KNIGHT) | position.pieces(BLACK_KNIGHT);
+        return Long.bitCount(minors) <= 1;
+    }
+
+    //plays the move on currentBoard and derives the new key from the squares it touched
+    private void addMove(Move move) {
+        int packed = move.getMove();
+        boolean whiteMoved = isWhiteMove(getMoveCount());
+        int previous = getLastCastlingRights();
+        int castling = Position.updateCastling(previous, Moves.from(packed), Moves.to(packed));
+        long key = getKeyByNumber(getMoveCount()-1) ^ Zobrist.side()
+                ^ Zobrist.castling(previous) ^ Zobrist.castling(castling)
+                ^ Zobrist.enPassant(currentBoard, getEnPassantSquare(getMoveCount()-1), whiteMoved)
+                ^ touchedKey(currentBoard, packed);
+        playMove(currentBoard, packed);
+        key ^= touchedKey(currentBoard, packed)
+                ^ Zobrist.enPassant(currentBoard, getEnPassantSquare(move, whiteMoved), !whiteMoved);
+        move.setKey(key);
+        move.setCastlingRights(castling);
+        boolean irreversible = Moves.isCapture(packed) || Position.type(Moves.piece(packed)) == Position.PAWN;
+        move.setHalfMoveClock(irreversible ? 0 : getHalfMoveClock(getMoveCount()-1) + 1);
+        move.setFen(Fen.toFen(currentBoard, !whiteMoved, castling, getEnPassantSquare(move, whiteMoved),
+                move.getHalfMoveClock(), getFullMoveNumber(getMoveCount()))); //built once, the board is at hand
+        position.makeMove(packed);
+        moves.add(move);
+        if(getMoveCount() % SNAPSHOT_INTERVAL == 0) {
+            snapshots.add(cloneArray(currentBoard));
+        }
+    }
+
+    private static long touchedKey(byte[][] board, int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        long key = squareKey(board, from) ^ squareKey(board, to);
+        if(Moves.isEnPassant(move)) {
+            key ^= squareKey(board, Bitboards.square(Bitboards.row(from), Bitboards.col(to)));
+        } else if(Moves.isCastle(move)) {
+            key ^= to > from ? squareKey(board, from + 3) ^ squareKey(board, from + 1)
+                    : squareKey(board, from - 4) ^ squareKey(board, from - 1);
+        }
+        return key;
+    }
+
+    private static long squareKey(byte[][] board, int sq) {
+        return Zobrist.piece(board[Bitboards.row(sq)][Bitboards.col(sq)], sq);
+    }
+
+    public static void playMove(byte[][] board, int move) {
+        int oldRow = Bitboards.row(Moves.from(move));
+        int oldCol = Bitboards.col(Moves.from(move));
+        int newRow = Bitboards.row(Moves.to(move));
+        int newCol = Bitboards.col(Moves.to(move));
+        board[newRow][newCol] = Moves.isPromotion(move) ? (byte) Moves.promotion(move) : board[oldRow][oldCol];
+        board[oldRow][oldCol] = EMPTY;
+        if(Moves.isEnPassant(move)) {
+            board[oldRow][newCol] = EMPTY; //the taken pawn stands beside the moving pawn
+        } else if(Moves.isCastle(move)) {
+            int rookCol = newCol > oldCol ? UPPER_COL : LOWER_COL;
+            int rookTo = newCol > oldCol ? newCol-1 : newCol+1;
+            board[oldRow][rookTo] = board[oldRow][rookCol];
+            board[oldRow][rookCol] = EMPTY;
+        }
+    }
+
+    public ArrayList<int[]> getRecentlyMovedTileCoordinates() {
+        if(moveNum < 0) {
+            return new ArrayList<>();
+        }
+        Move currentMove = moves.get(moveNum);
+        ArrayList<int[]> recentlyMoved = new ArrayList<>();
+        currentMove.addRecent(recentlyMoved);
+        return recentlyMoved;
+    }
+
+    public void setRecentPromotion(byte promotionTo) {
+        moves.get(moves.size()-1).setPromotionNot(promotionTo);
+    }
+
+    public void setRecentEnPassant() {
+        moves.get(moves.size()-1).setEnPassantNot();
+    }
+
+    public void setRecentCheck() { //marks the shown move, the board checks again on every navigation
+        if(moveNum > -1) {
+            moves.get(moveNum).setCheckNot();
+        }
+    }
+
+    public void setRecentCheckMate() {
+        if(moveNum > -1) {
+            moves.get(moveNum).setCheckMateNot();
+        }
+    }
+
+    public void setRecentStaleMate() {
+        if(moveNum > -1) {
+            moves.get(moveNum).setStaleMateNot();
+        }
+    }
+
+    public void setRecentCapture() {
+        moves.get(moves.size()-1).setCapture(true);
+    }
+
+    public String getMoveFEN() {
+        return getFENByNumber(moveNum);
+    }
+
+    public String getFENByNumber(int num) {
+        return num < 0 ? startFen : moves.get(num).getFen();
+    }
+
+    public String getGamePGN(String result) {
+        StringBuilder PGN = new StringBuilder(getPGNHeaders(result));
+        int i = 0;
+        for(Move move : moves) {
+            if(i % 10 == 0) {
+                PGN.append("\n");
+            }
+            if(isWhiteMove(i)) {
+                PGN.append(" ").append(getFullMoveNumber(i-1)).append(".");
+            } else if(i == 0 || moves.get(i-1).hasClock()) { //a comment in between repeats the number
+                PGN.append(" ").append(getFullMoveNumber(i-1)).append("...");
+            }
+            PGN.append(" ").append(move.getNotation());
+            if(move.hasClock()) {
+                PGN.append(" {[%clk ").append(ChessClock.formatPgn(move.getClockMillis())).append("]}");
+            }
+            i++;
+        }
+        return PGN.toString();
+    }
+
+    public String getPGNHeaders(String result) {
+        return "[Event \"" + event + "\"]\n"
+                + "[Site \"" + site + "\"]\n"
+                + "[Date \"" + getDate() + "\"]\n"
+                + (round == null ? "" : "[Round \"" + round + "\"]\n")
+                + "[White \"" + white + "\"]\n"
+                + "[Black \"" + black + "\"]\n"
+                + (isStandardStart() ? "" : "[SetUp \"1\"]\n[FEN \"" + getFENByNumber(-1) + "\"]\n")
+                + result + "\n";
+    }
+
+    public String getDate() {
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+        LocalDateTime now = LocalDateTime.now();
+        return dtf.format(now);
+    }
+
+    public static byte[][] cloneArray(byte[][] src) {
+        int length = src.length;
+        byte[][] target = new byte[length][src[0].length];
+        for (int i = 0; i < length; i++) {
+            System.arraycopy(src[i], 0, target[i], 0, src[i].length);
+        }
+        return target;
+    }
+
+}
+
@@ -0,0 +1,226 @@
+package engine;
+
+import java.util.ArrayList;
+
+public class Move {
+
+    public static final String[] NUMBER_TO_LETTER_TABLE = {"a","b","c","d","e","f","g","h"}; //used in conversion to notation
+    public static final String[] TYPE_TO_NOTATION = {"","","B","N","R","Q","K"}; //indexed by colorless piece type
+    public static final int NO_CASTLE = 0;
+    public static final int KING_SIDE_CASTLE = 1;
+    public static final int QUEEN_SIDE_CASTLE = 2;
+
+    private final int move; //packed as in Moves, boards are rebuilt from these by GameState
+    private String notation;
+    private boolean capture = false;
+    private long key; //zobrist key of the position after this move
+    private int castlingRights; //rights left after this move, hashed into the key
+    private int halfMoveClock; //plies since the last capture or pawn move, after this move
+    private String fen; //position after this move, set once by GameState
+    private long clockMillis = -1; //time the mover had left after this move, -1 when played without a clock
+
+    public long getKey() {
+        return key;
+    }
+
+    public void setKey(long key) {
+        this.key = key;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights;
+    }
+
+    public int getHalfMoveClock() {
+        return halfMoveClock;
+    }
+
+    public void setHalfMoveClock(int halfMoveClock) {
+        this.halfMoveClock = halfMoveClock;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public void setFen(String fen) {
+        this.fen = fen;
+    }
+
+    public long getClockMillis() {
+        return clockMillis;
+    }
+
+    public void setClockMillis(long clockMillis) {
+        this.clockMillis = clockMillis;
+    }
+
+    public boolean hasClock() {
+        return clockMillis >= 0;
+    }
+
+    public int getMove() {
+        return move;
+    }
+
+    public int[] getOldPos() {
+        return new int[]{Bitboards.row(Moves.from(move)), Bitboards.col(Moves.from(move))};
+    }
+
+    public int[] getNewPos() {
+        return new int[]{Bitboards.row(Moves.to(move)), Bitboards.col(Moves.to(move))};
+    }
+
+    public byte getPieceMoved() {
+        return (byte) Moves.piece(move);
+    }
+
+    public boolean hasPieceMoved() {
+        return Moves.piece(move) != Position.EMPTY;
+    }
+
+    public boolean isPieceMovedKing() {
+        return hasPieceMoved() && Position.type(Moves.piece(move)) == Position.KING;
+    }
+
+    public boolean isPieceMovedWhite() {
+        return hasPieceMoved() && Position.color(Moves.piece(move)) == Position.WHITE;
+    }
+
+    public boolean isCastle() {
+        return Moves.isCastle(move);
+    }
+
+    public int getCastleStatus() {
+        if(!isCastle()) {
+            return NO_CASTLE;
+        }
+        return Moves.to(move) > Moves.from(move) ? KING_SIDE_CASTLE : QUEEN_SIDE_CASTLE;
+    }
+
+    public String getNotation() {
+        return notation;
+    }
+
+    public void setNotation(String notation) {
+        this.notation = notation;
+    }
+
+    public Move(int moveIn, byte[][] boardBefore) {
+        move = moveIn;
+        int[] oldPos = getOldPos();
+        int[] newPos = getNewPos();
+        capture = Moves.isCapture(move);
+        if(!capture) {
+            notation = calcPiecePrefix(boardBefore,oldPos,newPos) + getCharacterNotation(newPos[1]) + (newPos[0]+1);
+        } else {
+            notation = calcPiecePrefix(boardBefore,oldPos,newPos) + "x" + getCharacterNotation(newPos[1]) + (newPos[0]+1);
+        }
+    }
+
+    public Move(int moveIn) {
+        move = moveIn;
+        notation = isQueenSide(getCastleStatus()) ? "0-0-0" : "0-0";
+    }
+
+    //disambiguates against the other pieces of the same kind that can legally reach the square
+    public static String calcPiecePrefix(byte[][] boardBefore, int[] old, int[] loc) {
+        byte piece = boardBefore[old[0]][old[1]];
+        int type = Position.type(piece);
+        if(type == Position.PAWN) {
+            return old[1] != loc[1] ? getCharacterNotation(old[1]) : "";
+        }
+        String str = TYPE_TO_NOTATION[type];
+        if(type == Position.KING) {
+            return str;
+        }
+        Position position = Position.fromBoard(boardBefore, Position.color(piece) == Position.WHITE,
+                0, Position.NO_SQUARE);
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, legal);
+        int from = Bitboards.square(old[0], old[1]);
+        int to = Bitboards.square(loc[0], loc[1]);
+        boolean common = false;
+        boolean matchingCol = false;
+        boolean matchingRow = false;
+        for(int i = 0; i < count; i++) {
+            int move = legal[i];
+            if(Moves.piece(move) == piece && Moves.to(move) == to && Moves.from(move) != from) {
+                common = true;
+                if(Bitboards.row(Moves.from(move)) == old[0]) {
+                    matchingRow = true;
+                }
+                if(Bitboards.col(Moves.from(move)) == old[1]) {
+                    matchingCol = true;
+                }
+            }
+        }
+        if(common) {
+            if (matchingRow) {
+                str = str + getCharacterNotation(old[1]);
+            }
+            if (matchingCol) {
+                str = str + (old[0]+1);
+            }
+            if(!matchingRow && !matchingCol) {
+                str = str + getCharacterNotation(old[1]);
+            }
+        }
+        return str;
+    }
+
+    public static String getCharacterNotation(int num) {
+        return NUMBER_TO_LETTER_TABLE[num];
+    }
+
+    public void addRecent(ArrayList<int[]> recentlyMoved) {
+        recentlyMoved.add(getOldPos());
+        recentlyMoved.add(getNewPos());
+    }
+
+    public static boolean isQueenSide(int type) {
+        return type == QUEEN_SIDE_CASTLE;
+    }
+
+    public void setEnPassantNot() {
+        notation = notation + "e.p.";
+    }
+
+    public void setCheckNot() {
+        if(!notation.endsWith("+") && !notation.endsWith("#")) {
+            notation = notation + "+";
+        }
+    }
+
+    public void setCheckMateNot() {
+        if(notation.endsWith("+")) {
+            notation = notation.substring(0, notation.length()-1);
+        }
+        if(!notation.endsWith("#")) {
+            notation = notation + "#";
+        }
+    }
+
+    public void setPromotionNot(byte promotionTo) {
+        notation = notation + TYPE_TO_NOTATION[Position.type(promotionTo)];
+    }
+
+    public void setStaleMateNot() {
+        if(!notation.endsWith("$")) {
+            notation = notation + "$";
+        }
+    }
+
+    public void setCapture(boolean captureIn) {
+        capture = captureIn;
+    }
+
+    public boolean canEnPassant(boolean forWhite) {
+        return Moves.isDoublePush(move) && isPieceMovedWhite() == forWhite;
+    }
+
+}
@@ -0,0 +1,207 @@
+package engine;
+
+import static engine.Bitboards.*;
+import static engine.Position.*;
+
+public final class MoveGenerator {
+
+    public static final int MAX_MOVES = 256; //upper bound of legal moves in any position
+
+    private MoveGenerator() {}
+
+    public static int generateLegal(Position position, int[] moves) {
+        return generate(position, moves, false);
+    }
+
+    //captures, en passant and queen promotions only, used by quiescence search
+    public static int generateCaptures(Position position, int[] moves) {
+        return generate(position, moves, true);
+    }
+
+    public static boolean hasLegalMoves(Position position) {
+        return generateLegal(position, new int[MAX_MOVES]) > 0;
+    }
+
+    private static int generate(Position position, int[] moves, boolean capturesOnly) {
+        int us = position.sideToMove();
+        int them = us ^ 1;
+        long own = position.colorPieces(us);
+        long enemy = position.colorPieces(them);
+        long occupied = position.occupied();
+        int kingSq = position.kingSquare(us);
+        long checkers = position.attackersTo(kingSq, occupied) & enemy;
+        int count = 0;
+
+        //king steps are tested against the board without the king so it cannot hide behind itself
+        long kingTargets = KING_ATTACKS[kingSq] & ~own;
+        if(capturesOnly) {
+            kingTargets &= enemy;
+        }
+        long withoutKing = occupied ^ bit(kingSq);
+        int king = piece(us, KING);
+        while(kingTargets != 0) {
+            int to = first(kingTargets);
+            kingTargets &= kingTargets - 1;
+            if(!position.isAttacked(to, them, withoutKing)) {
+                int captured = position.pieceAt(to);
+                moves[count++] = Moves.create(kingSq, to, king, captured, EMPTY,
+                        captured != EMPTY ? Moves.FLAG_CAPTURE : 0);
+            }
+        }
+        if(count(checkers) > 1) {
+            return count; //double check, only the king can move
+        }
+
+        long checkMask = checkers == 0 ? ~0L : checkers | BETWEEN[kingSq][first(checkers)];
+        long targetMask = checkMask & ~own;
+        if(capturesOnly) {
+            targetMask &= enemy;
+        }
+        long pinned = pinned(position, us, kingSq);
+
+        count = generatePawnMoves(position, moves, count, us, kingSq, pinned, checkMask, capturesOnly);
+        long knights = position.pieces(us, KNIGHT) & ~pinned; //a pinned knight can never move
+        while(knights != 0) {
+            int from = first(knights);
+            knights &= knights - 1;
+            count = addMoves(position, moves, count, from, KNIGHT_ATTACKS[from] & targetMask);
+        }
+        long diagonal = position.pieces(us, BISHOP) | position.pieces(us, QUEEN);
+        while(diagonal != 0) {
+            int from = first(diagonal);
+            diagonal &= diagonal - 1;
+            long targets = bishopAttacks(from, occupied) & targetMask;
+            if((pinned & bit(from)) != 0) {
+                targets &= LINE[kingSq][from];
+            }
+            count = addMoves(position, moves, count, from, targets);
+        }
+        long straight = position.pieces(us, ROOK) | position.pieces(us, QUEEN);
+        while(straight != 0) {
+            int from = first(straight);
+            straight &= straight - 1;
+            long targets = rookAttacks(from, occupied) & targetMask;
+            if((pinned & bit(from)) != 0) {
+                targets &= LINE[kingSq][from];
+            }
+            count = addMoves(position, moves, count, from, targets);
+        }
+        if(checkers == 0 && !capturesOnly) {
+            count = generateCastles(position, moves, count, us, kingSq);
+        }
+        return count;
+    }
+
+    private static long pinned(Position position, int us, int kingSq) {
+        int them = us ^ 1;
+        long occupied = position.occupied();
+        long snipers = (rookAttacks(kingSq, 0L) & (position.pieces(them, ROOK) | position.pieces(them, QUEEN)))
+                | (bishopAttacks(kingSq, 0L) & (position.pieces(them, BISHOP) | position.pieces(them, QUEEN)));
+        long pinned = 0L;
+        while(snipers != 0) {
+            int sniper = first(snipers);
+            snipers &= snipers - 1;
+            long between = BETWEEN[kingSq][sniper] & occupied;
+            if(count(between) == 1) {
+                pinned |= between & position.colorPieces(us);
+            }
+        }
+        return pinned;
+    }
+
+    private static int addMoves(Position position, int[] moves, int count, int from, long targets) {
+        int piece = position.pieceAt(from);
+        while(targets != 0) {
+            int to = first(targets);
+            targets &= targets - 1;
+            int captured = position.pieceAt(to);
+            moves[count++] = Moves.create(from, to, piece, captured, EMPTY,
+                    captured != EMPTY ? Moves.FLAG_CAPTURE : 0);
+        }
+        return count;
+    }
+
+    private static int generatePawnMoves(Position position, int[] moves, int count, int us, int kingSq,
+                                         long pinned, long checkMask, boolean capturesOnly) {
+        int them = us ^ 1;
+        int pawn = piece(us, PAWN);
+        long occupied = position.occupied();
+        long enemy = position.colorPieces(them);
+        int forward = us == WHITE ? 8 : -8;
+        long startRank = us == WHITE ? RANK_2 : RANK_7;
+        long promotionRank = us == WHITE ? RANK_8 : RANK_1;
+        long pawns = position.pieces(pawn);
+        while(pawns != 0) {
+            int from = first(pawns);
+            pawns &= pawns - 1;
+            long allowed = checkMask;
+            if((pinned & bit(from)) != 0) {
+                allowed &= LINE[kingSq][from];
+            }
+            long targets = PAWN_ATTACKS[us][from] & enemy;
+            int single = from + forward;
+            if((occupied & bit(single)) == 0) {
+                if(!capturesOnly || (bit(single) & promotionRank) != 0) {
+                    targets |= bit(single);
+                }
+                if(!capturesOnly && (bit(from) & startRank) != 0 && (occupied & bit(single + forward)) == 0
+                        && (allowed & bit(single + forward)) != 0) {
+                    moves[count++] = Moves.create(from, single + forward, pawn, EMPTY, EMPTY, Moves.FLAG_DOUBLE_PUSH);
+                }
+            }
+            targets &= allowed;
+            while(targets != 0) {
+                int to = first(targets);
+                targets &= targets - 1;
+                int captured = position.pieceAt(to);
+                int flags = captured != EMPTY ? Moves.FLAG_CAPTURE : 0;
+                if((bit(to) & promotionRank) != 0) {
+                    moves[count++] = Moves.create(from, to, pawn, captured, piece(us, QUEEN), flags);
+                    if(!capturesOnly) {
+                        moves[count++] = Moves.create(from, to, pawn, captured, piece(us, KNIGHT), flags);
+                        moves[count++] = Moves.create(from, to, pawn, captured, piece(us, ROOK), flags);
+                        moves[count++] = Moves.create(from, to, pawn, captured, piece(us, BISHOP), flags);
+                    }
+                } else {
+                    moves[count++] = Moves.create(from, to, pawn, captured, EMPTY, flags);
+                }
+            }
+            int ep = position.epSquare();
+            if(ep != NO_SQUARE && (PAWN_ATTACKS[us][from] & bit(ep)) != 0) {
+                int capturedSq = ep - forward;
+                //replay the capture on the occupancy, which also covers pawns pinned along the rank
+                long after = occupied ^ bit(from) ^ bit(ep) ^ bit(capturedSq);
+                if((position.attackersTo(kingSq, after) & enemy & ~bit(capturedSq)) == 0) {
+                    moves[count++] = Moves.create(from, ep, pawn, piece(them, PAWN), EMPTY,
+                            Moves.FLAG_CAPTURE | Moves.FLAG_EN_PASSANT);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int generateCastles(Position position, int[] moves, int count, int us, int kingSq) {
+        int them = us ^ 1;
+        int rights = position.castling();
+        int home = us == WHITE ? square(0, 4) : square(7, 4);
+        if(kingSq != home) {
+            return count;
+        }
+        int kingSide = us == WHITE ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+        int queenSide = us == WHITE ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+        int rook = piece(us, ROOK);
+        long occupied = position.occupied();
+        if((rights & kingSide) != 0 && position.pieceAt(home + 3) == rook
+                && (occupied & (bit(home + 1) | bit(home + 2))) == 0
+                && !position.isAttacked(home + 1, them) && !position.isAttacked(home + 2, them)) {
+            moves[count++] = Moves.create(home, home + 2, piece(us, KING), EMPTY, EMPTY, Moves.FLAG_CASTLE);
+        }
+        if((rights & queenSide) != 0 && position.pieceAt(home - 4) == rook
+                && (occupied & (bit(home - 1) | bit(home - 2) | bit(home - 3))) == 0
+                && !position.isAttacked(home - 1, them) && !position.isAttacked(home - 2, them)) {
+            moves[count++] = Moves.create(home, home - 2, piece(us, KING), EMPTY, EMPTY, Moves.FLAG_CASTLE);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,100 @@
+package engine;
+
+public final class Moves {
+
+    // a move is packed into a single int:
+    // bits 0-5 from square, 6-11 to square, 12-15 promotion piece,
+    // 16-19 moved piece, 20-23 captured piece, 24-27 flags
+    public static final int NONE = 0;
+    public static final int FLAG_CAPTURE = 1;
+    public static final int FLAG_EN_PASSANT = 1 << 1;
+    public static final int FLAG_CASTLE = 1 << 2;
+    public static final int FLAG_DOUBLE_PUSH = 1 << 3;
+
+    private Moves() {}
+
+    public static int create(int from, int to, int piece, int captured, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | (piece << 16) | (captured << 20) | (flags << 24);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static int piece(int move) {
+        return (move >>> 16) & 0xF;
+    }
+
+    public static int captured(int move) {
+        return (move >>> 20) & 0xF;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 24) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & FLAG_CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (flags(move) & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (flags(move) & FLAG_CASTLE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (flags(move) & FLAG_DOUBLE_PUSH) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != Position.EMPTY;
+    }
+
+    public static String toUci(int move) {
+        StringBuilder str = new StringBuilder(5);
+        str.append(squareName(from(move))).append(squareName(to(move)));
+        if(isPromotion(move)) {
+            str.append(Character.toLowerCase(Position.PIECE_TO_FEN[promotion(move)]));
+        }
+        return str.toString();
+    }
+
+    //the legal move in the position written as "e2e4" or "e7e8q", NONE when there is no such move
+    public static int fromUci(Position position, String uci) {
+        if(uci.length() < 4 || uci.length() > 5) {
+            return NONE;
+        }
+        int from = (uci.charAt(1) - '1') * 8 + (uci.charAt(0) - 'a');
+        int to = (uci.charAt(3) - '1') * 8 + (uci.charAt(2) - 'a');
+        int promotion = uci.length() == 5 ? Fen.pieceCode(Character.toLowerCase(uci.charAt(4))) : Position.EMPTY;
+        if(uci.length() == 5 && promotion == Position.EMPTY) {
+            return NONE;
+        }
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, legal);
+        for(int i = 0; i < count; i++) {
+            int move = legal[i];
+            if(from(move) == from && to(move) == to
+                    && (promotion == Position.EMPTY ? !isPromotion(move) : Position.type(promotion(move)) == Position.type(promotion))) {
+                return move;
+            }
+        }
+        return NONE;
+    }
+
+    public static String squareName(int sq) {
+        return "" + (char) ('a' + Bitboards.col(sq)) + (char) ('1' + Bitboards.row(sq));
+    }
+
+}
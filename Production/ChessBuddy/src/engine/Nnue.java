@@ -0,0 +1,138 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static engine.Position.*;
+
+//an efficiently updatable network: 768 piece-square inputs per side to move, a clipped hidden layer and one output
+//file layout, little endian: magic "CBNN", version, hidden size, output scale, then int16 feature weights
+//[input][hidden], int16 hidden biases, int8 output weights [side to move hidden, other side hidden], int32 output bias
+public final class Nnue {
+
+    public static final int INPUTS = 768; //own and enemy pieces, six types, 64 squares, from one side's view
+    public static final int QA = 255; //hidden activations are clipped to 0..QA
+    public static final int QB = 64; //output weights are scaled by QB
+    private static final int MAGIC = 0x4E4E4243; //"CBNN"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_SCORE = Search.TABLEBASE_WIN - Search.MAX_PLY - 1; //never mistaken for a table win or a mate
+
+    private final Path path;
+    private final int hidden;
+    private final int scale; //centipawns for an output of 1.0
+    private final short[] featureWeights; //[input * hidden + neuron], one contiguous row per input
+    private final short[] biases;
+    private final short[] outputWeights; //int8 widened once, [side to move | other side]
+    private final int outputBias;
+
+    //mapped and copied into arrays in one pass, the weights are read far too often to go through the mapping
+    public Nnue(Path path) throws IOException {
+        this.path = path;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is not a network");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(path + " is not a version " + VERSION + " network");
+        }
+        hidden = buffer.getInt(8);
+        scale = buffer.getInt(12);
+        if(hidden <= 0 || hidden > 4096 || buffer.capacity() != fileSize(hidden)) {
+            throw new IOException(path + " has the wrong size for " + hidden + " hidden neurons");
+        }
+        featureWeights = new short[INPUTS * hidden];
+        biases = new short[hidden];
+        outputWeights = new short[2 * hidden];
+        buffer.position(HEADER_BYTES);
+        buffer.asShortBuffer().get(featureWeights).get(biases);
+        buffer.position(HEADER_BYTES + 2 * (featureWeights.length + biases.length));
+        for(int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = buffer.get();
+        }
+        outputBias = buffer.getInt();
+    }
+
+    private static int fileSize(int hidden) {
+        return HEADER_BYTES + 2 * (INPUTS * hidden + hidden) + 2 * hidden + 4;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getHidden() {
+        return hidden;
+    }
+
+    public static boolean isVectorized() {
+        return NnueKernels.VECTORIZED;
+    }
+
+    //the input a piece on a square sets for the given side, the board is mirrored for black
+    static int feature(int perspective, int piece, int sq) {
+        int relative = color(piece) == perspective ? 0 : 6;
+        return ((relative + type(piece) - 1) << 6) + (perspective == WHITE ? sq : sq ^ 56);
+    }
+
+    int rowOffset(int perspective, int piece, int sq) {
+        return feature(perspective, piece, sq) * hidden;
+    }
+
+    short[] featureWeights() {
+        return featureWeights;
+    }
+
+    short[] biases() {
+        return biases;
+    }
+
+    //score from the side to move's point of view, attaches an accumulator to a position that has none yet
+    public int evaluate(Position position) {
+        Accumulator accumulator = position.accumulator();
+        if(accumulator == null || accumulator.network != this) {
+            position.setNetwork(this);
+            accumulator = position.accumulator();
+        }
+        int us = position.sideToMove();
+        long sum = NnueKernels.output(accumulator.values[us], accumulator.values[us ^ 1], outputWeights, hidden, QA)
+                + outputBias;
+        long score = sum * scale / (QA * QB);
+        return (int) Math.max(-MAX_SCORE, Math.min(score, MAX_SCORE));
+    }
+
+    //a network of random weights in the file format, for benchmarks and for trying the pipeline without a trained one
+    public static void writeRandom(Path path, int hidden, long seed) throws IOException {
+        Random random = new Random(seed);
+        ByteBuffer buffer = ByteBuffer.allocate(fileSize(hidden)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hidden).putInt(400);
+        for(int i = 0; i < INPUTS * hidden; i++) {
+            buffer.putShort((short) (random.nextInt(61) - 30));
+        }
+        for(int i = 0; i < hidden; i++) {
+            buffer.putShort((short) random.nextInt(QA));
+        }
+        for(int i = 0; i < 2 * hidden; i++) {
+            buffer.put((byte) (random.nextInt(33) - 16));
+        }
+        buffer.putInt(0);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+}
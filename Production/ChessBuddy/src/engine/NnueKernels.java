@@ -0,0 +1,56 @@
+package engine;
+
+//the inner loops of the network, on jdk.incubator.vector when the module is loaded and plain loops otherwise
+//run with --add-modules jdk.incubator.vector for the vector path, -Dchessbuddy.nnue.scalar=true forces the loops
+final class NnueKernels {
+
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !Boolean.getBoolean("chessbuddy.nnue.scalar");
+
+    private NnueKernels() {}
+
+    static void add(short[] values, short[] weights, int offset, int length) {
+        if(VECTORIZED) {
+            NnueVectorKernels.add(values, weights, offset, length);
+            return;
+        }
+        for(int i = 0; i < length; i++) {
+            values[i] += weights[offset + i];
+        }
+    }
+
+    static void subtract(short[] values, short[] weights, int offset, int length) {
+        if(VECTORIZED) {
+            NnueVectorKernels.subtract(values, weights, offset, length);
+            return;
+        }
+        for(int i = 0; i < length; i++) {
+            values[i] -= weights[offset + i];
+        }
+    }
+
+    static void addSubtract(short[] values, short[] weights, int addOffset, int subtractOffset, int length) {
+        if(VECTORIZED) {
+            NnueVectorKernels.addSubtract(values, weights, addOffset, subtractOffset, length);
+            return;
+        }
+        for(int i = 0; i < length; i++) {
+            values[i] += weights[addOffset + i] - weights[subtractOffset + i];
+        }
+    }
+
+    //clipped activations of both sides times the output weights, side to move first
+    static long output(short[] us, short[] them, short[] weights, int length, int clip) {
+        if(VECTORIZED) {
+            return NnueVectorKernels.output(us, them, weights, length, clip);
+        }
+        int sum = 0; //at most 2 * 4096 * 255 * 128, an int is enough and keeps the loop simple for the JIT
+        for(int i = 0; i < length; i++) {
+            int own = us[i] < 0 ? 0 : us[i] > clip ? clip : us[i];
+            int other = them[i] < 0 ? 0 : them[i] > clip ? clip : them[i];
+            sum += own * weights[i] + other * weights[length + i];
+        }
+        return sum;
+    }
+
+}
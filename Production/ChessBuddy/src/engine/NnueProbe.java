@@ -0,0 +1,25 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+//scores a position with a network and with the handcrafted terms
+//java --add-modules jdk.incubator.vector -cp <classes> engine.NnueProbe <net.nnue> [fen]
+public final class NnueProbe {
+
+    private NnueProbe() {}
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: engine.NnueProbe <net.nnue> [fen]");
+            System.exit(2);
+        }
+        Nnue network = new Nnue(Paths.get(args[0]));
+        Position position = Fen.parse(args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+                : Fen.INITIAL);
+        System.out.printf("%d hidden neurons, %s inference%n", network.getHidden(), Nnue.isVectorized() ? "vector" : "scalar");
+        System.out.printf("network %+d, handcrafted %+d%n", network.evaluate(position), Evaluation.evaluate(position));
+    }
+
+}
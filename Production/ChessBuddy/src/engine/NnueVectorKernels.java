@@ -0,0 +1,77 @@
+package engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+//the vector side of NnueKernels, only loaded when the incubator module is there
+final class NnueVectorKernels {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED; //same width, half the lanes
+
+    private NnueVectorKernels() {}
+
+    static void add(short[] values, short[] weights, int offset, int length) {
+        int bound = SHORTS.loopBound(length);
+        int i = 0;
+        for(; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, values, i).add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(values, i);
+        }
+        for(; i < length; i++) {
+            values[i] += weights[offset + i];
+        }
+    }
+
+    static void subtract(short[] values, short[] weights, int offset, int length) {
+        int bound = SHORTS.loopBound(length);
+        int i = 0;
+        for(; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, values, i).sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(values, i);
+        }
+        for(; i < length; i++) {
+            values[i] -= weights[offset + i];
+        }
+    }
+
+    static void addSubtract(short[] values, short[] weights, int addOffset, int subtractOffset, int length) {
+        int bound = SHORTS.loopBound(length);
+        int i = 0;
+        for(; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, values, i).add(ShortVector.fromArray(SHORTS, weights, addOffset + i))
+                    .sub(ShortVector.fromArray(SHORTS, weights, subtractOffset + i)).intoArray(values, i);
+        }
+        for(; i < length; i++) {
+            values[i] += weights[addOffset + i] - weights[subtractOffset + i];
+        }
+    }
+
+    //a clipped activation times an int8 weight fits in 16 bits, the products are widened before they are summed
+    static long output(short[] us, short[] them, short[] weights, int length, int clip) {
+        ShortVector zero = ShortVector.zero(SHORTS);
+        ShortVector max = ShortVector.broadcast(SHORTS, (short) clip);
+        IntVector sum = IntVector.zero(INTS);
+        int bound = SHORTS.loopBound(length);
+        int i = 0;
+        for(; i < bound; i += SHORTS.length()) {
+            ShortVector own = ShortVector.fromArray(SHORTS, us, i).max(zero).min(max)
+                    .mul(ShortVector.fromArray(SHORTS, weights, i));
+            ShortVector other = ShortVector.fromArray(SHORTS, them, i).max(zero).min(max)
+                    .mul(ShortVector.fromArray(SHORTS, weights, length + i));
+            sum = sum.add((IntVector) own.convertShape(VectorOperators.S2I, INTS, 0))
+                    .add((IntVector) own.convertShape(VectorOperators.S2I, INTS, 1))
+                    .add((IntVector) other.convertShape(VectorOperators.S2I, INTS, 0))
+                    .add((IntVector) other.convertShape(VectorOperators.S2I, INTS, 1));
+        }
+        long total = sum.reduceLanes(VectorOperators.ADD);
+        for(; i < length; i++) {
+            total += Math.max(0, Math.min(us[i], clip)) * weights[i]
+                    + Math.max(0, Math.min(them[i], clip)) * weights[length + i];
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,101 @@
+package engine;
+
+//lazy SMP, every thread searches the whole root and they only cooperate through the shared table
+public final class ParallelSearch {
+
+    private final TranspositionTable table;
+    private final Search[] searches; //searches[0] runs on the calling thread and owns the limits
+
+    public ParallelSearch(TranspositionTable table, int threads) {
+        this.table = table;
+        searches = new Search[Math.max(1, threads)];
+        for(int i = 0; i < searches.length; i++) {
+            searches[i] = new Search(table);
+            searches[i].setStartDepth(1 + (i & 1)); //odd helpers run one ply ahead
+        }
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public long getNodes() {
+        long nodes = 0;
+        for(Search search : searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        for(Search search : searches) {
+            search.setTablebase(tablebase);
+        }
+    }
+
+    public void setNetwork(Nnue network) {
+        for(Search search : searches) {
+            search.setNetwork(network); //the weights are shared, each search keeps its own accumulator
+        }
+    }
+
+    public void stop() {
+        for(Search search : searches) {
+            search.stop();
+        }
+    }
+
+    //helpers run until the main search returns, a node limit only counts the main search
+    public SearchInfo search(Position root, SearchLimits limits, SearchListener listener) {
+        Position position = root.copy();
+        SearchLimits helperLimits = SearchLimits.depth(limits.getDepth());
+        SearchInfo[] results = new SearchInfo[searches.length];
+        Thread[] helpers = new Thread[searches.length - 1];
+        for(int i = 0; i < helpers.length; i++) {
+            int index = i + 1;
+            helpers[i] = new Thread(() -> results[index] = searches[index].search(position, helperLimits, null),
+                    "engine-helper-" + index);
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+        try {
+            results[0] = searches[0].search(position, limits, listener == null ? null
+                    : (info) -> listener.onIteration(withTotalNodes(info)));
+        } finally {
+            joinAll(helpers);
+        }
+        SearchInfo best = results[0];
+        for(SearchInfo result : results) {
+            if(result != null && result.getDepth() > best.getDepth()) {
+                best = result; //a helper that completed a deeper iteration has the better line
+            }
+        }
+        return withTotalNodes(best);
+    }
+
+    private SearchInfo withTotalNodes(SearchInfo info) {
+        return new SearchInfo(info.getDepth(), info.getScore(), getNodes(), info.getTimeMillis(), info.getPv());
+    }
+
+    private void joinAll(Thread[] helpers) {
+        boolean interrupted = false;
+        for(int i = 0; i < helpers.length; i++) {
+            while(helpers[i].isAlive()) {
+                searches[i + 1].stop(); //repeated in case the helper had not started searching yet
+                try {
+                    helpers[i].join(10);
+                } catch (InterruptedException ex) {
+                    interrupted = true; //keep waiting, the helpers share this search's arrays
+                }
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
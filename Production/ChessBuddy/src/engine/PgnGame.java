@@ -0,0 +1,59 @@
+package engine;
+
+import java.util.Map;
+
+public final class PgnGame {
+
+    private final long offset; //byte offset of the game in its file, see PgnReader.seek
+    private final Map<String, String> tags;
+    private final int[] moves; //packed as in engine.Moves, empty when only the tags were read
+    private final String result;
+    private final String error; //why replaying stopped early, null for a complete game
+
+    public PgnGame(long offset, Map<String, String> tags, int[] moves, String result, String error) {
+        this.offset = offset;
+        this.tags = tags;
+        this.moves = moves;
+        this.result = result;
+        this.error = error;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public String getTag(String name) {
+        return tags.getOrDefault(name, "?");
+    }
+
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean hasError() {
+        return error != null;
+    }
+
+    //null when the game starts from the initial position
+    public String getStartFen() {
+        return tags.get("FEN");
+    }
+
+    public String getDescription() {
+        return getTag("White") + " - " + getTag("Black") + "  " + result + "  " + getTag("Event")
+                + " " + getTag("Date");
+    }
+
+}
@@ -0,0 +1,292 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//streams games from a file through a fixed buffer, movetext is resolved token by token as it is read
+public final class PgnReader implements Closeable {
+
+    public static final int BUFFER_SIZE = 1 << 16;
+    private static final int EOF = -1;
+    private static final int MAX_TOKEN = 64;
+
+    private final FileChannel channel;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position; //next unread byte in bytes
+    private int limit;
+    private long bufferStart; //file offset of bytes[0]
+    private final char[] token = new char[MAX_TOKEN];
+    private final int[] legal = new int[MoveGenerator.MAX_MOVES];
+    private byte[] text = new byte[256]; //tag bytes, decoded as UTF-8 once complete
+    private final Position initial = Fen.parse(Fen.INITIAL);
+    private int[] moves = new int[256];
+
+    public PgnReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    public long getOffset() {
+        return bufferStart + position;
+    }
+
+    public long getSize() throws IOException {
+        return channel.size();
+    }
+
+    //continues reading at a game offset returned by an earlier PgnGame
+    public void seek(long offset) throws IOException {
+        channel.position(offset);
+        bufferStart = offset;
+        position = 0;
+        limit = 0;
+    }
+
+    public PgnGame next() throws IOException {
+        return read(true);
+    }
+
+    //skips the movetext without replaying it, for indexing large files
+    public PgnGame nextTagsOnly() throws IOException {
+        return read(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private PgnGame read(boolean replay) throws IOException {
+        skipWhitespace();
+        if(peek() == EOF) {
+            return null;
+        }
+        long offset = getOffset();
+        Map<String, String> tags = new LinkedHashMap<>();
+        while(peek() == '[') {
+            readTag(tags);
+            skipWhitespace();
+        }
+        Position board = null;
+        String error = null;
+        if(replay) {
+            try {
+                board = tags.containsKey("FEN") ? Fen.parse(tags.get("FEN")) : initial.copy();
+            } catch (IllegalArgumentException ex) {
+                error = ex.getMessage();
+            }
+        }
+        int count = 0;
+        String result = "*";
+        loop:
+        while(true) {
+            int c = peek();
+            switch(c) {
+                case EOF:
+                case '[': //the next game started without a result
+                    break loop;
+                case '{':
+                    skipPast('}');
+                    break;
+                case ';':
+                case '%':
+                    skipPast('\n');
+                    break;
+                case '(':
+                    skipVariation();
+                    break;
+                case ')':
+                case '}':
+                case ']':
+                    position++;
+                    break;
+                case '$':
+                    position++;
+                    while(peek() >= '0' && peek() <= '9') {
+                        position++;
+                    }
+                    break;
+                default:
+                    if(c <= ' ') {
+                        position++;
+                        break;
+                    }
+                    int length = readToken();
+                    if(c == '*' || isResult(length)) {
+                        result = new String(token, 0, length);
+                        break loop;
+                    }
+                    if(board == null || error != null) {
+                        break;
+                    }
+                    int start = skipMoveNumber(length);
+                    if(start == length) {
+                        break;
+                    }
+                    int move = San.parse(board, token, start, length - start, legal);
+                    if(move == Moves.NONE) {
+                        error = "Illegal move " + new String(token, start, length - start) + " at ply " + (count + 1);
+                        break;
+                    }
+                    board.makeMove(move);
+                    if(count == moves.length) {
+                        moves = Arrays.copyOf(moves, count * 2);
+                    }
+                    moves[count++] = move;
+            }
+        }
+        return new PgnGame(offset, tags, Arrays.copyOf(moves, count), result, error);
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        position++; //[
+        int length = 0;
+        int c;
+        while((c = peek()) != EOF && c > ' ' && c != '"' && c != ']') {
+            length = append(length, c);
+        }
+        String name = new String(text, 0, length, StandardCharsets.UTF_8);
+        while((c = peek()) != EOF && c != '"' && c != ']') {
+            position++;
+        }
+        length = 0;
+        if(c == '"') {
+            position++;
+            while((c = peek()) != EOF && c != '"' && c != '\n') {
+                if(c == '\\') {
+                    position++;
+                    if((c = peek()) == EOF) {
+                        break;
+                    }
+                }
+                length = append(length, c);
+            }
+        }
+        skipPast(']');
+        tags.put(name, new String(text, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private int append(int length, int c) {
+        if(length == text.length) {
+            text = Arrays.copyOf(text, length * 2);
+        }
+        text[length] = (byte) c;
+        position++;
+        return length + 1;
+    }
+
+    private int readToken() throws IOException {
+        int length = 0;
+        int c;
+        while((c = peek()) > ' ' && !isDelimiter(c)) {
+            if(length < MAX_TOKEN) {
+                token[length++] = (char) c;
+            }
+            position++;
+        }
+        return length;
+    }
+
+    //"12." and "12..." prefixes, also when glued to the move as in "12.e4"
+    private int skipMoveNumber(int length) {
+        int i = 0;
+        while(i < length && token[i] >= '0' && token[i] <= '9') {
+            i++;
+        }
+        if(i == 0 || (i < length && token[i] != '.')) {
+            return 0; //not a move number, castling may be written with zeros
+        }
+        while(i < length && token[i] == '.') {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean isResult(int length) {
+        return matches("1-0", length) || matches("0-1", length) || matches("1/2-1/2", length);
+    }
+
+    private boolean matches(String str, int length) {
+        if(length != str.length()) {
+            return false;
+        }
+        for(int i = 0; i < length; i++) {
+            if(token[i] != str.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDelimiter(int c) {
+        return c == '{' || c == '}' || c == '(' || c == ')' || c == ';' || c == '[' || c == ']' || c == '$';
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        int c;
+        while((c = peek()) != EOF) {
+            position++;
+            if(c == '(') {
+                depth++;
+            } else if(c == ')') {
+                if(--depth == 0) {
+                    return;
+                }
+            } else if(c == '{') {
+                skipPast('}'); //comments may hold unbalanced parentheses
+            } else if(c == ';') {
+                skipPast('\n');
+            }
+        }
+    }
+
+    private void skipPast(int end) throws IOException {
+        int c;
+        while((c = peek()) != EOF) {
+            position++;
+            if(c == end) {
+                return;
+            }
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c;
+        while((c = peek()) != EOF && (c <= ' ' || c == 0xEF || c == 0xBB || c == 0xBF)) { //byte order mark too
+            position++;
+        }
+    }
+
+    private int peek() throws IOException {
+        if(position == limit && !fill()) {
+            return EOF;
+        }
+        return bytes[position] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        bufferStart += limit;
+        position = 0;
+        limit = 0;
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while(read == 0);
+        if(read < 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+}
@@ -0,0 +1,124 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static engine.Position.*;
+
+//a Polyglot .bin book mapped read-only, 16 byte big endian entries sorted by key: key, move, weight, learn
+//lookups are a binary search over the mapping, nothing of the book is copied into the heap
+public final class PolyglotBook {
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int[] PROMOTION_TYPE = {0, KNIGHT, BISHOP, ROOK, QUEEN}; //Polyglot promotion code to type
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int entries;
+
+    //the mapping stays valid after the channel is closed, so there is nothing to close later
+    public PolyglotBook(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is over 2 GB");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        entries = buffer.capacity() / ENTRY_BYTES;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    //first entry whose key is not below the given one, keys sort as unsigned numbers
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = entries;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(Long.compareUnsigned(buffer.getLong(mid * ENTRY_BYTES), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //legal book moves of the position and their weights, returns how many there are
+    public int probe(Position position, int[] moves, int[] weights) {
+        long key = PolyglotKey.of(position);
+        int count = 0;
+        int[] legal = null;
+        int legalCount = 0;
+        for(int i = lowerBound(key); i < entries && buffer.getLong(i * ENTRY_BYTES) == key && count < moves.length; i++) {
+            if(legal == null) { //most positions are out of book, only generate when there is something to match
+                legal = new int[MoveGenerator.MAX_MOVES];
+                legalCount = MoveGenerator.generateLegal(position, legal);
+            }
+            int move = decode(buffer.getShort(i * ENTRY_BYTES + 8) & 0xFFFF, legal, legalCount);
+            int weight = buffer.getShort(i * ENTRY_BYTES + 10) & 0xFFFF;
+            if(move != Moves.NONE && weight > 0) {
+                moves[count] = move;
+                weights[count] = weight;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //a book move chosen in proportion to its weight, Moves.NONE when the position is not in the book
+    public int pick(Position position, Random random) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] weights = new int[MoveGenerator.MAX_MOVES];
+        int count = probe(position, moves, weights);
+        int total = 0;
+        for(int i = 0; i < count; i++) {
+            total += weights[i];
+        }
+        if(total == 0) {
+            return Moves.NONE;
+        }
+        int target = random.nextInt(total);
+        for(int i = 0; i < count; i++) {
+            target -= weights[i];
+            if(target < 0) {
+                return moves[i];
+            }
+        }
+        return moves[count - 1];
+    }
+
+    //to in bits 0-5, from in 6-11, promotion in 12-14, castling is written as the king taking its rook
+    static int decode(int bookMove, int[] legal, int count) {
+        int to = bookMove & 63;
+        int from = (bookMove >>> 6) & 63;
+        int promotion = (bookMove >>> 12) & 7;
+        int promotionType = promotion < PROMOTION_TYPE.length ? PROMOTION_TYPE[promotion] : -1;
+        for(int i = 0; i < count; i++) {
+            int move = legal[i];
+            if(Moves.from(move) != from || type(Moves.promotion(move)) != promotionType) {
+                continue;
+            }
+            if(Moves.to(move) == to) {
+                return move;
+            }
+            if(Moves.isCastle(move) && (to & 7) == (Moves.to(move) > from ? 7 : 0)) {
+                return move; //e1h1 is O-O, e1a1 is O-O-O
+            }
+        }
+        return Moves.NONE;
+    }
+
+}
@@ -0,0 +1,416 @@
+package engine;
+
+import java.util.Arrays;
+
+import static engine.Bitboards.*;
+
+public final class Position {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final byte EMPTY = 0; //same codes as the ByteBoard in GameInfo
+    public static final byte WHITE_PAWN = 1;
+    public static final byte WHITE_BISHOP = 2;
+    public static final byte WHITE_KNIGHT = 3;
+    public static final byte WHITE_ROOK = 4;
+    public static final byte WHITE_QUEEN = 5;
+    public static final byte WHITE_KING = 6;
+    public static final byte BLACK_PAWN = 7;
+    public static final byte BLACK_BISHOP = 8;
+    public static final byte BLACK_KNIGHT = 9;
+    public static final byte BLACK_ROOK = 10;
+    public static final byte BLACK_QUEEN = 11;
+    public static final byte BLACK_KING = 12;
+    public static final int PAWN = 1; //colorless piece types
+    public static final int BISHOP = 2;
+    public static final int KNIGHT = 3;
+    public static final int ROOK = 4;
+    public static final int QUEEN = 5;
+    public static final int KING = 6;
+    public static final char[] PIECE_TO_FEN = {' ','P','B','N','R','Q','K','p','b','n','r','q','k'};
+
+    public static final int WHITE_KING_SIDE = 1; //castling rights bits
+    public static final int WHITE_QUEEN_SIDE = 1 << 1;
+    public static final int BLACK_KING_SIDE = 1 << 2;
+    public static final int BLACK_QUEEN_SIDE = 1 << 3;
+    public static final int ALL_CASTLING = 0xF;
+    public static final int NO_SQUARE = -1;
+
+    private static final int[] CASTLING_MASK = new int[64]; //rights kept when a piece leaves or lands on a square
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[square(0,4)] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASK[square(0,7)] &= ~WHITE_KING_SIDE;
+        CASTLING_MASK[square(0,0)] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASK[square(7,4)] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASK[square(7,7)] &= ~BLACK_KING_SIDE;
+        CASTLING_MASK[square(7,0)] &= ~BLACK_QUEEN_SIDE;
+    }
+
+    private final long[] pieces = new long[13]; //one bitboard per piece code
+    private final long[] colors = new long[2];
+    private long occupied;
+    private final byte[] board = new byte[64]; //mailbox for piece lookups
+    private int side = WHITE;
+    private int castling;
+    private int epSquare = NO_SQUARE;
+    private int halfMoveClock;
+    private int fullMoveNumber = 1;
+    private long key; //zobrist key kept up to date by every board change
+    private int mgScore; //material and square bonuses for white minus black, kept up to date like the key
+    private int egScore;
+    private int phase; //Evaluation.PHASE summed over the pieces on the board
+    private Accumulator accumulator; //hidden layer of an attached network, null without one
+
+    private int ply; //undo stack
+    private int[] undoCastling = new int[256];
+    private int[] undoEpSquare = new int[256];
+    private int[] undoHalfMoveClock = new int[256];
+    private long[] undoKey = new long[256];
+
+    public static int color(int piece) {
+        return piece > WHITE_KING ? BLACK : WHITE;
+    }
+
+    public static int type(int piece) {
+        return piece > WHITE_KING ? piece - WHITE_KING : piece;
+    }
+
+    public static int piece(int color, int type) {
+        return color == WHITE ? type : type + WHITE_KING;
+    }
+
+    public static int updateCastling(int rights, int from, int to) {
+        return rights & CASTLING_MASK[from] & CASTLING_MASK[to];
+    }
+
+    public Position() {}
+
+    public static Position fromBoard(byte[][] byteBoard, boolean whiteToMove, int castling, int epSquare) {
+        Position position = new Position();
+        for(int i = 0; i < 8; i++) {
+            for(int j = 0; j < 8; j++) {
+                if(byteBoard[i][j] != EMPTY) {
+                    position.put(byteBoard[i][j], square(i, j));
+                }
+            }
+        }
+        position.side = whiteToMove ? WHITE : BLACK;
+        position.castling = castling;
+        position.epSquare = epSquare;
+        position.key = Zobrist.hash(position);
+        return position;
+    }
+
+    public Position copy() {
+        Position position = new Position();
+        System.arraycopy(pieces, 0, position.pieces, 0, pieces.length);
+        System.arraycopy(colors, 0, position.colors, 0, colors.length);
+        System.arraycopy(board, 0, position.board, 0, board.length);
+        position.occupied = occupied;
+        position.side = side;
+        position.castling = castling;
+        position.epSquare = epSquare;
+        position.halfMoveClock = halfMoveClock;
+        position.fullMoveNumber = fullMoveNumber;
+        position.key = key;
+        position.mgScore = mgScore;
+        position.egScore = egScore;
+        position.phase = phase;
+        position.accumulator = accumulator == null ? null : accumulator.copy();
+        position.ply = ply; //the undo stack too, so a search from the copy still sees repetitions
+        if(ply > position.undoKey.length) {
+            position.undoCastling = new int[undoCastling.length];
+            position.undoEpSquare = new int[undoEpSquare.length];
+            position.undoHalfMoveClock = new int[undoHalfMoveClock.length];
+            position.undoKey = new long[undoKey.length];
+        }
+        System.arraycopy(undoCastling, 0, position.undoCastling, 0, ply);
+        System.arraycopy(undoEpSquare, 0, position.undoEpSquare, 0, ply);
+        System.arraycopy(undoHalfMoveClock, 0, position.undoHalfMoveClock, 0, ply);
+        System.arraycopy(undoKey, 0, position.undoKey, 0, ply);
+        return position;
+    }
+
+    public byte[][] toBoard() {
+        byte[][] byteBoard = new byte[8][8];
+        for(int sq = 0; sq < 64; sq++) {
+            byteBoard[row(sq)][col(sq)] = board[sq];
+        }
+        return byteBoard;
+    }
+
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[piece(color, type)];
+    }
+
+    public long colorPieces(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public int pieceAt(int sq) {
+        return board[sq];
+    }
+
+    public int sideToMove() {
+        return side;
+    }
+
+    public boolean isWhiteToMove() {
+        return side == WHITE;
+    }
+
+    public int castling() {
+        return castling;
+    }
+
+    public int epSquare() {
+        return epSquare;
+    }
+
+    public long key() {
+        return key;
+    }
+
+    public int mgScore() {
+        return mgScore;
+    }
+
+    public int egScore() {
+        return egScore;
+    }
+
+    public int phase() {
+        return phase;
+    }
+
+    //every later change of the board updates the network's accumulator, null detaches it
+    public void setNetwork(Nnue network) {
+        accumulator = network == null ? null : new Accumulator(network);
+        if(accumulator != null) {
+            accumulator.refresh(this);
+        }
+    }
+
+    Accumulator accumulator() {
+        return accumulator;
+    }
+
+    public int halfMoveClock() {
+        return halfMoveClock;
+    }
+
+    public int fullMoveNumber() {
+        return fullMoveNumber;
+    }
+
+    public void setHalfMoveClock(int halfMoveClock) {
+        this.halfMoveClock = halfMoveClock;
+    }
+
+    public void setFullMoveNumber(int fullMoveNumber) {
+        this.fullMoveNumber = fullMoveNumber;
+    }
+
+    public int kingSquare(int color) {
+        return first(pieces[piece(color, KING)]);
+    }
+
+    private void put(int piece, int sq) {
+        long b = bit(sq);
+        pieces[piece] |= b;
+        colors[color(piece)] |= b;
+        occupied |= b;
+        board[sq] = (byte) piece;
+        key ^= Zobrist.piece(piece, sq);
+        mgScore += Evaluation.MG_TABLE[piece][sq];
+        egScore += Evaluation.EG_TABLE[piece][sq];
+        phase += Evaluation.PHASE[piece];
+        if(accumulator != null) {
+            accumulator.add(piece, sq);
+        }
+    }
+
+    private void remove(int piece, int sq) {
+        long b = ~bit(sq);
+        pieces[piece] &= b;
+        colors[color(piece)] &= b;
+        occupied &= b;
+        board[sq] = EMPTY;
+        key ^= Zobrist.piece(piece, sq);
+        mgScore -= Evaluation.MG_TABLE[piece][sq];
+        egScore -= Evaluation.EG_TABLE[piece][sq];
+        phase -= Evaluation.PHASE[piece];
+        if(accumulator != null) {
+            accumulator.remove(piece, sq);
+        }
+    }
+
+    private void shift(int piece, int from, int to) {
+        long b = bit(from) | bit(to);
+        pieces[piece] ^= b;
+        colors[color(piece)] ^= b;
+        occupied ^= b;
+        board[from] = EMPTY;
+        board[to] = (byte) piece;
+        key ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+        mgScore += Evaluation.MG_TABLE[piece][to] - Evaluation.MG_TABLE[piece][from];
+        egScore += Evaluation.EG_TABLE[piece][to] - Evaluation.EG_TABLE[piece][from];
+        if(accumulator != null) {
+            accumulator.move(piece, from, to);
+        }
+    }
+
+    public long attackersTo(int sq, long occupancy) {
+        return (PAWN_ATTACKS[BLACK][sq] & pieces[WHITE_PAWN])
+                | (PAWN_ATTACKS[WHITE][sq] & pieces[BLACK_PAWN])
+                | (KNIGHT_ATTACKS[sq] & (pieces[WHITE_KNIGHT] | pieces[BLACK_KNIGHT]))
+                | (KING_ATTACKS[sq] & (pieces[WHITE_KING] | pieces[BLACK_KING]))
+                | (bishopAttacks(sq, occupancy) & (pieces[WHITE_BISHOP] | pieces[BLACK_BISHOP]
+                        | pieces[WHITE_QUEEN] | pieces[BLACK_QUEEN]))
+                | (rookAttacks(sq, occupancy) & (pieces[WHITE_ROOK] | pieces[BLACK_ROOK]
+                        | pieces[WHITE_QUEEN] | pieces[BLACK_QUEEN]));
+    }
+
+    public boolean isAttacked(int sq, int byColor, long occupancy) {
+        int offset = byColor == WHITE ? 0 : WHITE_KING;
+        return (PAWN_ATTACKS[byColor ^ 1][sq] & pieces[WHITE_PAWN + offset]) != 0
+                || (KNIGHT_ATTACKS[sq] & pieces[WHITE_KNIGHT + offset]) != 0
+                || (KING_ATTACKS[sq] & pieces[WHITE_KING + offset]) != 0
+                || (bishopAttacks(sq, occupancy) & (pieces[WHITE_BISHOP + offset] | pieces[WHITE_QUEEN + offset])) != 0
+                || (rookAttacks(sq, occupancy) & (pieces[WHITE_ROOK + offset] | pieces[WHITE_QUEEN + offset])) != 0;
+    }
+
+    public boolean isAttacked(int sq, int byColor) {
+        return isAttacked(sq, byColor, occupied);
+    }
+
+    public long checkers() {
+        return attackersTo(kingSquare(side), occupied) & colors[side ^ 1];
+    }
+
+    //true when the position occurred before since the last capture or pawn move
+    public boolean isRepetition() {
+        int limit = Math.max(0, ply - halfMoveClock);
+        for(int i = ply - 2; i >= limit; i -= 2) {
+            if(undoKey[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean inCheck() {
+        return isAttacked(kingSquare(side), side ^ 1, occupied);
+    }
+
+    private long enPassantKey() {
+        return Zobrist.enPassant(epSquare, pieces[piece(side, PAWN)], side);
+    }
+
+    private void push() {
+        if(ply == undoCastling.length) {
+            undoCastling = Arrays.copyOf(undoCastling, ply * 2);
+            undoEpSquare = Arrays.copyOf(undoEpSquare, ply * 2);
+            undoHalfMoveClock = Arrays.copyOf(undoHalfMoveClock, ply * 2);
+            undoKey = Arrays.copyOf(undoKey, ply * 2);
+        }
+        undoCastling[ply] = castling;
+        undoEpSquare[ply] = epSquare;
+        undoHalfMoveClock[ply] = halfMoveClock;
+        undoKey[ply] = key;
+        ply++;
+    }
+
+    private void pop() {
+        ply--;
+        castling = undoCastling[ply];
+        epSquare = undoEpSquare[ply];
+        halfMoveClock = undoHalfMoveClock[ply];
+        key = undoKey[ply];
+    }
+
+    public void makeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int piece = Moves.piece(move);
+        int captured = Moves.captured(move);
+        int promotion = Moves.promotion(move);
+        push();
+        key ^= Zobrist.castling(castling) ^ enPassantKey();
+        if(Moves.isEnPassant(move)) {
+            remove(captured, side == WHITE ? to - 8 : to + 8);
+        } else if(captured != EMPTY) {
+            remove(captured, to);
+        }
+        if(promotion != EMPTY) {
+            remove(piece, from);
+            put(promotion, to);
+        } else {
+            shift(piece, from, to);
+        }
+        if(Moves.isCastle(move)) {
+            int rook = piece(side, ROOK);
+            if(to > from) {
+                shift(rook, from + 3, from + 1);
+            } else {
+                shift(rook, from - 4, from - 1);
+            }
+        }
+        castling = updateCastling(castling, from, to);
+        epSquare = Moves.isDoublePush(move) ? (from + to) >>> 1 : NO_SQUARE;
+        if(type(piece) == PAWN || captured != EMPTY) {
+            halfMoveClock = 0;
+        } else {
+            halfMoveClock++;
+        }
+        if(side == BLACK) {
+            fullMoveNumber++;
+        }
+        side ^= 1;
+        key ^= Zobrist.side() ^ Zobrist.castling(castling) ^ enPassantKey();
+    }
+
+    public void unmakeMove(int move) {
+        side ^= 1;
+        if(side == BLACK) {
+            fullMoveNumber--;
+        }
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int piece = Moves.piece(move);
+        int captured = Moves.captured(move);
+        int promotion = Moves.promotion(move);
+        if(Moves.isCastle(move)) {
+            int rook = piece(side, ROOK);
+            if(to > from) {
+                shift(rook, from + 1, from + 3);
+            } else {
+                shift(rook, from - 1, from - 4);
+            }
+        }
+        if(promotion != EMPTY) {
+            remove(promotion, to);
+            put(piece, from);
+        } else {
+            shift(piece, to, from);
+        }
+        if(Moves.isEnPassant(move)) {
+            put(captured, side == WHITE ? to - 8 : to + 8);
+        } else if(captured != EMPTY) {
+            put(captured, to);
+        }
+        pop();
+    }
+
+}
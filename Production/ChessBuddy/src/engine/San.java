@@ -0,0 +1,156 @@
+package engine;
+
+import static engine.Position.*;
+
+public final class San {
+
+    private San() {}
+
+    public static int parse(Position position, String san) {
+        return parse(position, san.toCharArray(), 0, san.length(), new int[MoveGenerator.MAX_MOVES]);
+    }
+
+    //resolves a SAN token against the legal moves, Moves.NONE when it is illegal or ambiguous
+    public static int parse(Position position, char[] san, int start, int length, int[] moves) {
+        int end = start + length;
+        while(end > start && isSuffix(san[end - 1])) {
+            end--;
+        }
+        if(end - start > 4 && san[end - 4] == 'e' && san[end - 3] == '.' && san[end - 2] == 'p' && san[end - 1] == '.') {
+            end -= 4; //"e.p." as written by GameInfo
+        }
+        if(end - start < 2) {
+            return Moves.NONE;
+        }
+        int count = MoveGenerator.generateLegal(position, moves);
+        char first = san[start];
+        if(first == 'O' || first == '0') {
+            boolean queenSide = end - start >= 5; //O-O-O
+            for(int i = 0; i < count; i++) {
+                int move = moves[i];
+                if(Moves.isCastle(move) && (Moves.to(move) < Moves.from(move)) == queenSide) {
+                    return move;
+                }
+            }
+            return Moves.NONE;
+        }
+        int i = start;
+        int type = pieceType(first);
+        if(type == EMPTY) {
+            type = PAWN;
+        } else {
+            i++;
+        }
+        int promotion = EMPTY;
+        if(type == PAWN && pieceType(Character.toUpperCase(san[end - 1])) != EMPTY) {
+            promotion = pieceType(Character.toUpperCase(san[end - 1]));
+            end--;
+            if(end > i && san[end - 1] == '=') {
+                end--;
+            }
+        }
+        if(end - i < 2) {
+            return Moves.NONE;
+        }
+        int toCol = san[end - 2] - 'a';
+        int toRow = san[end - 1] - '1';
+        if(toCol < 0 || toCol > 7 || toRow < 0 || toRow > 7) {
+            return Moves.NONE;
+        }
+        int fromCol = -1;
+        int fromRow = -1;
+        for(int j = i; j < end - 2; j++) {
+            char c = san[j];
+            if(c >= 'a' && c <= 'h') {
+                fromCol = c - 'a';
+            } else if(c >= '1' && c <= '8') {
+                fromRow = c - '1';
+            } else if(c != 'x' && c != '-' && c != ':') {
+                return Moves.NONE;
+            }
+        }
+        int to = Bitboards.square(toRow, toCol);
+        int match = Moves.NONE;
+        for(int j = 0; j < count; j++) {
+            int move = moves[j];
+            int from = Moves.from(move);
+            if(Moves.to(move) == to && type(Moves.piece(move)) == type
+                    && (fromCol < 0 || Bitboards.col(from) == fromCol)
+                    && (fromRow < 0 || Bitboards.row(from) == fromRow)
+                    && type(Moves.promotion(move)) == promotion) {
+                if(match != Moves.NONE) {
+                    return Moves.NONE; //ambiguous
+                }
+                match = move;
+            }
+        }
+        return match;
+    }
+
+    //standard algebraic notation of a legal move, with + or # when it gives check or mate
+    public static String toSan(Position position, int move) {
+        StringBuilder str = new StringBuilder(8);
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int type = type(Moves.piece(move));
+        if(Moves.isCastle(move)) {
+            str.append(to < from ? "O-O-O" : "O-O");
+        } else {
+            if(type == PAWN) {
+                if(Moves.isCapture(move)) {
+                    str.append((char) ('a' + Bitboards.col(from)));
+                }
+            } else {
+                str.append(PIECE_TO_FEN[type]);
+                int[] moves = new int[MoveGenerator.MAX_MOVES];
+                int count = MoveGenerator.generateLegal(position, moves);
+                boolean ambiguous = false;
+                boolean sameCol = false;
+                boolean sameRow = false;
+                for(int i = 0; i < count; i++) { //other pieces of the kind that reach the square
+                    int other = Moves.from(moves[i]);
+                    if(Moves.to(moves[i]) == to && other != from && type(Moves.piece(moves[i])) == type) {
+                        ambiguous = true;
+                        sameCol |= Bitboards.col(other) == Bitboards.col(from);
+                        sameRow |= Bitboards.row(other) == Bitboards.row(from);
+                    }
+                }
+                if(ambiguous && (!sameCol || sameRow)) {
+                    str.append((char) ('a' + Bitboards.col(from)));
+                }
+                if(ambiguous && sameCol) {
+                    str.append((char) ('1' + Bitboards.row(from)));
+                }
+            }
+            if(Moves.isCapture(move)) {
+                str.append('x');
+            }
+            str.append(Moves.squareName(to));
+            if(Moves.isPromotion(move)) {
+                str.append('=').append(PIECE_TO_FEN[type(Moves.promotion(move))]);
+            }
+        }
+        position.makeMove(move);
+        if(position.inCheck()) {
+            str.append(MoveGenerator.hasLegalMoves(position) ? '+' : '#');
+        }
+        position.unmakeMove(move);
+        return str.toString();
+    }
+
+    private static int pieceType(char c) {
+        switch(c) {
+            case 'N': return KNIGHT;
+            case 'B': return BISHOP;
+            case 'R': return ROOK;
+            case 'Q': return QUEEN;
+            case 'K': return KING;
+            default: return EMPTY;
+        }
+    }
+
+    private static boolean isSuffix(char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+}
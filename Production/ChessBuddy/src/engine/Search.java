@@ -0,0 +1,320 @@
+package engine;
+
+import java.util.Arrays;
+
+import static engine.MoveGenerator.MAX_MOVES;
+
+public final class Search {
+
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000; //mate at ply n scores MATE - n
+    public static final int MAX_PLY = 128;
+    public static final int TABLEBASE_WIN = MATE - 2*MAX_PLY; //a won table position at ply n scores TABLEBASE_WIN - n
+
+    private static final int PV_SCORE = 3_000_000; //move ordering scores
+    private static final int HASH_SCORE = 2_500_000;
+    private static final int CAPTURE_SCORE = 2_000_000;
+    private static final int FIRST_KILLER_SCORE = 1_000_000;
+    private static final int SECOND_KILLER_SCORE = 900_000;
+    private static final int[] ATTACKER_ORDER = {0, 1, 2, 2, 3, 4, 5}; //least valuable attacker first, by type
+
+    private final int[][] moveLists = new int[MAX_PLY][MAX_MOVES];
+    private final int[][] scoreLists = new int[MAX_PLY][MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2]; //quiet moves that caused a cutoff at each ply
+    private final int[][] history = new int[13][64]; //[piece][to square] cutoff counts for quiet moves
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private int[] previousPv = new int[0];
+    private boolean followPv;
+    private final TranspositionTable table;
+    private int startDepth = 1; //helpers of a parallel search start deeper to spread the work
+    private Tablebase tablebase; //null without endgame tables
+    private Nnue network; //null for the handcrafted evaluation
+    private int[] rootMoves; //the moves the tables allow at the root, null to search every move
+
+    private Position position;
+    private volatile boolean stopped;
+    private long nodes;
+    private long nodeLimit;
+    private long startTime;
+    private long deadline;
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public Search() {
+        this(new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public void setNetwork(Nnue network) {
+        this.network = network;
+    }
+
+    void setStartDepth(int startDepth) {
+        this.startDepth = Math.max(1, Math.min(startDepth, MAX_PLY - 1));
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    //iterative deepening until a limit is hit, the root position is searched on a copy
+    public SearchInfo search(Position root, SearchLimits limits, SearchListener listener) {
+        position = root.copy();
+        position.setNetwork(network); //a fresh accumulator, or none so moves pay nothing for it
+        stopped = false;
+        nodes = 0;
+        nodeLimit = limits.getNodes();
+        startTime = System.currentTimeMillis();
+        deadline = limits.getTimeMillis() > 0 ? startTime + limits.getTimeMillis() : Long.MAX_VALUE;
+        int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+        clearTables();
+        SearchInfo best = new SearchInfo(0, evaluate(), 0, 0, new int[0]);
+        if(!MoveGenerator.hasLegalMoves(position)) {
+            return best;
+        }
+        rootMoves = tablebase != null ? tablebase.rootMoves(position) : null;
+        for(int depth = startDepth; depth <= maxDepth && !stopped; depth++) {
+            followPv = true;
+            int score = negamax(depth, -INFINITY, INFINITY, 0);
+            if(stopped && depth > 1) {
+                break; //an unfinished iteration cannot be trusted
+            }
+            int[] pv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, pv, 0, pv.length);
+            previousPv = pv;
+            best = new SearchInfo(depth, score, nodes, System.currentTimeMillis() - startTime, pv);
+            if(listener != null) {
+                listener.onIteration(best);
+            }
+            if(best.isMate() || (limits.getTimeMillis() > 0
+                    && System.currentTimeMillis() - startTime > limits.getTimeMillis() / 2)) {
+                break; //the next depth would not finish in the time left
+            }
+        }
+        return best;
+    }
+
+    private int evaluate() {
+        return network != null ? network.evaluate(position) : Evaluation.evaluate(position);
+    }
+
+    private void clearTables() {
+        for(int i = 0; i < MAX_PLY; i++) {
+            killers[i][0] = Moves.NONE;
+            killers[i][1] = Moves.NONE;
+        }
+        for(int[] row : history) {
+            Arrays.fill(row, 0);
+        }
+        previousPv = new int[0];
+        table.newSearch();
+    }
+
+    private void checkLimits() {
+        if((nodeLimit > 0 && nodes >= nodeLimit) || System.currentTimeMillis() >= deadline
+                || Thread.currentThread().isInterrupted()) { //cancelled through the executor
+            stopped = true;
+        }
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if((nodes & 2047) == 0) {
+            checkLimits();
+        }
+        if(stopped) {
+            return 0;
+        }
+        if(ply > 0 && (position.isRepetition() || position.halfMoveClock() >= 100)) {
+            return 0;
+        }
+        boolean inCheck = position.inCheck();
+        if(inCheck) {
+            depth++; //check extension, also keeps quiescence out of check positions
+        }
+        if(depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+        if(ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+        nodes++;
+        long key = position.key();
+        long entry = table.probe(key);
+        int hashMove = TranspositionTable.move(entry);
+        if(ply > 0 && entry != TranspositionTable.NONE && TranspositionTable.depth(entry) >= depth) {
+            int score = TranspositionTable.score(entry, ply);
+            int bound = TranspositionTable.bound(entry);
+            if(bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+        //the tables ignore the fifty move count, so only probe right after it was reset
+        if(ply > 0 && tablebase != null && position.halfMoveClock() == 0 && tablebase.covers(position)) {
+            int wdl = tablebase.probeWdl(position);
+            if(wdl != Tablebase.UNKNOWN) {
+                return wdl > Tablebase.CURSED_WIN ? TABLEBASE_WIN - ply
+                        : wdl < Tablebase.BLESSED_LOSS ? -TABLEBASE_WIN + ply : 0;
+            }
+        }
+        int[] moves = moveLists[ply];
+        int count;
+        if(ply == 0 && rootMoves != null) {
+            count = rootMoves.length;
+            System.arraycopy(rootMoves, 0, moves, 0, count);
+        } else {
+            count = MoveGenerator.generateLegal(position, moves);
+        }
+        if(count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, count, ply, hashMove);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Moves.NONE;
+        for(int i = 0; i < count; i++) {
+            int move = pickMove(moves, count, i, ply);
+            position.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+            if(stopped) {
+                return 0;
+            }
+            if(score > best) {
+                best = score;
+            }
+            if(score > alpha) {
+                alpha = score;
+                bestMove = move;
+                updatePv(move, ply);
+                if(score >= beta) {
+                    if(!Moves.isCapture(move)) {
+                        storeKiller(move, ply);
+                        history[Moves.piece(move)][Moves.to(move)] += depth * depth;
+                    }
+                    break;
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, depth, bound, best, bestMove, ply);
+        return best;
+    }
+
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if((nodes & 2047) == 0) {
+            checkLimits();
+        }
+        if(stopped) {
+            return 0;
+        }
+        nodes++;
+        int standPat = evaluate();
+        if(ply >= MAX_PLY - 1 || standPat >= beta) {
+            return standPat;
+        }
+        if(standPat > alpha) {
+            alpha = standPat;
+        }
+        int[] moves = moveLists[ply];
+        int count = MoveGenerator.generateCaptures(position, moves);
+        followPv = false;
+        scoreMoves(moves, count, ply, Moves.NONE);
+        for(int i = 0; i < count; i++) {
+            int move = pickMove(moves, count, i, ply);
+            position.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+            if(stopped) {
+                return 0;
+            }
+            if(score > alpha) {
+                alpha = score;
+                updatePv(move, ply);
+                if(score >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    private void updatePv(int move, int ply) {
+        pvTable[ply][ply] = move;
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+        pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+    }
+
+    private void storeKiller(int move, int ply) {
+        if(killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    //previous principal variation first, then the hash move, MVV-LVA captures, killers and history
+    private void scoreMoves(int[] moves, int count, int ply, int hashMove) {
+        int[] scores = scoreLists[ply];
+        boolean onPv = followPv && ply < previousPv.length;
+        followPv = false;
+        for(int i = 0; i < count; i++) {
+            int move = moves[i];
+            if(onPv && move == previousPv[ply]) {
+                scores[i] = PV_SCORE;
+                followPv = true;
+            } else if(move == hashMove) {
+                scores[i] = HASH_SCORE;
+            } else if(Moves.isCapture(move) || Moves.isPromotion(move)) {
+                scores[i] = CAPTURE_SCORE + Evaluation.PIECE_VALUES[Position.type(Moves.captured(move))] * 10
+                        + Evaluation.PIECE_VALUES[Position.type(Moves.promotion(move))]
+                        - ATTACKER_ORDER[Position.type(Moves.piece(move))];
+            } else if(move == killers[ply][0]) {
+                scores[i] = FIRST_KILLER_SCORE;
+            } else if(move == killers[ply][1]) {
+                scores[i] = SECOND_KILLER_SCORE;
+            } else {
+                scores[i] = Math.min(history[Moves.piece(move)][Moves.to(move)], SECOND_KILLER_SCORE - 1);
+            }
+        }
+    }
+
+    //selection sort step, cheaper than sorting since most nodes cut off early
+    private int pickMove(int[] moves, int count, int index, int ply) {
+        int[] scores = scoreLists[ply];
+        int best = index;
+        for(int i = index + 1; i < count; i++) {
+            if(scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+
+}
@@ -0,0 +1,85 @@
+package engine;
+
+public final class SearchInfo {
+
+    private final int depth;
+    private final int score; //centipawns from the side to move, see Search.MATE for mate scores
+    private final long nodes;
+    private final long timeMillis;
+    private final int[] pv;
+
+    public SearchInfo(int depth, int score, long nodes, long timeMillis, int[] pv) {
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.pv = pv;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, timeMillis);
+    }
+
+    public int[] getPv() {
+        return pv;
+    }
+
+    public int getBestMove() {
+        return pv.length > 0 ? pv[0] : Moves.NONE;
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) > Search.MATE - Search.MAX_PLY;
+    }
+
+    //a won or lost endgame table position somewhere on the main line
+    public boolean isTablebaseWin() {
+        return !isMate() && Math.abs(score) > Search.TABLEBASE_WIN - Search.MAX_PLY;
+    }
+
+    //moves until mate, negative when the side to move gets mated
+    public int getMateIn() {
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+
+    //score from white's point of view, "+1.25" or "#-3"
+    public String getScoreText(boolean whiteToMove) {
+        int white = whiteToMove ? score : -score;
+        if(isMate()) {
+            return "#" + (whiteToMove ? getMateIn() : -getMateIn());
+        }
+        if(isTablebaseWin()) {
+            return white > 0 ? "+TB" : "-TB";
+        }
+        return String.format("%+.2f", white / 100.0);
+    }
+
+    public String getPvText() {
+        StringBuilder str = new StringBuilder();
+        for(int move : pv) {
+            if(str.length() > 0) {
+                str.append(' ');
+            }
+            str.append(Moves.toUci(move));
+        }
+        return str.toString();
+    }
+
+}
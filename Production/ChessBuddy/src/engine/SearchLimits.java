@@ -0,0 +1,39 @@
+package engine;
+
+public final class SearchLimits {
+
+    private final int depth; //zero means no limit for each of the three
+    private final long timeMillis;
+    private final long nodes;
+
+    public SearchLimits(int depth, long timeMillis, long nodes) {
+        this.depth = depth;
+        this.timeMillis = timeMillis;
+        this.nodes = nodes;
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, timeMillis, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, 0, nodes);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+}
@@ -0,0 +1,7 @@
+package engine;
+
+public interface SearchListener {
+
+    void onIteration(SearchInfo info); //called from the search thread after every completed depth
+
+}
@@ -0,0 +1,351 @@
+package engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static engine.Position.*;
+
+//Syzygy endgame tables from one or more directories, WDL (.rtbw) and DTZ (.rtbz) files
+//files are only listed here and mapped on their first probe, probes can run on any number of threads
+//results are from the side to move, positions with castling rights are never in the tables
+public final class Tablebase {
+
+    public static final int LOSS = -2; //WDL results
+    public static final int BLESSED_LOSS = -1; //lost, but drawn by the fifty move rule
+    public static final int DRAW = 0;
+    public static final int CURSED_WIN = 1; //won, but drawn by the fifty move rule
+    public static final int WIN = 2;
+    public static final int UNKNOWN = Integer.MIN_VALUE; //the position is not covered by the tables
+
+    private static final int FAIL = 0; //probe states
+    private static final int OK = 1;
+    private static final int ZEROING_BEST_MOVE = 2; //the best move captures or moves a pawn, the DTZ table cannot tell
+    private static final int CHANGE_SIDE = 3; //the DTZ table holds the other side to move
+    private static final int MAX_RANK = 1 << 18; //above any DTZ plus fifty move counter
+
+    private final String directories;
+    private final long[] keys; //open addressing on the material key
+    private final TablebaseTable[] wdlTables;
+    private final TablebaseTable[] dtzTables;
+    private int count;
+    private int maxPieces;
+
+    //directories separated like a class path, ones that do not exist are skipped
+    public Tablebase(String directories) throws IOException {
+        this.directories = directories;
+        keys = new long[1 << 13];
+        wdlTables = new TablebaseTable[keys.length];
+        dtzTables = new TablebaseTable[keys.length];
+        for(String directory : directories.split(File.pathSeparator)) {
+            Path dir = Paths.get(directory.trim());
+            if(directory.isBlank() || !Files.isDirectory(dir)) {
+                continue;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.rtbw")) {
+                for(Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    add(fileName.substring(0, fileName.length() - 5), file);
+                }
+            }
+        }
+    }
+
+    public String getDirectories() {
+        return directories;
+    }
+
+    //tables found, each counts once for its WDL file
+    public int size() {
+        return count;
+    }
+
+    //most pieces on the board, kings included, that some table covers
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    private void add(String name, Path wdlFile) {
+        if(!name.matches("K[QRBNP]*vK[QRBNP]*") || name.length() - 1 > 7) {
+            return; //not a table name
+        }
+        TablebaseTable wdl = new TablebaseTable(name, wdlFile, TablebaseTable.WDL);
+        Path dtzFile = wdlFile.resolveSibling(name + ".rtbz");
+        TablebaseTable dtz = Files.exists(dtzFile) ? new TablebaseTable(name, dtzFile, TablebaseTable.DTZ) : null;
+        if(slot(wdl.key) >= 0 || count*2 >= keys.length) {
+            return; //the same table in two directories, the first one wins
+        }
+        insert(wdl.key, wdl, dtz);
+        insert(wdl.key2, wdl, dtz);
+        count++;
+        maxPieces = Math.max(maxPieces, wdl.pieceCount);
+    }
+
+    private void insert(long key, TablebaseTable wdl, TablebaseTable dtz) {
+        int i = (int) (mix(key) & (keys.length - 1));
+        while(wdlTables[i] != null) {
+            if(keys[i] == key) {
+                return; //symmetric tables have both keys the same
+            }
+            i = (i + 1) & (keys.length - 1);
+        }
+        keys[i] = key;
+        wdlTables[i] = wdl;
+        dtzTables[i] = dtz;
+    }
+
+    private int slot(long key) {
+        int i = (int) (mix(key) & (keys.length - 1));
+        while(wdlTables[i] != null) {
+            if(keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & (keys.length - 1);
+        }
+        return -1;
+    }
+
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 29);
+    }
+
+    //whether a probe can answer at all, cheap enough to ask at every node
+    public boolean covers(Position position) {
+        return position.castling() == 0 && Long.bitCount(position.occupied()) <= maxPieces;
+    }
+
+    //win, draw or loss for the side to move, UNKNOWN when no table covers the position
+    //the position is searched through captures on the way and left as it was
+    public int probeWdl(Position position) {
+        if(!covers(position)) {
+            return UNKNOWN;
+        }
+        int[] state = {OK};
+        int wdl = search(position, false, state);
+        return state[0] == FAIL ? UNKNOWN : wdl;
+    }
+
+    //plies to the next capture or pawn move that keeps the result, signed like probeWdl, 0 for a draw
+    //above 100 the result is a cursed win or blessed loss, it can be one ply more than the exact distance
+    //UNKNOWN when the position or its DTZ table is missing
+    public int probeDtz(Position position) {
+        if(!covers(position)) {
+            return UNKNOWN;
+        }
+        int[] state = {OK};
+        int dtz = probeDtz(position, state);
+        return state[0] == FAIL ? UNKNOWN : dtz;
+    }
+
+    private int probeDtz(Position position, int[] state) {
+        int wdl = search(position, true, state);
+        if(state[0] == FAIL || wdl == DRAW) { //draws are not stored
+            return 0;
+        }
+        if(state[0] == ZEROING_BEST_MOVE) {
+            return dtzBeforeZeroing(wdl);
+        }
+        int dtz = probeTable(position, TablebaseTable.DTZ, wdl, state);
+        if(state[0] == FAIL) {
+            return 0;
+        }
+        if(state[0] != CHANGE_SIDE) {
+            return (dtz + (wdl == BLESSED_LOSS || wdl == CURSED_WIN ? 100 : 0)) * Integer.signum(wdl);
+        }
+        //the table only has the opponent to move, so the best of one ply decides
+        int best = 0xFFFF;
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        for(int i = 0; i < count; i++) {
+            int move = moves[i];
+            boolean zeroing = isZeroing(move);
+            position.makeMove(move);
+            //a zeroing move gets the DTZ from before it, the result after it gives the sign
+            int dtz2 = zeroing ? -dtzBeforeZeroing(search(position, false, state)) : -probeDtz(position, state);
+            if(dtz2 == 1 && position.inCheck() && !MoveGenerator.hasLegalMoves(position)) {
+                best = 1; //mate
+            }
+            if(!zeroing) {
+                dtz2 += Integer.signum(dtz2);
+            }
+            if(dtz2 < best && Integer.signum(dtz2) == Integer.signum(wdl)) {
+                best = dtz2;
+            }
+            position.unmakeMove(move);
+            if(state[0] == FAIL) {
+                return 0;
+            }
+        }
+        return best == 0xFFFF ? -1 : best;
+    }
+
+    //tables may store any value where a capture wins, so captures (and for DTZ pawn moves) are tried first
+    private int search(Position position, boolean checkZeroingMoves, int[] state) {
+        int best = LOSS;
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int total = MoveGenerator.generateLegal(position, moves);
+        int tried = 0;
+        for(int i = 0; i < total; i++) {
+            int move = moves[i];
+            if(!Moves.isCapture(move) && (!checkZeroingMoves || type(Moves.piece(move)) != PAWN)) {
+                continue;
+            }
+            tried++;
+            position.makeMove(move);
+            int value = -search(position, false, state);
+            position.unmakeMove(move);
+            if(state[0] == FAIL) {
+                return DRAW;
+            }
+            if(value > best) {
+                best = value;
+                if(value >= WIN) {
+                    state[0] = ZEROING_BEST_MOVE;
+                    return value;
+                }
+            }
+        }
+        //when every legal move was tried the stored value is not needed, it may be wrong for en passant positions
+        boolean noMoreMoves = tried > 0 && tried == total;
+        int value;
+        if(noMoreMoves) {
+            value = best;
+        } else {
+            value = probeTable(position, TablebaseTable.WDL, DRAW, state);
+            if(state[0] == FAIL) {
+                return DRAW;
+            }
+        }
+        if(best >= value) {
+            state[0] = best > DRAW || noMoreMoves ? ZEROING_BEST_MOVE : OK;
+            return best;
+        }
+        state[0] = OK;
+        return value;
+    }
+
+    private int probeTable(Position position, int type, int wdl, int[] state) {
+        if(Long.bitCount(position.occupied()) == 2) {
+            return DRAW; //two kings
+        }
+        long key = TablebaseTable.materialKey(position);
+        int i = slot(key);
+        TablebaseTable table = i < 0 ? null : type == TablebaseTable.WDL ? wdlTables[i] : dtzTables[i];
+        if(table == null) {
+            state[0] = FAIL;
+            return 0;
+        }
+        int value = table.probe(position, wdl);
+        if(value == TablebaseTable.MISSING) {
+            state[0] = FAIL;
+            return 0;
+        }
+        if(value == TablebaseTable.CHANGE_SIDE) {
+            state[0] = CHANGE_SIDE;
+            return 0;
+        }
+        return value;
+    }
+
+    private static boolean isZeroing(int move) {
+        return Moves.isCapture(move) || type(Moves.piece(move)) == PAWN;
+    }
+
+    //the DTZ right before a capture or pawn move with this result
+    private static int dtzBeforeZeroing(int wdl) {
+        switch(wdl) {
+            case WIN:
+                return 1;
+            case CURSED_WIN:
+                return 101;
+            case BLESSED_LOSS:
+                return -101;
+            case LOSS:
+                return -1;
+            default:
+                return 0;
+        }
+    }
+
+    //the legal moves that keep the best result, null when the root is not covered so the search uses every move
+    public int[] rootMoves(Position position) {
+        if(!covers(position)) {
+            return null;
+        }
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        int[] ranks = new int[count];
+        int best = Integer.MIN_VALUE;
+        int[] state = {OK};
+        for(int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            int dtz;
+            if(position.halfMoveClock() == 0) {
+                dtz = dtzBeforeZeroing(-search(position, false, state));
+            } else {
+                dtz = -probeDtz(position, state);
+                dtz += Integer.signum(dtz);
+            }
+            if(dtz == 2 && position.inCheck() && !MoveGenerator.hasLegalMoves(position)) {
+                dtz = 1; //mate
+            }
+            position.unmakeMove(moves[i]);
+            if(state[0] == FAIL) {
+                return null;
+            }
+            ranks[i] = rootRank(dtz, position.halfMoveClock());
+            best = Math.max(best, ranks[i]);
+        }
+        int kept = 0;
+        for(int i = 0; i < count; i++) {
+            if(ranks[i] == best) {
+                moves[kept++] = moves[i];
+            }
+        }
+        return Arrays.copyOf(moves, kept);
+    }
+
+    //dtz of a root move from the mover's side, the root's fifty move counter counts against a win and for a loss
+    //wins that zero in time tie so the search chooses among them, a win the rule may spoil is better the sooner
+    //it zeroes, losses mirror that and draws stay in between
+    public static int rootRank(int dtz, int halfMoveClock) {
+        if(dtz > 0) {
+            int plies = dtz + halfMoveClock;
+            return plies < 100 ? MAX_RANK : MAX_RANK - plies;
+        } else if(dtz < 0) {
+            int plies = -dtz + halfMoveClock;
+            return plies < 100 ? -MAX_RANK : -MAX_RANK + plies;
+        }
+        return 0;
+    }
+
+    //how the position ends with best play, for a status line
+    public String verdict(Position position) {
+        int wdl = probeWdl(position);
+        if(wdl == UNKNOWN) {
+            return null;
+        }
+        int dtz = probeDtz(position);
+        String side = position.isWhiteToMove() ? "White" : "Black";
+        String other = position.isWhiteToMove() ? "Black" : "White";
+        String zeroing = dtz == UNKNOWN ? "" : ", DTZ " + Math.abs(dtz);
+        switch(wdl) {
+            case WIN:
+                return side + " wins" + zeroing;
+            case CURSED_WIN:
+                return side + " wins but for the fifty move rule" + zeroing;
+            case BLESSED_LOSS:
+                return other + " wins but for the fifty move rule" + zeroing;
+            case LOSS:
+                return other + " wins" + zeroing;
+            default:
+                return "Draw";
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package engine;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+//probes a position in Syzygy tables and lists the best moves, java -cp <classes> engine.TablebaseProbe <directory> [fen]
+public final class TablebaseProbe {
+
+    private TablebaseProbe() {}
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: engine.TablebaseProbe <directory> [fen]");
+            System.exit(2);
+        }
+        Tablebase tablebase = new Tablebase(args[0]);
+        Position position = Fen.parse(args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+                : "8/8/8/8/8/2k5/8/K1Q5 w - - 0 1");
+        System.out.printf("%d tables, up to %d pieces%n", tablebase.size(), tablebase.getMaxPieces());
+        System.out.printf("WDL %d  DTZ %d  %s%n", tablebase.probeWdl(position), tablebase.probeDtz(position),
+                tablebase.verdict(position));
+        int[] best = tablebase.rootMoves(position);
+        if(best != null) {
+            StringBuilder str = new StringBuilder();
+            for(int move : best) {
+                str.append(San.toSan(position, move)).append(' ');
+            }
+            System.out.println("Best moves: " + str.toString().trim());
+        }
+    }
+
+}
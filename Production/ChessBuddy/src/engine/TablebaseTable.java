@@ -0,0 +1,696 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static engine.Position.*;
+
+//one Syzygy .rtbw or .rtbz file, mapped on the first probe and decompressed value by value after that
+//the index of a position and the pair decompression follow the layout written by the Syzygy generator
+final class TablebaseTable {
+
+    static final int WDL = 0;
+    static final int DTZ = 1;
+    static final int CHANGE_SIDE = Integer.MIN_VALUE; //a DTZ table that only stores the other side to move
+    static final int MISSING = Integer.MIN_VALUE + 1; //the file could not be mapped
+
+    private static final int FLAG_STM = 1; //flags of a compressed table
+    private static final int FLAG_MAPPED = 2;
+    private static final int FLAG_WIN_PLIES = 4;
+    private static final int FLAG_LOSS_PLIES = 8;
+    private static final int FLAG_WIDE = 16;
+    private static final int FLAG_SINGLE_VALUE = 128;
+    private static final int[][] MAGIC = {{0x71, 0xE8, 0x23, 0x5D}, {0xD7, 0x66, 0x0C, 0xA5}}; //[type]
+    private static final int[] SYZYGY_TYPE = {0, 1, 3, 2, 4, 5, 6}; //our piece type to the generator's, it has knights before bishops
+    private static final int[] WDL_MAP = {1, 3, 0, 2, 0}; //[wdl + 2] to the order of the DTZ value maps
+    private static final int MAX_PIECES = 7;
+
+    private static final int[] MAP_PAWNS = new int[64]; //a2-h7 to 47..0, the highest is the leading pawn
+    private static final int[] MAP_B1H1H7 = new int[64]; //squares below the a1-h8 diagonal to 0..27
+    private static final int[] MAP_A1D1D4 = new int[64]; //the a1-d1-d4 triangle to 0..9, diagonal squares last
+    private static final int[][] MAP_KK = new int[10][64]; //the 462 placements of two kings, first in the triangle
+    private static final long[][] BINOMIAL = new long[6][64]; //[k][n] ways to pick k of n
+    private static final long[][] LEAD_PAWN_INDEX = new long[6][64]; //[leading pawns][square]
+    private static final long[][] LEAD_PAWNS_SIZE = new long[6][4]; //[leading pawns][file a..d]
+
+    static {
+        int code = 0;
+        for(int sq = 0; sq < 64; sq++) {
+            if(offDiagonal(sq) < 0) {
+                MAP_B1H1H7[sq] = code++;
+            }
+        }
+        code = 0;
+        int[] diagonal = new int[4];
+        int diagonalCount = 0;
+        for(int sq = 0; sq <= 27; sq++) { //a1..d4
+            if(offDiagonal(sq) < 0 && (sq & 7) <= 3) {
+                MAP_A1D1D4[sq] = code++;
+            } else if(offDiagonal(sq) == 0 && (sq & 7) <= 3) {
+                diagonal[diagonalCount++] = sq;
+            }
+        }
+        for(int i = 0; i < diagonalCount; i++) {
+            MAP_A1D1D4[diagonal[i]] = code++;
+        }
+        code = 0;
+        int[][] bothOnDiagonal = new int[64*10][];
+        int bothCount = 0;
+        for(int index = 0; index < 10; index++) {
+            for(int s1 = 0; s1 <= 27; s1++) {
+                if(MAP_A1D1D4[s1] != index || (index == 0 && s1 != 1)) { //b1 is the square mapped to 0
+                    continue;
+                }
+                for(int s2 = 0; s2 < 64; s2++) {
+                    if(s1 == s2 || (Bitboards.KING_ATTACKS[s1] & (1L << s2)) != 0) {
+                        continue; //touching kings
+                    } else if(offDiagonal(s1) == 0 && offDiagonal(s2) > 0) {
+                        continue; //the first on the diagonal, the second above it
+                    } else if(offDiagonal(s1) == 0 && offDiagonal(s2) == 0) {
+                        bothOnDiagonal[bothCount++] = new int[]{index, s2};
+                    } else {
+                        MAP_KK[index][s2] = code++;
+                    }
+                }
+            }
+        }
+        for(int i = 0; i < bothCount; i++) {
+            MAP_KK[bothOnDiagonal[i][0]][bothOnDiagonal[i][1]] = code++;
+        }
+        BINOMIAL[0][0] = 1;
+        for(int n = 1; n < 64; n++) {
+            for(int k = 0; k < 6 && k <= n; k++) {
+                BINOMIAL[k][n] = (k > 0 ? BINOMIAL[k - 1][n - 1] : 0) + (k < n ? BINOMIAL[k][n - 1] : 0);
+            }
+        }
+        int available = 47;
+        for(int leadPawns = 1; leadPawns <= 5; leadPawns++) {
+            for(int file = 0; file < 4; file++) {
+                long index = 0;
+                for(int row = 1; row <= 6; row++) {
+                    int sq = row*8 + file;
+                    if(leadPawns == 1) {
+                        MAP_PAWNS[sq] = available--;
+                        MAP_PAWNS[sq ^ 7] = available--;
+                    }
+                    LEAD_PAWN_INDEX[leadPawns][sq] = index;
+                    index += BINOMIAL[leadPawns - 1][MAP_PAWNS[sq]];
+                }
+                LEAD_PAWNS_SIZE[leadPawns][file] = index;
+            }
+        }
+    }
+
+    final String name; //as in the file name, "KRPvKR"
+    final int type;
+    final long key; //material with the left side of the name as white
+    final long key2; //and with it as black
+    final int pieceCount;
+    final boolean hasPawns;
+    private final boolean hasUniquePieces;
+    private final int[] pawnCount = new int[2]; //[leading color, other color]
+    private final Path path;
+    private final Pairs[][] items = new Pairs[2][4]; //[side to move][file a..d, or 0 without pawns]
+    private volatile boolean ready;
+    private Mapping mapping; //null when the file is missing or corrupt
+    private long dtzMap; //start of the DTZ value maps
+
+    TablebaseTable(String name, Path path, int type) {
+        this.name = name;
+        this.path = path;
+        this.type = type;
+        int[][] counts = new int[2][7]; //[color][type]
+        int color = WHITE;
+        for(char c : name.toCharArray()) {
+            if(c == 'v') {
+                color = BLACK;
+            } else {
+                counts[color][typeOf(c)]++;
+            }
+        }
+        key = materialKey(counts, false);
+        key2 = materialKey(counts, true);
+        int pieces = 0;
+        boolean unique = false;
+        for(int c = WHITE; c <= BLACK; c++) {
+            for(int t = PAWN; t <= KING; t++) {
+                pieces += counts[c][t];
+                if(t != KING && counts[c][t] == 1) {
+                    unique = true;
+                }
+            }
+        }
+        pieceCount = pieces;
+        hasUniquePieces = unique;
+        hasPawns = counts[WHITE][PAWN] + counts[BLACK][PAWN] > 0;
+        //the side with fewer pawns leads, it compresses better
+        boolean whiteLeads = counts[BLACK][PAWN] == 0
+                || (counts[WHITE][PAWN] > 0 && counts[BLACK][PAWN] >= counts[WHITE][PAWN]);
+        pawnCount[0] = counts[whiteLeads ? WHITE : BLACK][PAWN];
+        pawnCount[1] = counts[whiteLeads ? BLACK : WHITE][PAWN];
+    }
+
+    static int typeOf(char c) {
+        return "?PBNRQK".indexOf(c);
+    }
+
+    //four bits per color and type, the same key whatever the squares
+    static long materialKey(int[][] counts, boolean swapColors) {
+        long key = 0;
+        for(int c = WHITE; c <= BLACK; c++) {
+            for(int t = PAWN; t <= KING; t++) {
+                key |= (long) counts[swapColors ? c ^ 1 : c][t] << (4*(c*6 + t - 1));
+            }
+        }
+        return key;
+    }
+
+    static long materialKey(Position position) {
+        long key = 0;
+        for(int c = WHITE; c <= BLACK; c++) {
+            for(int t = PAWN; t <= KING; t++) {
+                key |= (long) Long.bitCount(position.pieces(c, t)) << (4*(c*6 + t - 1));
+            }
+        }
+        return key;
+    }
+
+    private static int offDiagonal(int sq) {
+        return (sq >>> 3) - (sq & 7);
+    }
+
+    private static int syzygyPiece(int piece) {
+        return color(piece)*8 + SYZYGY_TYPE[type(piece)];
+    }
+
+    private Pairs get(int stm, int file) {
+        return items[type == WDL ? stm : 0][hasPawns ? file : 0];
+    }
+
+    //maps and reads the headers once, any thread may be the first to probe
+    private boolean isMapped() {
+        if(ready) {
+            return mapping != null;
+        }
+        synchronized(this) {
+            if(!ready) {
+                try {
+                    mapping = new Mapping(path);
+                    for(int i = 0; i < 4; i++) {
+                        if(mapping.u8(i) != MAGIC[type][i]) {
+                            throw new IOException("not a Syzygy table");
+                        }
+                    }
+                    readHeaders(4);
+                } catch (IOException | RuntimeException ex) { //a truncated file reads out of bounds
+                    Logger.getLogger(TablebaseTable.class.getName()).log(Level.WARNING, "Could not map " + path, ex);
+                    mapping = null;
+                }
+                ready = true;
+            }
+        }
+        return mapping != null;
+    }
+
+    private void readHeaders(long data) throws IOException {
+        int flags = mapping.u8(data);
+        if(((flags & 2) != 0) != hasPawns || ((flags & 1) != 0) != (key != key2)) {
+            throw new IOException("the table does not match its name");
+        }
+        data++;
+        int sides = type == WDL && key != key2 ? 2 : 1;
+        int files = hasPawns ? 4 : 1;
+        boolean bothPawns = hasPawns && pawnCount[1] > 0;
+        for(int f = 0; f < files; f++) {
+            for(int i = 0; i < sides; i++) {
+                items[i][f] = new Pairs();
+            }
+            if(sides == 1 && type == WDL) {
+                items[1][f] = items[0][f]; //symmetric tables probe white to move only
+            }
+            int[][] order = {
+                {mapping.u8(data) & 0xF, bothPawns ? mapping.u8(data + 1) & 0xF : 0xF},
+                {mapping.u8(data) >>> 4, bothPawns ? mapping.u8(data + 1) >>> 4 : 0xF}};
+            data += bothPawns ? 2 : 1;
+            for(int k = 0; k < pieceCount; k++, data++) {
+                for(int i = 0; i < sides; i++) {
+                    items[i][f].pieces[k] = i > 0 ? mapping.u8(data) >>> 4 : mapping.u8(data) & 0xF;
+                }
+            }
+            for(int i = 0; i < sides; i++) {
+                setGroups(items[i][f], order[i], f);
+            }
+        }
+        data += data & 1; //word alignment
+        for(int f = 0; f < files; f++) {
+            for(int i = 0; i < sides; i++) {
+                data = setSizes(items[i][f], data);
+            }
+        }
+        if(type == DTZ) {
+            data = setDtzMap(data, files);
+        }
+        for(int f = 0; f < files; f++) {
+            for(int i = 0; i < sides; i++) {
+                items[i][f].sparseIndex = data;
+                data += items[i][f].sparseIndexSize * 6;
+            }
+        }
+        for(int f = 0; f < files; f++) {
+            for(int i = 0; i < sides; i++) {
+                items[i][f].blockLength = data;
+                data += items[i][f].blockLengthSize * 2L;
+            }
+        }
+        for(int f = 0; f < files; f++) {
+            for(int i = 0; i < sides; i++) {
+                data = (data + 0x3F) & ~0x3FL; //blocks start on a cache line
+                items[i][f].data = data;
+                data += (long) items[i][f].numBlocks * items[i][f].blockSize;
+            }
+        }
+    }
+
+    //pieces of the same kind form a group, the leading group is the pawns or the first three unique pieces
+    //the groups are encoded in an order chosen by the generator, the last index is the table size
+    private void setGroups(Pairs d, int[] order, int file) {
+        int n = 0;
+        int firstLength = hasPawns ? 0 : hasUniquePieces ? 3 : 2;
+        d.groupLength[n] = 1;
+        for(int i = 1; i < pieceCount; i++) {
+            if(--firstLength > 0 || d.pieces[i] == d.pieces[i - 1]) {
+                d.groupLength[n]++;
+            } else {
+                d.groupLength[++n] = 1;
+            }
+        }
+        d.groupLength[++n] = 0;
+        boolean bothPawns = hasPawns && pawnCount[1] > 0;
+        int next = bothPawns ? 2 : 1;
+        int freeSquares = 64 - d.groupLength[0] - (bothPawns ? d.groupLength[1] : 0);
+        long index = 1;
+        for(int k = 0; next < n || k == order[0] || k == order[1]; k++) {
+            if(k == order[0]) {
+                d.groupIndex[0] = index;
+                index *= hasPawns ? LEAD_PAWNS_SIZE[d.groupLength[0]][file] : hasUniquePieces ? 31332 : 462;
+            } else if(k == order[1]) {
+                d.groupIndex[1] = index;
+                index *= BINOMIAL[d.groupLength[1]][48 - d.groupLength[0]];
+            } else {
+                d.groupIndex[next] = index;
+                index *= BINOMIAL[d.groupLength[next]][freeSquares];
+                freeSquares -= d.groupLength[next++];
+            }
+        }
+        d.groupIndex[n] = index;
+    }
+
+    //the canonical Huffman code and the pair tree of one table, returns where the next header starts
+    private long setSizes(Pairs d, long data) {
+        d.flags = mapping.u8(data++);
+        if((d.flags & FLAG_SINGLE_VALUE) != 0) {
+            d.minSymLength = mapping.u8(data++); //the value of every position
+            return data;
+        }
+        int n = 0;
+        while(d.groupLength[n] != 0) {
+            n++;
+        }
+        long size = d.groupIndex[n];
+        d.blockSize = 1 << mapping.u8(data++);
+        d.span = 1L << mapping.u8(data++);
+        d.sparseIndexSize = (size + d.span - 1) / d.span;
+        int padding = mapping.u8(data++);
+        d.numBlocks = (int) mapping.u32(data);
+        data += 4;
+        d.blockLengthSize = d.numBlocks + padding; //so the sparse index never points past the end
+        d.maxSymLength = mapping.u8(data++);
+        d.minSymLength = mapping.u8(data++);
+        d.lowestSym = data;
+        int lengths = d.maxSymLength - d.minSymLength + 1;
+        d.base64 = new long[lengths];
+        //longer codes have lower values, base64[i] is the lowest code of length i + minSymLength
+        for(int i = lengths - 2; i >= 0; i--) {
+            d.base64[i] = (d.base64[i + 1] + mapping.u16(d.lowestSym + 2L*i) - mapping.u16(d.lowestSym + 2L*(i + 1))) / 2;
+        }
+        for(int i = 0; i < lengths; i++) {
+            d.base64[i] <<= 64 - i - d.minSymLength; //left aligned, compared as unsigned
+        }
+        data += lengths * 2L;
+        int symbols = mapping.u16(data);
+        data += 2;
+        d.tree = data;
+        d.symLength = new int[symbols];
+        boolean[] visited = new boolean[symbols];
+        for(int sym = 0; sym < symbols; sym++) {
+            if(!visited[sym]) {
+                d.symLength[sym] = setSymLength(d, sym, visited);
+            }
+        }
+        return data + symbols*3L + (symbols & 1);
+    }
+
+    //values a symbol stands for minus one, a symbol is either a value or a pair of earlier symbols
+    private int setSymLength(Pairs d, int sym, boolean[] visited) {
+        visited[sym] = true;
+        int right = right(d, sym);
+        if(right == 0xFFF) {
+            return 0;
+        }
+        int left = left(d, sym);
+        if(!visited[left]) {
+            d.symLength[left] = setSymLength(d, left, visited);
+        }
+        if(!visited[right]) {
+            d.symLength[right] = setSymLength(d, right, visited);
+        }
+        return d.symLength[left] + d.symLength[right] + 1;
+    }
+
+    private int left(Pairs d, int sym) {
+        long at = d.tree + 3L*sym;
+        return ((mapping.u8(at + 1) & 0xF) << 8) | mapping.u8(at);
+    }
+
+    private int right(Pairs d, int sym) {
+        long at = d.tree + 3L*sym;
+        return (mapping.u8(at + 2) << 4) | (mapping.u8(at + 1) >>> 4);
+    }
+
+    //DTZ values are stored by frequency, these maps turn them back, one per result and file
+    private long setDtzMap(long data, int files) {
+        dtzMap = data;
+        for(int f = 0; f < files; f++) {
+            Pairs d = get(0, f);
+            if((d.flags & FLAG_MAPPED) == 0) {
+                continue;
+            }
+            if((d.flags & FLAG_WIDE) != 0) {
+                data += data & 1;
+                for(int i = 0; i < 4; i++) {
+                    d.mapIndex[i] = (int) ((data - dtzMap) / 2 + 1);
+                    data += 2L*mapping.u16(data) + 2;
+                }
+            } else {
+                for(int i = 0; i < 4; i++) {
+                    d.mapIndex[i] = (int) (data - dtzMap + 1);
+                    data += mapping.u8(data) + 1;
+                }
+            }
+        }
+        return data + (data & 1);
+    }
+
+    //the stored value of the position, a WDL score or DTZ plies for the given result
+    //MISSING when the file cannot be read, CHANGE_SIDE when this DTZ table has the other side to move
+    int probe(Position position, int wdl) {
+        if(!isMapped()) {
+            return MISSING;
+        }
+        int[] squares = new int[MAX_PIECES];
+        int[] pieces = new int[MAX_PIECES];
+        int size = 0;
+        int leadPawnCount = 0;
+        long leadPawns = 0;
+        int file = 0;
+        //tables store the symmetric case with white to move and otherwise have the left side of the name as white
+        boolean symmetricBlackToMove = key == key2 && position.sideToMove() == BLACK;
+        boolean blackStronger = materialKey(position) != key;
+        boolean flip = symmetricBlackToMove || blackStronger;
+        int flipColor = flip ? 8 : 0;
+        int flipSquares = flip ? 56 : 0;
+        int stm = (flip ? 1 : 0) ^ position.sideToMove();
+        if(hasPawns) {
+            //the first piece of every file table is a pawn of the leading color
+            int pawnColor = (get(0, 0).pieces[0] ^ flipColor) >>> 3;
+            leadPawns = position.pieces(pawnColor, PAWN);
+            for(long b = leadPawns; b != 0; b &= b - 1) {
+                squares[size++] = Long.numberOfTrailingZeros(b) ^ flipSquares;
+            }
+            leadPawnCount = size;
+            int lead = 0;
+            for(int i = 1; i < leadPawnCount; i++) {
+                if(MAP_PAWNS[squares[i]] > MAP_PAWNS[squares[lead]]) {
+                    lead = i;
+                }
+            }
+            swap(squares, 0, lead);
+            file = Math.min(squares[0] & 7, 7 - (squares[0] & 7));
+        }
+        if(type == DTZ && (get(stm, file).flags & FLAG_STM) != stm && (key != key2 || hasPawns)) {
+            return CHANGE_SIDE;
+        }
+        for(long b = position.occupied() ^ leadPawns; b != 0; b &= b - 1) {
+            int sq = Long.numberOfTrailingZeros(b);
+            squares[size] = sq ^ flipSquares;
+            pieces[size++] = syzygyPiece(position.pieceAt(sq)) ^ flipColor;
+        }
+        Pairs d = get(stm, file);
+        //same order of pieces as the table
+        for(int i = leadPawnCount; i < size - 1; i++) {
+            for(int j = i + 1; j < size; j++) {
+                if(d.pieces[i] == pieces[j]) {
+                    swap(pieces, i, j);
+                    swap(squares, i, j);
+                    break;
+                }
+            }
+        }
+        if((squares[0] & 7) > 3) {
+            for(int i = 0; i < size; i++) {
+                squares[i] ^= 7;
+            }
+        }
+        long index;
+        if(hasPawns) {
+            index = LEAD_PAWN_INDEX[leadPawnCount][squares[0]];
+            sortByPawnMap(squares, 1, leadPawnCount);
+            for(int i = 1; i < leadPawnCount; i++) {
+                index += BINOMIAL[i][MAP_PAWNS[squares[i]]];
+            }
+        } else {
+            if((squares[0] >>> 3) > 3) {
+                for(int i = 0; i < size; i++) {
+                    squares[i] ^= 56;
+                }
+            }
+            //the first leading piece off the a1-h8 diagonal goes below it
+            for(int i = 0; i < d.groupLength[0]; i++) {
+                if(offDiagonal(squares[i]) == 0) {
+                    continue;
+                }
+                if(offDiagonal(squares[i]) > 0) {
+                    for(int j = i; j < size; j++) {
+                        squares[j] = ((squares[j] >>> 3) | (squares[j] << 3)) & 63;
+                    }
+                }
+                break;
+            }
+            if(hasUniquePieces) {
+                int adjust1 = squares[1] > squares[0] ? 1 : 0;
+                int adjust2 = (squares[2] > squares[0] ? 1 : 0) + (squares[2] > squares[1] ? 1 : 0);
+                if(offDiagonal(squares[0]) != 0) {
+                    index = ((long) MAP_A1D1D4[squares[0]]*63 + (squares[1] - adjust1))*62 + squares[2] - adjust2;
+                } else if(offDiagonal(squares[1]) != 0) {
+                    index = (6*63 + (squares[0] >>> 3)*28 + MAP_B1H1H7[squares[1]])*62L + squares[2] - adjust2;
+                } else if(offDiagonal(squares[2]) != 0) {
+                    index = 6*63*62 + 4*28*62 + (squares[0] >>> 3)*7*28 + ((squares[1] >>> 3) - adjust1)*28
+                            + MAP_B1H1H7[squares[2]];
+                } else {
+                    index = 6*63*62 + 4*28*62 + 4*7*28 + (squares[0] >>> 3)*7*6 + ((squares[1] >>> 3) - adjust1)*6
+                            + ((squares[2] >>> 3) - adjust2);
+                }
+            } else {
+                index = MAP_KK[MAP_A1D1D4[squares[0]]][squares[1]]; //just the kings lead
+            }
+        }
+        index *= d.groupIndex[0];
+        int groupStart = d.groupLength[0];
+        boolean remainingPawns = hasPawns && pawnCount[1] > 0;
+        for(int next = 1; d.groupLength[next] != 0; next++) {
+            int length = d.groupLength[next];
+            Arrays.sort(squares, groupStart, groupStart + length);
+            long n = 0;
+            for(int i = 0; i < length; i++) {
+                int sq = squares[groupStart + i];
+                int adjust = 0;
+                for(int j = 0; j < groupStart; j++) { //squares taken by earlier groups do not count
+                    if(sq > squares[j]) {
+                        adjust++;
+                    }
+                }
+                n += BINOMIAL[i + 1][sq - adjust - (remainingPawns ? 8 : 0)];
+            }
+            remainingPawns = false;
+            index += n * d.groupIndex[next];
+            groupStart += length;
+        }
+        int value = decompress(d, index);
+        return type == WDL ? value - 2 : mapDtz(d, value, wdl);
+    }
+
+    private int mapDtz(Pairs d, int value, int wdl) {
+        if((d.flags & FLAG_MAPPED) != 0) {
+            int at = d.mapIndex[WDL_MAP[wdl + 2]] + value;
+            value = (d.flags & FLAG_WIDE) != 0 ? mapping.u16(dtzMap + 2L*at) : mapping.u8(dtzMap + at);
+        }
+        //stored in moves unless the flags say plies, cursed results are always in moves
+        if((wdl == 2 && (d.flags & FLAG_WIN_PLIES) == 0) || (wdl == -2 && (d.flags & FLAG_LOSS_PLIES) == 0)
+                || wdl == 1 || wdl == -1) {
+            value *= 2;
+        }
+        return value + 1;
+    }
+
+    //finds the block through the sparse index, then walks its Huffman codes and the pair tree down to one value
+    private int decompress(Pairs d, long index) {
+        if((d.flags & FLAG_SINGLE_VALUE) != 0) {
+            return d.minSymLength;
+        }
+        long k = index / d.span; //sparse entry k points at value k*span + span/2
+        long entry = d.sparseIndex + 6*k;
+        long block = mapping.u32(entry);
+        long offset = mapping.u16(entry + 4) + index % d.span - d.span / 2;
+        while(offset < 0) {
+            offset += blockLength(d, --block) + 1;
+        }
+        while(offset > blockLength(d, block)) {
+            offset -= blockLength(d, block++) + 1;
+        }
+        long at = d.data + block * d.blockSize;
+        long buffer = mapping.u64be(at);
+        at += 8;
+        int bits = 64;
+        int sym;
+        while(true) {
+            int length = 0; //code length minus minSymLength
+            while(Long.compareUnsigned(buffer, d.base64[length]) < 0) {
+                length++;
+            }
+            sym = (int) ((buffer - d.base64[length]) >>> (64 - length - d.minSymLength));
+            sym += mapping.u16(d.lowestSym + 2L*length);
+            if(offset < d.symLength[sym] + 1) {
+                break;
+            }
+            offset -= d.symLength[sym] + 1;
+            length += d.minSymLength;
+            buffer <<= length;
+            bits -= length;
+            if(bits <= 32) {
+                bits += 32;
+                buffer |= mapping.u32be(at) << (64 - bits);
+                at += 4;
+            }
+        }
+        while(d.symLength[sym] != 0) {
+            int left = left(d, sym);
+            if(offset < d.symLength[left] + 1) {
+                sym = left;
+            } else {
+                offset -= d.symLength[left] + 1;
+                sym = right(d, sym);
+            }
+        }
+        return left(d, sym);
+    }
+
+    private long blockLength(Pairs d, long block) {
+        return mapping.u16(d.blockLength + 2*block);
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int t = array[i];
+        array[i] = array[j];
+        array[j] = t;
+    }
+
+    //stable insertion sort of squares[from..to) by MAP_PAWNS
+    private static void sortByPawnMap(int[] squares, int from, int to) {
+        for(int i = from + 1; i < to; i++) {
+            int sq = squares[i];
+            int j = i - 1;
+            while(j >= from && MAP_PAWNS[squares[j]] > MAP_PAWNS[sq]) {
+                squares[j + 1] = squares[j];
+                j--;
+            }
+            squares[j + 1] = sq;
+        }
+    }
+
+    //addressing of one compressed table, offsets are into the mapped file
+    private static final class Pairs {
+
+        private int flags;
+        private int maxSymLength;
+        private int minSymLength; //the value itself for a single value table
+        private int numBlocks;
+        private int blockSize;
+        private long span; //a sparse index entry for every span values
+        private long lowestSym; //u16 per code length, the first symbol of that length
+        private long tree; //three bytes per symbol, its left and right symbol
+        private long blockLength; //u16 per block, values in the block minus one
+        private long blockLengthSize;
+        private long sparseIndex; //u32 block and u16 offset per entry
+        private long sparseIndexSize;
+        private long data;
+        private long[] base64;
+        private int[] symLength;
+        private final int[] pieces = new int[MAX_PIECES];
+        private final long[] groupIndex = new long[MAX_PIECES + 1];
+        private final int[] groupLength = new int[MAX_PIECES + 1];
+        private final int[] mapIndex = new int[4]; //win, loss, cursed win, blessed loss
+
+    }
+
+    //a read-only mapping in overlapping windows, files of the seven piece tables pass 2 GB
+    private static final class Mapping {
+
+        private static final int WINDOW_SHIFT = 30;
+        private static final int OVERLAP = 1 << 16; //longer than any read, so a read never straddles two windows
+
+        private final MappedByteBuffer[] windows;
+
+        private Mapping(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                windows = new MappedByteBuffer[(int) ((size >>> WINDOW_SHIFT) + 1)];
+                for(int i = 0; i < windows.length; i++) {
+                    long start = (long) i << WINDOW_SHIFT;
+                    long length = Math.min(size - start, (1L << WINDOW_SHIFT) + OVERLAP);
+                    windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(0, length));
+                    windows[i].order(ByteOrder.LITTLE_ENDIAN);
+                }
+            }
+        }
+
+        private int u8(long at) {
+            return windows[(int) (at >>> WINDOW_SHIFT)].get((int) (at & ((1 << WINDOW_SHIFT) - 1))) & 0xFF;
+        }
+
+        private int u16(long at) {
+            return windows[(int) (at >>> WINDOW_SHIFT)].getShort((int) (at & ((1 << WINDOW_SHIFT) - 1))) & 0xFFFF;
+        }
+
+        private long u32(long at) {
+            return windows[(int) (at >>> WINDOW_SHIFT)].getInt((int) (at & ((1 << WINDOW_SHIFT) - 1))) & 0xFFFFFFFFL;
+        }
+
+        private long u32be(long at) {
+            return Integer.reverseBytes(windows[(int) (at >>> WINDOW_SHIFT)].getInt((int) (at & ((1 << WINDOW_SHIFT) - 1))))
+                    & 0xFFFFFFFFL;
+        }
+
+        private long u64be(long at) {
+            return Long.reverseBytes(windows[(int) (at >>> WINDOW_SHIFT)].getLong((int) (at & ((1 << WINDOW_SHIFT) - 1))));
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package engine;
+
+import java.util.Arrays;
+
+//each slot is two longs, the key xor'd with the data and the data itself, so a slot torn by
+//concurrent writers fails verification instead of returning another position's entry
+public final class TranspositionTable {
+
+    public static final int DEFAULT_MEGABYTES = 16;
+    public static final int MAX_MEGABYTES = 4096;
+    public static final long NONE = 0L; //probe result when nothing usable is stored
+    public static final int EXACT = 1; //bound types
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private static final int LONGS_PER_BUCKET = 4; //depth-preferred slot then always-replace slot
+    private static final int SCORE_SHIFT = 28; //data layout: move 0-27, score 28-43, depth 44-51,
+    private static final int DEPTH_SHIFT = 44; //bound 52-53, age 54-61
+    private static final int BOUND_SHIFT = 52;
+    private static final int AGE_SHIFT = 54;
+    private static final int MATE_BOUND = Search.MATE - Search.MAX_PLY;
+
+    private final long[] table;
+    private final long bucketMask;
+    private volatile int age;
+
+    public TranspositionTable(int megabytes) {
+        int mb = Math.max(1, Math.min(megabytes, MAX_MEGABYTES));
+        long buckets = Long.highestOneBit(mb * 1024L * 1024L / (LONGS_PER_BUCKET * Long.BYTES));
+        table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        bucketMask = buckets - 1;
+    }
+
+    public int getMegabytes() {
+        return (int) ((long) table.length * Long.BYTES / (1024 * 1024));
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    //entries from earlier searches become replaceable regardless of depth
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public long probe(long key) {
+        int index = (int) (key & bucketMask) * LONGS_PER_BUCKET;
+        for(int slot = index; slot < index + LONGS_PER_BUCKET; slot += 2) {
+            long data = table[slot + 1];
+            if((table[slot] ^ data) == key && data != NONE) {
+                return data;
+            }
+        }
+        return NONE;
+    }
+
+    public void store(long key, int depth, int bound, int score, int move, int ply) {
+        int index = (int) (key & bucketMask) * LONGS_PER_BUCKET;
+        long deep = table[index + 1];
+        boolean sameKey = (table[index] ^ deep) == key;
+        if(sameKey && move == Moves.NONE) {
+            move = move(deep); //keep the known best move when a fail-low has none
+        }
+        long data = pack(depth, bound, toStored(score, ply), move);
+        if(deep == NONE || sameKey || age(deep) != age || depth >= depth(deep)) {
+            table[index] = key ^ data;
+            table[index + 1] = data;
+        } else {
+            table[index + 2] = key ^ data;
+            table[index + 3] = data;
+        }
+    }
+
+    //permille of sampled slots written by the current search, as reported by UCI hashfull
+    public int hashFull() {
+        int slots = Math.min(2000, table.length / 2);
+        int used = 0;
+        for(int i = 0; i < slots; i++) {
+            long data = table[i * 2 + 1];
+            if(data != NONE && age(data) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / slots;
+    }
+
+    private long pack(int depth, int bound, int score, int move) {
+        return (move & 0xFFFFFFFL)
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) Math.max(0, Math.min(depth, 0xFF)) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) age << AGE_SHIFT);
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFFFFFL);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    //mate scores are stored relative to the node and turned back into distance from the root
+    public static int score(long data, int ply) {
+        int score = (short) (data >>> SCORE_SHIFT);
+        if(score > MATE_BOUND) {
+            return score - ply;
+        }
+        if(score < -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & 0xFF;
+    }
+
+    private static int toStored(int score, int ply) {
+        if(score > MATE_BOUND) {
+            return score + ply;
+        }
+        if(score < -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+}
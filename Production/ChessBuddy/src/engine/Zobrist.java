@@ -0,0 +1,97 @@
+package engine;
+
+import static engine.Bitboards.*;
+import static engine.Position.*;
+
+public final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[13][64]; //[piece][square], the EMPTY row stays zero
+    private static final long[] CASTLING = new long[16]; //one key per castling rights mask
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x3C6EF372FE94F82AL; //fixed seed so keys are stable between runs
+        for(int piece = WHITE_PAWN; piece <= BLACK_KING; piece++) {
+            for(int sq = 0; sq < 64; sq++) {
+                seed += 0x9E3779B97F4A7C15L;
+                PIECE_SQUARE[piece][sq] = mix(seed);
+            }
+        }
+        for(int rights = 1; rights < 16; rights++) { //no rights hashes to zero
+            seed += 0x9E3779B97F4A7C15L;
+            CASTLING[rights] = mix(seed);
+        }
+        for(int file = 0; file < 8; file++) {
+            seed += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[file] = mix(seed);
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {}
+
+    private static long mix(long z) { //splitmix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long piece(int piece, int sq) {
+        return PIECE_SQUARE[piece][sq];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long side() {
+        return BLACK_TO_MOVE;
+    }
+
+    //the en passant file only counts when a pawn of the side to move can take on it,
+    //otherwise the same position would hash differently after a double push
+    public static long enPassant(int epSquare, long capturingPawns, int sideToMove) {
+        if(epSquare != NO_SQUARE && (PAWN_ATTACKS[sideToMove ^ 1][epSquare] & capturingPawns) != 0) {
+            return EN_PASSANT_FILE[col(epSquare)];
+        }
+        return 0L;
+    }
+
+    public static long enPassant(byte[][] board, int epSquare, boolean whiteToMove) {
+        if(epSquare == NO_SQUARE) {
+            return 0L;
+        }
+        int row = whiteToMove ? row(epSquare) - 1 : row(epSquare) + 1;
+        int col = col(epSquare);
+        byte pawn = whiteToMove ? WHITE_PAWN : BLACK_PAWN;
+        if((col > 0 && board[row][col-1] == pawn) || (col < 7 && board[row][col+1] == pawn)) {
+            return EN_PASSANT_FILE[col];
+        }
+        return 0L;
+    }
+
+    public static long hash(byte[][] board, boolean whiteToMove, int castling, int epSquare) {
+        long key = 0L;
+        for(int i = 0; i < 8; i++) {
+            for(int j = 0; j < 8; j++) {
+                key ^= PIECE_SQUARE[board[i][j]][square(i, j)];
+            }
+        }
+        key ^= CASTLING[castling] ^ enPassant(board, epSquare, whiteToMove);
+        return whiteToMove ? key : key ^ BLACK_TO_MOVE;
+    }
+
+    public static long hash(Position position) {
+        long key = 0L;
+        for(int sq = 0; sq < 64; sq++) {
+            key ^= PIECE_SQUARE[position.pieceAt(sq)][sq];
+        }
+        int side = position.sideToMove();
+        key ^= CASTLING[position.castling()]
+                ^ enPassant(position.epSquare(), position.pieces(side, PAWN), side);
+        return side == WHITE ? key : key ^ BLACK_TO_MOVE;
+    }
+
+}
@@ -0,0 +1,115 @@
+package fxutil;
+
+import javafx.animation.Animation;
+import javafx.animation.FadeTransition;
+import javafx.animation.PauseTransition;
+import javafx.scene.Node;
+import javafx.util.Duration;
+
+import java.util.PriorityQueue;
+
+//delayed board updates on the FX thread from a single PauseTransition, actions that fall due together run as one batch
+public class AnimationScheduler {
+
+    private static final long BATCH_NANOS = 16_000_000; //actions due within a frame of each other run together
+
+    private final PauseTransition timer = new PauseTransition();
+    private final PriorityQueue<Entry> pending = new PriorityQueue<>();
+    private long sequence; //keeps actions with the same due time in the order they were scheduled
+    private long timerDue; //due time the running timer was started for
+    private boolean animated = true;
+
+    public AnimationScheduler() {
+        timer.setOnFinished((event) -> runDue());
+    }
+
+    public boolean isAnimated() {
+        return animated;
+    }
+
+    //without animation every action runs at once, for replays and bulk navigation
+    public void setAnimated(boolean animated) {
+        this.animated = animated;
+        if(!animated) {
+            finishAll();
+        }
+    }
+
+    //FX thread only
+    public void schedule(double millis, Runnable action) {
+        if(!animated || millis <= 0) {
+            action.run();
+            return;
+        }
+        pending.add(new Entry(System.nanoTime() + (long) (millis * 1_000_000), sequence++, action));
+        restart();
+    }
+
+    //fades the node out and then runs the action, which usually removes it
+    public void fadeOut(Node node, double millis, Runnable action) {
+        if(!animated) {
+            action.run();
+            return;
+        }
+        FadeTransition fade = new FadeTransition(Duration.millis(millis), node);
+        fade.setFromValue(1.0);
+        fade.setToValue(0.1);
+        fade.play();
+        schedule(millis, () -> {
+            fade.stop();
+            action.run();
+        });
+    }
+
+    //runs everything still waiting, before the board is redrawn from scratch
+    public void finishAll() {
+        timer.stop();
+        while(!pending.isEmpty()) {
+            pending.poll().action.run();
+        }
+    }
+
+    private void runDue() {
+        long limit = System.nanoTime() + BATCH_NANOS;
+        while(!pending.isEmpty() && pending.peek().due <= limit) {
+            pending.poll().action.run();
+        }
+        restart();
+    }
+
+    private void restart() {
+        Entry first = pending.peek();
+        if(first == null) {
+            return;
+        }
+        if(timer.getStatus() == Animation.Status.RUNNING) {
+            if(timerDue <= first.due) {
+                return; //fires in time, the batch picks this one up
+            }
+            timer.stop();
+        }
+        timerDue = first.due;
+        timer.setDuration(Duration.millis(Math.max(0, first.due - System.nanoTime()) / 1e6));
+        timer.playFromStart();
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+
+        private final long due;
+        private final long order;
+        private final Runnable action;
+
+        private Entry(long due, long order, Runnable action) {
+            this.due = due;
+            this.order = order;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return due != other.due ? Long.compare(due, other.due) : Long.compare(order, other.order);
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package fxutil;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+//hands values from a busy background thread to the FX thread at most once per interval, only the newest one is shown
+public class FxThrottle<T> {
+
+    private final long intervalNanos;
+    private final Consumer<T> consumer; //runs on the FX thread
+    private final AtomicReference<T> latest = new AtomicReference<>();
+    private volatile long lastOffer;
+
+    public FxThrottle(long intervalMillis, Consumer<T> consumer) {
+        intervalNanos = intervalMillis * 1_000_000;
+        this.consumer = consumer;
+        lastOffer = System.nanoTime() - intervalNanos;
+    }
+
+    //callers check this first so they only build a value when it will be offered
+    public boolean isDue() {
+        return System.nanoTime() - lastOffer >= intervalNanos;
+    }
+
+    //replaces a value still waiting for the FX thread instead of queueing another runLater
+    public void offer(T value) {
+        lastOffer = System.nanoTime();
+        if(latest.getAndSet(value) == null) {
+            Platform.runLater(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        T value = latest.getAndSet(null);
+        if(value != null) {
+            consumer.accept(value);
+        }
+    }
+
+}
@@ -1,6 +1,9 @@
 
 package gui;
 
+import engine.MoveGenerator;
+import engine.Moves;
+import engine.Position;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
 import javafx.scene.layout.Pane;
@@ -8,6 +11,9 @@ import javafx.scene.layout.StackPane;
 
 import java.util.ArrayList;
 
+import static engine.Bitboards.col;
+import static engine.Bitboards.first;
+import static engine.Bitboards.row;
 import static gui.Game.HEIGHT;
 import static gui.Game.WIDTH;
 
@@ -29,16 +35,11 @@ public class Board {
     private Piece blackKing; //kings
     private Piece whiteKing;
     private final ArrayList<Tile> attackingKing = new ArrayList<>(); //tiles attacking King
-    private final ArrayList<Tile> attackWhiteListed = new ArrayList<>(); //available tiles during attack
     private final ArrayList<Tile> kingCanMove = new ArrayList<>(); //available tiles for King
-
-    public static int normalize(int num) {
-        return num == 0 ? 0 : num/Math.abs(num);
-    }
-
-    protected static boolean withinBounds(int row, int col) {
-        return (row < UPPER_BOUND && row > LOWER_BOUND) && (col < UPPER_BOUND && col > LOWER_BOUND);
-    }
+    private Game game;
+    private Position position; //shown position from GameInfo, its legal moves are projected onto the tiles
+    private final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+    private int legalMoveCount;
 
     public static String getCharacterNotation(int num) {
         return NUMBER_TO_LETTER_TABLE[num];
@@ -72,10 +73,6 @@ public class Board {
         return attackingKing;
     }
 
-    public ArrayList<Tile> getAttackWhiteListed() {
-        return attackWhiteListed;
-    }
-
     public ArrayList<Tile> getKingCanMove() {
         return kingCanMove;
     }
@@ -84,271 +81,42 @@ public class Board {
         return white ? whiteKing : blackKing;
     }
 
-    public boolean hasLegalMoves(boolean white) {
-        ArrayList<Piece> pieces = white ? whiteNotKing : blackNotKing;
-        boolean legal = false;
-        for(Piece piece : pieces) {
-            if(piece.hasLegalMoves()) {
-                legal = true;
-            }
-        }
-        Piece king = white ? whiteKing : blackKing;
-        if(king.hasLegalMoves()) {
-            legal = true;
-        }
-        return legal;
+    public Position getPosition() {
+        return position;
     }
 
-    public void calculateMoves(boolean white) {
-        Piece king = white ? whiteKing : blackKing;
-        attackingKing(king,attackingKing);
-        kingCanMove(king,attackingKing,kingCanMove);
-        king.calcAvailableMoves();
-        attackWhiteListed(attackingKing,king,attackWhiteListed);
-        if(white) {
-            whiteNotKing.forEach(Piece::calcAvailableMoves);
-        } else {
-            blackNotKing.forEach(Piece::calcAvailableMoves);
-        }
-    }
-
-    public boolean inCheck(Piece king, int row, int col) {
-        
-        int[][] diagonals = {{1,1},{-1,1},{1,-1},{-1,-1}};
-        int[][] horizontals = {{1,0},{-1,0},{0,-1},{0,1}};
-        int[][] knightOffsets = {{1,2},{2,1},{-1,2},{-2,1},{1,-2},{2,-1},{-1,-2},{-2,-1}};
-        
-        //diagonals: queen, bishop, pawn
-        for (int[] diagonal : diagonals) {
-            int i = 1;
-            boolean canContinue = true;
-            while (canContinue) {
-                if (withinBounds(row+(i*diagonal[0]),col+(i*diagonal[1]))) {
-                    Tile tile = tiles[row+(i*diagonal[0])][col+(i*diagonal[1])];
-                    if (tile.hasPiece() && tile.getPiece() != king
-                            && (tile.getPiece().isWhite() != king.isWhite())) {
-                        Piece piece = tile.getPiece();
-                        if (piece.isBishop() || piece.isQueen()
-                                || (piece.isPawn() && king.isWhite() != piece.isWhite() && i == 1)) {
-                            return true;
-                        }
-                        canContinue = false;
-                    }
-                    if ((tile.hasPiece() && tile.getPiece() != king)) {
-                        canContinue = false;
-                    }
-                } else {
-                    canContinue = false;
-                }
-                i++;
-            }
-        }
-
-        //horizontals: rook and queen
-        for (int[] horizontal : horizontals) {
-            int i = 1;
-            boolean canContinue = true;
-            while (canContinue) {
-                if (withinBounds(row+(i*horizontal[0]),col+(i*horizontal[1]))) {
-                    Tile tile = tiles[row+(i*horizontal[0])][col+(i*horizontal[1])];
-                    if (tile.hasPiece() && tile.getPiece() != king
-                            && (tile.getPiece().isWhite() != king.isWhite())) {
-                        Piece piece = tile.getPiece();
-                        if (piece.isRook() || piece.isQueen()) {
-                            return true;
-                        }
-                        canContinue = false;
-                    }
-                    if ((tile.hasPiece() && tile.getPiece() != king)) {
-                        canContinue = false;
-                    }
-                } else {
-                    canContinue = false;
-                }
-                i++;
-            }
-        }
-        
-        //L-shaped: knight
-        for(int[] offset : knightOffsets) {
-            if(withinBounds(row+offset[0],col+offset[1])) {
-                Tile tile = tiles[row+offset[0]][col+offset[1]];
-                if(tile.hasPiece()) {
-                    Piece piece = tile.getPiece();
-                    if(piece.isKnight() && tile.getPiece() != king &&  
-                            tile.getPiece().isWhite() != king.isWhite()) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    public boolean hasLegalMoves(boolean white) {
+        return position.isWhiteToMove() == white && legalMoveCount > 0;
     }
 
-    public void attackingKing(Piece king, ArrayList<Tile> attackingMoves) {
-        attackingMoves.clear();
-        int row = king.getTile().getRow();
-        int col = king.getTile().getCol();
-        int[][] diagonals = {{1,1},{-1,1},{1,-1},{-1,-1}};
-        int[][] horizontals = {{1,0},{-1,0},{0,-1},{0,1}};
-        int[][] knightOffsets = {{1,2},{2,1},{-1,2},{-2,1},{1,-2},{2,-1},{-1,-2},{-2,-1}};
-        
-        //diagonals: queen, bishop, pawn
-        for (int[] diagonal : diagonals) {
-            int i = 1;
-            boolean canContinue = true;
-            while (canContinue) {
-                if (withinBounds(row+(i*diagonal[0]),col+(i*diagonal[1]))) {
-                    Tile tile = tiles[row+(i*diagonal[0])][col+(i*diagonal[1])];
-                    if (tile.hasPiece() && (tile.getPiece().isWhite() != king.isWhite())) {
-                        Piece piece = tile.getPiece();
-                        if (piece.isBishop() || piece.isQueen()
-                                || (piece.isPawn() && king.isWhite() != piece.isWhite() && i == 1)) {
-                            attackingMoves.add(tile);
-                        }
-                        canContinue = false;
-                    }
-                    if ((tile.hasPiece() && tile.getPiece() != king)) {
-                        canContinue = false;
-                    }
-                } else {
-                    canContinue = false;
-                }
-                i++;
-            }
-        }
+    public void calculateMoves(boolean white, PlyPrefetcher.Ply ply) {
+        position = ply.getPosition(); //the shown position, the tiles only mirror it
+        legalMoveCount = ply.getLegalMoves(legalMoves);
 
-        //horizontals: rook and queen
-        for (int[] horizontal : horizontals) {
-            int i = 1;
-            boolean canContinue = true;
-            while (canContinue) {
-                if (withinBounds(row+(i*horizontal[0]),col+(i*horizontal[1]))) {
-                    Tile tile = tiles[row+(i*horizontal[0])][col+(i*horizontal[1])];
-                    if (tile.hasPiece() && (tile.getPiece().isWhite() != king.isWhite())) {
-                        Piece piece = tile.getPiece();
-                        if (piece.isRook() || piece.isQueen()) {
-                            attackingMoves.add(tile);
-                        }
-                        canContinue = false;
-                    }
-                    if ((tile.hasPiece() && tile.getPiece() != king)) {
-                        canContinue = false;
-                    }
-                } else {
-                    canContinue = false;
-                }
-                i++;
-            }
-        }
-        
-        //L-shaped: knight
-        for(int[] offset : knightOffsets) {
-            if(withinBounds(row+offset[0],col+offset[1])) {
-                Tile tile = tiles[row+offset[0]][col+offset[1]];
-                if(tile.hasPiece()) {
-                    Piece piece = tile.getPiece();
-                    if(piece.isKnight() && tile.getPiece().isWhite() != king.isWhite()) {
-                        attackingMoves.add(tile);
-                    }
-                }
-            }
-        }
-    }
-
-    public final void kingCanMove(Piece king, ArrayList<Tile> attackingKing, ArrayList<Tile> canMove) {
-        canMove.clear();
-        int row = king.getTile().getRow();
-        int col = king.getTile().getCol();
-        
-        int[][] diagonalOffsets = {{1,1},{1,-1},{-1,1},{-1,-1}};
-        int[][] dkc = {{2,2},{1,2},{2,1},{0,2},{2,0}}; //diagonal king check
-        int[][] horizontalOffsets = {{1,0},{0,1},{-1,0},{0,-1}};
-        int[][][] hkc = {{{2,1},{2,0},{2,-1}},{{1,2},{0,2},{-1,2}},
-            {{-2,1},{-2,0},{-2,-1}},{{1,-2},{0,-2},{-1,-2}}}; //horizontal king check
-        
-        //diagonals
-        for(int[] offset : diagonalOffsets) {
-            if(withinBounds(row+offset[0],col+offset[1])) {
-                Tile tileToMove = tiles[row+offset[0]][col+offset[1]];
-                if((!tileToMove.hasPiece() 
-                || (tileToMove.getPiece().isWhite() != king.isWhite()))
-                && !inCheck(king, row+offset[0], col+offset[1])
-                && (!withinBounds(row+(dkc[0][0]*offset[0]),col+(dkc[0][1]*offset[1]))
-                        || !tiles[row+(dkc[0][0]*offset[0])][col+(dkc[0][1]*offset[1])].hasKing())
-                && (!withinBounds(row+(dkc[1][0]*offset[0]),col+(dkc[1][1]*offset[1])) 
-                        || !tiles[row+(dkc[1][0]*offset[0])][col+(dkc[1][1]*offset[1])].hasKing())
-                && (!withinBounds(row+(dkc[2][0]*offset[0]),col+(dkc[2][1]*offset[1])) 
-                        || !tiles[row+(dkc[2][0]*offset[0])][col+(dkc[2][1]*offset[1])].hasKing())
-                && (!withinBounds(row+(dkc[3][0]*offset[0]),col+(dkc[3][1]*offset[1])) 
-                        || !tiles[row+(dkc[3][0]*offset[0])][col+(dkc[3][1]*offset[1])].hasKing())
-                && (!withinBounds(row+(dkc[4][0]*offset[0]),col+(dkc[4][1]*offset[1])) 
-                        || !tiles[row+(dkc[4][0]*offset[0])][col+(dkc[4][1]*offset[1])].hasKing())) {
-                    canMove.add(tiles[row+offset[0]][col+offset[1]]);
-                }
-            }
-        }
-        
-        //horizontals
-        int i= 0;
-        for(int[] offset : horizontalOffsets) {
-            if(withinBounds(row+offset[0],col+offset[1])) {
-                Tile tileToMove = tiles[row+offset[0]][col+offset[1]];
-                if((!tileToMove.hasPiece() 
-                || (tileToMove.getPiece().isWhite() != king.isWhite()))
-                && !inCheck(king, row+offset[0], col+offset[1])
-                && (!withinBounds(row+(hkc[i][0][0]),col+(hkc[i][0][1]))
-                        || !tiles[row+(hkc[i][0][0])][col+(hkc[i][0][1])].hasKing())
-                && (!withinBounds(row+(hkc[i][1][0]),col+(hkc[i][1][1])) 
-                        || !tiles[row+(hkc[i][1][0])][col+(hkc[i][1][1])].hasKing())
-                && (!withinBounds(row+(hkc[i][2][0]),col+(hkc[i][2][1])) 
-                        || !tiles[row+(hkc[i][2][0])][col+(hkc[i][2][1])].hasKing())) {
-                    canMove.add(tiles[row+offset[0]][col+offset[1]]);
-                }
+        Piece king = white ? whiteKing : blackKing;
+        king.clearAvailable();
+        (white ? whiteNotKing : blackNotKing).forEach(Piece::clearAvailable);
+        attackingKing.clear();
+        kingCanMove.clear();
+        for(int i = 0; i < legalMoveCount; i++) { //project engine moves back onto the tiles
+            int move = legalMoves[i];
+            Tile from = tiles[row(Moves.from(move))][col(Moves.from(move))];
+            Tile to = tiles[row(Moves.to(move))][col(Moves.to(move))];
+            from.getPiece().addAvailable(to, move);
+            if(from.getPiece() == king && !Moves.isCastle(move)) {
+                kingCanMove.add(to);
             }
-            i++;
-        }
-    }
-
-    public void attackWhiteListed(ArrayList<Tile> attackingKing, Piece king, ArrayList<Tile> whiteListed) {
-        whiteListed.clear();
-        if(attackingKing.size() != 1) {
-            return;
         }
-        Tile attack = attackingKing.get(0);
-        if(attack.hasPiece() && attack.getPiece().isKnight()) {
-            whiteListed.add(attack);
-            return;
-        }
-        int row = king.getTile().getRow(); //start at king
-        int col = king.getTile().getCol();
-        int r = normalize(attack.getRow() - king.getTile().getRow());
-        int c = normalize(attack.getCol() - king.getTile().getCol());
-        boolean atAttacker = false; //loop until at attacker
-        while (!atAttacker) {
-            if(withinBounds(row+r,col+c)) {
-                Tile t = tiles[row+r][col+c];
-                if (t.getPiece() == attack.getPiece()) {
-                    atAttacker = true;
-                }
-                whiteListed.add(t); //add all tiles to whiteList
-                if (r > 0) { //travel in the direction of normalized trajectory
-                    r++;
-                } else if (r < 0) {
-                    r--;
-                }
-                if (c > 0) {
-                    c++;
-                } else if (c < 0) {
-                    c--;
-                }
-            } else {
-                atAttacker = true;
-            }
+        long checkers = position.checkers();
+        while(checkers != 0) {
+            int sq = first(checkers);
+            checkers &= checkers - 1;
+            attackingKing.add(tiles[row(sq)][col(sq)]);
         }
     }
 
     public final void initWhiteBoard(byte[][] board, Game game) {
+        this.game = game;
         blackNotKing.clear();
         whiteNotKing.clear();
         Pane boardUI = new Pane();
@@ -362,19 +130,7 @@ public class Board {
                 isLight = !isLight;
                 Piece piece = NOTATION_TO_CONSTRUCTOR_TABLE[board[i][j]].createPiece(tiles[i][j],game.getApp().getPath());
                 if(piece != null) {
-                    if(piece.isWhite()) {
-                        if(piece.isKing()) {
-                            whiteKing = piece;
-                        } else {
-                            whiteNotKing.add(piece);
-                        }
-                    } else {
-                        if(piece.isKing()) {
-                            blackKing = piece;
-                        } else {
-                            blackNotKing.add(piece);
-                        }
-                    }
+                    addPiece(piece);
                     tiles[i][j].setPiece(piece);
                     boardUI.getChildren().add(piece);
                     piece.toFront();
@@ -399,6 +155,7 @@ public class Board {
     }
 
     public final void initBlackBoard(byte[][] board, Game game) {
+        this.game = game;
         blackNotKing.clear();
         whiteNotKing.clear();
         Pane boardUI = new Pane();
@@ -412,19 +169,7 @@ public class Board {
                 IsLight = !IsLight;
                 Piece piece = NOTATION_TO_CONSTRUCTOR_TABLE[board[i][j]].createPiece(tiles[i][j],game.getApp().getPath());
                 if(piece != null) {
-                    if(piece.isWhite()) {
-                        if(piece.isKing()) {
-                            whiteKing = piece;
-                        } else {
-                            whiteNotKing.add(piece);
-                        }
-                    } else {
-                        if(piece.isKing()) {
-                            blackKing = piece;
-                        } else {
-                            blackNotKing.add(piece);
-                        }
-                    }
+                    addPiece(piece);
                     tiles[i][j].setPiece(piece);
                     boardUI.getChildren().add(piece);
                     piece.toFront();
@@ -445,5 +190,67 @@ public class Board {
         boardGUI = boardUI;
         getBoardGUI().setId("board");
     }
-    
+
+    //moves, adds or removes only the pieces that differ from the target board, tiles are kept
+    public void updateBoard(byte[][] target) {
+        ArrayList<Piece> removed = new ArrayList<>();
+        ArrayList<Tile> changed = new ArrayList<>();
+        for(int i = 0; i < HEIGHT; i++) {
+            for(int j = 0; j < WIDTH; j++) {
+                Tile tile = tiles[i][j];
+                byte shown = tile.hasPiece() ? tile.getPiece().getInfoCode() : GameInfo.EMPTY;
+                if(shown != target[i][j]) {
+                    if(tile.hasPiece()) {
+                        removed.add(tile.getPiece());
+                        tile.setPiece(null);
+                    }
+                    if(target[i][j] != GameInfo.EMPTY) {
+                        changed.add(tile);
+                    }
+                }
+            }
+        }
+        for(Tile tile : changed) {
+            byte code = target[tile.getRow()][tile.getCol()];
+            Piece piece = null;
+            for(Piece candidate : removed) { //reuse a piece of the same kind that left its square
+                if(candidate.getInfoCode() == code) {
+                    piece = candidate;
+                    break;
+                }
+            }
+            if(piece != null) {
+                removed.remove(piece);
+                piece.setTile(tile);
+                piece.moveTo(tile);
+            } else {
+                piece = NOTATION_TO_CONSTRUCTOR_TABLE[code].createPiece(tile, game.getApp().getPath());
+                addPiece(piece);
+                boardGUI.getChildren().add(piece);
+            }
+            tile.setPiece(piece);
+            piece.toFront();
+        }
+        for(Piece piece : removed) {
+            boardGUI.getChildren().remove(piece);
+            (piece.isWhite() ? whiteNotKing : blackNotKing).remove(piece);
+        }
+    }
+
+    private void addPiece(Piece piece) {
+        if(piece.isWhite()) {
+            if(piece.isKing()) {
+                whiteKing = piece;
+            } else {
+                whiteNotKing.add(piece);
+            }
+        } else {
+            if(piece.isKing()) {
+                blackKing = piece;
+            } else {
+                blackNotKing.add(piece);
+            }
+        }
+    }
+
 }
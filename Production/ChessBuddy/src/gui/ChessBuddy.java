@@ -1,5 +1,12 @@
 package gui;
 
+import database.GameDatabase;
+import engine.ChessClock;
+import engine.Nnue;
+import engine.PolyglotBook;
+import engine.Tablebase;
+import engine.TranspositionTable;
+import fxutil.AnimationScheduler;
 import fxutil.AudioClipPlayer;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -8,8 +15,12 @@ import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
+import uci.UciEngine;
 
 import java.io.*;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,17 +37,202 @@ public class ChessBuddy extends Application {
             FOLDER + System.getProperty("file.separator") + CONFIG_NAME + ".dat";
     public static final String[] AVAILABLE_PATHS = {"classic"};
     public static final int BROWN = 0;
+    public static final int CONFIG_LINES = 9; //piece path, color theme, hash size in MB, search threads, UCI engine command, database directory, tablebase directories, network file, opening book file
     private final double height = 760;
     private final double width = height*1.52;
     private final double scale = height/860;
     private final AudioClipPlayer clip = new AudioClipPlayer(SOUND_CLIP_PATH); //sound clip
+    private final AnimationScheduler animations = new AnimationScheduler(); //captures and promotions of every board
+    private final ExecutorService engineExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine"); //searches run here, off the FX thread
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService databaseExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "database"); //imports and opening tree queries, apart from the searches
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "prefetch"); //plies around the shown one, behind everything else
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
     private String path = "classic"; //path for piece package
     private int colorTheme = BROWN; //color theme
+    private int hashSize = TranspositionTable.DEFAULT_MEGABYTES; //hash size in MB
+    private int searchThreads = Runtime.getRuntime().availableProcessors(); //zero in the config means all
+    private int threadSetting = 0; //as written in the config
+    private String engineCommand = ""; //empty for the built-in search
+    private volatile UciEngine uciEngine; //running external engine, null when the built-in search analyzes
+    private String databaseDirectory = ""; //empty when no game database is open
+    private volatile GameDatabase database;
+    private String tablebaseDirectories = ""; //Syzygy directories separated like a class path, empty for none
+    private volatile Tablebase tablebase;
+    private String networkPath = ""; //empty for the handcrafted evaluation
+    private volatile Nnue network;
+    private String bookPath = ""; //empty for no opening book
+    private volatile PolyglotBook book;
+    private int timerType = Game.NO_TIMER; //index into Game.TIMER_INFO, kept for every new game
+    private int clockMode = ChessClock.FISCHER;
+    private OpeningTreePanel openingTree; //shown beside the board, null until it is first opened
+    private TranspositionTable transpositionTable;
 
     public AudioClipPlayer getClip() {
         return clip;
     }
 
+    public AnimationScheduler getAnimations() {
+        return animations;
+    }
+
+    public ExecutorService getEngineExecutor() {
+        return engineExecutor;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public int getHashSize() {
+        return hashSize;
+    }
+
+    public int getSearchThreads() {
+        return searchThreads;
+    }
+
+    public String getEngineCommand() {
+        return engineCommand;
+    }
+
+    public UciEngine getUciEngine() {
+        return uciEngine;
+    }
+
+    public ExecutorService getPrefetchExecutor() {
+        return prefetchExecutor;
+    }
+
+    public ExecutorService getDatabaseExecutor() {
+        return databaseExecutor;
+    }
+
+    public GameDatabase getDatabase() {
+        return database;
+    }
+
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    public String getTablebaseDirectories() {
+        return tablebaseDirectories;
+    }
+
+    //lists the tables and remembers the directories in the config, an empty string turns them off
+    public void openTablebase(String directories) throws IOException {
+        tablebase = directories.isBlank() ? null : new Tablebase(directories);
+        tablebaseDirectories = directories.trim();
+        saveConfig();
+    }
+
+    public int getTimerType() {
+        return timerType;
+    }
+
+    public int getClockMode() {
+        return clockMode;
+    }
+
+    public void setTimer(int timerType, int clockMode) {
+        this.timerType = timerType;
+        this.clockMode = clockMode;
+    }
+
+    public Nnue getNetwork() {
+        return network;
+    }
+
+    public String getNetworkPath() {
+        return networkPath;
+    }
+
+    //loads the network and remembers it in the config, an empty path goes back to the handcrafted evaluation
+    public void openNetwork(String path) throws IOException {
+        network = path.isBlank() ? null : new Nnue(Paths.get(path.trim()));
+        networkPath = path.trim();
+        saveConfig();
+    }
+
+    public PolyglotBook getBook() {
+        return book;
+    }
+
+    public String getBookPath() {
+        return bookPath;
+    }
+
+    //maps the book and remembers it in the config, an empty path closes it
+    public void openBook(String path) throws IOException {
+        book = path.isBlank() ? null : new PolyglotBook(Paths.get(path.trim()));
+        bookPath = path.trim();
+        saveConfig();
+    }
+
+    public OpeningTreePanel getOpeningTree() {
+        return openingTree;
+    }
+
+    public void setOpeningTree(OpeningTreePanel openingTree) {
+        this.openingTree = openingTree;
+    }
+
+    //opens or creates the database and remembers it in the config, call it on the database thread
+    public void openDatabase(String directory) throws IOException {
+        closeDatabase();
+        database = GameDatabase.open(Paths.get(directory));
+        databaseDirectory = directory;
+        saveConfig();
+    }
+
+    public void closeDatabase() {
+        GameDatabase old = database;
+        database = null;
+        if(old != null) {
+            try {
+                old.close();
+            } catch (IOException ex) {
+                Logger.getLogger(ChessBuddy.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
+    }
+
+    //starts the engine and remembers it in the config, an empty command goes back to the built-in search
+    //waits for the engine's handshake, so call it off the FX thread
+    public void loadEngine(String command) throws IOException {
+        closeEngine();
+        if(!command.isBlank()) {
+            uciEngine = new UciEngine(UciEngine.parseCommand(command));
+        }
+        engineCommand = command.trim();
+        saveConfig();
+    }
+
+    private void saveConfig() {
+        changeConfigData(path + "\n" + colorTheme + "\n" + hashSize + "\n" + threadSetting + "\n" + engineCommand + "\n"
+                + databaseDirectory + "\n" + tablebaseDirectories + "\n" + networkPath + "\n" + bookPath + "\n");
+    }
+
+    public void closeEngine() {
+        UciEngine engine = uciEngine;
+        uciEngine = null;
+        if(engine != null) {
+            engine.close();
+        }
+    }
+
     public String getPath() {
         return path;
     }
@@ -98,6 +294,17 @@ public class ChessBuddy extends Application {
         }
     }
 
+    private int parseConfigInt(String str, int fallback) {
+        if(str == null) {
+            return fallback; //older config files have fewer lines
+        }
+        try {
+            return Integer.parseInt(str);
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+    }
+
     @Override
     public void init() {
         File dir = new File(CONFIG_DIR);
@@ -110,28 +317,101 @@ public class ChessBuddy extends Application {
                 copyToFile(defaultConfigReader,file);
             } else {
                 if(file.canRead()) {
-                    String[] data = new String[2];
+                    String[] data = new String[CONFIG_LINES];
                     try (BufferedReader br = new BufferedReader(new FileReader(file))) {
                         String line;
                         int i = 0;
-                        while ((line = br.readLine()) != null) {
-                            data[i] = line;
+                        while ((line = br.readLine()) != null && i < CONFIG_LINES) {
+                            data[i] = line.trim();
                             i++;
                         }
                     }
                     String str = data[0];
-                    if(contains(AVAILABLE_PATHS,str)) {
+                    if(str != null && contains(AVAILABLE_PATHS,str)) {
                         this.path = str;
                     }
-                    int colorNum = (Integer.parseInt(data[1]));
+                    int colorNum = parseConfigInt(data[1], BROWN);
                     if(colorNum >= BROWN) {
                         colorTheme = colorNum;
                     }
+                    int hashNum = parseConfigInt(data[2], TranspositionTable.DEFAULT_MEGABYTES);
+                    if(hashNum > 0) {
+                        hashSize = Math.min(hashNum, TranspositionTable.MAX_MEGABYTES);
+                    }
+                    int threadNum = parseConfigInt(data[3], 0);
+                    if(threadNum > 0) {
+                        searchThreads = threadNum;
+                        threadSetting = threadNum;
+                    }
+                    if(data[4] != null) {
+                        engineCommand = data[4];
+                    }
+                    if(data[5] != null) {
+                        databaseDirectory = data[5];
+                    }
+                    if(data[6] != null) {
+                        tablebaseDirectories = data[6];
+                    }
+                    if(data[7] != null) {
+                        networkPath = data[7];
+                    }
+                    if(data[8] != null) {
+                        bookPath = data[8];
+                    }
                 }
             }
         } catch (IOException ex) {
             Logger.getLogger(ChessBuddy.class.getName()).log(Level.SEVERE, null, ex);
         }
+        transpositionTable = new TranspositionTable(hashSize); //allocated once, shared by every search
+        if(!engineCommand.isEmpty()) {
+            try {
+                uciEngine = new UciEngine(UciEngine.parseCommand(engineCommand));
+            } catch (IOException ex) {
+                Logger.getLogger(ChessBuddy.class.getName()).log(Level.WARNING, "Could not start " + engineCommand, ex);
+            }
+        }
+        if(!databaseDirectory.isEmpty()) {
+            try {
+                database = GameDatabase.open(Paths.get(databaseDirectory));
+            } catch (IOException ex) {
+                Logger.getLogger(ChessBuddy.class.getName()).log(Level.WARNING, "Could not open " + databaseDirectory, ex);
+            }
+        }
+        String syzygy = getParameters().getNamed().get("syzygy"); //--syzygy=<directories> on the command line
+        if(syzygy != null) {
+            tablebaseDirectories = syzygy;
+        }
+        if(!tablebaseDirectories.isEmpty()) {
+            try {
+                tablebase = new Tablebase(tablebaseDirectories); //only lists the files, each is mapped on its first probe
+            } catch (IOException ex) {
+                Logger.getLogger(ChessBuddy.class.getName()).log(Level.WARNING, "Could not read " + tablebaseDirectories, ex);
+            }
+        }
+        String nnue = getParameters().getNamed().get("nnue"); //--nnue=<file> on the command line
+        if(nnue != null) {
+            networkPath = nnue;
+        }
+        if(!networkPath.isEmpty()) {
+            try {
+                network = new Nnue(Paths.get(networkPath));
+            } catch (IOException ex) {
+                Logger.getLogger(ChessBuddy.class.getName()).log(Level.WARNING, "Could not load " + networkPath, ex);
+            }
+        }
+        String bookArg = getParameters().getNamed().get("book"); //--book=<file.bin> on the command line
+        if(bookArg != null) {
+            bookPath = bookArg;
+        }
+        if(!bookPath.isEmpty()) {
+            try {
+                book = new PolyglotBook(Paths.get(bookPath));
+            } catch (IOException ex) {
+                Logger.getLogger(ChessBuddy.class.getName()).log(Level.WARNING, "Could not open " + bookPath, ex);
+            }
+        }
+        PieceImages.warm(path, Piece.PIECE_SIZE*scale, Selectable.PROMOTION_ICON_SIZE*scale); //decode sprites before the board is built
         clip.startLoop();
     }
 
@@ -143,10 +423,13 @@ public class ChessBuddy extends Application {
         primaryStage.setWidth(width);
         primaryStage.setResizable(false);
         primaryStage.setOnCloseRequest((WindowEvent event) -> {
+            closeEngine(); //the engine process would outlive the JVM
+            closeDatabase();
             Platform.exit();
             System.exit(0);
         });
-        Pane root = createPlayPane(primaryStage);
+        animations.setAnimated(!"off".equals(getParameters().getNamed().get("animations"))); //--animations=off
+        Pane root = createPlayPane(primaryStage, getParameters().getNamed().get("fen")); //--fen="..." on the command line
         Scene scene = new Scene(root, width, height);
         scene.getStylesheets().add(ChessBuddy.class.getResource("/resources/chess.css").toExternalForm());
         primaryStage.setScene(scene);
@@ -169,6 +452,17 @@ public class ChessBuddy extends Application {
         return controller.getRoot();
     }
 
+    public Pane createPlayPane(Stage stage, String fen) {
+        if(fen != null) {
+            try {
+                return Game.constructGame(true, stage, this, fen).getRoot();
+            } catch (IllegalArgumentException ex) {
+                Logger.getLogger(ChessBuddy.class.getName()).log(Level.WARNING, ex.getMessage());
+            }
+        }
+        return createPlayPane(stage);
+    }
+
 
     public static void main(String[] args) {
         launch(args);
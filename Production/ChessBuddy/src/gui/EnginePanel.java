@@ -0,0 +1,172 @@
+package gui;
+
+import engine.SearchInfo;
+import fxutil.FxThrottle;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.OverrunStyle;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import uci.UciInfo;
+import uci.UciListener;
+
+//score, search statistics and principal variation of the running analysis, under the notation table
+public class EnginePanel extends VBox {
+
+    public static final long UPDATE_MILLIS = 100; //at most ten repaints a second however fast the engine talks
+
+    private final Label scoreLabel = new Label();
+    private final Label statsLabel = new Label();
+    private final Label pvLabel = new Label();
+    private final Label tablebaseLabel = new Label(); //the endgame table verdict, kept when the analysis is cleared
+    private Analysis current; //the analysis being shown, FX thread only
+    private EvalBar evalBar; //follows the shown score when set
+
+    public EnginePanel(double width, double height, double scale, Node... buttons) {
+        setMinSize(width, height);
+        setMaxSize(width, height);
+        setAlignment(Pos.CENTER_LEFT);
+        setPadding(new Insets(0, width*0.06, 0, width*0.06));
+        HBox top = new HBox(buttons);
+        top.setSpacing(10*scale);
+        top.setAlignment(Pos.CENTER_LEFT);
+        scoreLabel.setId("largefont");
+        scoreLabel.setMaxWidth(Double.MAX_VALUE);
+        scoreLabel.setAlignment(Pos.CENTER_RIGHT);
+        HBox.setHgrow(scoreLabel, Priority.ALWAYS);
+        top.getChildren().add(scoreLabel);
+        statsLabel.setId("tinyfont");
+        pvLabel.setId("tinyfont");
+        statsLabel.setMaxWidth(width*0.88);
+        pvLabel.setMaxWidth(width*0.88);
+        pvLabel.setTextOverrun(OverrunStyle.ELLIPSIS);
+        tablebaseLabel.setId("tinyfont");
+        tablebaseLabel.setMaxWidth(width*0.88);
+        tablebaseLabel.setManaged(false); //takes no room while there is no verdict
+        getChildren().addAll(top, statsLabel, pvLabel, tablebaseLabel);
+    }
+
+    public void setEvalBar(EvalBar evalBar) {
+        this.evalBar = evalBar;
+    }
+
+    public void clear() {
+        current = null;
+        scoreLabel.setText("");
+        statsLabel.setText("");
+        pvLabel.setText("");
+    }
+
+    public void showMessage(String engineName, String message) {
+        clear();
+        statsLabel.setText(engineName);
+        pvLabel.setText(message);
+    }
+
+    //null hides the line
+    public void showTablebase(String verdict) {
+        tablebaseLabel.setText(verdict == null ? "" : "Tablebase: " + verdict);
+        tablebaseLabel.setManaged(verdict != null);
+    }
+
+    //listener for one analysed position, anything still queued for an earlier one is dropped
+    public UciListener startUci(String engineName, boolean whiteToMove) {
+        showMessage(engineName, "Analyzing...");
+        current = new Analysis(engineName, whiteToMove);
+        return current;
+    }
+
+    //the built-in search reports once per iteration, few enough to show each one
+    public void showSearchInfo(String engineName, SearchInfo info, boolean whiteToMove) {
+        current = null;
+        scoreLabel.setText(info.getScoreText(whiteToMove));
+        statsLabel.setText(statsText(engineName, info.getDepth(), 0, info.getNodes(), info.getNodesPerSecond()));
+        showEval(whiteToMove ? info.getScore() : -info.getScore(), info.isMate(), info.getScoreText(whiteToMove));
+        pvLabel.setText(info.getPvText());
+    }
+
+    private void show(Analysis analysis, UciInfo info) {
+        if(analysis != current) {
+            return;
+        }
+        scoreLabel.setText(info.getScoreText(analysis.whiteToMove));
+        showEval(analysis.whiteToMove ? info.getScore() : -info.getScore(), info.isMate(),
+                info.getScoreText(analysis.whiteToMove));
+        statsLabel.setText(statsText(analysis.engineName, info.getDepth(), info.getSelDepth(), info.getNodes(),
+                info.getNodesPerSecond()));
+        pvLabel.setText(info.getPvText());
+    }
+
+    private void showEval(int whiteScore, boolean mate, String text) {
+        if(evalBar != null) {
+            evalBar.show(whiteScore, mate, text);
+        }
+    }
+
+    private static String statsText(String engineName, int depth, int selDepth, long nodes, long nodesPerSecond) {
+        return engineName + "   depth " + depth + (selDepth > 0 ? "/" + selDepth : "") + "   "
+                + formatCount(nodes) + " nodes   " + formatCount(nodesPerSecond) + "/s";
+    }
+
+    private static String formatCount(long count) {
+        if(count >= 1_000_000_000) {
+            return String.format("%.1fG", count / 1e9);
+        } else if(count >= 1_000_000) {
+            return String.format("%.1fM", count / 1e6);
+        } else if(count >= 1_000) {
+            return String.format("%.0fk", count / 1e3);
+        }
+        return Long.toString(count);
+    }
+
+    //runs on the engine's reader thread, keeps the newest main line and copies it only when a repaint is due
+    private final class Analysis implements UciListener {
+
+        private final String engineName;
+        private final boolean whiteToMove;
+        private final UciInfo latest = new UciInfo();
+        private final FxThrottle<UciInfo> throttle = new FxThrottle<>(UPDATE_MILLIS, (info) -> show(this, info));
+        private boolean unshown; //latest has not been offered yet
+
+        private Analysis(String engineName, boolean whiteToMove) {
+            this.engineName = engineName;
+            this.whiteToMove = whiteToMove;
+        }
+
+        @Override
+        public void onInfo(UciInfo info) {
+            if(info.getMultiPv() != 1 || !info.hasScore() || !info.hasPv()) {
+                return;
+            }
+            latest.set(info);
+            unshown = true;
+            if(throttle.isDue()) {
+                throttle.offer(latest.copy());
+                unshown = false;
+            }
+        }
+
+        @Override
+        public void onBestMove(String move, String ponder) {
+            if(unshown) {
+                throttle.offer(latest.copy());
+                unshown = false;
+            }
+        }
+
+        @Override
+        public void onExit() {
+            Platform.runLater(() -> {
+                if(this == current) {
+                    showMessage(engineName, "The engine has exited");
+                }
+            });
+        }
+
+    }
+
+}
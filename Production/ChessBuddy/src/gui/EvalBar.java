@@ -0,0 +1,41 @@
+package gui;
+
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+//vertical bar beside the board, white's share grows from the side white plays from
+public class EvalBar extends Pane {
+
+    private static final double SPREAD = 250; //centipawns, a rook up fills about 90% of the bar
+
+    private final double height;
+    private final Rectangle whiteFill;
+    private final Tooltip tooltip = new Tooltip();
+    private boolean whiteBottom = true;
+
+    public EvalBar(double width, double height) {
+        this.height = height;
+        setMinSize(width, height);
+        setMaxSize(width, height);
+        Rectangle blackFill = new Rectangle(width, height, Color.rgb(40, 40, 40));
+        whiteFill = new Rectangle(width, height / 2, Color.rgb(235, 235, 235));
+        getChildren().addAll(blackFill, whiteFill);
+        Tooltip.install(this, tooltip);
+    }
+
+    public void setWhiteBottom(boolean whiteBottom) {
+        this.whiteBottom = whiteBottom;
+    }
+
+    //score in centipawns from white's point of view, a mate score pins the bar to one end
+    public void show(int whiteScore, boolean mate, String text) {
+        double share = mate ? (whiteScore > 0 ? 1 : whiteScore < 0 ? 0 : 0.5)
+                : 1 / (1 + Math.exp(-whiteScore / SPREAD * Math.log(3)));
+        whiteFill.setHeight(height * share);
+        whiteFill.setY(whiteBottom ? height * (1 - share) : 0);
+        tooltip.setText(text);
+    }
+
+}
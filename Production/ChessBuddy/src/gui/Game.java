@@ -1,29 +1,53 @@
 package gui;
 
-import javafx.animation.FadeTransition;
+import engine.ChessClock;
+import engine.GameState;
+import engine.Move;
+import engine.Nnue;
+import engine.ParallelSearch;
+import engine.PgnGame;
+import engine.PgnReader;
+import engine.Position;
+import engine.SearchInfo;
+import engine.SearchLimits;
+import engine.Tablebase;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.concurrent.WorkerStateEvent;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.RadioMenuItem;
+import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextInputDialog;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.control.ToggleGroup;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import javafx.util.Duration;
+import uci.UciEngine;
 
 import java.awt.*;
 import java.awt.datatransfer.Clipboard;
@@ -32,7 +56,9 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -45,10 +71,15 @@ public class Game {
 
     public static final Color GREEN = Color.rgb(76, 159, 112, 1);
     public static final Color RED = Color.rgb(254, 95, 85, 1);
-    public static final int IN_PROGRESS = 0;
-    public static final int CHECKMATE = 1;
-    public static final int STALEMATE = 2;
+    public static final int IN_PROGRESS = GameState.IN_PROGRESS;
+    public static final int CHECKMATE = GameState.CHECKMATE;
+    public static final int STALEMATE = GameState.STALEMATE;
+    public static final String[] DRAW_TEXT = {"", "", "Stalemate", "Fifty moves", "Repetition",
+            "Insufficient material"}; //indexed by GameState status
     public static final int NO_TIMER = -1;
+    public static final long ANALYSIS_TIME = 15000; //milliseconds spent on each analyzed position
+    public static final double CAPTURE_FADE_MILLIS = 150;
+    public static final double PROMOTION_DELAY_MILLIS = 150; //the pawn arrives before it turns into the new piece
 
     private double boardSize;
     private double elementHeight;
@@ -57,15 +88,18 @@ public class Game {
     private double tileSize; //calculate GUI sizes based of ChessBuddy application scale
     private double barWidth;
     private double barHeight;
+    private double analysisHeight;
 
     private ChessBuddy app; //dependency on application
 
-    private final GameInfo gameInfo = new GameInfo(); //deals with previous moves and ByteBoard storage
+    private final GameInfo gameInfo; //deals with previous moves and ByteBoard storage
 
     private final Board board = new Board(); //the current Board
 
     private VBox sideBar;
     private NotationBoard notationTable;
+    private EnginePanel enginePanel;
+    private EvalBar evalBar;
     private final Circle whiteCircle;
     private final Circle blackCircle;
     private final AnchorPane root;
@@ -76,19 +110,53 @@ public class Game {
     private final ArrayList<Tile> highlightedTiles = new ArrayList<>();
     private boolean whiteBoardPosition;
     private boolean inCheck = false;
-    private boolean isWhiteTurn = true;
+    private boolean isWhiteTurn;
     private boolean moveReadyState = true;
     private boolean finished = false;
     private boolean canRender = true;
     private int gameResult = IN_PROGRESS;
     private int timerType = NO_TIMER;
+    private boolean analyzing = false;
+    private Future<?> analysisTask; //search for the shown position, cancelled when it changes
+    private int analysisId = 0;
+    private int prefetchedDepth = 0; //depth of the prefetched search shown, shallower iterations do not replace it
+    private final PlyPrefetcher prefetcher;
+    private ChessClock clock; //null when the game is played without a timer
+    private final AnimationTimer clockTimer; //refreshes the clock faces on the pulse while a clock runs
+    private final Label[] clockLabels = new Label[2]; //indexed by Position.WHITE and BLACK
+    private final long[] shownUnits = {Long.MIN_VALUE, Long.MIN_VALUE}; //what each face shows, see ChessClock.shownUnit
+    private int flagged = NO_TIMER; //side whose flag fell
     public static final int[][] TIMER_INFO = {{30*60,20},{15*60,10},{3*60,2},{60,0}};
 
 
 
 
     protected Game(boolean whiteStart, Stage stageIn, ChessBuddy app) {
+        this(whiteStart, stageIn, app, new GameInfo());
+    }
+
+    protected Game(boolean whiteStart, Stage stageIn, ChessBuddy app, GameInfo gameInfo) {
+        this.gameInfo = gameInfo;
+        isWhiteTurn = gameInfo.isWhiteToMove();
         setApp(app);
+        gameInfo.setNetwork(app.getNetwork());
+        prefetcher = new PlyPrefetcher(app.getPrefetchExecutor());
+        clockTimer = new AnimationTimer() {
+            @Override
+            public void handle(long pulse) {
+                if(clock == null) {
+                    stop();
+                    return;
+                }
+                long now = System.nanoTime(); //the pulse time is when the frame was planned, the clock is read now
+                updateClockLabels(now);
+                int side = clock.getRunning();
+                if(side != NO_TIMER && clock.isFlagged(side, now)) {
+                    flagFall(side);
+                }
+            }
+        };
+        setTimerType(app.getTimerType());
         whiteCircle = new Circle();
         blackCircle = new Circle();
         whiteCircle.setRadius(4*app.getScale());
@@ -99,7 +167,16 @@ public class Game {
     }
 
     public static Game constructGame(boolean whiteStart, Stage stageIn, ChessBuddy app) {
-        Game game = new Game(whiteStart, stageIn, app);
+        return constructGame(whiteStart, stageIn, app, new GameInfo());
+    }
+
+    //starts from any position, throws IllegalArgumentException for an invalid FEN
+    public static Game constructGame(boolean whiteStart, Stage stageIn, ChessBuddy app, String fen) {
+        return constructGame(whiteStart, stageIn, app, fen == null ? new GameInfo() : GameInfo.fromFEN(fen));
+    }
+
+    private static Game constructGame(boolean whiteStart, Stage stageIn, ChessBuddy app, GameInfo gameInfo) {
+        Game game = new Game(whiteStart, stageIn, app, gameInfo);
         game.initBoard(whiteStart);
         game.initRoot();
         game.preGame();
@@ -108,13 +185,15 @@ public class Game {
 
     public final void initBoard(boolean whiteStart) {
         if(whiteStart) {
-            board.initWhiteBoard(GameInfo.INITIAL_BOARD,this);
+            board.initWhiteBoard(gameInfo.getBoardByNumber(-1),this);
         } else {
-            board.initBlackBoard(GameInfo.INITIAL_BOARD,this);
+            board.initBlackBoard(gameInfo.getBoardByNumber(-1),this);
         }
     }
 
     public void initRoot() {
+        double gap = (stage.getWidth()-10-boardSize-barWidth)/2; //between the board and the side bar
+        evalBar = new EvalBar(12*app.getScale(), boardSize);
         setSideBar(constructScoreBoard());
         //HBox topBar = constructTopBar();
         //HBox topBorder = constructTopBorder();
@@ -144,8 +223,11 @@ public class Game {
         AnchorPane.setTopAnchor(bottomPlayerPanel, (643.0));
         AnchorPane.setLeftAnchor(bottomPlayerPanel, (20+boardSize)+(stage.getWidth()-10-boardSize-barWidth)/2);
 
+        AnchorPane.setTopAnchor(evalBar, 20.0);
+        AnchorPane.setLeftAnchor(evalBar, (20+boardSize)+(gap-12*app.getScale())/2);
+
         root.setId("root");
-        root.getChildren().addAll(sideBar,topPlayerPanel,mainButtons, fenShow,bottomPlayerPanel, getBoardGUI());
+        root.getChildren().addAll(sideBar,topPlayerPanel,mainButtons, fenShow,bottomPlayerPanel, evalBar, getBoardGUI());
     }
 
     private void setApp(ChessBuddy app) {
@@ -157,6 +239,7 @@ public class Game {
         topBarHeight = 0; //*app.getScale();
         barWidth = (app.getWidth() - 85 - HEIGHT* tileSize);
         barHeight = app.getScale()*(app.getHeight()/1.5);
+        analysisHeight = 88*app.getScale();
     }
 
     public double getElementHeight() {
@@ -195,10 +278,6 @@ public class Game {
         return board.getAttackingKing();
     }
 
-    public ArrayList<Tile> getAttackWhiteListed() {
-        return board.getAttackWhiteListed();
-    }
-
     public Piece getBlackKing() {
         return board.getBlackKing();
     }
@@ -207,10 +286,6 @@ public class Game {
         return board.getWhiteKing();
     }
 
-    public ArrayList<Tile> kingMoves() {
-        return board.getKingCanMove();
-    }
-
     public Pane getBoardGUI() {
         return board.getBoardGUI();
     }
@@ -221,6 +296,12 @@ public class Game {
 
     public final void setTimerType(int timerType) {
         this.timerType = timerType;
+        clockTimer.stop(); //a replaced clock must not be read on the next pulse
+        if(clock != null) {
+            clock.stop(System.nanoTime());
+        }
+        clock = timerType == NO_TIMER ? null
+                : new ChessClock(TIMER_INFO[timerType][0]*1000L, TIMER_INFO[timerType][1]*1000L, app.getClockMode());
     }
 
     public boolean canRender() {
@@ -419,37 +500,360 @@ public class Game {
     }
 
     public final void preGame() {
-        board.calculateMoves(isWhiteTurn());
-        renderTurn();
-    }
-
-    public boolean inCheck(Piece king, int row, int col) {
-        return board.inCheck(king, row, col);
+        preMove(); //a position set up from a FEN can start in check or be over already
+        addResultMessage("*");
+        updateClockLabels(System.nanoTime());
     }
 
     private void preMove() {
-        board.calculateMoves(isWhiteTurn());
+        PlyPrefetcher.Ply ply = shownPly();
+        board.calculateMoves(isWhiteTurn(), ply);
+        int status = gameInfo.updateStatus(ply.getStatus(), ply.isInCheck()); //the rules live in GameState, the board only shows them
+        gameInfo.updateFEN(); //cached on each move, so every shown position gets it
         if(!board.getAttackingKing().isEmpty()) {
             inCheck = true;
             board.getKing(isWhiteTurn()).getTile().setInCheck();
-            if(board.getKingCanMove().isEmpty() && !board.hasLegalMoves(isWhiteTurn()))  {
-                gameInfo.setRecentCheckMate();
-                gameResult = CHECKMATE;
-                onGameFinished();
-            } else {
-                gameInfo.setRecentCheck();
-            }
-        } else if(!board.hasLegalMoves(isWhiteTurn())) {
-            gameInfo.setRecentStaleMate();
-            gameResult = STALEMATE;
+        }
+        if(status != IN_PROGRESS && gameInfo.getMoveNum() == gameInfo.getMoveCount()-1) { //a draw passed while browsing is not the end
+            gameResult = status;
             onGameFinished();
         }
         renderTurn();
         highlightRecentTiles();
+        updateEvalBar();
+        startAnalysis();
+        updateOpeningTree();
+        updateTablebase();
+        UciEngine engine = app.getUciEngine();
+        prefetcher.prefetch(gameInfo, gameInfo.getMoveNum(), app.getNetwork(), app.getTablebase(),
+                analyzing && (engine == null || !engine.isAlive())); //an external engine is not searched ahead
+    }
+
+    //the shown ply from the prefetcher, worked out now when it was not ready
+    private PlyPrefetcher.Ply shownPly() {
+        PlyPrefetcher.Ply ply = prefetcher.get(gameInfo.getMoveNum(), gameInfo.getKey());
+        return ply != null ? ply : prefetcher.compute(gameInfo, gameInfo.getMoveNum(), app.getNetwork(), app.getTablebase());
+    }
+
+    //the mover's clock stops and the other side's starts, the first move of the game starts the clocks
+    private void pressClock() {
+        if(clock == null || finished) {
+            return;
+        }
+        long now = System.nanoTime();
+        int mover = isWhiteTurn ? Position.BLACK : Position.WHITE;
+        if(!clock.isRunning()) {
+            clock.start(mover, now);
+            clockTimer.start();
+        }
+        Move move = gameInfo.getMoves().get(gameInfo.getMoveCount()-1);
+        if(clock.press(now)) {
+            move.setClockMillis(clock.remainingMillis(mover, now));
+        } else {
+            move.setClockMillis(0);
+            flagFall(mover); //fell between two pulses
+        }
+    }
+
+    private void flagFall(int side) {
+        flagged = side;
+        moveReadyState = false;
+        onGameFinished();
+        notationTable.addFinishedMessage(side == Position.WHITE ? "Time : 0-1" : "Time : 1-0");
+    }
+
+    //after a take back the side to move thinks on its own time, also when the game had ended, without an increment
+    private void resumeClock() {
+        if(clock == null) {
+            return;
+        }
+        if(gameInfo.getMoves().stream().noneMatch(Move::hasClock)) {
+            setTimerType(timerType); //back before the first timed move, the clocks start afresh with the next one
+            updateClockLabels(System.nanoTime());
+            return;
+        }
+        clock.switchTo(isWhiteTurn ? Position.WHITE : Position.BLACK, System.nanoTime());
+        clockTimer.start();
+    }
+
+    private void stopClock() {
+        clockTimer.stop();
+        if(clock != null) {
+            long now = System.nanoTime();
+            clock.stop(now);
+            updateClockLabels(now);
+        }
+    }
+
+    //every pulse while a clock runs, a face is only touched when what it shows changes
+    private void updateClockLabels(long now) {
+        for(int side = Position.WHITE; side <= Position.BLACK; side++) {
+            long nanos = clock == null ? 0 : clock.remainingNanos(side, now);
+            long unit = clock == null ? Long.MIN_VALUE : ChessClock.shownUnit(nanos);
+            if(unit != shownUnits[side]) {
+                shownUnits[side] = unit;
+                clockLabels[side].setText(clock == null ? "" : ChessClock.format(nanos));
+            }
+        }
+    }
+
+    //takes effect at once before the first timed move, otherwise from the next game
+    private void chooseTimer(int type, int mode) {
+        app.setTimer(type, mode);
+        if(gameInfo.getMoves().stream().noneMatch(Move::hasClock)) {
+            setTimerType(type);
+            updateClockLabels(System.nanoTime());
+        }
+    }
+
+    private ContextMenu constructTimerMenu() {
+        ContextMenu menu = new ContextMenu();
+        ToggleGroup timers = new ToggleGroup();
+        for(int type = NO_TIMER; type < TIMER_INFO.length; type++) {
+            RadioMenuItem item = new RadioMenuItem(type == NO_TIMER ? "No clock"
+                    : TIMER_INFO[type][0]/60 + "+" + TIMER_INFO[type][1]);
+            item.setToggleGroup(timers);
+            int chosen = type;
+            item.setOnAction((event)-> chooseTimer(chosen, app.getClockMode()));
+            menu.getItems().add(item);
+        }
+        menu.getItems().add(new SeparatorMenuItem());
+        ToggleGroup modes = new ToggleGroup();
+        for(int mode = ChessClock.FISCHER; mode <= ChessClock.DELAY; mode++) {
+            RadioMenuItem item = new RadioMenuItem(ChessClock.MODE_NAMES[mode]);
+            item.setToggleGroup(modes);
+            int chosen = mode;
+            item.setOnAction((event)-> chooseTimer(app.getTimerType(), chosen));
+            menu.getItems().add(item);
+        }
+        menu.setOnShowing((event)-> { //the other menus may have changed the choice
+            timers.getToggles().get(app.getTimerType() - NO_TIMER).setSelected(true);
+            modes.getToggles().get(app.getClockMode()).setSelected(true);
+        });
+        return menu;
+    }
+
+    private Label constructClockLabel(int side) {
+        Label label = new Label();
+        label.setId("clocklabel");
+        label.setMaxSize(Double.MAX_VALUE, elementHeight);
+        label.setAlignment(Pos.CENTER_RIGHT);
+        label.setPadding(new Insets(0,20*app.getScale(),0,0));
+        label.setContextMenu(constructTimerMenu());
+        HBox.setHgrow(label, Priority.ALWAYS);
+        clockLabels[side] = label;
+        return label;
+    }
+
+    public boolean isAnalyzing() {
+        return analyzing;
+    }
+
+    public void setAnalyzing(boolean analyzing) {
+        this.analyzing = analyzing;
+        if(analyzing) {
+            startAnalysis();
+        } else {
+            stopAnalysis();
+            enginePanel.clear();
+        }
+    }
+
+    //the static evaluation, replaced by the search scores once an analysis reports
+    private void updateEvalBar() {
+        evalBar.setWhiteBottom(whiteBoardPosition);
+        PlyPrefetcher.Ply ply = shownPly();
+        if(ply.getStatus() == CHECKMATE) {
+            evalBar.show(isWhiteTurn() ? -1 : 1, true, isWhiteTurn() ? "0-1" : "1-0");
+            return;
+        } else if(ply.getStatus() == STALEMATE) {
+            evalBar.show(0, false, "1/2-1/2");
+            return;
+        }
+        evalBar.show(ply.getStaticScore(), false, String.format("%+.2f static", ply.getStaticScore() / 100.0));
+    }
+
+    private void startAnalysis() {
+        stopAnalysis();
+        if(!analyzing) {
+            return;
+        }
+        int id = ++analysisId;
+        prefetchedDepth = 0;
+        Position position = board.getPosition().copy();
+        boolean whiteToMove = position.isWhiteToMove();
+        PlyPrefetcher.Ply ply = shownPly();
+        UciEngine engine = app.getUciEngine();
+        if(engine != null && engine.isAlive()) {
+            if(ply.getStatus() == CHECKMATE || ply.getStatus() == STALEMATE) {
+                enginePanel.showMessage(engine.getName(), "No legal moves");
+                return;
+            }
+            engine.setListener(enginePanel.startUci(engine.getName(), whiteToMove));
+            engine.position(gameInfo.getUciPosition(gameInfo.getMoveNum())); //queued behind the stop, nothing blocks here
+            engine.go("infinite");
+            return;
+        }
+        ParallelSearch search = new ParallelSearch(app.getTranspositionTable(), app.getSearchThreads());
+        search.setTablebase(app.getTablebase());
+        search.setNetwork(app.getNetwork());
+        enginePanel.showMessage(ChessBuddy.TITLE, "Analyzing...");
+        if(ply.getShallow() != null) { //ready from browsing, the full search takes over once it is deeper
+            prefetchedDepth = ply.getShallow().getDepth();
+            enginePanel.showSearchInfo(ChessBuddy.TITLE, ply.getShallow(), whiteToMove);
+        }
+        analysisTask = app.getEngineExecutor().submit(() -> {
+            SearchInfo result = search.search(position, SearchLimits.time(ANALYSIS_TIME),
+                    (info) -> Platform.runLater(() -> showAnalysis(id, info, whiteToMove)));
+            if(result.getDepth() == 0) {
+                Platform.runLater(() -> {
+                    if(id == analysisId) {
+                        enginePanel.showMessage(ChessBuddy.TITLE, "No legal moves");
+                    }
+                });
+            }
+        });
+    }
+
+    private void stopAnalysis() {
+        if(analysisTask != null) {
+            analysisTask.cancel(true);
+            analysisTask = null;
+        }
+        UciEngine engine = app.getUciEngine();
+        if(engine != null) {
+            engine.stop();
+        }
+    }
+
+    private void showAnalysis(int id, SearchInfo info, boolean whiteToMove) {
+        if(id == analysisId && info.getDepth() >= prefetchedDepth) { //ignore results for a position that is no longer shown
+            enginePanel.showSearchInfo(ChessBuddy.TITLE, info, whiteToMove);
+        }
+    }
+
+    public void showOpeningTree() {
+        OpeningTreePanel tree = app.getOpeningTree();
+        if(tree == null) {
+            tree = new OpeningTreePanel(app); //one window for every game of the session
+            app.setOpeningTree(tree);
+        }
+        tree.showBeside(stage);
+        updateOpeningTree();
+    }
+
+    private void updateOpeningTree() {
+        OpeningTreePanel tree = app.getOpeningTree();
+        if(tree != null && tree.isShowing()) {
+            tree.showPosition(this, board.getPosition().copy());
+        }
+    }
+
+    //probed with the rest of the ply, on the prefetch thread when the position was seen coming
+    private void updateTablebase() {
+        enginePanel.showTablebase(shownPly().getTablebaseVerdict());
+    }
+
+    //picks the engine that analyzes, a binary with an optional command line or the built-in search
+    public void showEngineChooser() {
+        TextField commandField = new TextField(app.getEngineCommand());
+        commandField.setPromptText("Engine binary or command line, empty for the built-in search");
+        commandField.setPrefWidth(520*app.getScale());
+        Button browseButton = new Button("Browse...");
+        browseButton.setId("sidebutton");
+        Button builtInButton = new Button("Built-in");
+        builtInButton.setId("sidebutton");
+        Button loadButton = new Button("Load");
+        loadButton.setId("sidebutton");
+        Button tablesButton = new Button("Tables...");
+        tablesButton.setId("sidebutton");
+        Button networkButton = new Button("Network...");
+        networkButton.setId("sidebutton");
+        Label status = new Label(app.getUciEngine() != null ? "Running " + app.getUciEngine().getName() : "Built-in search");
+        status.setId("tinyfont");
+        status.setMaxWidth(420*app.getScale());
+        HBox buttons = new HBox(status, networkButton, tablesButton, browseButton, builtInButton, loadButton);
+        buttons.setSpacing(10*app.getScale());
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        VBox content = new VBox(commandField, buttons);
+        content.setSpacing(10*app.getScale());
+        content.setPadding(new Insets(10*app.getScale()));
+
+        Stage newWindow = new Stage();
+        newWindow.setTitle("Engine");
+        newWindow.setScene(new Scene(content));
+        newWindow.getScene().getStylesheets().add(ChessBuddy.class.getResource("/resources/chess.css").toExternalForm());
+        newWindow.setX(stage.getX() + stage.getWidth()/4);
+        newWindow.setY(stage.getY() + stage.getHeight()/3);
+        newWindow.initOwner(stage);
+        newWindow.initModality(Modality.APPLICATION_MODAL);
+        browseButton.setOnAction((event)-> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Choose a UCI engine");
+            File file = fileChooser.showOpenDialog(newWindow);
+            if(file != null) {
+                commandField.setText(file.getAbsolutePath());
+            }
+        });
+        builtInButton.setOnAction((event)-> commandField.setText(""));
+        tablesButton.setOnAction((event)-> {
+            DirectoryChooser chooser = new DirectoryChooser();
+            chooser.setTitle("Choose a directory of Syzygy tables, cancel to turn them off");
+            File directory = chooser.showDialog(newWindow);
+            try {
+                app.openTablebase(directory == null ? "" : directory.getAbsolutePath());
+                Tablebase tablebase = app.getTablebase();
+                status.setText(tablebase == null ? "No endgame tables"
+                        : tablebase.size() + " endgame tables, up to " + tablebase.getMaxPieces() + " pieces");
+                prefetcher.clear(); //the verdicts came from the old tables
+                preMove();
+            } catch (IOException ex) {
+                status.setText(ex.getMessage());
+            }
+        });
+        networkButton.setOnAction((event)-> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Choose an evaluation network, cancel for the handcrafted evaluation");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Networks", "*.nnue"));
+            File file = fileChooser.showOpenDialog(newWindow);
+            try {
+                app.openNetwork(file == null ? "" : file.getAbsolutePath());
+                Nnue network = app.getNetwork();
+                status.setText(network == null ? "Handcrafted evaluation" : network.getHidden() + " neuron network, "
+                        + (Nnue.isVectorized() ? "vector" : "scalar") + " inference");
+                gameInfo.setNetwork(network);
+                prefetcher.clear(); //the scores came from the old evaluation
+                preMove(); //the eval bar and the analysis pick up the new evaluation
+            } catch (IOException ex) {
+                status.setText(ex.getMessage());
+            }
+        });
+        loadButton.setOnAction((event)-> {
+            String command = commandField.getText();
+            loadButton.setDisable(true);
+            status.setText(command.isBlank() ? "Stopping the engine..." : "Starting the engine...");
+            stopAnalysis();
+            app.getEngineExecutor().submit(() -> { //the handshake may take seconds
+                try {
+                    app.loadEngine(command);
+                    Platform.runLater(() -> {
+                        newWindow.close();
+                        startAnalysis();
+                    });
+                } catch (IOException ex) {
+                    Platform.runLater(() -> {
+                        loadButton.setDisable(false);
+                        status.setText(ex.getMessage());
+                    });
+                }
+            });
+        });
+        newWindow.show();
     }
 
     public void onGameFinished() {
         setFinished(true);
+        stopClock();
     }
 
     public void makeMove(Tile tile) {
@@ -457,10 +861,9 @@ public class Game {
         if(gameResult == CHECKMATE) {
             String msg = isWhiteTurn() ? "Checkmate : 0-1" : "Checkmate : 1-0";
             notationTable.addFinishedMessage(msg);
-        } else if(gameResult == STALEMATE) {
-            notationTable.addFinishedMessage("Stalemate : Draw");
+        } else if(gameResult != IN_PROGRESS) {
+            notationTable.addFinishedMessage(DRAW_TEXT[gameResult] + " : Draw");
         }
-        gameInfo.updateFEN();
     }
 
     public void makeMoveEnPassant(Tile tile, int offset) {
@@ -468,8 +871,8 @@ public class Game {
         if(gameResult == CHECKMATE) {
             String msg = isWhiteTurn() ? "Checkmate : 0-1" : "Checkmate : 1-0";
             notationTable.addFinishedMessage(msg);
-        } else if(gameResult == STALEMATE) {
-            notationTable.addFinishedMessage("Stalemate : Draw");
+        } else if(gameResult != IN_PROGRESS) {
+            notationTable.addFinishedMessage(DRAW_TEXT[gameResult] + " : Draw");
         }
     }
 
@@ -478,8 +881,8 @@ public class Game {
         if(gameResult == CHECKMATE) {
             String msg = isWhiteTurn() ? "Checkmate : 0-1" : "Checkmate : 1-0";
             notationTable.addFinishedMessage(msg);
-        } else if(gameResult == STALEMATE) {
-            notationTable.addFinishedMessage("Stalemate : Draw");
+        } else if(gameResult != IN_PROGRESS) {
+            notationTable.addFinishedMessage(DRAW_TEXT[gameResult] + " : Draw");
         }
     }
 
@@ -488,8 +891,8 @@ public class Game {
         if(gameResult == CHECKMATE) {
             String msg = isWhiteTurn() ? "Checkmate : 0-1" : "Checkmate : 1-0";
             notationTable.addFinishedMessage(msg);
-        } else if(gameResult == STALEMATE) {
-            notationTable.addFinishedMessage("Stalemate : Draw");
+        } else if(gameResult != IN_PROGRESS) {
+            notationTable.addFinishedMessage(DRAW_TEXT[gameResult] + " : Draw");
         }
     }
 
@@ -507,6 +910,7 @@ public class Game {
             gameInfo.setRecentCapture();
         }
         isWhiteTurn = !isWhiteTurn;
+        pressClock();
         preMove();
         notationTable.addLastToGUI();
         notationTable.selectEntry(gameInfo.getMoveNum(), oldNot);
@@ -524,6 +928,7 @@ public class Game {
         removeTaken(taken);
         isWhiteTurn = !isWhiteTurn;
         gameInfo.setRecentEnPassant();
+        pressClock();
         preMove();
         notationTable.addLastToGUI();
         notationTable.selectEntry(gameInfo.getMoveNum(), oldNot);
@@ -553,6 +958,7 @@ public class Game {
         }
         isWhiteTurn = !isWhiteTurn;
         gameInfo.setRecentPromotion(promotionTo);
+        pressClock();
         preMove();
         notationTable.addLastToGUI();
         notationTable.selectEntry(gameInfo.getMoveNum(), oldNot);
@@ -593,6 +999,7 @@ public class Game {
             }
         }
         isWhiteTurn = !isWhiteTurn;
+        pressClock();
         preMove();
         notationTable.addLastToGUI();
         notationTable.selectEntry(gameInfo.getMoveNum(), oldNot);
@@ -604,44 +1011,16 @@ public class Game {
         } else {
             board.getWhiteNotKing().remove(taken);
         }
-        Task<Void> sleeper = new Task<Void>() {
-            @Override
-            protected Void call() {
-                try {
-                    FadeTransition ft = new FadeTransition(Duration.millis(150), taken);
-                    ft.setFromValue(1.0);
-                    ft.setToValue(0.1);
-                    ft.play();
-                    Thread.sleep(150);
-                } catch (InterruptedException ignored) {
-                }
-                return null;
-            }
-        };
-        sleeper.setOnSucceeded((WorkerStateEvent event) -> getBoardGUI().getChildren().remove(taken));
-        new Thread(sleeper).start();
+        Pane boardGUI = getBoardGUI(); //the board of this move, even if it is rebuilt before the fade ends
+        app.getAnimations().fadeOut(taken, CAPTURE_FADE_MILLIS, () -> boardGUI.getChildren().remove(taken));
     }
 
     private void promotionDelay(Piece oldPiece, Piece newPiece) {
-        Task<Void> sleeper = new Task<Void>() {
-            @Override
-            protected Void call() {
-                try {
-                    Thread.sleep(150);
-                } catch (InterruptedException ignored) {
-                }
-                return null;
-            }
-        };
-        sleeper.setOnSucceeded((WorkerStateEvent event) -> {
-            getBoardGUI().getChildren().remove(oldPiece);
-            getBoardGUI().getChildren().add(newPiece);
+        Pane boardGUI = getBoardGUI();
+        app.getAnimations().schedule(PROMOTION_DELAY_MILLIS, () -> {
+            boardGUI.getChildren().remove(oldPiece);
+            boardGUI.getChildren().add(newPiece);
         });
-        new Thread(sleeper).start();
-    }
-
-    public boolean canCastle(Piece king, boolean kingSide) {
-        return gameInfo.canCastle(king.isWhite(), kingSide);
     }
 
     public void copyFENToClip() {
@@ -654,16 +1033,21 @@ public class Game {
 
     public void savePGNAsFile() {
         String result;
-        if(finished) {
-            if(isWhiteTurn()) {
-                result = "[Result 0-1]";
-            } else {
-                result = "[Result 1-0]";
-            }
+        if(flagged != NO_TIMER) { //a loss on time, whatever the position says
+            result = flagged == Position.WHITE ? "0-1" : "1-0";
+        } else if(finished) {
+            result = gameInfo.getResult();
         } else {
-            result = "[Result *]";
+            result = "*";
         }
-        String PGN = gameInfo.getGamePGN(result);
+        String tags = "[Result \"" + result + "\"]";
+        if(clock != null) {
+            tags += "\n[TimeControl \"" + clock.toTimeControl() + "\"]";
+        }
+        if(flagged != NO_TIMER) {
+            tags += "\n[Termination \"time forfeit\"]";
+        }
+        String PGN = gameInfo.getGamePGN(tags) + " " + result + "\n";
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Game as PGN");
         fileChooser.getExtensionFilters().addAll(
@@ -691,6 +1075,172 @@ public class Game {
         }
     }
 
+    public void openPGNFile() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Open PGN");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Notation", "*.pgn"),
+                new FileChooser.ExtensionFilter("Text", "*.txt")
+        );
+        File file = fileChooser.showOpenDialog(stage);
+        if(file != null) {
+            showGameChooser(file.toPath());
+        }
+    }
+
+    //lists the games of a file, only the tags are read until one is picked
+    private void showGameChooser(Path path) {
+        ListView<String> gameList = new ListView<>();
+        gameList.setPrefSize(560*app.getScale(), 420*app.getScale());
+        Label status = new Label("Reading " + path.getFileName() + "...");
+        status.setId("tinyfont");
+        status.setMaxWidth(420*app.getScale());
+        Button openButton = new Button("Open");
+        openButton.setId("sidebutton");
+        HBox bottom = new HBox(status, openButton);
+        bottom.setSpacing(10*app.getScale());
+        bottom.setAlignment(Pos.CENTER_RIGHT);
+        bottom.setPadding(new Insets(10*app.getScale()));
+        VBox content = new VBox(gameList, bottom);
+
+        Stage newWindow = new Stage();
+        newWindow.setTitle(path.getFileName().toString());
+        newWindow.setScene(new Scene(content));
+        newWindow.getScene().getStylesheets().add(ChessBuddy.class.getResource("/resources/chess.css").toExternalForm());
+        newWindow.setX(stage.getX() + stage.getWidth()/4);
+        newWindow.setY(stage.getY() + stage.getHeight()/6);
+        newWindow.initOwner(stage);
+        newWindow.initModality(Modality.APPLICATION_MODAL);
+
+        ArrayList<Long> offsets = new ArrayList<>();
+        ArrayList<String> descriptions = new ArrayList<>();
+        Task<Void> indexer = new Task<Void>() {
+            @Override
+            protected Void call() throws IOException {
+                try (PgnReader reader = new PgnReader(path)) {
+                    PgnGame game;
+                    while((game = reader.nextTagsOnly()) != null && !isCancelled()) {
+                        offsets.add(game.getOffset());
+                        descriptions.add((descriptions.size() + 1) + ".  " + game.getDescription());
+                    }
+                }
+                return null;
+            }
+        };
+        indexer.setOnSucceeded((WorkerStateEvent event) -> {
+            gameList.getItems().setAll(descriptions);
+            gameList.getSelectionModel().selectFirst();
+            status.setText(descriptions.size() + " games");
+        });
+        indexer.setOnFailed((WorkerStateEvent event) -> status.setText("Could not read the file"));
+        Runnable open = () -> {
+            int index = gameList.getSelectionModel().getSelectedIndex();
+            if(index > -1) {
+                String error = loadGame(path, offsets.get(index));
+                if(error == null) {
+                    newWindow.close();
+                } else {
+                    status.setText(error);
+                }
+            }
+        };
+        openButton.setOnAction((event)-> open.run());
+        gameList.setOnMouseClicked((event)-> {
+            if(event.getClickCount() == 2) {
+                open.run();
+            }
+        });
+        newWindow.setOnHidden((event)-> indexer.cancel());
+        Thread thread = new Thread(indexer);
+        thread.setDaemon(true);
+        thread.start();
+        newWindow.show();
+    }
+
+    //replaces this game with the one stored at offset, returns why it could not be loaded or null
+    private String loadGame(Path path, long offset) {
+        PgnGame pgnGame;
+        try (PgnReader reader = new PgnReader(path)) {
+            reader.seek(offset);
+            pgnGame = reader.next();
+        } catch (IOException ex) {
+            Logger.getLogger(Game.class.getName()).log(Level.SEVERE, null, ex);
+            return "Could not read the game";
+        }
+        if(pgnGame == null) {
+            return "Could not read the game";
+        }
+        return loadGame(pgnGame);
+    }
+
+    //replaces this game with one read from a file or the game database
+    public String loadGame(PgnGame pgnGame) {
+        if(pgnGame.hasError()) {
+            return pgnGame.getError();
+        }
+        stopAnalysis();
+        prefetcher.cancel();
+        stopClock();
+        Game game = constructGame(whiteBoardPosition, stage, app, pgnGame.getStartFen());
+        game.loadMoves(pgnGame.getMoves(), pgnGame.getResult());
+        stage.getScene().setRoot(game.getRoot());
+        return null;
+    }
+
+    public void loadMoves(int[] moves, String result) {
+        gameInfo.playMoves(moves);
+        notationTable.addAllToGUI();
+        if(moves.length > 0) {
+            showBoard(gameInfo.getLastBoard());
+            isWhiteTurn = gameInfo.isWhiteToMove();
+            preMove();
+            notationTable.selectEntry(gameInfo.getMoveNum());
+        }
+        notationTable.removeFinishedMessage();
+        addResultMessage(result);
+    }
+
+    private void addResultMessage(String result) {
+        if(gameResult == CHECKMATE) {
+            String msg = isWhiteTurn() ? "Checkmate : 0-1" : "Checkmate : 1-0";
+            notationTable.addFinishedMessage(msg);
+        } else if(gameResult != IN_PROGRESS) {
+            notationTable.addFinishedMessage(DRAW_TEXT[gameResult] + " : Draw");
+        } else if(!result.equals("*")) {
+            notationTable.addFinishedMessage("Result : " + result);
+        }
+    }
+
+    public void openFENDialog() {
+        TextInputDialog dialog = new TextInputDialog(getClipboardText());
+        dialog.setTitle("Set up position");
+        dialog.setHeaderText("Start a new game from a FEN");
+        dialog.initOwner(stage);
+        dialog.getEditor().setPrefColumnCount(40);
+        dialog.showAndWait().ifPresent((fen) -> {
+            try {
+                startFromFEN(fen);
+            } catch (IllegalArgumentException ex) {
+                Alert alert = new Alert(Alert.AlertType.ERROR, ex.getMessage());
+                alert.initOwner(stage);
+                alert.showAndWait();
+            }
+        });
+    }
+
+    public void startFromFEN(String fen) {
+        Game game = constructGame(whiteBoardPosition, stage, app, fen);
+        stopAnalysis();
+        prefetcher.cancel();
+        stopClock();
+        stage.getScene().setRoot(game.getRoot());
+    }
+
+    private static String getClipboardText() {
+        javafx.scene.input.Clipboard clipboard = javafx.scene.input.Clipboard.getSystemClipboard();
+        return clipboard.hasString() ? clipboard.getString().trim() : "";
+    }
+
     public static void writeStringToFile(String string, File file) {
         try {
             try (BufferedWriter writer = new BufferedWriter(new FileWriter(file,false))) {
@@ -702,19 +1252,22 @@ public class Game {
     }
 
     public void reRenderBoard() {
-        root.getChildren().remove(getBoardGUI());
-        if(whiteBoardPosition) {
-            board.initWhiteBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()),this);
-        } else {
-            board.initBlackBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()),this);
-        }
-        AnchorPane.setTopAnchor(getBoardGUI(), topBarHeight + 20.0);
-        AnchorPane.setLeftAnchor(getBoardGUI(), 15.0);
-        root.getChildren().add(getBoardGUI());
+        showBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()));
         preMove();
     }
 
+    //brings the rendered board to the target position without rebuilding the tiles
+    private void showBoard(byte[][] target) {
+        app.getAnimations().finishAll(); //a capture or promotion still in flight lands before pieces are reused
+        clearSelectable();
+        board.getBlackKing().getTile().setOffCheck();
+        board.getWhiteKing().getTile().setOffCheck();
+        inCheck = false;
+        board.updateBoard(target);
+    }
+
     public void flipBoardGUI() {
+        app.getAnimations().finishAll();
         root.getChildren().remove(getBoardGUI());
         if(whiteBoardPosition) {
             board.initBlackBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()),this);
@@ -731,17 +1284,9 @@ public class Game {
     public void takeBackMove() {
         int oldNum = gameInfo.getMoveNum();
         if(gameInfo.canTakeBack()) {
-            root.getChildren().remove(getBoardGUI());
-            if(whiteBoardPosition) {
-                board.initWhiteBoard(gameInfo.getBeforeLastBoard(),this);
-            } else {
-                board.initBlackBoard(gameInfo.getBeforeLastBoard(),this);
-            }
-            AnchorPane.setTopAnchor(getBoardGUI(), topBarHeight + 20.0);
-            AnchorPane.setLeftAnchor(getBoardGUI(), 15.0);
-            root.getChildren().add(getBoardGUI());
+            showBoard(gameInfo.getBeforeLastBoard());
             gameInfo.takeBackMove();
-            isWhiteTurn = gameInfo.getMoveNum() % 2 != 0;
+            isWhiteTurn = gameInfo.isWhiteToMove();
             preMove();
             notationTable.removeLastFromGUI();
             if(oldNum < gameInfo.getMoveNum()) {
@@ -753,22 +1298,16 @@ public class Game {
             finished = false;
             notationTable.removeFinishedMessage();
             gameResult = IN_PROGRESS;
+            flagged = NO_TIMER;
+            resumeClock();
         }
     }
 
     public void goLeft() {
         if(gameInfo.canGoLeft()) {
-            root.getChildren().remove(getBoardGUI());
-            if (whiteBoardPosition) {
-                board.initWhiteBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()-1),this);
-            } else {
-                board.initBlackBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()-1),this);
-            }
-            AnchorPane.setTopAnchor(getBoardGUI(), topBarHeight + 20.0);
-            AnchorPane.setLeftAnchor(getBoardGUI(), 15.0);
-            root.getChildren().add(getBoardGUI());
+            showBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()-1));
             gameInfo.goLeft();
-            isWhiteTurn = gameInfo.getMoveNum() % 2 != 0;
+            isWhiteTurn = gameInfo.isWhiteToMove();
             preMove();
             notationTable.selectEntry(gameInfo.getMoveNum(), gameInfo.getMoveNum()+1);
             moveReadyState = false;
@@ -777,17 +1316,9 @@ public class Game {
 
     public void goRight() {
         if(gameInfo.canGoRight()) {
-            root.getChildren().remove(getBoardGUI());
-            if (whiteBoardPosition) {
-                board.initWhiteBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()+1),this);
-            } else {
-                board.initBlackBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()+1),this);
-            }
-            AnchorPane.setTopAnchor(getBoardGUI(), topBarHeight + 20.0);
-            AnchorPane.setLeftAnchor(getBoardGUI(), 15.0);
-            root.getChildren().add(getBoardGUI());
+            showBoard(gameInfo.getBoardByNumber(gameInfo.getMoveNum()+1));
             gameInfo.goRight();
-            isWhiteTurn = gameInfo.getMoveNum() % 2 != 0;
+            isWhiteTurn = gameInfo.isWhiteToMove();
             preMove();
             notationTable.selectEntry(gameInfo.getMoveNum(), gameInfo.getMoveNum()-1);
             moveReadyState = gameInfo.getMoveNum() == gameInfo.getMoveCount()-1;
@@ -797,17 +1328,9 @@ public class Game {
     public void goFarLeft() {
         if(gameInfo.canGoLeft()) {
             int oldNum = gameInfo.getMoveNum();
-            root.getChildren().remove(getBoardGUI());
-            if (whiteBoardPosition) {
-                board.initWhiteBoard(GameInfo.INITIAL_BOARD,this);
-            } else {
-                board.initBlackBoard(GameInfo.INITIAL_BOARD,this);
-            }
-            AnchorPane.setTopAnchor(getBoardGUI(), topBarHeight + 20.0);
-            AnchorPane.setLeftAnchor(getBoardGUI(), 15.0);
-            root.getChildren().add(getBoardGUI());
+            showBoard(gameInfo.getBoardByNumber(-1));
             gameInfo.goFarLeft();
-            isWhiteTurn = gameInfo.getMoveNum() % 2 != 0;
+            isWhiteTurn = gameInfo.isWhiteToMove();
             preMove();
             notationTable.selectEntry(-1, oldNum);
             moveReadyState = false;
@@ -817,17 +1340,9 @@ public class Game {
     public void goFarRight() {
         if(gameInfo.canGoRight()) {
             int oldNum = gameInfo.getMoveNum();
-            root.getChildren().remove(getBoardGUI());
-            if (whiteBoardPosition) {
-                board.initWhiteBoard(gameInfo.getLastBoard(),this);
-            } else {
-                board.initBlackBoard(gameInfo.getLastBoard(),this);
-            }
-            AnchorPane.setTopAnchor(getBoardGUI(), topBarHeight + 20.0);
-            AnchorPane.setLeftAnchor(getBoardGUI(), 15.0);
-            root.getChildren().add(getBoardGUI());
+            showBoard(gameInfo.getLastBoard());
             gameInfo.goFarRight();
-            isWhiteTurn = gameInfo.getMoveNum() % 2 != 0;
+            isWhiteTurn = gameInfo.isWhiteToMove();
             preMove();
             notationTable.selectEntry(gameInfo.getMoveCount()-1, oldNum);
             moveReadyState = gameInfo.getMoveNum() == gameInfo.getMoveCount()-1;
@@ -837,17 +1352,9 @@ public class Game {
     public void goTo(int num) {
         if(num != gameInfo.getMoveNum()) {
             int oldNum = gameInfo.getMoveNum();
-            root.getChildren().remove(getBoardGUI());
-            if (whiteBoardPosition) {
-                board.initWhiteBoard(gameInfo.getBoardByNumber(num),this);
-            } else {
-                board.initBlackBoard(gameInfo.getBoardByNumber(num),this);
-            }
-            AnchorPane.setTopAnchor(getBoardGUI(), topBarHeight + 20.0);
-            AnchorPane.setLeftAnchor(getBoardGUI(), 15.0);
-            root.getChildren().add(getBoardGUI());
+            showBoard(gameInfo.getBoardByNumber(num));
             gameInfo.goTo(num);
-            isWhiteTurn = gameInfo.getMoveNum() % 2 != 0;
+            isWhiteTurn = gameInfo.isWhiteToMove();
             preMove();
             notationTable.selectEntry(gameInfo.getMoveNum(), oldNum);
             moveReadyState = gameInfo.getMoveNum() == gameInfo.getMoveCount()-1;
@@ -855,6 +1362,9 @@ public class Game {
     }
 
     public void resetGame() {
+        stopAnalysis();
+        prefetcher.cancel();
+        stopClock();
         stage.getScene().setRoot(app.createPlayPane(stage));
     }
 
@@ -887,10 +1397,29 @@ public class Game {
         buttons.setSpacing(20*app.getScale());
         buttons.setAlignment(Pos.CENTER);
         buttons.getChildren().addAll(constructFlipButtonAlt(),constructBackButtonAlt(),
-                constructExportPGNAlt(),constructResetButtonAlt());
+                constructImportPGNAlt(),constructExportPGNAlt(),constructResetButtonAlt());
         return buttons;
     }
 
+    ///// construct import PGN for main panel
+    public Button constructImportPGNAlt() {
+        Button importButton = new Button();
+
+        importButton.setPrefHeight(50.0);
+        importButton.setPrefWidth(70.0);
+        ImageView image = new ImageView(new Image("/resources/images/open_game.png"));
+        image.setFitHeight(26.0);
+        image.setFitWidth(26.0);
+        image.setPickOnBounds(true);
+        image.setPreserveRatio(true);
+
+        importButton.setGraphic(image);
+        importButton.setFocusTraversable(false);
+        importButton.setId("boardbutton");
+        importButton.setOnAction((event)-> openPGNFile());
+        return importButton;
+    }
+
     ///// construct export PGN for main panel
     public Button constructExportPGNAlt() {
         Button exportButton = new Button();
@@ -1075,6 +1604,11 @@ public class Game {
         fenTextArea.setWrapText(true);
         fenTextArea.textProperty().bind(gameInfo.fenProperty());
         fenTextArea.setFont(new Font("Inter", 16.0));
+        MenuItem copyItem = new MenuItem("Copy FEN");
+        copyItem.setOnAction((event)-> copyFENToClip());
+        MenuItem loadItem = new MenuItem("Set up position...");
+        loadItem.setOnAction((event)-> openFENDialog());
+        fenTextArea.setContextMenu(new ContextMenu(copyItem, loadItem));
 
         return fenTextArea;
     }
@@ -1102,7 +1636,8 @@ public class Game {
         imgLabel.setSpacing(20*app.getScale());
         imgLabel.setAlignment(Pos.CENTER_LEFT);
         imgLabel.setPadding(new Insets(0,0,0,20*app.getScale()));
-        imgLabel.getChildren().addAll(constructTopPlayerPanelImage(), constructTopPlayerPanelLabel());
+        imgLabel.getChildren().addAll(constructTopPlayerPanelImage(), constructTopPlayerPanelLabel(),
+                constructClockLabel(Position.BLACK));
         return imgLabel;
     }
 
@@ -1120,9 +1655,10 @@ public class Game {
     public Label constructTopPlayerPanelLabel() {
         Label label = new Label();
         label.setId("playerlabel");
-        label.setMinSize(barWidth,elementHeight);
-        label.setMaxSize(barWidth,elementHeight);
+        label.setMinSize(barWidth/2,elementHeight);
+        label.setMaxSize(barWidth/2,elementHeight);
         label.setText("Player 2");
+        label.setContextMenu(constructTimerMenu());
         //label.setPadding(new Insets(0,10,0,0*app.getScale()));
         label.setGraphic(blackCircle);
         label.setAlignment(Pos.CENTER_LEFT);
@@ -1153,7 +1689,8 @@ public class Game {
         imgLabel.setSpacing(20*app.getScale());
         imgLabel.setAlignment(Pos.CENTER_LEFT);
         imgLabel.setPadding(new Insets(0,0,0,20*app.getScale()));
-        imgLabel.getChildren().addAll(constructBottomPlayerPanelImage(), constructBottomPlayerPanelLabel());
+        imgLabel.getChildren().addAll(constructBottomPlayerPanelImage(), constructBottomPlayerPanelLabel(),
+                constructClockLabel(Position.WHITE));
         return imgLabel;
     }
 
@@ -1171,9 +1708,10 @@ public class Game {
     public Label constructBottomPlayerPanelLabel() {
         Label label = new Label();
         label.setId("playerlabel");
-        label.setMinSize(barWidth,elementHeight);
-        label.setMaxSize(barWidth,elementHeight);
+        label.setMinSize(barWidth/2,elementHeight);
+        label.setMaxSize(barWidth/2,elementHeight);
         label.setText("Player 1");
+        label.setContextMenu(constructTimerMenu());
         //label.setPadding(new Insets(0,10,0,0*app.getScale()));
         label.setGraphic(whiteCircle);
         label.setAlignment(Pos.CENTER_LEFT);
@@ -1207,31 +1745,41 @@ public class Game {
         HBox notationHBox = new HBox();
         notationHBox.getChildren().add(notationTable);
         notationHBox.setPadding(new Insets(0,barWidth*0.1,0,barWidth*0.1));
-        sidebar.getChildren().addAll(titles,notationHBox, bottomButtons);
+        sidebar.getChildren().addAll(titles,notationHBox, constructAnalysisBar(), bottomButtons);
         return sidebar;
     }
 
+    public EnginePanel constructAnalysisBar() {
+        ToggleButton analyzeButton = new ToggleButton("Analyze");
+        analyzeButton.setId("sidebutton");
+        analyzeButton.setFocusTraversable(false);
+        analyzeButton.setOnAction((event)-> setAnalyzing(analyzeButton.isSelected()));
+        Button engineButton = new Button("Engine");
+        engineButton.setId("sidebutton");
+        engineButton.setFocusTraversable(false);
+        engineButton.setOnAction((event)-> showEngineChooser());
+        Button treeButton = new Button("Tree");
+        treeButton.setId("sidebutton");
+        treeButton.setFocusTraversable(false);
+        treeButton.setOnAction((event)-> showOpeningTree());
+        enginePanel = new EnginePanel(barWidth, analysisHeight, app.getScale(), analyzeButton, engineButton, treeButton);
+        enginePanel.setEvalBar(evalBar);
+        return enginePanel;
+    }
+
 
     public final void setUpNotationGUI() {
         notationTable = constructNotationTable();
     }
 
     public final NotationBoard constructNotationTable() {
-        VBox vertical = new VBox();
-        NotationBoard table = new NotationBoard(gameInfo.getMoves(), vertical, this, app);
+        NotationBoard table = new NotationBoard(gameInfo.getMoves(), this, app);
         table.setId("scrollborder");
         table.setFocusTraversable(false);
         double width = barWidth*0.88;
-        vertical.setId("scrollpanebg");
-        vertical.setPadding(new Insets(25,20*app.getScale(),25,20*app.getScale()));
-        vertical.setFocusTraversable(false);
-        table.setContent(vertical);
-        table.setMinSize(width, scoreBoardHeight);
-        table.setMaxSize(width, scoreBoardHeight);
-        table.hbarPolicyProperty().setValue(ScrollPane.ScrollBarPolicy.NEVER);
-        table.vbarPolicyProperty().setValue(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-        table.fitToWidthProperty().set(true);
-        table.fitToHeightProperty().set(true);
+        table.setPadding(new Insets(25,0,25,0));
+        table.setMinSize(width, scoreBoardHeight - analysisHeight);
+        table.setMaxSize(width, scoreBoardHeight - analysisHeight);
         return table;
     }
 
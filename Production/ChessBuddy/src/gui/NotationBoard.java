@@ -1,120 +1,220 @@
 package gui;
 
+import engine.Move;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
 
 import java.util.ArrayList;
 
-public class NotationBoard extends ScrollPane{
+//one row per full move, only the visible rows have cells and those are reused while scrolling
+public class NotationBoard extends ListView<Integer> {
+
+    private static final int MESSAGE_ROW = -1; //item of the row that shows the result after the last move
 
     private final ChessBuddy app;
     private final Game game; //controller to redirect flow
     private final ArrayList<Move> moveData;
-    private final VBox moveGui;
-    private final ArrayList<HBox> moves;
-    private Label msgLbl;
+    private final int offset; //1 when black moves first, the first row then starts with "..."
+    private final int firstNumber;
+    private final Font plyFont; //shared by every cell
+    private final Font messageFont;
+    private String message; //shown in the last row once the game is over
+    private int selected = -1; //highlighted ply
 
-    public NotationBoard(ArrayList<Move> movesIn, VBox verticalIn, Game gameIn, ChessBuddy app) {
-        moves = new ArrayList<>();
+    public NotationBoard(ArrayList<Move> movesIn, Game gameIn, ChessBuddy app) {
         moveData = movesIn;
-        moveGui = verticalIn;
         game = gameIn;
-        setVvalue(1.0);
-        moveGui.heightProperty().addListener(observable -> setVvalue(1D));
+        offset = gameIn.getGameInfo().isWhiteStart() ? 0 : 1;
+        firstNumber = gameIn.getGameInfo().getStartFullMoveNumber();
         this.app = app;
+        plyFont = new Font("Inter", 22*app.getScale());
+        messageFont = Font.font("Inter", FontPosture.ITALIC, 22*app.getScale());
+        setItems(FXCollections.observableArrayList());
+        setFixedCellSize(38*app.getScale()); //rows are never measured, so scrolling stays cheap however long the game
+        setSelectionModel(null); //the highlighted ply is drawn by the cells
+        getStyleClass().add("notation");
+        setCellFactory((list) -> new RowCell());
     }
 
     public void addFinishedMessage(String msg) {
-        msgLbl = new Label(msg);
-        msgLbl.setPadding(new Insets(10 * app.getScale(),0,10 * app.getScale(),0));
-        msgLbl.setFont(Font.font("Inter", FontPosture.ITALIC, 22 * app.getScale()));
-        msgLbl.setMinSize(((game.getBarWidth()*0.8)-(app.getScale()*50)), 58 * app.getScale());
-        msgLbl.setMaxSize(((game.getBarWidth()*0.8)-(app.getScale()*50)), 58 * app.getScale());
-        msgLbl.setWrapText(true);
-        msgLbl.setAlignment(Pos.CENTER);
-        moveGui.getChildren().add(msgLbl);
+        if(message != null) {
+            removeFinishedMessage();
+        }
+        message = msg;
+        getItems().add(MESSAGE_ROW);
+        scrollTo(getItems().size() - 1);
     }
 
     public void removeFinishedMessage() {
-        if(msgLbl != null) {
-            moveGui.getChildren().remove(msgLbl);
+        if(message != null) {
+            getItems().remove(getItems().size() - 1);
+            message = null;
         }
     }
 
     public void addLastToGUI() {
-        int lastIndex = moveData.size() - 1;
-        String ply = moveData.get(lastIndex).getNotation();
-        if (lastIndex % 2 == 0) {
-            HBox move = new HBox();
-            Label numLbl = new Label((moves.size() + 1) + ". ");
-            numLbl.setAlignment(Pos.CENTER);
-            numLbl.setFont(new Font("Inter", 22*app.getScale()));
-            numLbl.setMinSize((50*app.getScale()), 38*app.getScale());
-            numLbl.setMaxSize((50*app.getScale()), 38*app.getScale());
-            Label plyLbl = new Label(ply);
-            plyLbl.setFont(new Font("Inter", 22*app.getScale()));
-            plyLbl.setId("ply");
-            plyLbl.setPadding(new Insets(0,0,0,10*app.getScale()));
-            plyLbl.setMinSize((90*app.getScale()), 38*app.getScale());
-            plyLbl.setMaxSize((90*app.getScale()), 38*app.getScale());
-            plyLbl.setOnMouseClicked((event)-> game.goTo(lastIndex));
-            move.getChildren().addAll(numLbl, plyLbl);
-            moveGui.getChildren().add(move);
-            moves.add(move);
-        } else {
-            Label plyLbl = new Label(ply);
-            plyLbl.setFont(new Font("Inter", 22*app.getScale()));
-            plyLbl.setId("ply");
-            plyLbl.setPadding(new Insets(0,0,0,10));
-            plyLbl.setMinSize((90*app.getScale()), 38*app.getScale());
-            plyLbl.setMaxSize((90*app.getScale()), 38*app.getScale());
-            plyLbl.setOnMouseClicked((event)-> game.goTo(lastIndex));
-            moves.get(moves.size() - 1).getChildren().add(plyLbl);
+        int index = moveData.size() - 1;
+        syncRows(rowOf(index));
+        showRow(rowOf(index));
+    }
+
+    public void addAllToGUI() { //for a table that shows no moves yet
+        ArrayList<Integer> rows = new ArrayList<>();
+        for(int row = 0; row < rowCount(); row++) {
+            rows.add(row);
+        }
+        if(message != null) {
+            rows.add(MESSAGE_ROW);
         }
+        getItems().setAll(rows); //one change however many moves
+        scrollTo(getItems().size() - 1);
     }
 
     public void removeLastFromGUI() {
-        int lastIndex = moveData.size() - 1;
-        if (lastIndex % 2 != 0) {
-            moveGui.getChildren().remove(moves.get(moves.size() - 1));
-            moves.remove(moves.size() - 1);
-        } else {
-            moves.get(moves.size() - 1).getChildren().remove(2);
-        }
+        syncRows(rowOf(moveData.size())); //already taken back from the game
     }
 
     public void selectEntry(int newNum, int oldNum) {
+        selected = newNum;
         if(oldNum > -1) {
-            if(oldNum % 2 == 0) {
-                moves.get(oldNum/2).getChildren().get(1).setId("ply");
-            } else {
-                moves.get(oldNum/2).getChildren().get(2).setId("ply");
-            }
+            refreshRow(rowOf(oldNum));
         }
         if(newNum > -1) {
-            if(newNum % 2 == 0) {
-                moves.get(newNum/2).getChildren().get(1).setId("plyhighlighted");
-            } else {
-                moves.get(newNum/2).getChildren().get(2).setId("plyhighlighted");
-            }
+            refreshRow(rowOf(newNum));
+            showRow(rowOf(newNum));
         }
     }
 
     public void selectEntry(int newNum) {
-        if(newNum > -1) {
-            if(newNum % 2 == 0) {
-                moves.get(newNum/2).getChildren().get(1).setId("plyhighlighted");
-            } else {
-                moves.get(newNum/2).getChildren().get(2).setId("plyhighlighted");
+        selectEntry(newNum, -1);
+    }
+
+    private int rowCount() {
+        return (moveData.size() + offset + 1) / 2;
+    }
+
+    private int rowOf(int index) {
+        return (index + offset) / 2;
+    }
+
+    //ply shown in a row's white or black column, -1 for the "..." before a black start
+    private int plyIndex(int row, int column) {
+        return row*2 + column - offset;
+    }
+
+    //adds or drops rows to match the moves and repaints the row that changed
+    private void syncRows(int changedRow) {
+        ObservableList<Integer> items = getItems();
+        int extra = message != null ? 1 : 0;
+        int shown = items.size() - extra;
+        int rows = rowCount();
+        while(shown < rows) {
+            items.add(shown, shown);
+            shown++;
+        }
+        while(shown > rows) {
+            items.remove(--shown);
+        }
+        refreshRow(changedRow);
+    }
+
+    private void refreshRow(int row) {
+        if(row >= 0 && row < getItems().size() - (message != null ? 1 : 0)) {
+            getItems().set(row, row); //a replace makes the cell showing the row update
+        }
+    }
+
+    private void showRow(int row) {
+        Node node = lookup(".virtual-flow");
+        if(node instanceof VirtualFlow) {
+            VirtualFlow<?> flow = (VirtualFlow<?>) node;
+            IndexedCell<?> first = flow.getFirstVisibleCell();
+            IndexedCell<?> last = flow.getLastVisibleCell();
+            if(first != null && last != null && row > first.getIndex() && row < last.getIndex()) {
+                return; //fully visible already
             }
         }
+        scrollTo(Math.max(0, row - 1)); //keep the row before it in view too
     }
 
+    private final class RowCell extends ListCell<Integer> {
+
+        private final HBox row = new HBox();
+        private final Label numLbl = new Label();
+        private final Label whiteLbl = constructPlyLabel(0);
+        private final Label blackLbl = constructPlyLabel(1);
+        private final Label msgLbl = new Label();
+
+        private RowCell() {
+            numLbl.setAlignment(Pos.CENTER);
+            numLbl.setFont(plyFont);
+            numLbl.setMinSize((50*app.getScale()), 38*app.getScale());
+            numLbl.setMaxSize((50*app.getScale()), 38*app.getScale());
+            row.getChildren().addAll(numLbl, whiteLbl, blackLbl);
+            msgLbl.setFont(messageFont);
+            msgLbl.setMinSize(((game.getBarWidth()*0.8)-(app.getScale()*50)), 38 * app.getScale());
+            msgLbl.setMaxSize(((game.getBarWidth()*0.8)-(app.getScale()*50)), 38 * app.getScale());
+            msgLbl.setAlignment(Pos.CENTER);
+            setPadding(new Insets(0,0,0,20*app.getScale()));
+            setText(null);
+        }
+
+        private Label constructPlyLabel(int column) {
+            Label plyLbl = new Label();
+            plyLbl.setFont(plyFont);
+            plyLbl.setId("ply");
+            plyLbl.setPadding(new Insets(0,0,0,10*app.getScale()));
+            plyLbl.setMinSize((90*app.getScale()), 38*app.getScale());
+            plyLbl.setMaxSize((90*app.getScale()), 38*app.getScale());
+            plyLbl.setOnMouseClicked((event)-> {
+                Integer item = getItem();
+                if(item != null && item != MESSAGE_ROW) {
+                    int index = plyIndex(item, column);
+                    if(index > -1 && index < moveData.size()) {
+                        game.goTo(index);
+                    }
+                }
+            });
+            return plyLbl;
+        }
+
+        @Override
+        protected void updateItem(Integer item, boolean empty) {
+            super.updateItem(item, empty);
+            if(empty || item == null) {
+                setGraphic(null);
+            } else if(item == MESSAGE_ROW) {
+                msgLbl.setText(message);
+                setGraphic(msgLbl);
+            } else {
+                numLbl.setText((firstNumber + item) + ". ");
+                updatePly(whiteLbl, plyIndex(item, 0));
+                updatePly(blackLbl, plyIndex(item, 1));
+                setGraphic(row);
+            }
+        }
+
+        private void updatePly(Label plyLbl, int index) {
+            if(index >= moveData.size()) {
+                plyLbl.setVisible(false); //black has not answered yet
+                return;
+            }
+            plyLbl.setVisible(true);
+            plyLbl.setText(index < 0 ? "..." : moveData.get(index).getNotation()); //white's move before the start position
+            plyLbl.setId(index > -1 && index == selected ? "plyhighlighted" : "ply");
+        }
+
+    }
 
 }
@@ -0,0 +1,290 @@
+package gui;
+
+import database.GameDatabase;
+import database.OpeningTree;
+import engine.MoveGenerator;
+import engine.PgnGame;
+import engine.PolyglotBook;
+import engine.Position;
+import engine.San;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//moves played from the shown position in the open database and the moves of the open book, in a window beside the board
+public class OpeningTreePanel extends VBox {
+
+    private final ChessBuddy app;
+    private final TableView<OpeningTree.TreeMove> moveTable = new TableView<>();
+    private final TableView<String[]> bookTable = new TableView<>(); //move, weight and share of each book move
+    private final ListView<String> gameList = new ListView<>();
+    private final Label status = new Label();
+    private final Button importButton = new Button("Import...");
+    private final Stage window = new Stage();
+    private int[] gameIds = new int[0]; //ids of the listed games
+    private Game game; //the game whose position is shown, games picked here replace it
+    private Position position;
+    private volatile int queryId; //written on the FX thread, a query that is no longer the newest is skipped
+    private final int[] bookMoves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] bookWeights = new int[MoveGenerator.MAX_MOVES];
+
+    public OpeningTreePanel(ChessBuddy app) {
+        this.app = app;
+        double scale = app.getScale();
+        moveTable.getColumns().add(column("Move", 80*scale, OpeningTree.TreeMove::getSan));
+        moveTable.getColumns().add(column("Games", 90*scale, (move) -> String.format("%,d", move.getGames())));
+        moveTable.getColumns().add(column("+ / = / -", 140*scale, OpeningTreePanel::resultText));
+        moveTable.getColumns().add(column("Score", 70*scale,
+                (move) -> String.format("%.1f%%", move.getWhiteScore()*100)));
+        moveTable.setPlaceholder(new Label("No games reached this position"));
+        moveTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        moveTable.setFocusTraversable(false);
+        VBox.setVgrow(moveTable, Priority.ALWAYS);
+        bookTable.getColumns().add(column("Book move", 80*scale, (row) -> row[0]));
+        bookTable.getColumns().add(column("Weight", 90*scale, (row) -> row[1]));
+        bookTable.getColumns().add(column("Share", 70*scale, (row) -> row[2]));
+        bookTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        bookTable.setFocusTraversable(false);
+        bookTable.setPrefHeight(160*scale);
+        gameList.setPrefHeight(220*scale);
+        gameList.setOnMouseClicked((event)-> {
+            int index = gameList.getSelectionModel().getSelectedIndex();
+            if(event.getClickCount() == 2 && index > -1 && index < gameIds.length) {
+                openGame(gameIds[index]);
+            }
+        });
+        Button openButton = new Button("Open...");
+        openButton.setId("sidebutton");
+        openButton.setOnAction((event)-> chooseDatabase());
+        importButton.setId("sidebutton");
+        importButton.setOnAction((event)-> chooseImport());
+        Button bookButton = new Button("Book...");
+        bookButton.setId("sidebutton");
+        bookButton.setOnAction((event)-> chooseBook());
+        status.setId("tinyfont");
+        status.setMaxWidth(Double.MAX_VALUE);
+        HBox.setHgrow(status, Priority.ALWAYS);
+        HBox buttons = new HBox(status, bookButton, openButton, importButton);
+        buttons.setSpacing(10*scale);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        getChildren().addAll(moveTable, bookTable, gameList, buttons);
+        setSpacing(10*scale);
+        setPadding(new Insets(10*scale));
+        window.setTitle("Opening tree");
+        window.setScene(new Scene(this, 400*scale, app.getHeight()));
+        window.getScene().getStylesheets().add(ChessBuddy.class.getResource("/resources/chess.css").toExternalForm());
+    }
+
+    private static <T> TableColumn<T, String> column(String title, double width, Function<T, String> text) {
+        TableColumn<T, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setSortable(false); //already ordered by games
+        column.setCellValueFactory((cell) -> new ReadOnlyStringWrapper(text.apply(cell.getValue())));
+        return column;
+    }
+
+    private static String resultText(OpeningTree.TreeMove move) {
+        long games = Math.max(1, move.getGames());
+        return String.format("%.0f / %.0f / %.0f", move.getWhiteWins()*100.0/games, move.getDraws()*100.0/games,
+                move.getBlackWins()*100.0/games);
+    }
+
+    public boolean isShowing() {
+        return window.isShowing();
+    }
+
+    //opens the window to the right of the main one
+    public void showBeside(Stage owner) {
+        if(window.getOwner() == null) {
+            window.initOwner(owner);
+        }
+        if(!window.isShowing()) {
+            window.setX(owner.getX() + owner.getWidth());
+            window.setY(owner.getY());
+            window.show();
+        }
+    }
+
+    //queries the database off the FX thread, FX thread only
+    public void showPosition(Game gameIn, Position positionIn) {
+        game = gameIn;
+        position = positionIn;
+        refresh();
+    }
+
+    private void refresh() {
+        showBook();
+        int id = ++queryId;
+        GameDatabase database = app.getDatabase();
+        if(database == null) {
+            showTree(null, new ArrayList<>());
+            status.setText("No database open");
+            return;
+        }
+        Position query = position;
+        app.getDatabaseExecutor().submit(() -> {
+            if(id != queryId) {
+                return; //the board moved on while this waited
+            }
+            OpeningTree tree = database.query(query);
+            ArrayList<String> descriptions = new ArrayList<>();
+            try {
+                for(int gameId : tree.getGameIds()) {
+                    descriptions.add((gameId + 1) + ".  " + database.getDescription(gameId));
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(OpeningTreePanel.class.getName()).log(Level.WARNING, null, ex);
+            }
+            Platform.runLater(() -> {
+                if(id == queryId) {
+                    showTree(tree, descriptions);
+                    status.setText(String.format("%,d games   %.1f ms", tree.getGames(), tree.getNanos()/1e6));
+                }
+            });
+        });
+    }
+
+    private void showTree(OpeningTree tree, ArrayList<String> descriptions) {
+        if(tree == null) {
+            moveTable.getItems().clear();
+            gameList.getItems().clear();
+            gameIds = new int[0];
+            return;
+        }
+        moveTable.getItems().setAll(tree.getMoves());
+        gameList.getItems().setAll(descriptions);
+        gameIds = tree.getGameIds();
+    }
+
+    //a book lookup is a binary search over the mapped file, quick enough for the FX thread
+    private void showBook() {
+        PolyglotBook book = app.getBook();
+        if(book == null || position == null) {
+            bookTable.setPlaceholder(new Label(book == null ? "No book open" : ""));
+            bookTable.getItems().clear();
+            return;
+        }
+        Position shown = position.copy(); //a query may be reading the position on the database thread
+        int count = book.probe(shown, bookMoves, bookWeights);
+        int total = 0;
+        for(int i = 0; i < count; i++) {
+            total += bookWeights[i];
+        }
+        ArrayList<String[]> rows = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            rows.add(new String[] {San.toSan(shown, bookMoves[i]), String.format("%,d", bookWeights[i]),
+                    String.format("%.1f%%", total == 0 ? 0.0 : bookWeights[i]*100.0/total)});
+        }
+        bookTable.setPlaceholder(new Label("Not in " + book.getPath().getFileName()));
+        bookTable.getItems().setAll(rows);
+    }
+
+    private void chooseBook() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Choose a Polyglot opening book, cancel to close it");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Polyglot books", "*.bin"));
+        File file = chooser.showOpenDialog(window);
+        try {
+            app.openBook(file == null ? "" : file.getAbsolutePath());
+            PolyglotBook book = app.getBook();
+            status.setText(book == null ? "No book open" : String.format("%,d book entries", book.size()));
+        } catch (IOException ex) {
+            status.setText("Could not open " + file.getName());
+        }
+        showBook();
+    }
+
+    private void chooseDatabase() {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Open or create a game database");
+        File directory = chooser.showDialog(window);
+        if(directory == null) {
+            return;
+        }
+        status.setText("Opening " + directory.getName() + "...");
+        app.getDatabaseExecutor().submit(() -> {
+            try {
+                app.openDatabase(directory.getAbsolutePath());
+                Platform.runLater(this::refresh);
+            } catch (IOException ex) {
+                Platform.runLater(() -> status.setText("Could not open " + directory.getName()));
+            }
+        });
+    }
+
+    private void chooseImport() {
+        GameDatabase database = app.getDatabase();
+        if(database == null) {
+            status.setText("Open a database first");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import games");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Notation", "*.pgn"));
+        File file = chooser.showOpenDialog(window);
+        if(file == null) {
+            return;
+        }
+        importButton.setDisable(true);
+        status.setText("Importing " + file.getName() + "...");
+        app.getDatabaseExecutor().submit(() -> { //queries wait behind the import, they would see half of it anyway
+            String message;
+            try {
+                int imported = database.importPgn(file.toPath(), GameDatabase.DEFAULT_MAX_PLIES,
+                        (count) -> Platform.runLater(() -> status.setText(String.format("%,d games imported...", count))));
+                message = String.format("%,d games imported, %,d skipped", imported, database.getSkipped());
+            } catch (IOException ex) {
+                Logger.getLogger(OpeningTreePanel.class.getName()).log(Level.WARNING, null, ex);
+                message = "Could not import " + file.getName();
+            }
+            String done = message;
+            Platform.runLater(() -> {
+                importButton.setDisable(false);
+                refresh();
+                status.setText(done);
+            });
+        });
+    }
+
+    private void openGame(int id) {
+        GameDatabase database = app.getDatabase();
+        Game target = game;
+        if(database == null || target == null) {
+            return;
+        }
+        app.getDatabaseExecutor().submit(() -> {
+            try {
+                PgnGame pgnGame = database.getGame(id);
+                Platform.runLater(() -> {
+                    String error = target.loadGame(pgnGame);
+                    if(error != null) {
+                        status.setText(error);
+                    }
+                });
+            } catch (IOException ex) {
+                Platform.runLater(() -> status.setText("Could not read game " + (id + 1)));
+            }
+        });
+    }
+
+}
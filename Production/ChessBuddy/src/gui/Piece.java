@@ -10,6 +10,7 @@ import java.util.ArrayList;
 public abstract class Piece extends StackPane {
 
 
+    public static final double PIECE_SIZE = 100; //piece sprite size before scaling
     public double tileSize; // size of pieces
     private boolean closeable = false; //will a mouse release close the piece
     private boolean drag; //is the piece currently being dragged
@@ -19,13 +20,14 @@ public abstract class Piece extends StackPane {
     private final boolean isWhite;
     private Tile tile; //tile piece is on
     private final ArrayList<Tile> available = new ArrayList<>(); //available tiles of piece used for render
+    private TranslateTransition transition; //running slide, stopped when the piece is placed directly
 
     public double getTileSize() {
         return tileSize;
     }
 
     private void setTileSize(double scale) {
-        this.tileSize = 100*scale; // size of pieces
+        this.tileSize = PIECE_SIZE*scale; // size of pieces
     }
 
     public boolean isCloseable() {
@@ -169,6 +171,9 @@ public abstract class Piece extends StackPane {
     public abstract int getValue();
 
     public final void moveTo(Tile tile) {
+        if(transition != null) {
+            transition.stop();
+        }
         oldX = tile.getXReal();
         oldY = tile.getYReal();
         setTranslateX(oldX);
@@ -176,6 +181,10 @@ public abstract class Piece extends StackPane {
     }
 
     public final void moveToSlowly(Tile tile) {
+        if(!getController().getApp().getAnimations().isAnimated()) {
+            moveTo(tile);
+            return;
+        }
         double x = tile.getXReal() - oldX;
         double y = tile.getYReal() - oldY;
         int time = 150;
@@ -186,6 +195,7 @@ public abstract class Piece extends StackPane {
         tt.setByX(x);
         tt.setByY(y);
         tt.play();
+        transition = tt;
         oldX = tile.getXReal();
         oldY = tile.getYReal();
     }
@@ -223,101 +233,12 @@ public abstract class Piece extends StackPane {
         available.forEach((availableTile) -> getController().addVisualize(availableTile));
     }
 
-    public abstract ArrayList<int[]> calcCommonPieceLocations(int[] location);
-
-    public abstract void pieceAvailableMoves();
-
-    public abstract void pieceAvailableMoves(ArrayList<Tile> whiteListed);
-
-    public void calcAvailableMoves() {
+    public void clearAvailable() {
         available.clear();
-        ArrayList<Tile> attackingKing = getController().getAttackingKing();
-        ArrayList<Tile> pinnedWhiteList = new ArrayList<>();
-        ArrayList<Tile> attackWhiteListed = getController().getAttackWhiteListed();
-        Piece king = getController().isWhiteTurn()
-                ? getController().getWhiteKing() : getController().getBlackKing();
-        boolean isPinned = isPinned(pinnedWhiteList, king);
-        if (!isKing() && isPinned && attackingKing.size() < 1) {
-            pieceAvailableMoves(pinnedWhiteList);
-        } else if (!isKing() && attackingKing.size() == 1 && !isPinned) {
-            pieceAvailableMoves(attackWhiteListed);
-        } else if (attackingKing.isEmpty() || isKing()) {
-            pieceAvailableMoves();
-        }
-    }
-
-    public boolean isPinned(ArrayList<Tile> whiteList, Piece king) {
-        if(isKing()) {
-            return false;
-        }
-        Tile[][] tiles = getController().getTiles();
-        int row = king.getTile().getRow(); //starts at king
-        int col = king.getTile().getCol();
-        if(!canNormalize(getTile().getRow() - king.getTile().getRow(), getTile().getCol() - king.getTile().getCol())) {
-            return false;
-        }
-        int r = normalize(getTile().getRow() - king.getTile().getRow()); //normalized trajectory
-        int c = normalize(getTile().getCol() - king.getTile().getCol());
-        boolean atOppositePiece = false; //has the algorithm reached an opposite pinning piece
-        boolean isPinned = false;
-        boolean reachedThisPiece = false; //has the algorithm reached this piece
-        int pieceCounter = 0;
-        while (!atOppositePiece) {
-            if(withinBounds(row+r, col+c)) {
-                Tile t = tiles[row+r][col+c];
-                whiteList.add(t);
-                if (t.hasPiece()) {
-                    pieceCounter++;
-                    if(t.getPiece() == this) {
-                        reachedThisPiece = true;
-                    }
-                    if(t.getPiece().isWhite() != isWhite()) {
-                        atOppositePiece = true; //algorithm can terminate, a potential pinning piece has been found
-                        if(reachedThisPiece && (t.getPiece().isBishop() || t.getPiece().isQueen()) //check if piece can pin
-                                && (r != 0) && (c != 0)) {
-                            if(pieceCounter == 2) {
-                                isPinned = true;
-                            }
-                        }
-                        if(reachedThisPiece && (t.getPiece().isRook() || t.getPiece().isQueen())
-                                && (r == 0 || c == 0)) {
-                            if(pieceCounter == 2) {
-                                isPinned = true;
-                            }
-                        }
-                    }
-                }
-            } else {
-                atOppositePiece = true;
-            }
-            if (r > 0) { //travel in the direction of normalized trajectory
-                r++;
-            } else if (r < 0) {
-                r--;
-            }
-            if (c > 0) {
-                c++;
-            } else if (c < 0) {
-                c--;
-            }
-        }
-        return isPinned;
-    }
-
-    public boolean canNormalize(int row, int col) {
-        return Math.abs(row) == Math.abs(col) || row == 0 || col == 0;
-    }
-
-    public int normalize(int num) {
-        return num == 0 ? 0 : num/Math.abs(num);
-    }
-
-    protected boolean whiteListed(ArrayList<Tile> whitelist, Tile tile) {
-        return whitelist.contains(tile);
     }
 
-    protected boolean hasLegalMoves() {
-        return !available.isEmpty();
+    public void addAvailable(Tile tile, int move) {
+        available.add(tile);
     }
 
 }
\ No newline at end of file
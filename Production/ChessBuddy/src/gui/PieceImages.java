@@ -0,0 +1,35 @@
+package gui;
+
+import javafx.scene.image.Image;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class PieceImages {
+
+    private static final String[] CODE_TO_FILE = {"", //sprite names indexed by ByteBoard code
+            "whitepawn", "whitebishop", "whiteknight", "whiterook", "whitequeen", "whiteking",
+            "blackpawn", "blackbishop", "blackknight", "blackrook", "blackqueen", "blackking"};
+    private static final Map<String, Image> CACHE = new ConcurrentHashMap<>(); //keyed by path, code and size
+
+    private PieceImages() {}
+
+    public static String getResource(String path, byte code) {
+        return "/resources/" + path + "/" + CODE_TO_FILE[code] + ".png";
+    }
+
+    //each sprite is decoded once at the size it is shown at and shared by all ImageViews
+    public static Image get(String path, byte code, double size) {
+        return CACHE.computeIfAbsent(path + "/" + code + "/" + size,
+                key -> new Image(getResource(path, code), size, size, true, true));
+    }
+
+    public static void warm(String path, double... sizes) {
+        for(double size : sizes) {
+            for(byte code = GameInfo.WHITE_PAWN; code <= GameInfo.BLACK_KING; code++) {
+                get(path, code, size);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+package gui;
+
+import engine.Evaluation;
+import engine.GameState;
+import engine.MoveGenerator;
+import engine.Nnue;
+import engine.Position;
+import engine.Search;
+import engine.SearchInfo;
+import engine.SearchLimits;
+import engine.Tablebase;
+import engine.TranspositionTable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+//works out the plies around the shown one on a low priority thread while the history is browsed
+//stepping to a neighbour then finds its legal moves, status, evaluation and a shallow search ready
+public class PlyPrefetcher {
+
+    public static final int RADIUS = 2; //plies on each side of the shown one
+    public static final int CAPACITY = 64; //plies kept, the least recently used is dropped first
+    public static final int SHALLOW_DEPTH = 8; //the quick search stops at this depth or node count, whichever comes first
+    public static final long SHALLOW_NODES = 200_000;
+    public static final int TABLE_MEGABYTES = 8; //a table of its own, the analysis keeps the shared one
+
+    private final ExecutorService executor;
+    private final Map<Integer, Ply> cache = new LinkedHashMap<>(CAPACITY, 0.75f, true) { //by move number, access order
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Ply> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private Search search; //created on the prefetch thread on first use
+    private Future<?> task; //the request in progress, FX thread only
+
+    public PlyPrefetcher(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    //the prepared ply when it still matches the game, null when it has to be worked out now
+    public Ply get(int num, long key) {
+        synchronized (cache) {
+            Ply ply = cache.get(num);
+            return ply != null && ply.key == key ? ply : null;
+        }
+    }
+
+    //the shown ply worked out on the calling thread, kept for the next visit
+    public Ply compute(GameState game, int num, Nnue network, Tablebase tablebase) {
+        Ply ply = prepare(game.getPosition(num), num, game.getKeyByNumber(num), game.getHalfMoveClock(num),
+                game.getRepetitionCount(num), network, tablebase);
+        put(ply);
+        return ply;
+    }
+
+    //queues the neighbours of num that are not cached yet, nearest first, and drops the previous request
+    //the game is read here on the FX thread, the prefetch thread only gets copies
+    public void prefetch(GameState game, int num, Nnue network, Tablebase tablebase, boolean shallowSearch) {
+        cancel();
+        int from = Math.max(-1, num - RADIUS);
+        int to = Math.min(game.getMoveCount() - 1, num + RADIUS);
+        if(to <= from) {
+            return;
+        }
+        Position start = game.getPosition(from);
+        int[] moves = new int[to - from];
+        long[] keys = new long[to - from + 1];
+        int[] halfMoveClocks = new int[keys.length];
+        int[] repetitions = new int[keys.length];
+        boolean missing = false;
+        for(int i = from; i <= to; i++) {
+            if(i > from) {
+                moves[i - from - 1] = game.getMoves().get(i).getMove();
+            }
+            keys[i - from] = game.getKeyByNumber(i);
+            halfMoveClocks[i - from] = game.getHalfMoveClock(i);
+            repetitions[i - from] = game.getRepetitionCount(i);
+            Ply cached = get(i, keys[i - from]);
+            missing |= i != num && (cached == null || (shallowSearch && cached.shallow == null && cached.legalMoveCount > 0));
+        }
+        if(!missing) {
+            return;
+        }
+        task = executor.submit(() -> {
+            Ply[] plies = new Ply[keys.length];
+            Position position = start;
+            for(int i = from; i <= to; i++) {
+                if(i > from) {
+                    position.makeMove(moves[i - from - 1]);
+                }
+                if(i != num) {
+                    Ply cached = get(i, keys[i - from]);
+                    plies[i - from] = cached != null ? cached : prepare(position.copy(), i, keys[i - from],
+                            halfMoveClocks[i - from], repetitions[i - from], network, tablebase);
+                    put(plies[i - from]);
+                }
+            }
+            if(!shallowSearch) {
+                return;
+            }
+            for(int distance = 1; distance <= RADIUS; distance++) { //the searches take longest, nearest ply first
+                for(int i : new int[] {num + distance, num - distance}) {
+                    Ply ply = i >= from && i <= to ? plies[i - from] : null;
+                    if(ply == null || ply.shallow != null || ply.legalMoveCount == 0) {
+                        continue;
+                    }
+                    SearchInfo info = shallowSearch(ply.position, network, tablebase);
+                    if(Thread.currentThread().isInterrupted()) {
+                        return; //the browser moved on, an interrupted search is not worth keeping
+                    }
+                    put(ply.withShallow(info));
+                }
+            }
+        });
+    }
+
+    //after the evaluation or the tables changed
+    public void clear() {
+        cancel();
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public void cancel() {
+        if(task != null) {
+            task.cancel(true);
+            task = null;
+        }
+    }
+
+    private void put(Ply ply) {
+        synchronized (cache) {
+            cache.put(ply.num, ply);
+        }
+    }
+
+    private SearchInfo shallowSearch(Position position, Nnue network, Tablebase tablebase) {
+        if(search == null) {
+            search = new Search(new TranspositionTable(TABLE_MEGABYTES));
+        }
+        search.setNetwork(network);
+        search.setTablebase(tablebase);
+        return search.search(position, new SearchLimits(SHALLOW_DEPTH, 0, SHALLOW_NODES), null);
+    }
+
+    private static Ply prepare(Position position, int num, long key, int halfMoveClock, int repetitions,
+                               Nnue network, Tablebase tablebase) {
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, legal);
+        int status;
+        if(count == 0) {
+            status = position.inCheck() ? GameState.CHECKMATE : GameState.STALEMATE;
+        } else if(halfMoveClock >= 100) {
+            status = GameState.FIFTY_MOVES;
+        } else if(repetitions >= 2) {
+            status = GameState.REPETITION;
+        } else {
+            status = GameState.isInsufficientMaterial(position) ? GameState.INSUFFICIENT_MATERIAL : GameState.IN_PROGRESS;
+        }
+        int score = network != null ? network.evaluate(position) : Evaluation.evaluate(position);
+        String verdict = tablebase != null && count > 0 ? tablebase.verdict(position.copy()) : null;
+        return new Ply(num, key, position, Arrays.copyOf(legal, count), status,
+                position.isWhiteToMove() ? score : -score, verdict, null);
+    }
+
+    //everything the board and the panels need for one ply, never changed once built
+    public static final class Ply {
+
+        private final int num;
+        private final long key;
+        private final Position position;
+        private final int[] legalMoves;
+        private final int legalMoveCount;
+        private final int status;
+        private final int staticScore; //from white's point of view
+        private final String tablebaseVerdict; //null without tables or when they do not cover the position
+        private final SearchInfo shallow; //null until the shallow search is done
+
+        private Ply(int num, long key, Position position, int[] legalMoves, int status, int staticScore,
+                    String tablebaseVerdict, SearchInfo shallow) {
+            this.num = num;
+            this.key = key;
+            this.position = position;
+            this.legalMoves = legalMoves;
+            this.legalMoveCount = legalMoves.length;
+            this.status = status;
+            this.staticScore = staticScore;
+            this.tablebaseVerdict = tablebaseVerdict;
+            this.shallow = shallow;
+        }
+
+        private Ply withShallow(SearchInfo shallow) {
+            return new Ply(num, key, position, legalMoves, status, staticScore, tablebaseVerdict, shallow);
+        }
+
+        //a copy, the board may attach a network to it
+        public Position getPosition() {
+            return position.copy();
+        }
+
+        public int getLegalMoves(int[] moves) {
+            System.arraycopy(legalMoves, 0, moves, 0, legalMoveCount);
+            return legalMoveCount;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public boolean isInCheck() {
+            return position.inCheck();
+        }
+
+        public int getStaticScore() {
+            return staticScore;
+        }
+
+        public String getTablebaseVerdict() {
+            return tablebaseVerdict;
+        }
+
+        public SearchInfo getShallow() {
+            return shallow;
+        }
+
+    }
+
+}
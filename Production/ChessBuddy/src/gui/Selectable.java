@@ -24,14 +24,7 @@ import javafx.stage.Stage;
 
 public class Selectable extends Pane {
 
-    public String whiteQueen;
-    public String blackQueen;
-    public String whiteKnight;
-    public String blackKnight;
-    public String whiteBishop;
-    public String blackBishop;
-    public String whiteRook;
-    public String blackRook;
+    public static final double PROMOTION_ICON_SIZE = 80; //promotion dialog icons before scaling
     public double tileSize;
     public double selectableSize;
     public double tileCircleSize;
@@ -53,17 +46,6 @@ public class Selectable extends Pane {
         return controller;
     }
 
-    public final void setPaths(String path) {
-        whiteQueen = "/resources/" + path + "/whitequeen.png";
-        blackQueen = "/resources/" + path + "/blackqueen.png";
-        whiteKnight = "/resources/" + path + "/whiteknight.png";
-        blackKnight = "/resources/" + path + "/blackknight.png";
-        whiteBishop = "/resources/" + path + "/whitebishop.png";
-        blackBishop = "/resources/" + path + "/blackbishop.png";
-        whiteRook = "/resources/" + path + "/whiterook.png";
-        blackRook = "/resources/" + path + "/blackrook.png";
-    }
-
     public final void setSizes(double scale) {
         tileSize = 98.25*scale; // tile size for move hint and highlight circle
         selectableSize = 15*scale; // size of move hints
@@ -71,7 +53,6 @@ public class Selectable extends Pane {
     }
 
     public Selectable(Tile tile, Game controller, Color hover, Color ring, Color solid, Color castle, ChessBuddy app) {
-        setPaths(app.getPath());
         setSizes(app.getScale());
         this.setStyle("-fx-cursor: hand;");
         this.controller = controller;
@@ -198,10 +179,10 @@ public class Selectable extends Pane {
             controller.clearSelectable();
             theStage.close();
         });
-        ImageView queenImg = new ImageView(new Image(getClass().getResourceAsStream(isWhite ?
-                whiteQueen : blackQueen)));
-        queenImg.setFitHeight(80*app.getScale());
-        queenImg.setFitWidth(80*app.getScale());
+        ImageView queenImg = new ImageView(PieceImages.get(app.getPath(),
+                isWhite ? GameInfo.WHITE_QUEEN : GameInfo.BLACK_QUEEN, PROMOTION_ICON_SIZE*app.getScale()));
+        queenImg.setFitHeight(PROMOTION_ICON_SIZE*app.getScale());
+        queenImg.setFitWidth(PROMOTION_ICON_SIZE*app.getScale());
         queen.setGraphic(queenImg);
         Button knight = new Button();
         knight.setId("promotionbutton");
@@ -213,10 +194,10 @@ public class Selectable extends Pane {
             controller.clearSelectable();
             theStage.close();
         });
-        ImageView knightImg = new ImageView(new Image(getClass().getResourceAsStream(isWhite ?
-                whiteKnight : blackKnight)));
-        knightImg.setFitHeight(80*app.getScale());
-        knightImg.setFitWidth(80*app.getScale());
+        ImageView knightImg = new ImageView(PieceImages.get(app.getPath(),
+                isWhite ? GameInfo.WHITE_KNIGHT : GameInfo.BLACK_KNIGHT, PROMOTION_ICON_SIZE*app.getScale()));
+        knightImg.setFitHeight(PROMOTION_ICON_SIZE*app.getScale());
+        knightImg.setFitWidth(PROMOTION_ICON_SIZE*app.getScale());
         knight.setGraphic(knightImg);
         Button rook = new Button();
         rook.setId("promotionbutton");
@@ -228,10 +209,10 @@ public class Selectable extends Pane {
             controller.clearSelectable();
             theStage.close();
         });
-        ImageView rookImg = new ImageView(new Image(getClass().getResourceAsStream(isWhite ?
-                whiteRook : blackRook)));
-        rookImg.setFitHeight(80*app.getScale());
-        rookImg.setFitWidth(80*app.getScale());
+        ImageView rookImg = new ImageView(PieceImages.get(app.getPath(),
+                isWhite ? GameInfo.WHITE_ROOK : GameInfo.BLACK_ROOK, PROMOTION_ICON_SIZE*app.getScale()));
+        rookImg.setFitHeight(PROMOTION_ICON_SIZE*app.getScale());
+        rookImg.setFitWidth(PROMOTION_ICON_SIZE*app.getScale());
         rook.setGraphic(rookImg);
         Button bishop = new Button();
         bishop.setId("promotionbutton");
@@ -243,10 +224,10 @@ public class Selectable extends Pane {
             controller.clearSelectable();
             theStage.close();
         });
-        ImageView bishopImg = new ImageView(new Image(getClass().getResourceAsStream(isWhite ?
-                whiteBishop : blackBishop)));
-        bishopImg.setFitHeight(80*app.getScale());
-        bishopImg.setFitWidth(80*app.getScale());
+        ImageView bishopImg = new ImageView(PieceImages.get(app.getPath(),
+                isWhite ? GameInfo.WHITE_BISHOP : GameInfo.BLACK_BISHOP, PROMOTION_ICON_SIZE*app.getScale()));
+        bishopImg.setFitHeight(PROMOTION_ICON_SIZE*app.getScale());
+        bishopImg.setFitWidth(PROMOTION_ICON_SIZE*app.getScale());
         bishop.setGraphic(bishopImg);
 
         buttons.getChildren().addAll(queen,knight);
@@ -1,11 +1,11 @@
 
 package gui.pieces;
 
-import gui.Game;
+import engine.Moves;
 import gui.GameInfo;
 import gui.Piece;
+import gui.PieceImages;
 import gui.Tile;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 
 import java.util.ArrayList;
@@ -14,90 +14,26 @@ public final class King extends Piece{
 
     private final ArrayList<Tile> availableCastle = new ArrayList<>();
     
-    public String whiteKing;
-    public String blackKing;
-    
-    public final void setPaths(String path) {
-        whiteKing = "/resources/" + path + "/whiteking.png";
-        blackKing = "/resources/" + path + "/blackking.png";
-    }
-
     public King(boolean isWhite, Tile tile, String path) {
         super(isWhite, tile);
-        setPaths(path);
-        Image image;
-        if(isWhite) {
-            image = new Image(whiteKing);
-        } else {
-            image = new Image(blackKing);
-        }
-        ImageView imageView = new ImageView(image);
+        ImageView imageView = new ImageView(PieceImages.get(path, getInfoCode(), tileSize));
         imageView.setFitHeight(tileSize);
         imageView.setFitWidth(tileSize);
         this.getChildren().add(imageView);
     }
 
     @Override
-    public void pieceAvailableMoves() {
+    public void clearAvailable() {
+        super.clearAvailable();
         availableCastle.clear();
-        Game controller = getController();
-        Tile[][] tiles = controller.getTiles();
-        int row = getTile().getRow();
-        int col = getTile().getCol();
-        ArrayList<Tile> available = getAvailable();
-        available.addAll(controller.kingMoves());
-        
-        //castle
-        int bottomRow = isWhite() ? 0 : 7;
-        if (row == bottomRow && col == 4) {
-            Tile rookTile = tiles[row][col+3];
-            if (controller.getAttackingKing().isEmpty()
-                    && !controller.inCheck(this, row, col+1) && !controller.inCheck(this, row, col+2)
-                    && !tiles[row][col+1].hasPiece() && !tiles[row][col+2].hasPiece()
-                    && rookTile.hasPiece() && rookTile.getPiece().isRook()
-                    && controller.canCastle(this, true)) {
-                availableCastle.add(tiles[row][col+2]);
-            }
-            rookTile = tiles[row][col-4];
-            if (controller.getAttackingKing().isEmpty()
-                    && !controller.inCheck(this, row, col-1) && !controller.inCheck(this, row, col-2)
-                    && !tiles[row][col-1].hasPiece() && !tiles[row][col-2].hasPiece()
-                    && rookTile.hasPiece() && rookTile.getPiece().isRook()
-                    && controller.canCastle(this, false)) {
-                availableCastle.add(tiles[row][col-2]);
-            }
-        }
     }
-    
+
     @Override
-    public void pieceAvailableMoves(ArrayList<Tile> whiteList) {
-        availableCastle.clear();
-        Game controller = getController();
-        Tile[][] tiles = controller.getTiles();
-        int row = getTile().getRow();
-        int col = getTile().getCol();
-        ArrayList<Tile> available = getAvailable();
-        available.addAll(controller.kingMoves());
-        
-        //castle
-        int bottomRow = isWhite() ? 0 : 7;
-        if (row == bottomRow && col == 4) {
-            Tile rookTile = tiles[row][col+3];
-            if (controller.getAttackingKing().isEmpty()
-                    && !controller.inCheck(this, row, col+1) && !controller.inCheck(this, row, col+2)
-                    && !tiles[row][col+1].hasPiece() && !tiles[row][col+2].hasPiece()
-                    && rookTile.hasPiece() && rookTile.getPiece().isRook()
-                    && controller.canCastle(this, true)) {
-                availableCastle.add(tiles[row][col+2]);
-            } 
-            rookTile = tiles[row][col-4];
-            if (controller.getAttackingKing().isEmpty()
-                    && !controller.inCheck(this, row, col-1) && !controller.inCheck(this, row, col-2)
-                    && !tiles[row][col-1].hasPiece() && !tiles[row][col-2].hasPiece()
-                    && rookTile.hasPiece() && rookTile.getPiece().isRook()
-                    && controller.canCastle(this, false)) {
-                availableCastle.add(tiles[row][col-2]);
-            }
+    public void addAvailable(Tile tile, int move) {
+        if(Moves.isCastle(move)) {
+            availableCastle.add(tile);
+        } else {
+            super.addAvailable(tile, move);
         }
     }
 
@@ -116,11 +52,6 @@ public final class King extends Piece{
         availableCastle.forEach((availableTile) -> getController().addVisualize(availableTile));
     }
     
-    @Override
-    public ArrayList<int[]> calcCommonPieceLocations(int[] location) {
-        return new ArrayList<>();
-    }
-    
     @Override
     public boolean isKing() {
         return true;
@@ -0,0 +1,79 @@
+package tournament;
+
+import engine.GameState;
+import engine.Position;
+import engine.SearchInfo;
+
+//ends games early from the engines' scores, a zero count disables that rule
+public final class Adjudication {
+
+    private int drawMoveNumber;
+    private int drawMoveCount;
+    private int drawScore;
+    private int resignMoveCount;
+    private int resignScore;
+    private int maxMoves;
+
+    public void setDraw(int moveNumber, int moveCount, int score) {
+        drawMoveNumber = moveNumber;
+        drawMoveCount = moveCount;
+        drawScore = score;
+    }
+
+    public void setResign(int moveCount, int score) {
+        resignMoveCount = moveCount;
+        resignScore = score;
+    }
+
+    public void setMaxMoves(int maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+
+    public Tracker start() {
+        return new Tracker();
+    }
+
+    //counters of one game
+    public final class Tracker {
+
+        private int drawPlies; //plies in a row both engines called level
+        private final int[] resignPlies = new int[2]; //moves in a row a side saw itself lost, by Position.WHITE/BLACK
+        private final int[] lastScore = new int[2];
+        private String reason;
+
+        public String getReason() {
+            return reason;
+        }
+
+        //called after each move with the score of the side that made it, returns a PGN result or null
+        public String update(GameState game, int side, SearchInfo info) {
+            int score = info.getScore();
+            lastScore[side] = score;
+            if(drawMoveCount > 0 && Math.abs(score) <= drawScore) {
+                drawPlies++;
+                if(drawPlies >= drawMoveCount * 2 && game.getFullMoveNumber(game.getMoveCount()-1) > drawMoveNumber) {
+                    reason = "draw score";
+                    return "1/2-1/2";
+                }
+            } else {
+                drawPlies = 0;
+            }
+            if(resignMoveCount > 0 && score <= -resignScore) {
+                resignPlies[side]++;
+                if(resignPlies[side] >= resignMoveCount && lastScore[side ^ 1] >= resignScore) {
+                    reason = "resign";
+                    return side == Position.WHITE ? "0-1" : "1-0";
+                }
+            } else {
+                resignPlies[side] = 0;
+            }
+            if(maxMoves > 0 && game.getMoveCount() >= maxMoves * 2) {
+                reason = "move limit";
+                return "1/2-1/2";
+            }
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package tournament;
+
+import engine.GameState;
+import engine.SearchInfo;
+
+//one side of a match, the runner keeps a pair per worker thread and reuses them across games
+public interface MatchPlayer extends AutoCloseable {
+
+    String getName();
+
+    void newGame();
+
+    //best move for the side to move after the last move of the game, the score is from that side
+    SearchInfo selectMove(GameState game, TimeControl.Clock clock);
+
+    @Override
+    default void close() {
+    }
+
+}
@@ -0,0 +1,117 @@
+package tournament;
+
+//wins, draws and losses of the first player with the usual Elo, LOS and SPRT estimates
+public final class MatchStats {
+
+    private static final double Z_95 = 1.959964; //two sided 95% normal quantile
+
+    private int wins;
+    private int draws;
+    private int losses;
+
+    public synchronized void add(double score) { //1, 0.5 or 0 for the first player
+        if(score > 0.5) {
+            wins++;
+        } else if(score < 0.5) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    public synchronized int getDraws() {
+        return draws;
+    }
+
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    public synchronized int getGames() {
+        return wins + draws + losses;
+    }
+
+    public synchronized double getScore() {
+        int games = getGames();
+        return games == 0 ? 0.5 : (wins + draws / 2.0) / games;
+    }
+
+    public synchronized double getElo() {
+        return elo(getScore());
+    }
+
+    //half width of the 95% interval, from the trinomial variance of the per game score
+    public synchronized double getEloMargin() {
+        int games = getGames();
+        if(games == 0) {
+            return 0;
+        }
+        double deviation = Math.sqrt(getVariance() / games);
+        double score = getScore();
+        return (elo(score + Z_95 * deviation) - elo(score - Z_95 * deviation)) / 2;
+    }
+
+    //likelihood of superiority, draws carry no information about it
+    public synchronized double getLos() {
+        if(wins + losses == 0) {
+            return 0.5;
+        }
+        return 0.5 * (1 + erf((wins - losses) / Math.sqrt(2.0 * (wins + losses))));
+    }
+
+    //log likelihood ratio of elo1 against elo0 in the normal approximation of the score
+    public synchronized double getLlr(double elo0, double elo1) {
+        int games = getGames();
+        double variance = getVariance();
+        if(games == 0 || variance == 0) {
+            return 0;
+        }
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return (score1 - score0) * (2 * getScore() - score0 - score1) * games / (2 * variance);
+    }
+
+    public static double lowerBound(double alpha, double beta) {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    public static double upperBound(double alpha, double beta) {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    private double getVariance() {
+        int games = getGames();
+        double score = getScore();
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + losses * score * score) / games;
+    }
+
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    public static double elo(double score) {
+        double clamped = Math.max(1e-6, Math.min(1 - 1e-6, score)); //a clean sweep has no finite Elo
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+    //Abramowitz and Stegun 7.1.26, good to 1.5e-7
+    private static double erf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double y = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027
+                + t * 1.061405429)))) * Math.exp(-x * x);
+        return x >= 0 ? y : -y;
+    }
+
+    public synchronized String summary(String first, String second) {
+        return String.format("Score of %s vs %s: %d - %d - %d  [%.3f] %d%n"
+                        + "Elo difference: %.1f +/- %.1f, LOS: %.1f %%, DrawRatio: %.1f %%",
+                first, second, wins, losses, draws, getScore(), getGames(),
+                getElo(), getEloMargin(), getLos() * 100, getGames() == 0 ? 0 : 100.0 * draws / getGames());
+    }
+
+}
@@ -0,0 +1,88 @@
+package tournament;
+
+import engine.Fen;
+import engine.PgnGame;
+import engine.PgnReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//a start position and the book moves played from it before the engines take over
+public final class Opening {
+
+    private final String fen;
+    private final int[] moves;
+
+    public Opening(String fen, int[] moves) {
+        this.fen = fen;
+        this.moves = moves;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public static List<Opening> standard() {
+        List<Opening> openings = new ArrayList<>();
+        openings.add(new Opening(Fen.INITIAL, new int[0]));
+        return openings;
+    }
+
+    //the first plies of every game in a .pgn file, or one FEN or EPD position per line of any other file
+    public static List<Opening> load(Path path, int plies) throws IOException {
+        List<Opening> openings = new ArrayList<>();
+        if(path.getFileName().toString().toLowerCase().endsWith(".pgn")) {
+            try (PgnReader reader = new PgnReader(path)) {
+                PgnGame game;
+                while((game = reader.next()) != null) {
+                    if(!game.hasError()) {
+                        int[] moves = game.getMoves();
+                        String fen = game.getStartFen() != null ? game.getStartFen() : Fen.INITIAL;
+                        openings.add(new Opening(fen,
+                                Arrays.copyOf(moves, Math.min(moves.length, plies))));
+                    }
+                }
+            }
+        } else {
+            int lineNumber = 0;
+            for(String line : Files.readAllLines(path)) {
+                lineNumber++;
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    openings.add(new Opening(Fen.normalize(positionFields(line)), new int[0]));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException(path + " line " + lineNumber + ": " + ex.getMessage());
+                }
+            }
+        }
+        if(openings.isEmpty()) {
+            throw new IllegalArgumentException("No openings in " + path);
+        }
+        return openings;
+    }
+
+    //EPD lines carry operations instead of the move counters
+    private static String positionFields(String line) {
+        String[] fields = line.split("\\s+");
+        if(fields.length >= 6 && isNumber(fields[4]) && isNumber(fields[5])) {
+            return String.join(" ", Arrays.copyOf(fields, 6));
+        }
+        return String.join(" ", Arrays.copyOf(fields, Math.min(fields.length, 4)));
+    }
+
+    private static boolean isNumber(String str) {
+        return !str.isEmpty() && str.chars().allMatch(Character::isDigit);
+    }
+
+}
@@ -0,0 +1,75 @@
+package tournament;
+
+import engine.GameState;
+import engine.Moves;
+import engine.Nnue;
+import engine.PolyglotBook;
+import engine.Position;
+import engine.Search;
+import engine.SearchInfo;
+import engine.SearchLimits;
+import engine.Tablebase;
+import engine.TranspositionTable;
+
+import java.util.Random;
+
+//the built-in search with a table of its own, one instance per worker thread
+public final class SearchPlayer implements MatchPlayer {
+
+    private final String name;
+    private final Search search;
+    private final int maxDepth; //zero for no cap, handy for matching weaker settings
+    private final PolyglotBook book; //shared by every player, null to always search
+    private final Random random = new Random();
+
+    public SearchPlayer(String name, int hashMegabytes, int maxDepth) {
+        this(name, hashMegabytes, maxDepth, null);
+    }
+
+    public SearchPlayer(String name, int hashMegabytes, int maxDepth, PolyglotBook book) {
+        this(name, hashMegabytes, maxDepth, book, null);
+    }
+
+    //the tables are shared too, probes are thread safe
+    public SearchPlayer(String name, int hashMegabytes, int maxDepth, PolyglotBook book, Tablebase tablebase) {
+        this(name, hashMegabytes, maxDepth, book, tablebase, null);
+    }
+
+    //so are the network's weights, the search keeps the accumulator
+    public SearchPlayer(String name, int hashMegabytes, int maxDepth, PolyglotBook book, Tablebase tablebase,
+                        Nnue network) {
+        this.name = name;
+        this.maxDepth = maxDepth;
+        this.book = book;
+        search = new Search(new TranspositionTable(hashMegabytes));
+        search.setTablebase(tablebase);
+        search.setNetwork(network);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void newGame() {
+        search.getTable().clear();
+    }
+
+    @Override
+    public SearchInfo selectMove(GameState game, TimeControl.Clock clock) {
+        Position position = game.getSearchPosition();
+        if(book != null) {
+            int move = book.pick(position, random); //weighted like the book's author intended
+            if(move != Moves.NONE) {
+                return new SearchInfo(0, 0, 0, 0, new int[] {move});
+            }
+        }
+        SearchLimits limits = clock.limits(position.sideToMove());
+        if(maxDepth > 0 && (limits.getDepth() == 0 || limits.getDepth() > maxDepth)) {
+            limits = new SearchLimits(maxDepth, limits.getTimeMillis(), limits.getNodes());
+        }
+        return search.search(position, limits, null);
+    }
+
+}
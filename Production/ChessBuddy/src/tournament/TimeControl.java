@@ -0,0 +1,147 @@
+package tournament;
+
+import engine.SearchLimits;
+
+//"40/60+0.5" style controls in seconds, or a fixed "movetime=ms", "depth=n" or "nodes=n" per move
+public final class TimeControl {
+
+    private static final int DEFAULT_MOVES_TO_GO = 30; //expected moves left when the control has no session
+
+    private final int movesPerSession; //zero when the base time covers the whole game
+    private final long baseMillis;
+    private final long incrementMillis;
+    private final long moveTimeMillis;
+    private final int depth;
+    private final long nodes;
+
+    private TimeControl(int movesPerSession, long baseMillis, long incrementMillis, long moveTimeMillis, int depth,
+                        long nodes) {
+        this.movesPerSession = movesPerSession;
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        this.moveTimeMillis = moveTimeMillis;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    public static TimeControl parse(String str) {
+        try {
+            if(str.startsWith("movetime=")) {
+                return new TimeControl(0, 0, 0, Long.parseLong(str.substring(9)), 0, 0);
+            } else if(str.startsWith("depth=")) {
+                return new TimeControl(0, 0, 0, 0, Integer.parseInt(str.substring(6)), 0);
+            } else if(str.startsWith("nodes=")) {
+                return new TimeControl(0, 0, 0, 0, 0, Long.parseLong(str.substring(6)));
+            }
+            int moves = 0;
+            int slash = str.indexOf('/');
+            if(slash > 0) {
+                moves = Integer.parseInt(str.substring(0, slash));
+            }
+            int plus = str.indexOf('+');
+            long base = seconds(plus > 0 ? str.substring(slash + 1, plus) : str.substring(slash + 1));
+            long increment = plus > 0 ? seconds(str.substring(plus + 1)) : 0;
+            if(base <= 0 || moves < 0 || increment < 0) {
+                throw new IllegalArgumentException("Bad time control: " + str);
+            }
+            return new TimeControl(moves, base, increment, 0, 0, 0);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Bad time control: " + str);
+        }
+    }
+
+    private static long seconds(String str) {
+        return Math.round(Double.parseDouble(str) * 1000);
+    }
+
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean isTimed() {
+        return baseMillis > 0;
+    }
+
+    public Clock startClock() {
+        return new Clock();
+    }
+
+    @Override
+    public String toString() {
+        if(moveTimeMillis > 0) {
+            return "movetime=" + moveTimeMillis;
+        } else if(depth > 0) {
+            return "depth=" + depth;
+        } else if(nodes > 0) {
+            return "nodes=" + nodes;
+        }
+        return (movesPerSession > 0 ? movesPerSession + "/" : "") + baseMillis / 1000.0
+                + (incrementMillis > 0 ? "+" + incrementMillis / 1000.0 : "");
+    }
+
+    //both sides' time in one game
+    public final class Clock {
+
+        private final long[] remaining = {baseMillis, baseMillis}; //indexed by Position.WHITE and BLACK
+        private final int[] movesLeft = {movesPerSession, movesPerSession};
+        private long started;
+
+        public TimeControl getTimeControl() {
+            return TimeControl.this;
+        }
+
+        public long getRemaining(int side) {
+            return remaining[side];
+        }
+
+        public long getIncrement() {
+            return incrementMillis;
+        }
+
+        public int getMovesToGo(int side) {
+            return movesLeft[side];
+        }
+
+        //what our own search gets for this move
+        public SearchLimits limits(int side) {
+            if(!isTimed()) {
+                return new SearchLimits(depth, moveTimeMillis, nodes);
+            }
+            int movesToGo = movesPerSession > 0 ? movesLeft[side] : DEFAULT_MOVES_TO_GO;
+            long time = remaining[side] / movesToGo + incrementMillis * 3 / 4;
+            return SearchLimits.time(Math.max(1, Math.min(time, remaining[side] / 2)));
+        }
+
+        public void start() {
+            started = System.nanoTime();
+        }
+
+        //charges the time since start to the side, false when its flag fell
+        public boolean stop(int side) {
+            long elapsed = (System.nanoTime() - started) / 1_000_000;
+            if(!isTimed()) {
+                return true;
+            }
+            remaining[side] -= elapsed;
+            if(remaining[side] < 0) {
+                return false;
+            }
+            remaining[side] += incrementMillis;
+            if(movesPerSession > 0 && --movesLeft[side] == 0) {
+                remaining[side] += baseMillis;
+                movesLeft[side] = movesPerSession;
+            }
+            return true;
+        }
+
+    }
+
+}
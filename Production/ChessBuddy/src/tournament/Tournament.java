@@ -0,0 +1,384 @@
+package tournament;
+
+import engine.GameState;
+import engine.Moves;
+import engine.Nnue;
+import engine.PolyglotBook;
+import engine.Position;
+import engine.SearchInfo;
+import engine.Tablebase;
+import uci.UciEngine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+//plays a match between two players on a thread pool, each opening once with either color
+public final class Tournament {
+
+    private static final String[] STATUS_TEXT = {"", "checkmate", "stalemate", "fifty moves", "threefold repetition",
+            "insufficient material"}; //indexed by GameState status
+
+    private final MatchStats stats = new MatchStats();
+    private final List<MatchPlayer> created = new ArrayList<>(); //closed once the match is over
+    private final ThreadLocal<MatchPlayer[]> players;
+    private String firstName = "?";
+    private String secondName = "?";
+    private String event = "ChessBuddy Match";
+    private int games = 100;
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    private int ratingInterval = 100;
+    private TimeControl timeControl = TimeControl.parse("10+0.1");
+    private List<Opening> openings = Opening.standard();
+    private Adjudication adjudication = new Adjudication();
+    private Writer pgnOut;
+    private PrintStream out = System.out;
+    private boolean sprt = false;
+    private double elo0, elo1, alpha = 0.05, beta = 0.05;
+    private volatile boolean stopped = false;
+
+    public Tournament(Supplier<MatchPlayer> first, Supplier<MatchPlayer> second) {
+        players = ThreadLocal.withInitial(() -> {
+            MatchPlayer[] pair = {first.get(), second.get()};
+            synchronized(created) {
+                created.add(pair[0]);
+                created.add(pair[1]);
+                firstName = pair[0].getName();
+                secondName = pair[1].getName();
+            }
+            return pair;
+        });
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public void setGames(int games) {
+        this.games = games;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    public void setRatingInterval(int ratingInterval) {
+        this.ratingInterval = ratingInterval;
+    }
+
+    public void setTimeControl(TimeControl timeControl) {
+        this.timeControl = timeControl;
+    }
+
+    public void setOpenings(List<Opening> openings) {
+        this.openings = openings;
+    }
+
+    public void setAdjudication(Adjudication adjudication) {
+        this.adjudication = adjudication;
+    }
+
+    public void setPgnOut(Writer pgnOut) {
+        this.pgnOut = pgnOut;
+    }
+
+    public void setOut(PrintStream out) {
+        this.out = out;
+    }
+
+    //stops the match once the log likelihood ratio leaves the bounds
+    public void setSprt(double elo0, double elo1, double alpha, double beta) {
+        sprt = true;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    public MatchStats getStats() {
+        return stats;
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    public MatchStats run() throws InterruptedException, ExecutionException {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, (runnable) -> {
+            Thread thread = new Thread(runnable, "match-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for(int i = 0; i < games; i++) {
+                int number = i;
+                results.add(pool.submit(() -> {
+                    playGame(number);
+                    return null;
+                }));
+            }
+            for(Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            stopped = true;
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            synchronized(created) {
+                created.forEach(MatchPlayer::close);
+            }
+        }
+        out.println(stats.summary(firstName, secondName));
+        if(sprt) {
+            out.println(sprtText());
+        }
+        out.printf("%d games in %.1f s%n", stats.getGames(), (System.nanoTime() - start) / 1e9);
+        return stats;
+    }
+
+    private void playGame(int number) throws IOException {
+        if(stopped) {
+            return;
+        }
+        MatchPlayer[] pair = players.get();
+        boolean firstWhite = number % 2 == 0; //both colors of an opening are played back to back
+        Opening opening = openings.get((number / 2) % openings.size());
+        MatchPlayer white = pair[firstWhite ? 0 : 1];
+        MatchPlayer black = pair[firstWhite ? 1 : 0];
+        white.newGame();
+        black.newGame();
+        GameState game = GameState.fromFEN(opening.getFen());
+        game.setEvent(event, "ChessBuddy", Integer.toString(number + 1));
+        game.setPlayers(white.getName(), black.getName());
+        for(int move : opening.getMoves()) {
+            game.play(move);
+        }
+        TimeControl.Clock clock = timeControl.startClock();
+        Adjudication.Tracker tracker = adjudication.start();
+        String result = null;
+        String termination = "normal";
+        String reason = null;
+        while(result == null && !stopped) {
+            int status = game.getStatus(game.getMoveCount()-1);
+            if(status != GameState.IN_PROGRESS) {
+                result = game.getResult();
+                reason = STATUS_TEXT[status];
+                break;
+            }
+            int side = game.isLastTurnWhite() ? Position.WHITE : Position.BLACK;
+            String loss = side == Position.WHITE ? "0-1" : "1-0";
+            clock.start();
+            SearchInfo info = (side == Position.WHITE ? white : black).selectMove(game, clock);
+            if(!clock.stop(side)) {
+                result = loss;
+                termination = reason = "time forfeit";
+            } else if(info.getBestMove() == Moves.NONE || !game.isLegal(info.getBestMove())) {
+                result = loss;
+                termination = "rules infraction";
+                reason = "illegal move " + Moves.toUci(info.getBestMove());
+            } else {
+                game.play(info.getBestMove());
+                if(timeControl.isTimed()) {
+                    game.getMoves().get(game.getMoveCount()-1).setClockMillis(clock.getRemaining(side)); //[%clk] in the PGN
+                }
+                result = tracker.update(game, side, info);
+                if(result != null) {
+                    termination = "adjudication";
+                    reason = tracker.getReason();
+                }
+            }
+        }
+        if(result == null) {
+            return; //stopped, the game does not count
+        }
+        double score = result.equals("1/2-1/2") ? 0.5 : result.equals("1-0") == firstWhite ? 1 : 0;
+        stats.add(score);
+        writePgn(game, result, termination);
+        int played = stats.getGames();
+        synchronized(this) {
+            out.printf("Finished game %d (%s vs %s): %s {%s}%n", number + 1, white.getName(), black.getName(),
+                    result, reason);
+            if(ratingInterval > 0 && played % ratingInterval == 0) {
+                out.println(stats.summary(firstName, secondName));
+            }
+        }
+        if(sprt) {
+            double llr = stats.getLlr(elo0, elo1);
+            if(llr <= MatchStats.lowerBound(alpha, beta) || llr >= MatchStats.upperBound(alpha, beta)) {
+                stopped = true;
+            }
+        }
+    }
+
+    private void writePgn(GameState game, String result, String termination) throws IOException {
+        if(pgnOut == null) {
+            return;
+        }
+        String tags = "[Result \"" + result + "\"]\n[TimeControl \"" + timeControl + "\"]\n[Termination \""
+                + termination + "\"]";
+        String pgn = game.getGamePGN(tags) + " " + result + "\n\n";
+        synchronized(pgnOut) {
+            pgnOut.write(pgn);
+            pgnOut.flush();
+        }
+    }
+
+    private String sprtText() {
+        double llr = stats.getLlr(elo0, elo1);
+        double lower = MatchStats.lowerBound(alpha, beta);
+        double upper = MatchStats.upperBound(alpha, beta);
+        String verdict = llr >= upper ? "H1 was accepted" : llr <= lower ? "H0 was accepted" : "no decision";
+        return String.format("SPRT: llr %.2f, lbound %.2f, ubound %.2f (elo0 %.1f, elo1 %.1f) - %s",
+                llr, lower, upper, elo0, elo1, verdict);
+    }
+
+    //java -cp <classes> tournament.Tournament -engine name=A hash=16 -engine name=B -games 1000 -tc 10+0.1 ...
+    public static void main(String[] args) throws Exception {
+        List<Map<String, String>> engines = new ArrayList<>();
+        Map<String, List<String>> options = new HashMap<>();
+        for(int i = 0; i < args.length; i++) {
+            String flag = args[i];
+            if(!flag.startsWith("-")) {
+                throw new IllegalArgumentException("Unexpected argument " + flag);
+            }
+            List<String> values = new ArrayList<>();
+            while(i + 1 < args.length && !args[i + 1].startsWith("-")) {
+                values.add(args[++i]);
+            }
+            if(flag.equals("-engine")) {
+                engines.add(keyValues(values));
+            } else {
+                options.put(flag.substring(1), values);
+            }
+        }
+        if(engines.size() != 2) {
+            System.err.println("Usage: tournament.Tournament -engine name=A [hash=MB] [depth=n] [cmd=path option.Name=value]"
+                    + " -engine name=B [hash=MB] [depth=n] [cmd=path option.Name=value]"
+                    + " [-games n] [-concurrency n] [-tc 40/60+0.5|movetime=ms|depth=n|nodes=n]"
+                    + " [-openings file.pgn|file.epd] [-plies n] [-pgnout file]"
+                    + " [-draw movenumber=n movecount=n score=cp] [-resign movecount=n score=cp] [-maxmoves n]"
+                    + " [-sprt elo0=x elo1=y alpha=a beta=b] [-ratinginterval n]");
+            System.exit(2);
+        }
+        Tournament tournament = new Tournament(playerFactory(engines.get(0), "Engine1"),
+                playerFactory(engines.get(1), "Engine2"));
+        tournament.setGames(intOption(options, "games", 100));
+        tournament.setConcurrency(intOption(options, "concurrency", Runtime.getRuntime().availableProcessors()));
+        tournament.setRatingInterval(intOption(options, "ratinginterval", 100));
+        if(options.containsKey("tc")) {
+            tournament.setTimeControl(TimeControl.parse(options.get("tc").get(0)));
+        }
+        if(options.containsKey("openings")) {
+            tournament.setOpenings(Opening.load(Paths.get(options.get("openings").get(0)),
+                    intOption(options, "plies", 8)));
+        }
+        Adjudication adjudication = new Adjudication();
+        if(options.containsKey("draw")) {
+            Map<String, String> draw = keyValues(options.get("draw"));
+            adjudication.setDraw(intValue(draw, "movenumber", 40), intValue(draw, "movecount", 8),
+                    intValue(draw, "score", 10));
+        }
+        if(options.containsKey("resign")) {
+            Map<String, String> resign = keyValues(options.get("resign"));
+            adjudication.setResign(intValue(resign, "movecount", 3), intValue(resign, "score", 600));
+        }
+        adjudication.setMaxMoves(intOption(options, "maxmoves", 0));
+        tournament.setAdjudication(adjudication);
+        if(options.containsKey("sprt")) {
+            Map<String, String> sprt = keyValues(options.get("sprt"));
+            tournament.setSprt(doubleValue(sprt, "elo0", 0), doubleValue(sprt, "elo1", 5),
+                    doubleValue(sprt, "alpha", 0.05), doubleValue(sprt, "beta", 0.05));
+        }
+        BufferedWriter pgn = null;
+        if(options.containsKey("pgnout")) {
+            pgn = Files.newBufferedWriter(Paths.get(options.get("pgnout").get(0)), StandardCharsets.UTF_8);
+            tournament.setPgnOut(pgn);
+        }
+        try {
+            tournament.run();
+        } finally {
+            if(pgn != null) {
+                pgn.close();
+            }
+        }
+    }
+
+    //cmd= runs an external UCI engine with option.<name>= settings, otherwise the built-in search plays, from book= first, with syzygy= tables and an nnue= network
+    private static Supplier<MatchPlayer> playerFactory(Map<String, String> engine, String fallbackName)
+            throws IOException {
+        if(engine.containsKey("cmd")) {
+            List<String> command = UciEngine.parseCommand(engine.get("cmd"));
+            String name = engine.get("name"); //the engine's own name when not given
+            Map<String, String> uciOptions = new LinkedHashMap<>();
+            engine.forEach((key, value) -> {
+                if(key.startsWith("option.")) {
+                    uciOptions.put(key.substring(7), value);
+                }
+            });
+            if(engine.containsKey("hash")) {
+                uciOptions.put("Hash", engine.get("hash"));
+            }
+            return () -> {
+                try {
+                    return new UciPlayer(name, command, uciOptions);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            };
+        }
+        String name = engine.getOrDefault("name", fallbackName);
+        int hash = intValue(engine, "hash", 16);
+        int depth = intValue(engine, "depth", 0);
+        //mapped once and read by every worker
+        PolyglotBook book = engine.containsKey("book") ? new PolyglotBook(Paths.get(engine.get("book"))) : null;
+        Tablebase tablebase = engine.containsKey("syzygy") ? new Tablebase(engine.get("syzygy")) : null;
+        Nnue network = engine.containsKey("nnue") ? new Nnue(Paths.get(engine.get("nnue"))) : null;
+        return () -> new SearchPlayer(name, hash, depth, book, tablebase, network);
+    }
+
+    private static Map<String, String> keyValues(List<String> values) {
+        Map<String, String> map = new HashMap<>();
+        for(String value : values) {
+            int eq = value.indexOf('=');
+            if(eq < 1) {
+                throw new IllegalArgumentException("Expected key=value but got " + value);
+            }
+            map.put(value.substring(0, eq), value.substring(eq + 1));
+        }
+        return map;
+    }
+
+    private static int intOption(Map<String, List<String>> options, String key, int fallback) {
+        List<String> values = options.get(key);
+        return values == null || values.isEmpty() ? fallback : Integer.parseInt(values.get(0));
+    }
+
+    private static int intValue(Map<String, String> map, String key, int fallback) {
+        return map.containsKey(key) ? Integer.parseInt(map.get(key)) : fallback;
+    }
+
+    private static double doubleValue(Map<String, String> map, String key, double fallback) {
+        return map.containsKey(key) ? Double.parseDouble(map.get(key)) : fallback;
+    }
+
+}
@@ -0,0 +1,121 @@
+package tournament;
+
+import engine.GameState;
+import engine.Moves;
+import engine.Position;
+import engine.Search;
+import engine.SearchInfo;
+import uci.UciEngine;
+import uci.UciInfo;
+import uci.UciListener;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+//an external engine process, one per worker thread like the built-in player
+public final class UciPlayer implements MatchPlayer, UciListener {
+
+    private final UciEngine engine;
+    private final String name;
+    private final UciInfo last = new UciInfo(); //main line of the running search, written on the reader thread
+    private boolean hasInfo;
+    private String bestMove;
+    private boolean exited;
+
+    public UciPlayer(String name, List<String> command, Map<String, String> options) throws IOException {
+        engine = new UciEngine(command);
+        this.name = name != null ? name : engine.getName();
+        for(Map.Entry<String, String> option : options.entrySet()) {
+            engine.setOption(option.getKey(), option.getValue());
+        }
+        engine.setListener(this);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void newGame() {
+        engine.newGame();
+        engine.waitReady();
+    }
+
+    @Override
+    public SearchInfo selectMove(GameState game, TimeControl.Clock clock) {
+        int side = game.isLastTurnWhite() ? Position.WHITE : Position.BLACK;
+        synchronized(this) {
+            hasInfo = false;
+            bestMove = null;
+        }
+        engine.position(game.getUciPosition(game.getMoveCount()-1));
+        engine.go(goLimits(clock, side));
+        synchronized(this) {
+            try {
+                while(bestMove == null && !exited) {
+                    wait();
+                }
+            } catch (InterruptedException ex) {
+                engine.stop();
+                Thread.currentThread().interrupt();
+            }
+            int best = bestMove == null ? Moves.NONE : Moves.fromUci(game.getPosition(), bestMove);
+            int[] pv = best == Moves.NONE ? new int[0] : new int[] {best};
+            if(!hasInfo) {
+                return new SearchInfo(0, 0, 0, 0, pv);
+            }
+            return new SearchInfo(last.getDepth(), score(last), last.getNodes(), last.getTimeMillis(), pv);
+        }
+    }
+
+    @Override
+    public synchronized void onInfo(UciInfo info) {
+        if(info.getMultiPv() == 1 && info.hasScore()) {
+            last.set(info);
+            hasInfo = true;
+        }
+    }
+
+    @Override
+    public synchronized void onBestMove(String move, String ponder) {
+        bestMove = move;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onExit() {
+        exited = true;
+        notifyAll();
+    }
+
+    @Override
+    public void close() {
+        engine.close();
+    }
+
+    private static String goLimits(TimeControl.Clock clock, int side) {
+        TimeControl control = clock.getTimeControl();
+        if(control.getMoveTimeMillis() > 0) {
+            return "movetime " + control.getMoveTimeMillis();
+        } else if(control.getDepth() > 0) {
+            return "depth " + control.getDepth();
+        } else if(control.getNodes() > 0) {
+            return "nodes " + control.getNodes();
+        }
+        String limits = "wtime " + clock.getRemaining(Position.WHITE) + " btime " + clock.getRemaining(Position.BLACK)
+                + " winc " + clock.getIncrement() + " binc " + clock.getIncrement();
+        return clock.getMovesToGo(side) > 0 ? limits + " movestogo " + clock.getMovesToGo(side) : limits;
+    }
+
+    //UCI counts mates in moves, the search in plies from the root
+    private static int score(UciInfo info) {
+        if(!info.isMate()) {
+            return info.getScore();
+        }
+        int moves = info.getScore();
+        return moves > 0 ? Search.MATE - (2 * moves - 1) : -Search.MATE + 2 * -moves;
+    }
+
+}
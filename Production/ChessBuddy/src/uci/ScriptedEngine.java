@@ -0,0 +1,247 @@
+package uci;
+
+import engine.Fen;
+import engine.MoveGenerator;
+import engine.Moves;
+import engine.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+//a stand-in UCI engine that plays random legal lines while flooding info output at a set rate
+//java -cp <classes> uci.ScriptedEngine [-rate lines/s] [-movetime ms] [-name text] [-seed n]
+public final class ScriptedEngine {
+
+    private static final int PV_LENGTH = 12;
+    private static final int BATCH = 50; //info lines written per flush
+
+    private final PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false,
+            StandardCharsets.US_ASCII);
+    private final Random random;
+    private final String name;
+    private final int rate;
+    private final long defaultMoveTime;
+    private Position position = Fen.parse(Fen.INITIAL);
+    private Thread search;
+    private volatile boolean stopped;
+
+    private ScriptedEngine(String name, int rate, long defaultMoveTime, long seed) {
+        this.name = name;
+        this.rate = rate;
+        this.defaultMoveTime = defaultMoveTime;
+        random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String name = "ScriptedEngine";
+        int rate = 5000;
+        long moveTime = 100;
+        long seed = System.nanoTime();
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            if(args[i].equals("-rate")) {
+                rate = Integer.parseInt(args[i + 1]);
+            } else if(args[i].equals("-movetime")) {
+                moveTime = Long.parseLong(args[i + 1]);
+            } else if(args[i].equals("-name")) {
+                name = args[i + 1];
+            } else if(args[i].equals("-seed")) {
+                seed = Long.parseLong(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        new ScriptedEngine(name, rate, moveTime, seed).run();
+    }
+
+    private void run() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+        String line;
+        while((line = in.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            String command = tokens[0];
+            if(command.equals("uci")) {
+                print("id name " + name + "\nid author ChessBuddy\n"
+                        + "option name Hash type spin default 16 min 1 max 1024\n"
+                        + "option name Skill Level type spin default 20 min 0 max 20\nuciok");
+            } else if(command.equals("isready")) {
+                print("readyok");
+            } else if(command.equals("ucinewgame")) {
+                position = Fen.parse(Fen.INITIAL);
+            } else if(command.equals("position")) {
+                setPosition(tokens);
+            } else if(command.equals("go")) {
+                go(tokens);
+            } else if(command.equals("stop")) {
+                finishSearch();
+            } else if(command.equals("quit")) {
+                break;
+            } //setoption and anything unknown are accepted silently
+        }
+        finishSearch();
+    }
+
+    private void setPosition(String[] tokens) {
+        finishSearch();
+        int i = 1;
+        Position next;
+        if(tokens.length > 1 && tokens[1].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            for(i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                fen.append(fen.length() > 0 ? " " : "").append(tokens[i]);
+            }
+            next = Fen.parse(fen.toString());
+        } else {
+            next = Fen.parse(Fen.INITIAL);
+            i = 2;
+        }
+        for(i++; i < tokens.length; i++) {
+            int move = Moves.fromUci(next, tokens[i]);
+            if(move == Moves.NONE) {
+                print("info string illegal move " + tokens[i]);
+                break;
+            }
+            next.makeMove(move);
+        }
+        position = next;
+    }
+
+    private void go(String[] tokens) {
+        finishSearch();
+        long moveTime = defaultMoveTime;
+        boolean infinite = false;
+        boolean white = position.isWhiteToMove();
+        for(int i = 1; i < tokens.length; i++) {
+            String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+            switch(tokens[i]) {
+                case "infinite":
+                    infinite = true;
+                    break;
+                case "movetime":
+                    moveTime = Long.parseLong(value);
+                    break;
+                case "wtime":
+                    moveTime = white ? Long.parseLong(value) / 30 : moveTime;
+                    break;
+                case "btime":
+                    moveTime = white ? moveTime : Long.parseLong(value) / 30;
+                    break;
+                case "depth":
+                    moveTime = Long.parseLong(value) * 10;
+                    break;
+                case "nodes":
+                    moveTime = Math.max(1, Long.parseLong(value) / 10_000);
+                    break;
+                default:
+                    break;
+            }
+        }
+        Position root = position.copy();
+        long limit = infinite ? Long.MAX_VALUE : Math.max(1, moveTime);
+        stopped = false;
+        search = new Thread(() -> search(root, limit), "scripted-search");
+        search.start();
+    }
+
+    private void search(Position root, long limitMillis) {
+        long start = System.nanoTime();
+        long nanosPerLine = 1_000_000_000L / Math.max(1, rate);
+        int[] line = randomLine(root);
+        int score = random.nextInt(101) - 50;
+        long nodes = 0;
+        int depth = 1;
+        long lines = 0;
+        StringBuilder str = new StringBuilder(256);
+        while(!stopped && line.length > 0) {
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            if(elapsed >= limitMillis) {
+                break;
+            }
+            for(int i = 0; i < BATCH; i++) {
+                lines++;
+                nodes += 1000 + random.nextInt(1000);
+                if(lines % 100 == 0) {
+                    depth++;
+                    line = randomLine(root);
+                }
+                score += random.nextInt(11) - 5;
+                str.setLength(0);
+                if(lines % 7 == 0) {
+                    str.append("info depth ").append(depth).append(" currmove ").append(Moves.toUci(line[0]))
+                            .append(" currmovenumber 1");
+                } else {
+                    str.append("info depth ").append(depth).append(" seldepth ").append(depth + 4)
+                            .append(" multipv 1 score cp ").append(score);
+                    if(lines % 11 == 0) {
+                        str.append(random.nextBoolean() ? " lowerbound" : " upperbound");
+                    }
+                    str.append(" nodes ").append(nodes).append(" nps ").append(nodes * 1000 / Math.max(1, elapsed))
+                            .append(" hashfull ").append(Math.min(1000, lines / 10)).append(" time ").append(elapsed)
+                            .append(" pv");
+                    for(int move : line) {
+                        str.append(' ').append(Moves.toUci(move));
+                    }
+                }
+                out.println(str);
+            }
+            out.flush();
+            long target = start + lines * nanosPerLine;
+            long wait = target - System.nanoTime();
+            if(wait > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException ex) {
+                    break;
+                }
+            }
+        }
+        synchronized(out) {
+            out.println(line.length > 0 ? "bestmove " + Moves.toUci(line[0])
+                    + (line.length > 1 ? " ponder " + Moves.toUci(line[1]) : "") : "bestmove 0000");
+            out.flush();
+        }
+    }
+
+    private int[] randomLine(Position root) {
+        Position walk = root.copy();
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int[] line = new int[PV_LENGTH];
+        int length = 0;
+        while(length < PV_LENGTH) {
+            int count = MoveGenerator.generateLegal(walk, legal);
+            if(count == 0) {
+                break;
+            }
+            line[length] = legal[random.nextInt(count)];
+            walk.makeMove(line[length++]);
+        }
+        int[] result = new int[length];
+        System.arraycopy(line, 0, result, 0, length);
+        return result;
+    }
+
+    private void finishSearch() {
+        Thread running = search;
+        if(running != null) {
+            stopped = true;
+            try {
+                running.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            search = null;
+        }
+    }
+
+    private void print(String text) {
+        synchronized(out) {
+            out.println(text);
+            out.flush();
+        }
+    }
+
+}
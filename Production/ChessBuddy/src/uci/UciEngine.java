@@ -0,0 +1,434 @@
+package uci;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//an engine process spoken to over UCI, commands are queued for a writer thread and output is parsed on a reader thread
+public final class UciEngine implements Closeable {
+
+    public static final long HANDSHAKE_MILLIS = 5000; //time for uciok and readyok
+    private static final long QUIT_MILLIS = 1000; //time to exit after quit before the process is killed
+    private static final String CLOSED = new String(); //ends the writer, compared by identity
+
+    private static final byte[] INFO = bytes("info");
+    private static final byte[] BESTMOVE = bytes("bestmove");
+    private static final byte[] PONDER = bytes("ponder");
+    private static final byte[] UCIOK = bytes("uciok");
+    private static final byte[] READYOK = bytes("readyok");
+    private static final byte[] ID = bytes("id");
+    private static final byte[] NAME = bytes("name");
+    private static final byte[] OPTION = bytes("option");
+    private static final byte[] TYPE = bytes("type");
+    private static final byte[] DEPTH = bytes("depth");
+    private static final byte[] SELDEPTH = bytes("seldepth");
+    private static final byte[] MULTIPV = bytes("multipv");
+    private static final byte[] SCORE = bytes("score");
+    private static final byte[] CP = bytes("cp");
+    private static final byte[] MATE = bytes("mate");
+    private static final byte[] LOWERBOUND = bytes("lowerbound");
+    private static final byte[] UPPERBOUND = bytes("upperbound");
+    private static final byte[] NODES = bytes("nodes");
+    private static final byte[] NPS = bytes("nps");
+    private static final byte[] TIME = bytes("time");
+    private static final byte[] HASHFULL = bytes("hashfull");
+    private static final byte[] PV = bytes("pv");
+    private static final byte[] STRING = bytes("string");
+
+    private final Process process;
+    private final OutputStream in; //the engine's stdin
+    private final BlockingQueue<String> commands = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final Thread reader;
+    private final UciInfo info = new UciInfo(); //reused for every info line
+    private final List<String> options = new ArrayList<>();
+    private final AtomicInteger searchesStarted = new AtomicInteger();
+    private volatile int searchesFinished; //bestmoves seen, output of older searches is dropped
+    private volatile UciListener listener;
+    private volatile String name;
+    private volatile long infoLines; //info lines parsed, stale ones included
+    private final Object signals = new Object(); //uciok and readyok arrive here
+    private boolean uciOk;
+    private int readyOks;
+    private boolean exited;
+
+    //reader state, only touched on the reader thread
+    private byte[] line = new byte[1024];
+    private int length;
+    private int position;
+    private int tokenStart;
+    private int tokenEnd;
+
+    public UciEngine(List<String> command) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectError(ProcessBuilder.Redirect.DISCARD); //an unread stderr pipe could stall the engine
+        process = builder.start();
+        in = process.getOutputStream();
+        String title = command.isEmpty() ? "uci" : command.get(0);
+        writer = new Thread(this::writeLoop, "uci-writer " + title);
+        writer.setDaemon(true);
+        reader = new Thread(this::readLoop, "uci-reader " + title);
+        reader.setDaemon(true);
+        writer.start();
+        reader.start();
+        send("uci");
+        synchronized(signals) {
+            long deadline = System.currentTimeMillis() + HANDSHAKE_MILLIS;
+            try {
+                while(!uciOk && !exited && System.currentTimeMillis() < deadline) {
+                    signals.wait(Math.max(1, deadline - System.currentTimeMillis()));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if(!uciOk) {
+                close();
+                throw new IOException(title + " did not answer uci");
+            }
+        }
+    }
+
+    public UciEngine(String... command) throws IOException {
+        this(Arrays.asList(command));
+    }
+
+    //a path to the binary, or a command line split on spaces when no file has that whole name
+    public static List<String> parseCommand(String command) {
+        String trimmed = command.trim();
+        if(trimmed.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            if(Files.isRegularFile(Paths.get(trimmed))) {
+                return Collections.singletonList(trimmed);
+            }
+        } catch (InvalidPathException ex) {
+            //not a single path, split it below
+        }
+        return Arrays.asList(trimmed.split("\\s+"));
+    }
+
+    public String getName() {
+        return name != null ? name : "UCI engine";
+    }
+
+    public List<String> getOptions() {
+        synchronized(options) {
+            return Collections.unmodifiableList(new ArrayList<>(options));
+        }
+    }
+
+    public boolean hasOption(String option) {
+        synchronized(options) {
+            return options.stream().anyMatch(option::equalsIgnoreCase);
+        }
+    }
+
+    public void setListener(UciListener listener) {
+        this.listener = listener;
+    }
+
+    public long getInfoLines() {
+        return infoLines;
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public boolean isSearching() {
+        return searchesFinished < searchesStarted.get();
+    }
+
+    public void setOption(String option, String value) {
+        send("setoption name " + option + (value == null ? "" : " value " + value));
+    }
+
+    public void newGame() {
+        send("ucinewgame");
+    }
+
+    //waits until the engine has worked through every command sent so far
+    public boolean waitReady() {
+        synchronized(signals) {
+            int expected = readyOks + 1;
+            send("isready");
+            long deadline = System.currentTimeMillis() + HANDSHAKE_MILLIS;
+            try {
+                while(readyOks < expected && !exited && System.currentTimeMillis() < deadline) {
+                    signals.wait(Math.max(1, deadline - System.currentTimeMillis()));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return readyOks >= expected;
+        }
+    }
+
+    //"position fen <fen> moves ..." or "position startpos", as built by GameState.getUciPosition
+    public void position(String position) {
+        send(position);
+    }
+
+    //"infinite", "movetime 1000", "wtime 60000 btime 60000 winc 1000 binc 1000" ...
+    public void go(String limits) {
+        searchesStarted.incrementAndGet();
+        send("go " + limits);
+    }
+
+    //the engine still answers with a bestmove
+    public void stop() {
+        if(isSearching()) {
+            send("stop");
+        }
+    }
+
+    public void send(String command) {
+        commands.add(command);
+    }
+
+    @Override
+    public void close() {
+        if(process.isAlive()) {
+            stop();
+            send("quit");
+        }
+        commands.add(CLOSED);
+        try {
+            if(!process.waitFor(QUIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                process.destroy();
+                if(!process.waitFor(QUIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        } catch (InterruptedException ex) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            String command;
+            while((command = commands.take()) != CLOSED) {
+                in.write(command.getBytes(StandardCharsets.US_ASCII));
+                in.write('\n');
+                if(commands.isEmpty()) {
+                    in.flush(); //commands queued together go out in one write
+                }
+            }
+            in.close();
+        } catch (IOException | InterruptedException ex) {
+            commands.clear(); //the engine is gone
+        }
+    }
+
+    private void readLoop() {
+        byte[] buffer = new byte[8192];
+        try (InputStream out = process.getInputStream()) {
+            int read;
+            while((read = out.read(buffer)) > 0) {
+                for(int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if(b == '\n') {
+                        handleLine();
+                        length = 0;
+                    } else if(b != '\r') {
+                        if(length == line.length) {
+                            line = Arrays.copyOf(line, length * 2);
+                        }
+                        line[length++] = b;
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            //the process is gone, same as the end of its output
+        } finally {
+            synchronized(signals) {
+                exited = true;
+                signals.notifyAll();
+            }
+            searchesFinished = searchesStarted.get();
+            UciListener current = listener;
+            if(current != null) {
+                current.onExit();
+            }
+        }
+    }
+
+    private void handleLine() {
+        position = 0;
+        if(!nextToken()) {
+            return;
+        }
+        if(is(INFO)) {
+            infoLines++;
+            if(parseInfo() && searchesFinished == searchesStarted.get() - 1) {
+                UciListener current = listener;
+                if(current != null) {
+                    current.onInfo(info);
+                }
+            }
+        } else if(is(BESTMOVE)) {
+            boolean current = searchesFinished == searchesStarted.get() - 1;
+            searchesFinished++;
+            String move = nextToken() ? token() : null;
+            String ponder = nextToken() && is(PONDER) && nextToken() ? token() : null;
+            UciListener target = listener;
+            if(current && target != null && move != null) {
+                target.onBestMove(move, ponder);
+            }
+        } else if(is(UCIOK) || is(READYOK)) {
+            synchronized(signals) {
+                if(is(UCIOK)) {
+                    uciOk = true;
+                } else {
+                    readyOks++;
+                }
+                signals.notifyAll();
+            }
+        } else if(is(ID)) {
+            if(nextToken() && is(NAME)) {
+                name = rest();
+            }
+        } else if(is(OPTION)) {
+            if(nextToken() && is(NAME)) {
+                int start = position;
+                int end = length;
+                while(nextToken()) { //names may contain spaces, they run until "type"
+                    if(is(TYPE)) {
+                        end = tokenStart;
+                        break;
+                    }
+                }
+                synchronized(options) {
+                    options.add(new String(line, start, end - start, StandardCharsets.US_ASCII).trim());
+                }
+            }
+        }
+    }
+
+    //fills the reused info, false for lines without a score or pv like "info currmove" or "info string"
+    private boolean parseInfo() {
+        info.reset();
+        while(nextToken()) {
+            if(is(DEPTH)) {
+                info.setDepth((int) nextNumber());
+            } else if(is(SELDEPTH)) {
+                info.setSelDepth((int) nextNumber());
+            } else if(is(MULTIPV)) {
+                info.setMultiPv((int) nextNumber());
+            } else if(is(SCORE)) {
+                if(nextToken() && (is(CP) || is(MATE))) {
+                    boolean mate = is(MATE);
+                    info.setScore((int) nextNumber(), mate);
+                }
+            } else if(is(LOWERBOUND)) {
+                info.setBound(UciInfo.LOWER_BOUND);
+            } else if(is(UPPERBOUND)) {
+                info.setBound(UciInfo.UPPER_BOUND);
+            } else if(is(NODES)) {
+                info.setNodes(nextNumber());
+            } else if(is(NPS)) {
+                info.setNodesPerSecond(nextNumber());
+            } else if(is(TIME)) {
+                info.setTimeMillis(nextNumber());
+            } else if(is(HASHFULL)) {
+                info.setHashFull((int) nextNumber());
+            } else if(is(PV)) {
+                while(nextToken()) {
+                    if(!isMoveToken()) {
+                        position = tokenStart; //pv is usually last, but not required to be
+                        break;
+                    }
+                    info.addPvMove(line, tokenStart, tokenEnd);
+                }
+            } else if(is(STRING)) {
+                return false;
+            }
+        }
+        return info.hasScore() || info.hasPv();
+    }
+
+    private boolean nextToken() {
+        while(position < length && (line[position] == ' ' || line[position] == '\t')) {
+            position++;
+        }
+        if(position >= length) {
+            return false;
+        }
+        tokenStart = position;
+        while(position < length && line[position] != ' ' && line[position] != '\t') {
+            position++;
+        }
+        tokenEnd = position;
+        return true;
+    }
+
+    private boolean is(byte[] word) {
+        if(tokenEnd - tokenStart != word.length) {
+            return false;
+        }
+        for(int i = 0; i < word.length; i++) {
+            if(line[tokenStart + i] != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long nextNumber() {
+        if(!nextToken()) {
+            return 0;
+        }
+        long value = 0;
+        boolean negative = line[tokenStart] == '-';
+        for(int i = negative ? tokenStart + 1 : tokenStart; i < tokenEnd; i++) {
+            int digit = line[i] - '0';
+            if(digit < 0 || digit > 9) {
+                position = tokenStart; //not a number, leave it for the caller
+                return 0;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private boolean isMoveToken() {
+        int size = tokenEnd - tokenStart;
+        if(size != 4 && size != 5) {
+            return false;
+        }
+        byte[] l = line;
+        int s = tokenStart;
+        return l[s] >= 'a' && l[s] <= 'h' && l[s + 1] >= '1' && l[s + 1] <= '8'
+                && l[s + 2] >= 'a' && l[s + 2] <= 'h' && l[s + 3] >= '1' && l[s + 3] <= '8'
+                && (size == 4 || l[s + 4] == 'q' || l[s + 4] == 'r' || l[s + 4] == 'b' || l[s + 4] == 'n');
+    }
+
+    private String token() {
+        return new String(line, tokenStart, tokenEnd - tokenStart, StandardCharsets.US_ASCII);
+    }
+
+    private String rest() {
+        return new String(line, position, length - position, StandardCharsets.UTF_8).trim();
+    }
+
+    private static byte[] bytes(String word) {
+        return word.getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
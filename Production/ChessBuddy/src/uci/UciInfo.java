@@ -0,0 +1,199 @@
+package uci;
+
+//one parsed "info" line, the reader reuses a single instance so nothing is allocated per line
+public final class UciInfo {
+
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+
+    private int depth;
+    private int selDepth;
+    private int multiPv;
+    private int score; //centipawns, or moves to mate when mate is set, from the side to move
+    private boolean mate;
+    private boolean hasScore;
+    private int bound;
+    private long nodes;
+    private long nodesPerSecond;
+    private long timeMillis;
+    private int hashFull; //per mille
+    private char[] pv = new char[256]; //uci moves separated by spaces
+    private int pvLength;
+    private int pvMoves;
+
+    void reset() {
+        depth = selDepth = score = bound = hashFull = pvLength = pvMoves = 0;
+        multiPv = 1;
+        mate = hasScore = false;
+        nodes = nodesPerSecond = timeMillis = 0;
+    }
+
+    //copies without allocating, for a holder that keeps the last line around
+    public void set(UciInfo other) {
+        depth = other.depth;
+        selDepth = other.selDepth;
+        multiPv = other.multiPv;
+        score = other.score;
+        mate = other.mate;
+        hasScore = other.hasScore;
+        bound = other.bound;
+        nodes = other.nodes;
+        nodesPerSecond = other.nodesPerSecond;
+        timeMillis = other.timeMillis;
+        hashFull = other.hashFull;
+        if(pv.length < other.pvLength) {
+            pv = new char[other.pv.length];
+        }
+        System.arraycopy(other.pv, 0, pv, 0, other.pvLength);
+        pvLength = other.pvLength;
+        pvMoves = other.pvMoves;
+    }
+
+    public UciInfo copy() {
+        UciInfo info = new UciInfo();
+        info.set(this);
+        return info;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public int getSelDepth() {
+        return selDepth;
+    }
+
+    void setSelDepth(int selDepth) {
+        this.selDepth = selDepth;
+    }
+
+    public int getMultiPv() {
+        return multiPv;
+    }
+
+    void setMultiPv(int multiPv) {
+        this.multiPv = multiPv;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isMate() {
+        return mate;
+    }
+
+    public boolean hasScore() {
+        return hasScore;
+    }
+
+    void setScore(int score, boolean mate) {
+        this.score = score;
+        this.mate = mate;
+        hasScore = true;
+    }
+
+    public int getBound() {
+        return bound;
+    }
+
+    void setBound(int bound) {
+        this.bound = bound;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    void setNodes(long nodes) {
+        this.nodes = nodes;
+    }
+
+    public long getNodesPerSecond() {
+        return nodesPerSecond > 0 ? nodesPerSecond : nodes * 1000 / Math.max(1, timeMillis);
+    }
+
+    void setNodesPerSecond(long nodesPerSecond) {
+        this.nodesPerSecond = nodesPerSecond;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    void setTimeMillis(long timeMillis) {
+        this.timeMillis = timeMillis;
+    }
+
+    public int getHashFull() {
+        return hashFull;
+    }
+
+    void setHashFull(int hashFull) {
+        this.hashFull = hashFull;
+    }
+
+    public boolean hasPv() {
+        return pvMoves > 0;
+    }
+
+    public int getPvMoves() {
+        return pvMoves;
+    }
+
+    void addPvMove(byte[] line, int start, int end) {
+        int needed = pvLength + (end - start) + 1;
+        if(needed > pv.length) {
+            char[] grown = new char[Math.max(needed, pv.length * 2)];
+            System.arraycopy(pv, 0, grown, 0, pvLength);
+            pv = grown;
+        }
+        if(pvLength > 0) {
+            pv[pvLength++] = ' ';
+        }
+        for(int i = start; i < end; i++) {
+            pv[pvLength++] = (char) line[i];
+        }
+        pvMoves++;
+    }
+
+    public String getPvText() {
+        return new String(pv, 0, pvLength);
+    }
+
+    public String getFirstMove() {
+        int end = 0;
+        while(end < pvLength && pv[end] != ' ') {
+            end++;
+        }
+        return new String(pv, 0, end);
+    }
+
+    //score from white's point of view, "+1.25", "#-3", with a bound sign while the window is failing
+    public String getScoreText(boolean whiteToMove) {
+        if(!hasScore) {
+            return "";
+        }
+        int white = whiteToMove ? score : -score;
+        String text = mate ? "#" + white : String.format("%+.2f", white / 100.0);
+        if(bound == LOWER_BOUND) {
+            return text + (whiteToMove ? "+" : "-");
+        } else if(bound == UPPER_BOUND) {
+            return text + (whiteToMove ? "-" : "+");
+        }
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " seldepth " + selDepth + " multipv " + multiPv + " score "
+                + (mate ? "mate " : "cp ") + score + " nodes " + nodes + " nps " + getNodesPerSecond()
+                + " time " + timeMillis + " pv " + getPvText();
+    }
+
+}
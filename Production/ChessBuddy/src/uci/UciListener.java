@@ -0,0 +1,16 @@
+package uci;
+
+//called on the engine's reader thread, never on the FX thread
+public interface UciListener {
+
+    //the info is reused for the next line, copy it to keep it
+    void onInfo(UciInfo info);
+
+    //ponder is null when the engine sent none
+    void onBestMove(String move, String ponder);
+
+    //the process exited or its output closed
+    default void onExit() {
+    }
+
+}